@@ -1,14 +1,23 @@
 package org.sncf.gui;
 
+import org.sncf.gui.serial.SerialTransmitter;
+import org.sncf.gui.services.CaptureFilterService;
 import org.sncf.gui.services.DatabaseManager;
+import org.sncf.gui.services.TrameService;
+import org.sncf.gui.services.filter.CaptureFilter;
 import org.sncf.gui.ui.ToolbarPanel;
+import org.sncf.gui.ui.TrameDispatcher;
 import org.sncf.gui.ui.views.FilterView;
 import org.sncf.gui.ui.views.GraphView;
 import org.sncf.gui.ui.views.MessageView;
 
 import javax.swing.*;
 import java.awt.*;
+import java.awt.event.WindowAdapter;
+import java.awt.event.WindowEvent;
 import java.net.URL;
+import java.util.ArrayList;
+import java.util.List;
 
 /**
  * Classe principale de l'application ANALSETRAM©.
@@ -20,13 +29,15 @@ import java.net.URL;
  * ainsi qu’une barre d’outils {@link ToolbarPanel} pour les interactions principales.</p>
  *
  * <p>Les trames reçues sont synchronisées entre la vue message {@link MessageView}
- * et la vue graphique {@link GraphView}, avec une gestion centralisée des filtres via {@link FilterView}.</p>
+ * et la vue graphique {@link GraphView}, avec une gestion centralisée des filtres via {@link FilterView}.
+ * Elles transitent par un {@link TrameDispatcher} qui les remet par lots sur l'EDT.</p>
  */
 public class AnalyseTram extends JFrame {
     private MessageView messageView;
     private GraphView graphView;
     private JPanel mainContentPanel;
     private CardLayout cardLayout;
+    private TrameDispatcher trameDispatcher;
 
     /**
      * Initialise l'interface principale de l'application,
@@ -46,6 +57,15 @@ public class AnalyseTram extends JFrame {
         setSize(1200, 800);
         setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
         setLayout(new BorderLayout());
+
+        // Appelé avant la sortie : l'historique supprime ses fichiers de débordement
+        addWindowListener(new WindowAdapter() {
+            @Override
+            public void windowClosing(WindowEvent e) {
+                trameDispatcher.stop();
+                messageView.close();
+            }
+        });
     }
 
     /**
@@ -56,9 +76,12 @@ public class AnalyseTram extends JFrame {
         messageView = new MessageView();
         graphView = new GraphView();
 
+        // Sélection de trame synchronisée entre la table et le graphique
+        messageView.setOnFrameSelected(graphView::selectFrame);
+        graphView.setOnFrameSelected(messageView::selectFrame);
+
         FilterView filterView = new FilterView();
         filterView.setOnFiltersUpdated(filters -> {
-            messageView.setCurrentFilters(filters);
             messageView.refreshWithFilters(filters);
             graphView.setFilters(filters);
         });
@@ -70,15 +93,28 @@ public class AnalyseTram extends JFrame {
         mainContentPanel.add(graphView, "GRAPH");
         mainContentPanel.add(filterView, "FILTER");
 
+        // Les trames arrivent sur le thread série : converties et enregistrées sur le thread
+        // d'ingestion, elles sont remises par lots sur l'EDT
+        trameDispatcher = new TrameDispatcher(messageView::prepareMessages, batch -> {
+            messageView.appendMessages(batch);
+            List<String> bits = new ArrayList<>(batch.size());
+            for (TrameService.TrameEntry entry : batch) {
+                bits.add(entry.bits);
+            }
+            graphView.appendBits(bits);
+        });
+        trameDispatcher.start();
+
+        // Filtre de capture enregistré, appliqué dès la réception
+        SerialTransmitter.setCaptureFilter(CaptureFilter.compile(new CaptureFilterService(new DatabaseManager()).load()));
+
         ToolbarPanel toolbar = new ToolbarPanel(
                 () -> {
+                    trameDispatcher.clear();
                     messageView.clearMessages();
                     graphView.clear();
                 },
-                bitLine -> {
-                    messageView.appendMessage(bitLine);
-                    graphView.appendBits(bitLine);
-                },
+                trameDispatcher::submit,
                 this::showMessageView,
                 this::showGraphView,
                 this::showFilterView
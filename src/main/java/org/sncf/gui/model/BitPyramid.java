@@ -0,0 +1,241 @@
+package org.sncf.gui.model;
+
+import java.util.Arrays;
+
+/**
+ * Pyramide de résumés multi-résolution d'un {@link BitStore}.
+ * <p>
+ * Le niveau 0 résume chaque bloc de 64 bits (un mot du flux) ; chaque niveau suivant
+ * résume des blocs deux fois plus grands. Un résumé indique si le bloc contient des 0
+ * (minimum), des 1 (maximum) et combien de transitions il comporte. La pyramide est mise
+ * à jour de façon incrémentale par {@link BitStore#appendFrame(CharSequence)} : seuls les
+ * blocs touchés par l'ajout sont recalculés.
+ * </p>
+ * <p>
+ * {@link #summarize(int, int, Summary)} résume une plage quelconque en combinant
+ * O(log n) blocs : dessiner une colonne de pixels coûte le même prix quel que soit
+ * le nombre de bits qu'elle couvre.
+ * </p>
+ */
+public class BitPyramid {
+    /**
+     * Nombre de bits résumés par un bloc du niveau 0.
+     */
+    public static final int BLOCK_BITS = 64;
+
+    private static final byte HAS_ZERO = 1;
+    private static final byte HAS_ONE = 2;
+    private static final int MAX_LEVELS = 26;
+
+    private final BitStore store;
+    private final byte[][] flags = new byte[MAX_LEVELS][];
+    private final int[][] transitions = new int[MAX_LEVELS][];
+    private int levels;
+    private int summarizedBits;
+
+    /**
+     * @param store flux de bits résumé (qui notifie la pyramide à chaque ajout).
+     */
+    BitPyramid(BitStore store) {
+        this.store = store;
+    }
+
+    /**
+     * Recalcule les blocs couvrant les bits ajoutés depuis le dernier appel.
+     */
+    void update() {
+        int size = store.size();
+        if (size == summarizedBits) return;
+        // Le dernier bloc de chaque niveau pouvait être partiel : on repart de lui
+        int dirty = summarizedBits / BLOCK_BITS;
+        int count = blockCount(size, 0);
+        ensureLevel(0, count);
+        for (int b = dirty; b < count; b++) {
+            long start = (long) b * BLOCK_BITS;
+            int length = (int) Math.min(BLOCK_BITS, size - start);
+            long seg = segment(start, length);
+            int ones = Long.bitCount(seg);
+            flags[0][b] = (byte) ((ones > 0 ? HAS_ONE : 0) | (ones < length ? HAS_ZERO : 0));
+            transitions[0][b] = Long.bitCount((seg ^ (seg >>> 1)) & mask(length - 1));
+        }
+
+        int level = 1;
+        while (count > 1) {
+            dirty /= 2;
+            count = blockCount(size, level);
+            ensureLevel(level, count);
+            long childBits = blockBits(level - 1);
+            for (int b = dirty; b < count; b++) {
+                int left = 2 * b;
+                int right = left + 1;
+                byte f = flags[level - 1][left];
+                int t = transitions[level - 1][left];
+                if ((long) right * childBits < size) {
+                    f |= flags[level - 1][right];
+                    t += transitions[level - 1][right];
+                    long boundary = right * childBits;
+                    if (store.get((int) boundary - 1) != store.get((int) boundary)) t++;
+                }
+                flags[level][b] = f;
+                transitions[level][b] = t;
+            }
+            level++;
+        }
+        levels = level;
+        summarizedBits = size;
+    }
+
+    /**
+     * Oublie tous les résumés (le flux a été vidé).
+     */
+    void clear() {
+        levels = 0;
+        summarizedBits = 0;
+    }
+
+    /**
+     * @return nombre de niveaux actuellement calculés.
+     */
+    public int getLevelCount() {
+        return levels;
+    }
+
+    /**
+     * Résume la plage de bits [from, to).
+     *
+     * @param from premier bit (inclus).
+     * @param to   fin de la plage (exclue), au plus {@link BitStore#size()}.
+     * @param out  résumé à remplir (réutilisable d'un appel à l'autre).
+     * @return {@code out}, vide si la plage l'est.
+     */
+    public Summary summarize(int from, int to, Summary out) {
+        out.reset();
+        int pos = Math.max(0, from);
+        int end = Math.min(to, store.size());
+        if (pos >= end) return out;
+
+        // Début de plage non aligné sur un bloc : lecture directe du mot
+        int headEnd = (int) Math.min(end, ((long) pos + BLOCK_BITS - 1) / BLOCK_BITS * BLOCK_BITS);
+        if (pos < headEnd) {
+            accumulateBits(out, pos, headEnd - pos);
+            pos = headEnd;
+        }
+        // Plus grands blocs alignés tenant dans la plage
+        while (end - pos >= BLOCK_BITS) {
+            int block = pos / BLOCK_BITS;
+            int level = block == 0 ? levels - 1 : Math.min(levels - 1, Integer.numberOfTrailingZeros(block));
+            while (level > 0 && ((long) (block >>> level) + 1) * blockBits(level) > end) level--;
+            long length = blockBits(level);
+            int b = block >>> level;
+            out.accumulate(store.get(pos), store.get((int) (pos + length - 1)),
+                    flags[level][b], transitions[level][b], length);
+            pos += (int) length;
+        }
+        if (pos < end) {
+            accumulateBits(out, pos, end - pos);
+        }
+        return out;
+    }
+
+    private void accumulateBits(Summary out, long start, int length) {
+        long seg = segment(start, length);
+        int ones = Long.bitCount(seg);
+        byte f = (byte) ((ones > 0 ? HAS_ONE : 0) | (ones < length ? HAS_ZERO : 0));
+        int t = Long.bitCount((seg ^ (seg >>> 1)) & mask(length - 1));
+        out.accumulate((int) (seg & 1), (int) ((seg >>> (length - 1)) & 1), f, t, length);
+    }
+
+    /**
+     * Lit {@code length} bits (au plus 64, dans un même mot) à partir de {@code start}.
+     */
+    private long segment(long start, int length) {
+        return (store.getWord((int) (start / 64)) >>> (start & 63)) & mask(length);
+    }
+
+    private static long mask(int length) {
+        return length >= 64 ? -1L : (1L << length) - 1;
+    }
+
+    private static long blockBits(int level) {
+        return (long) BLOCK_BITS << level;
+    }
+
+    private static int blockCount(int size, int level) {
+        return (int) ((size + blockBits(level) - 1) / blockBits(level));
+    }
+
+    private void ensureLevel(int level, int count) {
+        if (flags[level] == null) {
+            flags[level] = new byte[Math.max(16, count)];
+            transitions[level] = new int[Math.max(16, count)];
+        } else if (flags[level].length < count) {
+            int capacity = Math.max(count, flags[level].length * 2);
+            flags[level] = Arrays.copyOf(flags[level], capacity);
+            transitions[level] = Arrays.copyOf(transitions[level], capacity);
+        }
+    }
+
+    /**
+     * Résumé d'une plage de bits.
+     */
+    public static class Summary {
+        /**
+         * Valeur minimale rencontrée (0 si la plage contient un 0).
+         */
+        public int min;
+
+        /**
+         * Valeur maximale rencontrée (1 si la plage contient un 1).
+         */
+        public int max;
+
+        /**
+         * Nombre de changements de valeur entre bits consécutifs de la plage.
+         */
+        public int transitions;
+
+        /**
+         * Valeur du premier bit de la plage.
+         */
+        public int first;
+
+        /**
+         * Valeur du dernier bit de la plage.
+         */
+        public int last;
+
+        /**
+         * Nombre de bits résumés.
+         */
+        public long length;
+
+        /**
+         * @return true si la plage résumée est vide.
+         */
+        public boolean isEmpty() {
+            return length == 0;
+        }
+
+        void reset() {
+            min = 1;
+            max = 0;
+            transitions = 0;
+            first = 0;
+            last = 0;
+            length = 0;
+        }
+
+        void accumulate(int firstBit, int lastBit, byte blockFlags, int blockTransitions, long blockLength) {
+            if (length == 0) {
+                first = firstBit;
+            } else if (last != firstBit) {
+                transitions++;
+            }
+            if ((blockFlags & HAS_ZERO) != 0) min = 0;
+            if ((blockFlags & HAS_ONE) != 0) max = 1;
+            transitions += blockTransitions;
+            last = lastBit;
+            length += blockLength;
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package org.sncf.gui.model;
+
+import java.util.Arrays;
+
+/**
+ * Flux de bits reçus, stocké de manière compacte.
+ * <p>
+ * Les bits sont empaquetés par 64 dans un tableau de {@code long} (1 bit mémoire par bit
+ * reçu), et la fin de chaque trame est enregistrée dans un {@link FrameIndex}.
+ * L'accès à un bit est en O(1). La capacité est limitée à {@link Integer#MAX_VALUE} bits.
+ * </p>
+ * <p>
+ * Une {@link BitPyramid} de résumés est tenue à jour à chaque ajout, pour l'affichage
+ * du flux à faible résolution.
+ * </p>
+ */
+public class BitStore {
+    private long[] words = new long[1024];
+    private int size;
+    private final FrameIndex frames = new FrameIndex();
+    private final BitPyramid pyramid = new BitPyramid(this);
+
+    /**
+     * Ajoute une trame : ses caractères '0' et '1' sont ajoutés au flux (les autres sont
+     * ignorés), puis la fin de trame est enregistrée.
+     *
+     * @param bitString chaîne de bits de la trame.
+     * @throws IllegalStateException si la capacité maximale du flux est atteinte.
+     */
+    public void appendFrame(CharSequence bitString) {
+        appendBits(bitString);
+        pyramid.update();
+    }
+
+    /**
+     * Ajoute un lot de trames, puis met la pyramide à jour une seule fois.
+     *
+     * @param bitStrings chaînes de bits des trames, dans l'ordre d'arrivée.
+     * @throws IllegalStateException si la capacité maximale du flux est atteinte
+     *                               (les trames précédentes du lot restent ajoutées).
+     */
+    public void appendFrames(Iterable<? extends CharSequence> bitStrings) {
+        try {
+            for (CharSequence bitString : bitStrings) {
+                appendBits(bitString);
+            }
+        } finally {
+            pyramid.update();
+        }
+    }
+
+    private void appendBits(CharSequence bitString) {
+        ensureCapacity((long) size + bitString.length());
+        for (int i = 0; i < bitString.length(); i++) {
+            char c = bitString.charAt(i);
+            if (c == '1') {
+                words[size >>> 6] |= 1L << (size & 63);
+                size++;
+            } else if (c == '0') {
+                size++;
+            }
+        }
+        frames.add(size);
+    }
+
+    /**
+     * @param index position du bit dans le flux.
+     * @return valeur du bit (0 ou 1).
+     */
+    public int get(int index) {
+        return (int) (words[index >>> 6] >>> (index & 63)) & 1;
+    }
+
+    /**
+     * @param index indice de mot.
+     * @return 64 bits du flux à partir du bit {@code 64 * index} (bit de poids faible en premier).
+     */
+    public long getWord(int index) {
+        return words[index];
+    }
+
+    /**
+     * @return nombre de bits stockés.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return index des limites de trames dans le flux.
+     */
+    public FrameIndex frames() {
+        return frames;
+    }
+
+    /**
+     * @return pyramide de résumés du flux.
+     */
+    public BitPyramid pyramid() {
+        return pyramid;
+    }
+
+    /**
+     * Supprime tous les bits et toutes les trames.
+     */
+    public void clear() {
+        Arrays.fill(words, 0, (int) Math.min(words.length, ((long) size + 63) >>> 6), 0L);
+        size = 0;
+        frames.clear();
+        pyramid.clear();
+    }
+
+    private void ensureCapacity(long bits) {
+        if (bits > Integer.MAX_VALUE) {
+            throw new IllegalStateException("Capacité du flux de bits dépassée");
+        }
+        int neededWords = (int) ((bits + 63) >>> 6);
+        if (neededWords > words.length) {
+            words = Arrays.copyOf(words, Math.max(neededWords, (int) Math.min(Integer.MAX_VALUE - 8, 2L * words.length)));
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package org.sncf.gui.model;
+
+import java.util.List;
+
+/**
+ * Paramètres du filtre de capture, appliqué aux trames dès leur réception,
+ * avant l'enregistrement en base et l'affichage.
+ * <p>
+ * Contrairement aux filtres d'affichage ({@code custom_filter}), qui ne font que colorer
+ * et sélectionner des trames déjà enregistrées, le filtre de capture décide de ce qui est
+ * conservé : une trame qui ne correspond à aucun motif est seulement comptée, ou conservée
+ * une fois sur {@link #sampleEvery} pour garder un échantillon du trafic écarté.
+ * </p>
+ */
+public class CaptureSettings {
+
+    /**
+     * true si le filtre de capture est appliqué.
+     */
+    public final boolean enabled;
+
+    /**
+     * Motifs de capture (même syntaxe que les filtres d'affichage) ; une trame est conservée
+     * si elle correspond à au moins l'un d'eux.
+     */
+    public final List<String> patterns;
+
+    /**
+     * Conserve une trame écartée sur ce nombre ; 0 : les trames écartées sont seulement comptées.
+     */
+    public final int sampleEvery;
+
+    /**
+     * Construit un jeu de paramètres de capture.
+     *
+     * @param enabled     true pour appliquer le filtre.
+     * @param patterns    motifs de capture.
+     * @param sampleEvery échantillonnage des trames écartées (0 : aucune conservée).
+     * @throws IllegalArgumentException si l'échantillonnage est négatif.
+     */
+    public CaptureSettings(boolean enabled, List<String> patterns, int sampleEvery) {
+        if (sampleEvery < 0) {
+            throw new IllegalArgumentException("Échantillonnage invalide : " + sampleEvery);
+        }
+        this.enabled = enabled;
+        this.patterns = List.copyOf(patterns);
+        this.sampleEvery = sampleEvery;
+    }
+
+    /**
+     * Retourne les paramètres par défaut : toutes les trames sont capturées.
+     *
+     * @return paramètres par défaut du filtre de capture.
+     */
+    public static CaptureSettings defaults() {
+        return new CaptureSettings(false, List.of(), 0);
+    }
+
+    @Override
+    public String toString() {
+        if (!enabled || patterns.isEmpty()) return "toutes les trames";
+        return patterns.size() + " motif(s)" + (sampleEvery > 0 ? ", écartées échantillonnées à 1/" + sampleEvery : "");
+    }
+}
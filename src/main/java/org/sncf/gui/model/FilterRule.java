@@ -13,6 +13,16 @@ import java.awt.*;
  */
 public class FilterRule {
 
+    /**
+     * Identifiant de la règle dans la table {@code custom_filter} (0 pour une règle non enregistrée).
+     */
+    public int id;
+
+    /**
+     * Nom affiché de la règle (le motif pour une règle non enregistrée).
+     */
+    public String name;
+
     /**
      * Motif (pattern) de filtrage à appliquer, généralement une chaîne ou une expression régulière.
      */
@@ -30,7 +40,28 @@ public class FilterRule {
      * @param hexColor  La couleur en format hexadécimal (ex. : "#FF0000" pour rouge).
      */
     public FilterRule(String pattern, String hexColor) {
+        this(0, pattern, pattern, hexColor);
+    }
+
+    /**
+     * Construit une règle enregistrée dans la table {@code custom_filter}.
+     *
+     * @param id        identifiant de la règle.
+     * @param name      nom affiché de la règle.
+     * @param pattern   le motif de filtrage.
+     * @param hexColor  la couleur en format hexadécimal (ex. : "#FF0000").
+     */
+    public FilterRule(int id, String name, String pattern, String hexColor) {
+        this.id = id;
+        this.name = name;
         this.pattern = pattern;
         this.color = Color.decode(hexColor);
     }
+
+    /**
+     * @return la couleur au format hexadécimal {@code #rrggbb}, telle qu'enregistrée en base.
+     */
+    public String getHexColor() {
+        return String.format("#%02x%02x%02x", color.getRed(), color.getGreen(), color.getBlue());
+    }
 }
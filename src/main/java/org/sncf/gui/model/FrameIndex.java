@@ -0,0 +1,80 @@
+package org.sncf.gui.model;
+
+import java.util.Arrays;
+
+/**
+ * Index des limites de trames dans un flux de bits continu.
+ * <p>
+ * Chaque trame ajoutée est repérée par la position (exclue) de son dernier bit.
+ * Les positions étant croissantes, retrouver la trame contenant un bit donné se fait
+ * par recherche dichotomique (O(log n)), et les bornes d'une trame sont lues en O(1).
+ * </p>
+ */
+public class FrameIndex {
+    private int[] ends = new int[1024];
+    private int size;
+
+    /**
+     * Enregistre la fin de la trame suivante.
+     *
+     * @param endBit position (exclue) du dernier bit de la trame, au moins égale à la fin précédente.
+     */
+    public void add(int endBit) {
+        if (size == ends.length) {
+            ends = Arrays.copyOf(ends, size * 2);
+        }
+        ends[size++] = endBit;
+    }
+
+    /**
+     * @return nombre de trames indexées.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @param frame indice de trame.
+     * @return position du premier bit de la trame.
+     */
+    public int startOf(int frame) {
+        return frame == 0 ? 0 : ends[frame - 1];
+    }
+
+    /**
+     * @param frame indice de trame.
+     * @return position (exclue) du dernier bit de la trame.
+     */
+    public int endOf(int frame) {
+        return ends[frame];
+    }
+
+    /**
+     * Retrouve la trame contenant un bit.
+     *
+     * @param bit position du bit dans le flux.
+     * @return indice de la trame, ou -1 si le bit est hors des trames indexées.
+     */
+    public int frameAt(int bit) {
+        if (bit < 0 || size == 0 || bit >= ends[size - 1]) return -1;
+        // Première trame dont la fin dépasse le bit (les trames vides sont ignorées)
+        int low = 0;
+        int high = size - 1;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (ends[mid] > bit) {
+                high = mid;
+            } else {
+                low = mid + 1;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Supprime toutes les trames indexées.
+     */
+    public void clear() {
+        size = 0;
+    }
+}
@@ -0,0 +1,66 @@
+package org.sncf.gui.model;
+
+/**
+ * Paramètres de la liaison série entre le PC hôte et l'ESP32.
+ * <p>
+ * Ces paramètres sont indépendants de la configuration du bus espionné
+ * (table {@code port_config}) : ils ne décrivent que le lien USB-série
+ * utilisé pour envoyer la configuration et remonter les trames reçues.
+ * </p>
+ */
+public class HostLinkSettings {
+
+    /**
+     * Débit historique de la liaison hôte, utilisé tant qu'aucun réglage n'est enregistré.
+     */
+    public static final int DEFAULT_BAUDRATE = 115200;
+
+    /**
+     * Débits proposés à l'utilisateur, du plus sûr au plus rapide.
+     */
+    public static final int[] SUPPORTED_BAUDRATES = {115200, 230400, 460800, 921600, 1000000, 2000000};
+
+    /**
+     * Débit maximal accepté pour la liaison hôte (2 Mbaud).
+     */
+    public static final int MAX_BAUDRATE = 2000000;
+
+    /**
+     * Débit en bauds de la liaison hôte.
+     */
+    public final int baudrate;
+
+    /**
+     * true si le contrôle de flux matériel RTS/CTS est activé.
+     */
+    public final boolean rtsCts;
+
+    /**
+     * Construit un jeu de paramètres de liaison hôte.
+     *
+     * @param baudrate débit en bauds (entre 1 et {@link #MAX_BAUDRATE}).
+     * @param rtsCts   true pour activer le contrôle de flux RTS/CTS.
+     * @throws IllegalArgumentException si le débit est hors limites.
+     */
+    public HostLinkSettings(int baudrate, boolean rtsCts) {
+        if (baudrate <= 0 || baudrate > MAX_BAUDRATE) {
+            throw new IllegalArgumentException("Débit de liaison invalide : " + baudrate);
+        }
+        this.baudrate = baudrate;
+        this.rtsCts = rtsCts;
+    }
+
+    /**
+     * Retourne les paramètres par défaut (115200 bauds, sans contrôle de flux).
+     *
+     * @return paramètres par défaut de la liaison hôte.
+     */
+    public static HostLinkSettings defaults() {
+        return new HostLinkSettings(DEFAULT_BAUDRATE, false);
+    }
+
+    @Override
+    public String toString() {
+        return baudrate + " bauds" + (rtsCts ? " (RTS/CTS)" : "");
+    }
+}
@@ -0,0 +1,328 @@
+package org.sncf.gui.serial;
+
+import com.fazecast.jSerialComm.SerialPort;
+import org.sncf.gui.model.HostLinkSettings;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Auto-test de débit de la liaison hôte ↔ ESP32.
+ *
+ * <p>Le PC envoie la commande {@value #START_COMMAND}, puis diffuse en continu un motif
+ * connu (compteur modulo {@value #PATTERN_MODULUS}) que l'ESP32 renvoie en écho.
+ * Un bouchon de bouclage TX/RX sur l'adaptateur permet aussi de tester le câble seul.</p>
+ *
+ * <p>Le résultat indique le débit soutenu (octets/s reçus) et le taux d'erreur
+ * (octets corrompus ou perdus rapportés aux octets envoyés), afin de retenir
+ * le réglage le plus rapide qui reste fiable pour chaque adaptateur.</p>
+ */
+public class LinkSelfTest {
+
+    /**
+     * Ligne de commande demandant à l'ESP32 de passer en mode écho.
+     */
+    public static final String START_COMMAND = "selftest=echo";
+
+    /**
+     * Ligne de commande ramenant l'ESP32 en mode normal.
+     */
+    public static final String STOP_COMMAND = "selftest=off";
+
+    /**
+     * Module du compteur : premier et inférieur à 256, pour ne jamais s'aligner
+     * sur les frontières d'octets ou de blocs d'écriture.
+     */
+    static final int PATTERN_MODULUS = 251;
+
+    private static final int CHUNK_SIZE = 4096;
+
+    /**
+     * Délai d'une lecture semi-bloquante sans données, en millisecondes.
+     */
+    private static final int READ_TIMEOUT_MS = 100;
+
+    /**
+     * Silence en réception, après la fin de l'émission, qui clôt la mesure.
+     */
+    static final long DRAIN_MILLIS = 500;
+
+    /**
+     * Attente maximale de l'arrêt du thread d'écriture (écriture bloquée sur un port défaillant).
+     */
+    private static final long WRITER_STOP_MILLIS = 2000;
+
+    /**
+     * Retourne l'octet du motif de test à une position donnée du flux.
+     *
+     * @param index position de l'octet dans le flux envoyé.
+     * @return valeur attendue (0 à {@value #PATTERN_MODULUS} - 1).
+     */
+    static byte patternByte(long index) {
+        return (byte) (index % PATTERN_MODULUS);
+    }
+
+    /**
+     * Lance l'auto-test sur un port série pendant une durée donnée.
+     * Méthode bloquante : à appeler hors de l'EDT.
+     *
+     * @param portName   nom du port série.
+     * @param link       paramètres de liaison à tester.
+     * @param durationMs durée d'émission du motif, en millisecondes.
+     * @return mesures de débit et d'erreurs.
+     * @throws IllegalStateException si le port ne peut pas être ouvert ou si la liaison est interrompue.
+     */
+    public static Result run(String portName, HostLinkSettings link, int durationMs) {
+        SerialPort serialPort = SerialPort.getCommPort(portName);
+        SerialTransmitter.configurePort(serialPort, link);
+        serialPort.setComPortTimeouts(SerialPort.TIMEOUT_READ_SEMI_BLOCKING, READ_TIMEOUT_MS, 0);
+
+        if (!serialPort.openPort()) {
+            throw new IllegalStateException("Impossible d’ouvrir le port " + portName);
+        }
+
+        // Flux sans SerialPortTimeoutException : une lecture sans données rend 0 au lieu d'échouer
+        try (OutputStream out = serialPort.getOutputStream();
+             InputStream in = serialPort.getInputStreamWithSuppressedTimeoutExceptions()) {
+            return exchange(in, out, link, durationMs);
+        } catch (IOException e) {
+            throw new IllegalStateException("Auto-test interrompu : " + e.getMessage(), e);
+        } finally {
+            serialPort.closePort();
+        }
+    }
+
+    /**
+     * Déroule l'auto-test sur des flux déjà ouverts.
+     * <p>
+     * {@code in} doit rendre 0 quand aucune donnée n'arrive pendant le délai de lecture
+     * (lecture semi-bloquante) : la mesure se termine {@value #DRAIN_MILLIS} ms après
+     * le dernier octet reçu. En cas d'échec, l'émission est arrêtée avant de rendre la main,
+     * pour que le port ne soit pas fermé sous le thread d'écriture.
+     * </p>
+     *
+     * @param in         flux reçu (écho de l'ESP32 ou bouchon de bouclage).
+     * @param out        flux émis.
+     * @param link       paramètres de liaison testés.
+     * @param durationMs durée d'émission du motif, en millisecondes.
+     * @return mesures de débit et d'erreurs.
+     * @throws IOException si la lecture ou l'écriture échoue.
+     */
+    static Result exchange(InputStream in, OutputStream out, HostLinkSettings link, int durationMs) throws IOException {
+        PatternChecker checker = new PatternChecker();
+        AtomicLong sent = new AtomicLong();
+        AtomicBoolean stop = new AtomicBoolean();
+        Thread writer = null;
+
+        try {
+            out.write((START_COMMAND + "\n").getBytes(StandardCharsets.UTF_8));
+            out.flush();
+            Thread.sleep(300);
+            while (in.available() > 0) {
+                in.skip(in.available()); // Ignore l'accusé de réception éventuel
+            }
+
+            long start = System.nanoTime();
+            long deadline = start + durationMs * 1_000_000L;
+
+            writer = new Thread(() -> {
+                byte[] chunk = new byte[CHUNK_SIZE];
+                try {
+                    while (!stop.get() && System.nanoTime() < deadline) {
+                        for (int i = 0; i < chunk.length; i++) {
+                            chunk[i] = patternByte(sent.get() + i);
+                        }
+                        out.write(chunk);
+                        sent.addAndGet(chunk.length);
+                    }
+                    out.flush();
+                } catch (Exception e) {
+                    System.err.println("Auto-test : écriture interrompue : " + e.getMessage());
+                }
+            }, "link-selftest-writer");
+            writer.start();
+
+            byte[] buffer = new byte[CHUNK_SIZE];
+            long lastData = System.nanoTime();
+            while (writer.isAlive() || System.nanoTime() - lastData < DRAIN_MILLIS * 1_000_000L) {
+                int n = in.read(buffer);
+                if (n < 0) {
+                    throw new IOException("liaison fermée");
+                }
+                if (n > 0) {
+                    checker.accept(buffer, n);
+                    lastData = System.nanoTime();
+                }
+            }
+            writer.join();
+            checker.finish();
+            long elapsed = Math.max(1, lastData - start);
+
+            out.write(("\n" + STOP_COMMAND + "\n").getBytes(StandardCharsets.UTF_8));
+            out.flush();
+
+            return new Result(link, sent.get(), checker.received, checker.errors, elapsed);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            checker.finish();
+            return new Result(link, sent.get(), checker.received, checker.errors, 1);
+        } finally {
+            if (writer != null) {
+                stopWriter(writer, stop);
+            }
+        }
+    }
+
+    /**
+     * Arrête le thread d'écriture et attend sa fin, sans perdre une éventuelle interruption.
+     */
+    private static void stopWriter(Thread writer, AtomicBoolean stop) {
+        stop.set(true);
+        boolean interrupted = Thread.interrupted();
+        try {
+            writer.join(WRITER_STOP_MILLIS);
+        } catch (InterruptedException e) {
+            interrupted = true;
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Vérifie un flux reçu contre le motif compteur.
+     * <p>
+     * Chaque octet doit valoir le précédent + 1 (modulo {@value #PATTERN_MODULUS}). Un écart
+     * n'est jugé qu'à l'octet suivant : si la suite reprend depuis l'octet inattendu, des octets
+     * ont été perdus (ils sont déjà comptés par la différence envoyés − reçus, et seulement
+     * cumulés dans {@link #skipped}) ; sinon l'octet a été corrompu et compte une erreur.
+     * Chaque octet n'est ainsi compté qu'une fois, comme perdu ou comme corrompu.
+     * </p>
+     */
+    static class PatternChecker {
+        long received;
+        long errors;
+        long skipped;
+        private int expected = -1;
+        private int pendingValue = -1;
+        private int pendingExpected;
+
+        void accept(byte[] data, int length) {
+            for (int i = 0; i < length; i++) {
+                check(data[i] & 0xFF);
+                received++;
+            }
+        }
+
+        private void check(int value) {
+            if (pendingValue >= 0) {
+                int previous = pendingValue;
+                pendingValue = -1;
+                if (value == (previous + 1) % PATTERN_MODULUS) {
+                    // La suite reprend : octets perdus entre l'attendu et l'octet reçu
+                    skipped += (previous - pendingExpected + PATTERN_MODULUS) % PATTERN_MODULUS;
+                    expected = (value + 1) % PATTERN_MODULUS;
+                    return;
+                }
+                errors++;
+                expected = (pendingExpected + 1) % PATTERN_MODULUS;
+            }
+            if (expected >= 0 && value != expected) {
+                pendingValue = value;
+                pendingExpected = expected;
+                return;
+            }
+            expected = (value + 1) % PATTERN_MODULUS;
+        }
+
+        /**
+         * Juge le dernier octet reçu s'il rompait la suite : faute de successeur, il est compté corrompu.
+         */
+        void finish() {
+            if (pendingValue >= 0) {
+                errors++;
+                pendingValue = -1;
+            }
+        }
+    }
+
+    /**
+     * Résultat d'un auto-test de liaison.
+     */
+    public static class Result {
+        /**
+         * Paramètres de liaison testés.
+         */
+        public final HostLinkSettings link;
+
+        /**
+         * Nombre d'octets envoyés.
+         */
+        public final long bytesSent;
+
+        /**
+         * Nombre d'octets reçus en écho.
+         */
+        public final long bytesReceived;
+
+        /**
+         * Nombre d'octets reçus corrompus (les octets perdus se déduisent de {@link #bytesSent} − {@link #bytesReceived}).
+         */
+        public final long errors;
+
+        /**
+         * Durée de la mesure en nanosecondes.
+         */
+        public final long elapsedNanos;
+
+        /**
+         * Construit un résultat d'auto-test.
+         *
+         * @param link          paramètres testés.
+         * @param bytesSent     octets envoyés.
+         * @param bytesReceived octets reçus.
+         * @param errors        octets corrompus détectés.
+         * @param elapsedNanos  durée de la mesure (ns).
+         */
+        public Result(HostLinkSettings link, long bytesSent, long bytesReceived, long errors, long elapsedNanos) {
+            this.link = link;
+            this.bytesSent = bytesSent;
+            this.bytesReceived = bytesReceived;
+            this.errors = errors;
+            this.elapsedNanos = elapsedNanos;
+        }
+
+        /**
+         * @return débit soutenu mesuré en réception, en octets par seconde.
+         */
+        public double bytesPerSecond() {
+            return bytesReceived * 1e9 / elapsedNanos;
+        }
+
+        /**
+         * @return proportion d'octets corrompus ou perdus (0 = liaison parfaite).
+         */
+        public double errorRate() {
+            if (bytesSent == 0) return 1.0;
+            long lost = Math.max(0, bytesSent - bytesReceived);
+            return Math.min(1.0, (errors + lost) / (double) bytesSent);
+        }
+
+        /**
+         * @return true si aucune erreur ni perte n'a été constatée.
+         */
+        public boolean isReliable() {
+            return bytesSent > 0 && errorRate() == 0.0;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%s : %.0f octets/s, taux d'erreur %.4f %% (%d/%d octets reçus)",
+                    link, bytesPerSecond(), errorRate() * 100, bytesReceived, bytesSent);
+        }
+    }
+}
@@ -1,17 +1,14 @@
 package org.sncf.gui.serial;
 
 import com.fazecast.jSerialComm.SerialPort;
-import org.sncf.gui.services.DatabaseManager;
+import org.sncf.gui.model.HostLinkSettings;
+import org.sncf.gui.services.filter.CaptureFilter;
 
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.nio.charset.StandardCharsets;
-import java.sql.Connection;
-import java.sql.DriverManager;
-import java.sql.PreparedStatement;
 import java.util.List;
 import java.util.Random;
-import java.util.function.Consumer;
 
 /**
  * Classe utilitaire pour transmettre des configurations à un appareil série (ESP32)
@@ -19,12 +16,111 @@ import java.util.function.Consumer;
  * pour des tests hors ligne.
  *
  * <p>Utilise la bibliothèque jSerialComm pour la communication série.</p>
+ *
+ * <p>Chaque trame reçue passe d'abord par le filtre de capture ({@link #setCaptureFilter(CaptureFilter)}) :
+ * une trame écartée n'est pas transmise au callback, elle est seulement comptée.
+ * En mode capture déclenchée ({@link #setTriggeredCapture(TriggeredCapture)}), les trames retenues
+ * ne sont transmises qu'autour des déclenchements.</p>
+ *
+ * <p>L'enregistrement en base n'est pas fait ici : le callback ({@link TrameListener}) indique
+ * pour chaque trame si elle doit être enregistrée, et l'appelant l'enregistre par lots.</p>
  */
 public class SerialTransmitter {
 
+    /**
+     * Reçoit les trames retenues, sur le thread de réception.
+     */
+    public interface TrameListener {
+        /**
+         * @param bits       trame reçue.
+         * @param receivedAt heure de réception (millisecondes depuis l'époque), antérieure à l'appel
+         *                   pour une trame de pré-déclenchement.
+         * @param persist    true si la trame doit être enregistrée en base (écoute réelle),
+         *                   false pour une trame simulée.
+         */
+        void onTrame(String bits, long receivedAt, boolean persist);
+    }
+
     private static volatile boolean listeningActive = false;
     private static volatile boolean simulationMode = false;
     private static volatile boolean stopSimulation = false;
+    private static volatile CaptureFilter captureFilter = CaptureFilter.acceptAll();
+    private static volatile TriggeredCapture triggeredCapture = null;
+    private static volatile String portConfig = "";
+
+    /**
+     * Remplace le filtre de capture appliqué aux trames reçues (y compris en cours d'écoute).
+     *
+     * @param filter filtre compilé.
+     */
+    public static void setCaptureFilter(CaptureFilter filter) {
+        captureFilter = filter;
+    }
+
+    /**
+     * @return filtre de capture courant, avec ses compteurs.
+     */
+    public static CaptureFilter getCaptureFilter() {
+        return captureFilter;
+    }
+
+    /**
+     * Active (ou désactive avec {@code null}) le mode capture déclenchée, y compris en cours d'écoute.
+     *
+     * @param capture capture déclenchée armée, ou {@code null} pour tout enregistrer.
+     */
+    public static void setTriggeredCapture(TriggeredCapture capture) {
+        triggeredCapture = capture;
+    }
+
+    /**
+     * @return capture déclenchée en cours, ou {@code null} si le mode n'est pas actif.
+     */
+    public static TriggeredCapture getTriggeredCapture() {
+        return triggeredCapture;
+    }
+
+    /**
+     * @return configuration de la dernière écoute lancée (port, débit, lignes envoyées au boîtier),
+     * ou chaîne vide si aucune écoute n'a été lancée.
+     */
+    public static String getPortConfig() {
+        return portConfig;
+    }
+
+    /**
+     * Transmet une trame retenue par le filtre de capture, ou la confie à la capture
+     * déclenchée si ce mode est actif.
+     *
+     * @param bits            trame reçue.
+     * @param onTrameReceived callback de réception.
+     * @param persist         true si la trame doit être enregistrée en base.
+     */
+    private static void deliver(String bits, TrameListener onTrameReceived, boolean persist) {
+        TriggeredCapture triggered = triggeredCapture;
+        long now = System.nanoTime();
+        long receivedAt = System.currentTimeMillis();
+        release(triggered != null ? triggered.offer(bits, now, receivedAt)
+                : List.of(new TriggeredCapture.Frame(bits, now, receivedAt)), onTrameReceived, persist);
+    }
+
+    /**
+     * Fait avancer la capture déclenchée en l'absence de trame.
+     */
+    private static void tick(TrameListener onTrameReceived, boolean persist) {
+        TriggeredCapture triggered = triggeredCapture;
+        if (triggered != null) release(triggered.tick(System.nanoTime()), onTrameReceived, persist);
+    }
+
+    /**
+     * Transmet des trames libérées, avec leur heure de réception.
+     */
+    static void release(List<TriggeredCapture.Frame> frames, TrameListener onTrameReceived, boolean persist) {
+        for (TriggeredCapture.Frame frame : frames) {
+            if (persist) System.out.println("Reçu : " + frame.bits);
+            onTrameReceived.onTrame(frame.bits, frame.receivedAt, persist);
+        }
+    }
 
     /**
      * Active ou désactive le mode simulation.
@@ -61,23 +157,16 @@ public class SerialTransmitter {
     }
 
     /**
-     * Convertit une chaîne binaire en texte ASCII.
+     * Applique les paramètres de liaison hôte (débit, contrôle de flux) à un port série.
      *
-     * @param bits chaîne de bits (doit être multiple de 8 pour un encodage complet).
-     * @return texte correspondant (caractères non imprimables remplacés par ".").
+     * @param serialPort port à configurer (avant ouverture).
+     * @param link       paramètres de la liaison PC ↔ ESP32.
      */
-    private static String convertBitsToText(String bits) {
-        StringBuilder text = new StringBuilder();
-        for (int i = 0; i + 7 < bits.length(); i += 8) {
-            String byteStr = bits.substring(i, i + 8);
-            int decimal = Integer.parseInt(byteStr, 2);
-            if (decimal >= 32 && decimal <= 126) {
-                text.append((char) decimal);
-            } else {
-                text.append("."); // caractère non imprimable
-            }
-        }
-        return text.toString();
+    static void configurePort(SerialPort serialPort, HostLinkSettings link) {
+        serialPort.setBaudRate(link.baudrate);
+        serialPort.setFlowControl(link.rtsCts
+                ? SerialPort.FLOW_CONTROL_RTS_ENABLED | SerialPort.FLOW_CONTROL_CTS_ENABLED
+                : SerialPort.FLOW_CONTROL_DISABLED);
     }
 
     /**
@@ -90,7 +179,23 @@ public class SerialTransmitter {
      * @param onTrameReceived       fonction appelée pour chaque trame reçue.
      * @param autoStopAfterTimeout  true pour arrêter l'écoute après 10s d'inactivité.
      */
-    public static void sendConfigAndListen(String portName, int baudrate, List<String> configLines, Consumer<String> onTrameReceived, boolean autoStopAfterTimeout) {
+    public static void sendConfigAndListen(String portName, int baudrate, List<String> configLines, TrameListener onTrameReceived, boolean autoStopAfterTimeout) {
+        sendConfigAndListen(portName, new HostLinkSettings(baudrate, false), configLines, onTrameReceived, autoStopAfterTimeout);
+    }
+
+    /**
+     * Variante de {@link #sendConfigAndListen(String, int, List, TrameListener, boolean)} utilisant
+     * des paramètres de liaison hôte complets (débit jusqu'à 2 Mbaud, RTS/CTS optionnel).
+     *
+     * @param portName              nom du port série (ex: "COM3", "/dev/ttyUSB0").
+     * @param link                  paramètres de la liaison PC ↔ ESP32.
+     * @param configLines           liste des lignes de configuration à envoyer.
+     * @param onTrameReceived       fonction appelée pour chaque trame reçue.
+     * @param autoStopAfterTimeout  true pour arrêter l'écoute après 10s d'inactivité.
+     */
+    public static void sendConfigAndListen(String portName, HostLinkSettings link, List<String> configLines, TrameListener onTrameReceived, boolean autoStopAfterTimeout) {
+        portConfig = simulationMode ? "simulation"
+                : portName + " " + link.baudrate + " bauds : " + String.join(", ", configLines);
         if (simulationMode) {
             System.out.println("MODE SIMULATION ACTIVÉ");
             stopSimulation = false;
@@ -105,8 +210,9 @@ public class SerialTransmitter {
                             bits.append(random.nextBoolean() ? "1" : "0");
                         }
                         String msg = bits.toString();
-                        onTrameReceived.accept(msg);
+                        if (captureFilter.accept(msg)) deliver(msg, onTrameReceived, false);
                         Thread.sleep(1000);
+                        tick(onTrameReceived, false);
                     }
                 } catch (InterruptedException ignored) {
                 } finally {
@@ -118,7 +224,7 @@ public class SerialTransmitter {
 
         listeningActive = true;
         SerialPort serialPort = SerialPort.getCommPort(portName);
-        serialPort.setBaudRate(baudrate);
+        configurePort(serialPort, link);
         serialPort.setComPortTimeouts(SerialPort.TIMEOUT_READ_BLOCKING, 1000, 0);
 
         if (!serialPort.openPort()) {
@@ -179,9 +285,7 @@ public class SerialTransmitter {
                     int c = in.read();
                     if (c == '\n') {
                         String line = buffer.toString();
-                        System.out.println("Reçu : " + line);
-                        onTrameReceived.accept(line);
-                        saveTrameToDatabase(line, convertBitsToHex(line));
+                        if (captureFilter.accept(line)) deliver(line, onTrameReceived, true);
                         buffer.setLength(0);
                         lastReceived = System.currentTimeMillis();
                     } else {
@@ -193,6 +297,7 @@ public class SerialTransmitter {
                         break;
                     }
                     Thread.sleep(100);
+                    tick(onTrameReceived, true);
                 }
             }
 
@@ -205,52 +310,27 @@ public class SerialTransmitter {
     }
 
     /**
-     * Sauvegarde une trame dans une base de données SQLite locale (bdd.db).
-     * Les champs sauvegardés sont les bits, l'équivalent hexadécimal et texte.
-     *
-     * @param bits trame binaire.
-     * @param hex  trame en représentation hexadécimale.
-     */
-    private static void saveTrameToDatabase(String bits, String hex) {
-        try (Connection conn = DriverManager.getConnection(DatabaseManager.getDbUrl())) {
-            String insertSQL = "INSERT INTO frame_capture (raw_bits, raw_hexa, raw_text) VALUES (?, ?, ?)";
-            try (PreparedStatement stmt = conn.prepareStatement(insertSQL)) {
-                stmt.setString(1, bits);
-                stmt.setString(2, hex);
-                stmt.setString(3, convertBitsToText(bits));
-                stmt.executeUpdate();
-            }
-        } catch (Exception e) {
-            System.err.println("Erreur insertion trame: " + e.getMessage());
-        }
-    }
-
-    /**
-     * Convertit une chaîne de bits en une chaîne hexadécimale lisible.
+     * Envoie uniquement une configuration sur un port série, sans écouter les réponses.
      *
-     * @param bits chaîne binaire à convertir.
-     * @return chaîne hexadécimale équivalente (ex: "4A 3F").
+     * @param portName    nom du port série.
+     * @param baudrate    débit en bauds.
+     * @param configLines lignes de configuration à envoyer.
      */
-    private static String convertBitsToHex(String bits) {
-        StringBuilder hex = new StringBuilder();
-        for (int i = 0; i < bits.length(); i += 8) {
-            String byteStr = bits.substring(i, Math.min(i + 8, bits.length()));
-            int decimal = Integer.parseInt(byteStr, 2);
-            hex.append(String.format("%02X ", decimal));
-        }
-        return hex.toString().trim();
+    public static void sendConfigOnly(String portName, int baudrate, List<String> configLines) {
+        sendConfigOnly(portName, new HostLinkSettings(baudrate, false), configLines);
     }
 
     /**
-     * Envoie uniquement une configuration sur un port série, sans écouter les réponses.
+     * Envoie uniquement une configuration sur un port série, avec des paramètres
+     * de liaison hôte complets.
      *
      * @param portName    nom du port série.
-     * @param baudrate    débit en bauds.
+     * @param link        paramètres de la liaison PC ↔ ESP32.
      * @param configLines lignes de configuration à envoyer.
      */
-    public static void sendConfigOnly(String portName, int baudrate, List<String> configLines) {
+    public static void sendConfigOnly(String portName, HostLinkSettings link, List<String> configLines) {
         SerialPort serialPort = SerialPort.getCommPort(portName);
-        serialPort.setBaudRate(baudrate);
+        configurePort(serialPort, link);
 
         if (!serialPort.openPort()) {
             System.err.println("Impossible d’ouvrir le port " + portName);
@@ -0,0 +1,321 @@
+package org.sncf.gui.serial;
+
+import org.sncf.gui.services.filter.CaptureFilter;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Capture déclenchée, à la manière d'un analyseur logique.
+ *
+ * <p>Les trames reçues sont gardées en mémoire sur une fenêtre glissante (pré-déclenchement).
+ * Quand le {@link Trigger} se déclenche, cette fenêtre est libérée, puis les trames suivantes
+ * pendant la fenêtre de post-déclenchement (durée et/ou nombre de trames) ; la capture se
+ * réarme ensuite. Les trames qui sortent de la fenêtre sans déclenchement sont seulement comptées.
+ * Un déclenchement survenu pendant la fenêtre de post-déclenchement n'est pas perdu : il est
+ * repris dès le réarmement (les déclencheurs ne signalent une anomalie qu'une fois).</p>
+ *
+ * <p>Les trames libérées sont retournées par {@link #offer(String, long, long)} et {@link #tick(long)},
+ * appelées par le thread de réception, avec leur heure de réception ; l'appelant les enregistre
+ * et les affiche. Les instants sont ceux de {@link System#nanoTime()}. Les compteurs peuvent
+ * être lus depuis n'importe quel thread.</p>
+ */
+public class TriggeredCapture {
+
+    /**
+     * Nombre maximal de trames gardées en pré-déclenchement, quelle que soit la durée de la fenêtre.
+     */
+    public static final int MAX_BUFFERED_FRAMES = 200_000;
+
+    private static final long MILLIS = 1_000_000L;
+    private static final long SECOND = 1_000_000_000L;
+
+    /**
+     * Condition de déclenchement. Chaque déclencheur ne signale qu'une fois une même anomalie
+     * (front montant), pour qu'un défaut persistant ne produise pas une capture à chaque réarmement.
+     */
+    public interface Trigger {
+        /**
+         * Appelé pour chaque trame reçue, que la capture soit armée ou non.
+         *
+         * @param bits trame reçue.
+         * @param now  instant de réception.
+         * @return raison du déclenchement, ou {@code null}.
+         */
+        String onFrame(String bits, long now);
+
+        /**
+         * Appelé régulièrement, y compris en l'absence de trame.
+         *
+         * @param now instant courant.
+         * @return raison du déclenchement, ou {@code null}.
+         */
+        default String onTick(long now) {
+            return null;
+        }
+    }
+
+    /**
+     * Déclenche sur une trame correspondant à un motif.
+     *
+     * @param patterns motifs compilés.
+     * @return déclencheur.
+     */
+    public static Trigger matching(CaptureFilter patterns) {
+        return (bits, now) -> patterns.matches(bits) ? "Motif reconnu" : null;
+    }
+
+    /**
+     * Déclenche lorsque le débit de trames sur la dernière seconde sort d'un intervalle.
+     *
+     * @param minPerSecond débit minimal (0 : pas de minimum).
+     * @param maxPerSecond débit maximal (0 : pas de maximum).
+     * @return déclencheur.
+     */
+    public static Trigger rateOutside(int minPerSecond, int maxPerSecond) {
+        return new Trigger() {
+            private final ArrayDeque<Long> times = new ArrayDeque<>();
+            private long started = Long.MIN_VALUE;
+            private boolean anomaly;
+
+            @Override
+            public String onFrame(String bits, long now) {
+                times.addLast(now);
+                return check(now);
+            }
+
+            @Override
+            public String onTick(long now) {
+                return check(now);
+            }
+
+            private String check(long now) {
+                if (started == Long.MIN_VALUE) started = now;
+                while (!times.isEmpty() && now - times.peekFirst() >= SECOND) {
+                    times.removeFirst();
+                }
+                int rate = times.size();
+                boolean tooHigh = maxPerSecond > 0 && rate > maxPerSecond;
+                // Le minimum n'a de sens qu'après une seconde complète d'observation
+                boolean tooLow = minPerSecond > 0 && now - started >= SECOND && rate < minPerSecond;
+                boolean wasAnomaly = anomaly;
+                anomaly = tooHigh || tooLow;
+                if (!anomaly || wasAnomaly) return null;
+                return "Débit anormal : " + rate + " trames/s";
+            }
+        };
+    }
+
+    /**
+     * Déclenche lorsqu'une trame périodique (correspondant à un motif) n'a pas été reçue depuis une période.
+     *
+     * @param patterns motifs de la trame attendue.
+     * @param periodMs délai maximal entre deux occurrences, en millisecondes.
+     * @return déclencheur.
+     */
+    public static Trigger missingPeriodic(CaptureFilter patterns, long periodMs) {
+        return new Trigger() {
+            private long lastSeen = Long.MIN_VALUE;
+            private boolean reported;
+
+            @Override
+            public String onFrame(String bits, long now) {
+                if (patterns.matches(bits)) {
+                    lastSeen = now;
+                    reported = false;
+                }
+                return onTick(now);
+            }
+
+            @Override
+            public String onTick(long now) {
+                if (lastSeen == Long.MIN_VALUE) lastSeen = now;
+                if (reported || now - lastSeen <= periodMs * MILLIS) return null;
+                reported = true;
+                return "Trame périodique absente depuis " + (now - lastSeen) / MILLIS + " ms";
+            }
+        };
+    }
+
+    /**
+     * Trame reçue, avec ses instants de réception.
+     */
+    public static class Frame {
+        /**
+         * Trame binaire.
+         */
+        public final String bits;
+
+        /**
+         * Instant de réception ({@link System#nanoTime()}), pour les fenêtres de capture.
+         */
+        public final long time;
+
+        /**
+         * Heure de réception (millisecondes depuis l'époque), enregistrée avec la trame
+         * même lorsqu'elle n'est libérée qu'au déclenchement.
+         */
+        public final long receivedAt;
+
+        Frame(String bits, long time, long receivedAt) {
+            this.bits = bits;
+            this.time = time;
+            this.receivedAt = receivedAt;
+        }
+    }
+
+    private final Trigger trigger;
+    private final long preNanos;
+    private final long postNanos;
+    private final int postFrames;
+    private final ArrayDeque<Frame> ring = new ArrayDeque<>();
+
+    private boolean recording;
+    private long recordingStart;
+    private int recordedFrames;
+    private int triggerCount;
+    private long kept;
+    private long discarded;
+    private String lastReason;
+    private String pendingReason;
+
+    /**
+     * Crée une capture déclenchée, armée.
+     *
+     * @param trigger    condition de déclenchement.
+     * @param preMs      durée conservée avant le déclenchement, en millisecondes.
+     * @param postMs     durée capturée après le déclenchement, en millisecondes (0 : limitée par le nombre).
+     * @param postFrames nombre de trames capturées après le déclenchement (0 : limité par la durée).
+     * @throws IllegalArgumentException si une valeur est négative.
+     */
+    public TriggeredCapture(Trigger trigger, long preMs, long postMs, int postFrames) {
+        if (preMs < 0 || postMs < 0 || postFrames < 0) {
+            throw new IllegalArgumentException("Fenêtres de capture invalides");
+        }
+        this.trigger = trigger;
+        this.preNanos = preMs * MILLIS;
+        this.postNanos = postMs * MILLIS;
+        this.postFrames = postFrames;
+    }
+
+    /**
+     * Traite une trame reçue.
+     *
+     * @param bits       trame reçue.
+     * @param now        instant de réception ({@link System#nanoTime()}).
+     * @param receivedAt heure de réception (millisecondes depuis l'époque).
+     * @return trames à enregistrer, dans l'ordre de réception (vide si la trame est gardée en mémoire).
+     */
+    public synchronized List<Frame> offer(String bits, long now, long receivedAt) {
+        rearmIfDone(now);
+        String reason = trigger.onFrame(bits, now);
+        Frame frame = new Frame(bits, now, receivedAt);
+        if (recording) {
+            defer(reason);
+            recordedFrames++;
+            kept++;
+            return List.of(frame);
+        }
+        ring.addLast(frame);
+        evict(now);
+        return armed(reason, now);
+    }
+
+    /**
+     * Fait avancer le temps en l'absence de trame (fin de fenêtre, trame périodique absente).
+     *
+     * @param now instant courant.
+     * @return trames à enregistrer (vide en général).
+     */
+    public synchronized List<Frame> tick(long now) {
+        rearmIfDone(now);
+        String reason = trigger.onTick(now);
+        if (recording) {
+            defer(reason);
+            return List.of();
+        }
+        evict(now);
+        return armed(reason, now);
+    }
+
+    /**
+     * Garde le premier déclenchement survenu pendant l'enregistrement, pour le réarmement.
+     */
+    private void defer(String reason) {
+        if (reason != null && pendingReason == null) pendingReason = reason;
+    }
+
+    /**
+     * Capture armée : déclenche sur la raison courante, ou sur celle reportée pendant l'enregistrement précédent.
+     */
+    private List<Frame> armed(String reason, long now) {
+        if (reason == null) reason = pendingReason;
+        pendingReason = null;
+        return reason != null ? fire(reason, now) : List.of();
+    }
+
+    private void rearmIfDone(long now) {
+        if (!recording) return;
+        boolean timeDone = postNanos > 0 && now - recordingStart >= postNanos;
+        boolean countDone = postFrames > 0 && recordedFrames >= postFrames;
+        if (timeDone || countDone || (postNanos == 0 && postFrames == 0)) {
+            recording = false;
+        }
+    }
+
+    private void evict(long now) {
+        while (!ring.isEmpty() && (now - ring.peekFirst().time > preNanos || ring.size() > MAX_BUFFERED_FRAMES)) {
+            ring.removeFirst();
+            discarded++;
+        }
+    }
+
+    private List<Frame> fire(String reason, long now) {
+        List<Frame> released = new ArrayList<>(ring);
+        ring.clear();
+        kept += released.size();
+        recording = true;
+        recordingStart = now;
+        recordedFrames = 0;
+        triggerCount++;
+        lastReason = reason;
+        System.out.println("Capture déclenchée : " + reason + " (" + released.size() + " trames avant)");
+        return released;
+    }
+
+    /**
+     * @return true si la fenêtre de post-déclenchement est en cours.
+     */
+    public synchronized boolean isRecording() {
+        return recording;
+    }
+
+    /**
+     * @return nombre de déclenchements depuis la création.
+     */
+    public synchronized int getTriggerCount() {
+        return triggerCount;
+    }
+
+    /**
+     * @return nombre de trames libérées pour enregistrement.
+     */
+    public synchronized long getKept() {
+        return kept;
+    }
+
+    /**
+     * @return nombre de trames sorties de la fenêtre sans déclenchement (non enregistrées).
+     */
+    public synchronized long getDiscarded() {
+        return discarded;
+    }
+
+    /**
+     * @return raison du dernier déclenchement, ou {@code null}.
+     */
+    public synchronized String getLastReason() {
+        return lastReason;
+    }
+}
@@ -0,0 +1,63 @@
+package org.sncf.gui.services;
+
+import org.sncf.gui.model.CaptureSettings;
+
+import java.sql.*;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Service de persistance du filtre de capture, mémorisé dans la table {@code capture_filter}
+ * (une seule ligne, motifs séparés par des retours à la ligne).
+ */
+public class CaptureFilterService {
+    private final DatabaseManager db;
+
+    /**
+     * Crée une instance du service de filtre de capture.
+     *
+     * @param db gestionnaire de base de données {@link DatabaseManager}.
+     */
+    public CaptureFilterService(DatabaseManager db) {
+        this.db = db;
+    }
+
+    /**
+     * Charge les paramètres de capture enregistrés.
+     *
+     * @return paramètres enregistrés, ou {@link CaptureSettings#defaults()} si aucun.
+     */
+    public CaptureSettings load() {
+        try (Connection conn = db.getConnection();
+             PreparedStatement ps = conn.prepareStatement(
+                     "SELECT enabled, patterns, sample_every FROM capture_filter WHERE id = 1");
+             ResultSet rs = ps.executeQuery()) {
+            if (rs.next()) {
+                String patterns = rs.getString("patterns");
+                return new CaptureSettings(rs.getInt("enabled") != 0,
+                        patterns.isBlank() ? List.of() : Arrays.asList(patterns.split("\n")),
+                        rs.getInt("sample_every"));
+            }
+        } catch (SQLException | IllegalArgumentException e) {
+            System.err.println("Erreur lecture filtre de capture : " + e.getMessage());
+        }
+        return CaptureSettings.defaults();
+    }
+
+    /**
+     * Enregistre (ou remplace) les paramètres de capture.
+     *
+     * @param settings paramètres à mémoriser.
+     * @throws SQLException en cas d'erreur lors de l'écriture.
+     */
+    public void save(CaptureSettings settings) throws SQLException {
+        String sql = "INSERT OR REPLACE INTO capture_filter (id, enabled, patterns, sample_every) VALUES (1, ?, ?, ?)";
+        try (Connection conn = db.getConnection();
+             PreparedStatement ps = conn.prepareStatement(sql)) {
+            ps.setInt(1, settings.enabled ? 1 : 0);
+            ps.setString(2, String.join("\n", settings.patterns));
+            ps.setInt(3, settings.sampleEvery);
+            ps.executeUpdate();
+        }
+    }
+}
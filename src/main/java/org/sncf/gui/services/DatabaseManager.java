@@ -3,6 +3,10 @@ package org.sncf.gui.services;
 import java.io.InputStream;
 import java.nio.file.*;
 import java.sql.*;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
 
 /**
  * Classe utilitaire pour gérer les interactions avec la base de données SQLite.
@@ -11,6 +15,10 @@ import java.sql.*;
  */
 public class DatabaseManager {
 
+    // Format de DATETIME('now') dans frame_capture.timestamp (UTC)
+    private static final DateTimeFormatter SQLITE_TIME = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss")
+            .withZone(ZoneOffset.UTC);
+
     /**
      * Génère dynamiquement le chemin de la base de données selon le système d’exploitation.
      *
@@ -64,6 +72,7 @@ public class DatabaseManager {
      * - crée le dossier si nécessaire
      * - copie un modèle embarqué si disponible
      * - sinon crée la BDD vide avec les 4 tables requises
+     * - complète le schéma avec les tables ajoutées depuis (voir {@link #ensureSchema()})
      */
     public static void initializeDatabase() throws SQLException {
         try {
@@ -88,6 +97,8 @@ public class DatabaseManager {
                 }
             }
 
+            ensureSchema();
+
         } catch (Exception e) {
             throw new SQLException("Échec d'initialisation de la base de données", e);
         }
@@ -149,6 +160,43 @@ public class DatabaseManager {
         }
     }
 
+    /**
+     * Crée, si nécessaire, les tables ajoutées après le schéma initial.
+     * <p>
+     * Exécuté à chaque démarrage : une base copiée depuis un ancien modèle
+     * ne contient que les 4 tables d'origine.
+     * </p>
+     *
+     * @throws SQLException en cas d'erreur d'exécution SQL.
+     */
+    private static void ensureSchema() throws SQLException {
+        try (Connection conn = DriverManager.getConnection(getDbUrl());
+             Statement stmt = conn.createStatement()) {
+
+            // Table host_link_config : débit de la liaison PC ↔ ESP32, par port série
+            stmt.executeUpdate("""
+                CREATE TABLE IF NOT EXISTS host_link_config (
+                    port_name TEXT PRIMARY KEY,
+                    baudrate INTEGER NOT NULL,
+                    rts_cts INTEGER NOT NULL DEFAULT 0
+                );
+            """);
+
+            // Table capture_filter : motifs appliqués aux trames avant enregistrement (une seule ligne)
+            stmt.executeUpdate("""
+                CREATE TABLE IF NOT EXISTS capture_filter (
+                    id INTEGER PRIMARY KEY CHECK (id = 1),
+                    enabled INTEGER NOT NULL DEFAULT 0,
+                    patterns TEXT NOT NULL DEFAULT '',
+                    sample_every INTEGER NOT NULL DEFAULT 0
+                );
+            """);
+
+            // Index sur l'hexadécimal : présélection des exports filtrés (préfixe GLOB) et retraduction
+            stmt.executeUpdate("CREATE INDEX IF NOT EXISTS idx_frame_capture_hexa ON frame_capture (raw_hexa)");
+        }
+    }
+
     /**
      * Insère une trame dans la table {@code frame_capture}.
      *
@@ -168,6 +216,37 @@ public class DatabaseManager {
         }
     }
 
+    /**
+     * Insère un lot de trames dans la table {@code frame_capture}, en une seule transaction.
+     * Les trames horodatées gardent leur heure ; les autres prennent l'heure de l'insertion.
+     *
+     * @param entries trames à insérer.
+     * @throws SQLException en cas d'erreur lors de l'insertion (le lot est alors annulé).
+     */
+    public void insertTrames(List<TrameService.TrameEntry> entries) throws SQLException {
+        if (entries.isEmpty()) return;
+        String sql = "INSERT INTO frame_capture (raw_bits, raw_hexa, raw_text, timestamp) "
+                + "VALUES (?, ?, ?, COALESCE(?, DATETIME('now')))";
+        try (Connection conn = getConnection()) {
+            conn.setAutoCommit(false);
+            try (PreparedStatement ps = conn.prepareStatement(sql)) {
+                for (TrameService.TrameEntry entry : entries) {
+                    ps.setString(1, entry.bits);
+                    ps.setString(2, entry.hex);
+                    ps.setString(3, entry.text);
+                    ps.setString(4, entry.timestamp != 0
+                            ? SQLITE_TIME.format(Instant.ofEpochMilli(entry.timestamp)) : null);
+                    ps.addBatch();
+                }
+                ps.executeBatch();
+                conn.commit();
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            }
+        }
+    }
+
     /**
      * Supprime toutes les trames de la table {@code frame_capture}.
      *
@@ -14,6 +14,9 @@ import java.util.HashMap;
  */
 public class DictionaryService {
     private final DatabaseManager db;
+    // Table chargée une fois, relue après chaque modification (lue par les threads de réception)
+    private volatile Map<String, String> cachedMap;
+    private int cacheGeneration;
 
     /**
      * Crée une instance du service de dictionnaire.
@@ -40,6 +43,8 @@ public class DictionaryService {
                 ps.setString(2, label.trim());
                 ps.executeUpdate();
             }
+        } finally {
+            invalidateCache();
         }
     }
 
@@ -77,16 +82,23 @@ public class DictionaryService {
      */
     public String convertHexToText(String hexLine) {
         if (hexLine == null || hexLine.isEmpty()) return "";
+        return convertHexToText(hexLine, loadDictionaryMap());
+    }
+
+    /**
+     * Variante de {@link #convertHexToText(String)} utilisant un dictionnaire déjà chargé,
+     * pour convertir un lot de trames sans relire la base pour chacune.
+     *
+     * @param hexLine la chaîne hexadécimale à convertir.
+     * @param dict    dictionnaire obtenu via {@link #loadDictionaryMap()}.
+     * @return la chaîne texte correspondante.
+     */
+    public String convertHexToText(String hexLine, Map<String, String> dict) {
+        if (hexLine == null || hexLine.isEmpty()) return "";
 
         String[] tokens = hexLine.trim().split("\\s+");
         StringBuilder result = new StringBuilder();
 
-        // Charger le dictionnaire dans une map
-        Map<String, String> dict = new HashMap<>();
-        for (DictionaryEntry entry : getAllEntries()) {
-            dict.put(entry.hexPattern.trim().toUpperCase(), entry.traduction);
-        }
-
         int i = 0;
         while (i < tokens.length) {
             boolean matched = false;
@@ -127,6 +139,50 @@ public class DictionaryService {
         return result.toString();
     }
 
+    /**
+     * Charge le dictionnaire sous forme de table motif hexadécimal (majuscules) → traduction.
+     *
+     * @return table de correspondance utilisable par {@link #convertHexToText(String, Map)}.
+     */
+    public Map<String, String> loadDictionaryMap() {
+        Map<String, String> dict = new HashMap<>();
+        for (DictionaryEntry entry : getAllEntries()) {
+            dict.put(entry.hexPattern.trim().toUpperCase(), entry.traduction);
+        }
+        return dict;
+    }
+
+    /**
+     * Retourne le dictionnaire courant sans relire la base à chaque appel : la table est
+     * chargée une fois, puis rechargée après un ajout ou une suppression d'entrée.
+     * Utilisable depuis n'importe quel thread.
+     *
+     * @return table de correspondance non modifiable, pour {@link #convertHexToText(String, Map)}.
+     */
+    public Map<String, String> getDictionaryMap() {
+        Map<String, String> map = cachedMap;
+        if (map == null) {
+            int generation;
+            synchronized (this) {
+                generation = cacheGeneration;
+            }
+            map = Map.copyOf(loadDictionaryMap());
+            synchronized (this) {
+                // Une modification pendant le chargement rend cette table périmée : elle n'est pas gardée
+                if (generation == cacheGeneration) cachedMap = map;
+            }
+        }
+        return map;
+    }
+
+    /**
+     * Oublie la table mise en cache par {@link #getDictionaryMap()} (dictionnaire modifié hors de ce service).
+     */
+    public synchronized void invalidateCache() {
+        cacheGeneration++;
+        cachedMap = null;
+    }
+
     /**
      * Charge toutes les entrées du dictionnaire depuis la base de données.
      *
@@ -164,6 +220,8 @@ public class DictionaryService {
             ps.executeUpdate();
         } catch (SQLException e) {
             throw new RuntimeException("Erreur suppression dictionnaire: " + e.getMessage(), e);
+        } finally {
+            invalidateCache();
         }
     }
 
@@ -1,19 +1,147 @@
 package org.sncf.gui.services;
 
-import org.sncf.gui.model.FilterRule;
+import org.sncf.gui.serial.SerialTransmitter;
+import org.sncf.gui.services.export.CaptureFile;
+import org.sncf.gui.services.export.CaptureFileWriter;
+import org.sncf.gui.services.export.CsvRowWriter;
+import org.sncf.gui.services.export.FrameWriter;
+import org.sncf.gui.services.export.JsonRowWriter;
+import org.sncf.gui.services.export.PcapngWriter;
+import org.sncf.gui.services.export.ParallelGzipOutputStream;
+import org.sncf.gui.services.export.RowWriter;
+import org.sncf.gui.services.filter.FilterSet;
 
 import javax.swing.*;
-import java.io.FileWriter;
-import java.io.PrintWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.SQLException;
 import java.util.List;
 
 /**
  * Service responsable de l'export des trames vers un fichier local.
- * Permet l'export au format CSV ou JSON, depuis la mémoire ou la base de données,
- * avec ou sans filtrage.
+ * Permet l'export au format CSV, JSON, JSON délimité par lignes (NDJSON), en capture binaire
+ * ({@link CaptureFile}) ou en pcapng ({@link PcapngWriter}),
+ * depuis la mémoire ou la base de données, avec ou sans filtrage, compressé ou non (gzip).
+ * <p>
+ * L'export s'exécute en arrière-plan : les trames sont lues par tranches de
+ * {@link #CHUNK_ROWS} (historique) ou en flux (base), écrites au fil de l'eau dans un
+ * tampon, et jamais conservées en mémoire. L'avancement et le résultat sont remis sur l'EDT.
+ * </p>
  */
 public class ExportService {
+
+    /**
+     * Nombre de trames lues à la fois dans l'historique, et entre deux relevés d'avancement.
+     */
+    public static final int CHUNK_ROWS = 4096;
+
+    private static final long PROGRESS_PERIOD_NANOS = 100_000_000L;
+
+    /**
+     * Formats de fichier proposés.
+     */
+    public enum Format {
+        CSV("CSV", ".csv"),
+        JSON("JSON", ".json"),
+        NDJSON("JSON par lignes (NDJSON)", ".ndjson"),
+        CAPTURE("Capture binaire", CaptureFile.EXTENSION),
+        PCAPNG("pcapng (Wireshark)", ".pcapng");
+
+        public final String label;
+        public final String extension;
+
+        Format(String label, String extension) {
+            this.label = label;
+            this.extension = extension;
+        }
+
+        /**
+         * @param out flux de sortie.
+         * @return sérialiseur de ce format texte.
+         * @throws IllegalArgumentException pour le format binaire, écrit dans un flux d'octets.
+         */
+        public RowWriter open(Writer out) {
+            return switch (this) {
+                case CSV -> new CsvRowWriter(out);
+                case JSON -> new JsonRowWriter(out, false);
+                case NDJSON -> new JsonRowWriter(out, true);
+                case CAPTURE, PCAPNG -> throw new IllegalArgumentException("Format binaire : flux d'octets attendu");
+            };
+        }
+
+        @Override
+        public String toString() {
+            return label;
+        }
+    }
+
+    /**
+     * Suivi d'un export, appelé sur l'EDT.
+     */
+    public interface ExportListener {
+        /**
+         * @param rowsRead      trames lues jusqu'ici (retenues ou non).
+         * @param totalRows     trames à lire au total.
+         * @param rowsPerSecond débit de lecture depuis le début de l'export.
+         */
+        void onProgress(long rowsRead, long totalRows, double rowsPerSecond);
+
+        /**
+         * @param rowsWritten trames écrites dans le fichier.
+         * @param cancelled   true si l'export a été annulé (le fichier partiel est supprimé).
+         * @param error       erreur ayant interrompu l'export, ou {@code null}.
+         */
+        void onFinished(long rowsWritten, boolean cancelled, Exception error);
+    }
+
+    /**
+     * Export en cours, annulable depuis n'importe quel thread.
+     */
+    public static class ExportJob {
+        private final ExportListener listener;
+        private final long started = System.nanoTime();
+        private volatile boolean cancelled;
+        private long lastReport = Long.MIN_VALUE;
+
+        ExportJob(ExportListener listener) {
+            this.listener = listener;
+        }
+
+        /**
+         * Demande l'arrêt de l'export ; il s'interrompt à la trame suivante.
+         */
+        public void cancel() {
+            cancelled = true;
+        }
+
+        /**
+         * @return true si l'export a été annulé.
+         */
+        public boolean isCancelled() {
+            return cancelled;
+        }
+
+        /**
+         * Remet l'avancement sur l'EDT, au plus tous les {@link #PROGRESS_PERIOD_NANOS}
+         * (sauf en fin de lecture).
+         */
+        void progress(long rowsRead, long totalRows) {
+            if (listener == null) return;
+            long now = System.nanoTime();
+            if (rowsRead < totalRows && lastReport != Long.MIN_VALUE && now - lastReport < PROGRESS_PERIOD_NANOS) return;
+            lastReport = now;
+            double rate = rowsRead * 1e9 / Math.max(1, now - started);
+            SwingUtilities.invokeLater(() -> listener.onProgress(rowsRead, totalRows, rate));
+        }
+    }
+
     private final TrameService trameService;
+    private final DictionaryService dictionaryService;
 
     /**
      * Crée un nouveau service d'export.
@@ -21,70 +149,160 @@ public class ExportService {
      * @param trameService le service de trames utilisé pour accéder ou filtrer les données à exporter.
      */
     public ExportService(TrameService trameService) {
+        this(trameService, null);
+    }
+
+    /**
+     * Crée un service d'export dont les captures binaires portent l'empreinte du dictionnaire.
+     *
+     * @param trameService      le service de trames utilisé pour accéder ou filtrer les données à exporter.
+     * @param dictionaryService dictionnaire ayant produit le texte des trames ({@code null} : inconnu).
+     */
+    public ExportService(TrameService trameService, DictionaryService dictionaryService) {
         this.trameService = trameService;
+        this.dictionaryService = dictionaryService;
     }
 
     /**
-     * Lance l’export des trames vers un fichier local, selon les options sélectionnées.
-     * Une boîte de dialogue permet à l’utilisateur de choisir le fichier de destination.
+     * Lance en arrière-plan l’export des trames vers un fichier local, selon les options sélectionnées.
+     * Le fichier est choisi au préalable par l'interface.
      *
-     * @param inMemoryTrames liste des trames en mémoire si l'export ne se fait pas depuis la base.
+     * @param target         fichier de destination (remplacé s'il existe).
+     * @param format         format du fichier.
+     * @param inMemoryTrames trames en mémoire, lues par tranches si l'export ne se fait pas depuis la base.
      * @param fromDb         true pour exporter les trames depuis la base de données, false pour utiliser celles en mémoire.
-     * @param toCsv          true pour exporter au format CSV, false pour exporter au format JSON.
      * @param onlyFiltered   true pour n’exporter que les trames filtrées, false pour toutes les trames.
-     * @param filters        liste des règles de filtrage à appliquer si {@code onlyFiltered} est true.
+     * @param filters        filtres compilés à appliquer si {@code onlyFiltered} est true.
+     * @param compressed     true pour compresser le fichier au format gzip, sur tous les cœurs.
+     * @param listener       suivi de l'export, appelé sur l'EDT.
+     * @return export en cours.
      */
-    public void export(List<TrameService.TrameEntry> inMemoryTrames, boolean fromDb, boolean toCsv, boolean onlyFiltered, List<FilterRule> filters) {
-        JFileChooser fileChooser = new JFileChooser();
-        fileChooser.setDialogTitle("Choisir un fichier de destination");
-        int userSelection = fileChooser.showSaveDialog(null);
-        if (userSelection != JFileChooser.APPROVE_OPTION) return;
-
-        //Ajout de l'extension
-        String path = fileChooser.getSelectedFile().getAbsolutePath();
-        String expectedExt = toCsv ? ".csv" : ".json";
-        if (!path.toLowerCase().endsWith(expectedExt)) {
-            path += expectedExt;
+    public ExportJob export(Path target, Format format, ParallelScan.ChunkSource inMemoryTrames, boolean fromDb,
+                            boolean onlyFiltered, FilterSet filters, boolean compressed, ExportListener listener) {
+        ExportJob job = new ExportJob(listener);
+        FilterSet active = onlyFiltered ? filters : null;
+        Thread thread = new Thread(() -> {
+            long written = 0;
+            Exception error = null;
+            // Le sérialiseur tamponne lui-même, le flux gzip découpe les octets en blocs
+            try (OutputStream file = Files.newOutputStream(target);
+                 OutputStream out = compressed ? new ParallelGzipOutputStream(file) : file) {
+                written = write(open(format, out), fromDb ? null : inMemoryTrames, active, job);
+            } catch (IOException | SQLException | RuntimeException e) {
+                // Toute erreur doit aboutir à onFinished : sinon la fenêtre de progression reste ouverte
+                System.err.println("❌ Erreur export : " + e.getMessage());
+                error = e;
+            }
+            if (job.isCancelled() || error != null) {
+                try {
+                    Files.deleteIfExists(target);
+                } catch (IOException e) {
+                    System.err.println("❌ Fichier partiel non supprimé : " + e.getMessage());
+                }
+            }
+            long rows = written;
+            Exception failure = error;
+            SwingUtilities.invokeLater(() -> listener.onFinished(rows, job.isCancelled(), failure));
+        }, "export");
+        thread.setDaemon(true);
+        thread.start();
+        return job;
+    }
+
+    /**
+     * @param format format du fichier.
+     * @param out    flux d'octets de destination.
+     * @return sérialiseur écrivant dans ce flux (UTF-8 pour les formats texte).
+     */
+    FrameWriter open(Format format, OutputStream out) {
+        String portConfig = SerialTransmitter.getPortConfig();
+        switch (format) {
+            case CAPTURE -> {
+                long dictionaryHash = dictionaryService != null ? CaptureFile.dictionaryHash(dictionaryService.loadDictionaryMap()) : 0;
+                return new CaptureFileWriter(out, new CaptureFile.Header(CaptureFile.VERSION, true,
+                        System.currentTimeMillis(), dictionaryHash, portConfig));
+            }
+            case PCAPNG -> {
+                // Repli pour les trames sans horodatage (timestamp à 0) : elles prennent l'instant de l'export
+                return new PcapngWriter(out, "serie", portConfig, true, System.currentTimeMillis());
+            }
+            default -> {
+                return format.open(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+            }
         }
+    }
 
-        try (PrintWriter writer = new PrintWriter(new FileWriter(path))) {
-            List<TrameService.TrameEntry> exportList = fromDb
-                    ? trameService.loadAllFromDb()
-                    : inMemoryTrames;
+    /**
+     * Écrit les trames dans un flux texte, sans les conserver en mémoire.
+     *
+     * @param writer  flux de sortie (non fermé).
+     * @param format  format texte d'écriture.
+     * @param memory  trames en mémoire, ou {@code null} pour lire la base en flux.
+     * @param filters filtres à appliquer, ou {@code null} pour toutes les trames.
+     * @param job     export suivi (annulation et avancement).
+     * @return nombre de trames écrites.
+     */
+    long write(Writer writer, Format format, ParallelScan.ChunkSource memory, FilterSet filters, ExportJob job)
+            throws IOException, SQLException {
+        return write(format.open(writer), memory, filters, job);
+    }
 
-            if (onlyFiltered) {
-                exportList = trameService.filterTrames(exportList, filters);
-            }
+    /**
+     * Écrit les trames avec un sérialiseur, sans les conserver en mémoire.
+     *
+     * @param rows    sérialiseur du format choisi.
+     * @param memory  trames en mémoire, ou {@code null} pour lire la base en flux.
+     * @param filters filtres à appliquer, ou {@code null} pour toutes les trames.
+     * @param job     export suivi (annulation et avancement).
+     * @return nombre de trames écrites.
+     */
+    long write(FrameWriter rows, ParallelScan.ChunkSource memory, FilterSet filters, ExportJob job)
+            throws IOException, SQLException {
+        FilterSet active = filters != null && !filters.isEmpty() ? filters : null;
+        rows.begin();
 
-            if (toCsv) {
-                writer.println("bits,hex,text");
-                for (TrameService.TrameEntry t : exportList) {
-                    writer.printf("\"%s\",\"%s\",\"%s\"\n", t.bits, t.hex, t.text);
-                }
-            } else {
-                writer.println("[");
-                for (int i = 0; i < exportList.size(); i++) {
-                    TrameService.TrameEntry t = exportList.get(i);
-                    writer.printf("  {\"bits\": \"%s\", \"hex\": \"%s\", \"text\": \"%s\"}%s\n",
-                            escape(t.bits), escape(t.hex), escape(t.text),
-                            (i < exportList.size() - 1 ? "," : ""));
+        if (memory != null) {
+            int total = memory.size();
+            long read = 0;
+            for (int from = 0; from < total && !job.isCancelled(); from += CHUNK_ROWS) {
+                List<TrameService.TrameEntry> chunk = memory.read(from, Math.min(total, from + CHUNK_ROWS));
+                for (TrameService.TrameEntry entry : chunk) {
+                    if (active == null || active.matchesAny(entry)) rows.write(entry);
                 }
-                writer.println("]");
+                read += chunk.size();
+                job.progress(read, total);
             }
-
-            JOptionPane.showMessageDialog(null, "Export réussi !");
-        } catch (Exception e) {
-            JOptionPane.showMessageDialog(null, "Erreur export : " + e.getMessage(), "Erreur", JOptionPane.ERROR_MESSAGE);
+        } else {
+            int total = trameService.countCandidatesInDb(active);
+            long[] read = new long[1];
+            IOException[] failure = new IOException[1];
+            trameService.scanCandidatesFromDb(active, entry -> {
+                if (job.isCancelled()) return false;
+                try {
+                    if (active == null || active.matchesAny(entry)) rows.write(entry);
+                } catch (IOException e) {
+                    failure[0] = e;
+                    return false;
+                }
+                if (++read[0] % CHUNK_ROWS == 0) job.progress(read[0], total);
+                return true;
+            });
+            if (failure[0] != null) throw failure[0];
+            job.progress(read[0], read[0]);
         }
+
+        rows.end();
+        return rows.getRows();
     }
 
     /**
-     * Échappe les caractères spéciaux d’une chaîne (guillemets, antislash) pour une sortie JSON valide.
+     * Échappe les caractères spéciaux d’une chaîne (guillemets, antislash, caractères de contrôle)
+     * pour une sortie JSON valide, tenant sur une seule ligne.
      *
-     * @param input la chaîne à échapper.
+     * @param input la chaîne à échapper ({@code null} : chaîne vide).
      * @return chaîne sécurisée pour une inclusion dans du JSON.
      */
     String escape(String input) {
-        return input.replace("\\", "\\\\").replace("\"", "\\\"");
+        return JsonRowWriter.escape(input);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,308 @@
+package org.sncf.gui.services;
+
+import org.sncf.gui.model.FilterRule;
+import org.sncf.gui.services.filter.FilterSet;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+
+/**
+ * Référentiel des filtres personnalisés (table {@code custom_filter}), tenu en mémoire.
+ *
+ * <p>La table est lue une seule fois ({@link #load()}). Chaque modification produit un
+ * nouvel instantané immuable et numéroté ({@link Snapshot}), publié aussitôt aux abonnés ;
+ * l'écriture correspondante en base est faite en arrière-plan, dans l'ordre des modifications,
+ * par un unique thread d'écriture. L'état actif/inactif des règles n'est conservé qu'en mémoire.</p>
+ *
+ * <p>Les modifications et les notifications ont lieu sur le thread appelant (l'EDT pour la vue
+ * des filtres). Les instantanés peuvent être lus depuis n'importe quel thread.</p>
+ */
+public class FilterRepository {
+
+    private final DatabaseManager db;
+    private final List<Consumer<Snapshot>> subscribers = new CopyOnWriteArrayList<>();
+    private final ExecutorService writer = Executors.newSingleThreadExecutor(task -> {
+        Thread thread = new Thread(task, "custom-filter-writer");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private volatile Snapshot snapshot = new Snapshot(0, List.of(), Set.of());
+    private int nextId = 1;
+
+    /**
+     * @param db accès à la base contenant la table {@code custom_filter}.
+     */
+    public FilterRepository(DatabaseManager db) {
+        this.db = db;
+    }
+
+    /**
+     * Lit la table des filtres et publie le premier instantané (aucune règle active).
+     * En cas d'erreur, le référentiel reste vide.
+     */
+    public synchronized void load() {
+        List<FilterRule> rules = new ArrayList<>();
+        try (Connection conn = db.getConnection();
+             Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT id, name, pattern, color FROM custom_filter")) {
+            while (rs.next()) {
+                try {
+                    rules.add(new FilterRule(rs.getInt("id"), rs.getString("name"),
+                            rs.getString("pattern"), rs.getString("color")));
+                } catch (RuntimeException e) {
+                    System.err.println("❌ Filtre " + rs.getInt("id") + " ignoré : " + e.getMessage());
+                }
+            }
+        } catch (SQLException e) {
+            System.err.println("❌ Erreur chargement des filtres : " + e.getMessage());
+        }
+        for (FilterRule rule : rules) {
+            nextId = Math.max(nextId, rule.id + 1);
+        }
+        publish(rules, Set.of());
+    }
+
+    /**
+     * @return dernier instantané publié.
+     */
+    public Snapshot getSnapshot() {
+        return snapshot;
+    }
+
+    /**
+     * Abonne un observateur ; il reçoit aussitôt l'instantané courant, puis chaque nouvel instantané.
+     *
+     * @param subscriber observateur.
+     */
+    public void subscribe(Consumer<Snapshot> subscriber) {
+        subscribers.add(subscriber);
+        subscriber.accept(snapshot);
+    }
+
+    /**
+     * Ajoute une règle (inactive).
+     *
+     * @param name    nom de la règle.
+     * @param pattern motif.
+     * @param color   couleur au format {@code #RRGGBB}.
+     * @return la règle ajoutée, avec son identifiant.
+     * @throws NumberFormatException si la couleur est invalide.
+     */
+    public synchronized FilterRule add(String name, String pattern, String color) {
+        // Identifiant attribué ici pour que l'insertion puisse être différée
+        FilterRule rule = new FilterRule(nextId++, name, pattern, color);
+        List<FilterRule> rules = new ArrayList<>(snapshot.rules);
+        rules.add(rule);
+        publish(rules, snapshot.enabled);
+        write("ajout", conn -> {
+            try (PreparedStatement ps = conn.prepareStatement(
+                    "INSERT INTO custom_filter (id, name, pattern, color) VALUES (?, ?, ?, ?)")) {
+                ps.setInt(1, rule.id);
+                ps.setString(2, name);
+                ps.setString(3, pattern);
+                ps.setString(4, color);
+                ps.executeUpdate();
+            }
+        });
+        return rule;
+    }
+
+    /**
+     * Modifie une règle ; son état actif est conservé.
+     *
+     * @param id      identifiant de la règle.
+     * @param name    nouveau nom.
+     * @param pattern nouveau motif.
+     * @param color   nouvelle couleur au format {@code #RRGGBB}.
+     * @throws NumberFormatException si la couleur est invalide.
+     */
+    public synchronized void update(int id, String name, String pattern, String color) {
+        FilterRule updated = new FilterRule(id, name, pattern, color);
+        List<FilterRule> rules = new ArrayList<>(snapshot.rules);
+        rules.replaceAll(rule -> rule.id == id ? updated : rule);
+        publish(rules, snapshot.enabled);
+        write("mise à jour", conn -> {
+            try (PreparedStatement ps = conn.prepareStatement(
+                    "UPDATE custom_filter SET name=?, pattern=?, color=? WHERE id=?")) {
+                ps.setString(1, name);
+                ps.setString(2, pattern);
+                ps.setString(3, color);
+                ps.setInt(4, id);
+                ps.executeUpdate();
+            }
+        });
+    }
+
+    /**
+     * Supprime une règle.
+     *
+     * @param id identifiant de la règle.
+     */
+    public synchronized void delete(int id) {
+        List<FilterRule> rules = new ArrayList<>(snapshot.rules);
+        rules.removeIf(rule -> rule.id == id);
+        Set<Integer> enabled = new HashSet<>(snapshot.enabled);
+        enabled.remove(id);
+        publish(rules, enabled);
+        write("suppression", conn -> {
+            try (PreparedStatement ps = conn.prepareStatement("DELETE FROM custom_filter WHERE id = ?")) {
+                ps.setInt(1, id);
+                ps.executeUpdate();
+            }
+        });
+    }
+
+    /**
+     * Active ou désactive une règle (sans écriture en base).
+     *
+     * @param id      identifiant de la règle.
+     * @param enabled nouvel état.
+     */
+    public synchronized void setEnabled(int id, boolean enabled) {
+        if (snapshot.isEnabled(id) == enabled) return;
+        Set<Integer> states = new HashSet<>(snapshot.enabled);
+        if (enabled) {
+            states.add(id);
+        } else {
+            states.remove(id);
+        }
+        // Liste des règles inchangée : les abonnés peuvent ne mettre à jour que les filtres actifs
+        publish(snapshot.rules, states);
+    }
+
+    /**
+     * Attend la fin des écritures en base déjà demandées.
+     */
+    public void flush() {
+        try {
+            writer.submit(() -> { }).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            System.err.println("❌ Erreur écriture des filtres : " + e.getMessage());
+        }
+    }
+
+    private void publish(List<FilterRule> rules, Set<Integer> enabled) {
+        List<FilterRule> sorted = rules;
+        if (rules != snapshot.rules) {
+            sorted = new ArrayList<>(rules);
+            // custom_filter.name accepte NULL : les règles sans nom sont listées en premier
+            sorted.sort(Comparator.comparing((FilterRule rule) -> rule.name, Comparator.nullsFirst(Comparator.naturalOrder()))
+                    .thenComparingInt(rule -> rule.id));
+            sorted = List.copyOf(sorted);
+        }
+        snapshot = new Snapshot(snapshot.version + 1, sorted, enabled);
+        for (Consumer<Snapshot> subscriber : subscribers) {
+            subscriber.accept(snapshot);
+        }
+    }
+
+    private interface SqlWrite {
+        void run(Connection conn) throws SQLException;
+    }
+
+    private void write(String action, SqlWrite write) {
+        writer.execute(() -> {
+            try (Connection conn = db.getConnection()) {
+                write.run(conn);
+            } catch (SQLException e) {
+                System.err.println("❌ Erreur " + action + " du filtre : " + e.getMessage());
+            }
+        });
+    }
+
+    /**
+     * État immuable du référentiel à un instant donné.
+     */
+    public static class Snapshot {
+
+        /**
+         * Numéro de l'instantané, croissant à chaque modification.
+         */
+        public final long version;
+
+        /**
+         * Toutes les règles, triées par nom.
+         */
+        public final List<FilterRule> rules;
+
+        /**
+         * Règles actives compilées, dans l'ordre de {@link #rules}.
+         */
+        public final FilterSet activeFilters;
+
+        private final Set<Integer> enabled;
+        private final String[] searchTexts;
+        // Index des trigrammes : règles (par position dans rules) dont le nom ou le motif les contient
+        private final Map<String, BitSet> trigrams = new HashMap<>();
+
+        private Snapshot(long version, List<FilterRule> rules, Set<Integer> enabled) {
+            this.version = version;
+            this.rules = rules;
+            this.enabled = Set.copyOf(enabled);
+            List<FilterRule> active = new ArrayList<>();
+            for (FilterRule rule : rules) {
+                if (this.enabled.contains(rule.id)) active.add(rule);
+            }
+            this.activeFilters = FilterSet.compile(active);
+            this.searchTexts = new String[rules.size()];
+            for (int i = 0; i < rules.size(); i++) {
+                searchTexts[i] = (Objects.toString(rules.get(i).name, "") + "\n" + rules.get(i).pattern)
+                        .toLowerCase(Locale.ROOT);
+                for (int c = 0; c + 3 <= searchTexts[i].length(); c++) {
+                    trigrams.computeIfAbsent(searchTexts[i].substring(c, c + 3), k -> new BitSet()).set(i);
+                }
+            }
+        }
+
+        /**
+         * @param id identifiant d'une règle.
+         * @return true si la règle est active.
+         */
+        public boolean isEnabled(int id) {
+            return enabled.contains(id);
+        }
+
+        /**
+         * Recherche les règles dont le nom ou le motif contient un texte (sans tenir compte de la casse).
+         *
+         * @param text texte recherché ; vide : toutes les règles.
+         * @return identifiants des règles trouvées.
+         */
+        public Set<Integer> search(String text) {
+            String query = text.trim().toLowerCase(Locale.ROOT);
+            Set<Integer> found = new HashSet<>();
+            BitSet candidates = new BitSet();
+            candidates.set(0, rules.size());
+            // Seules les règles contenant tous les trigrammes du texte sont vérifiées
+            for (int c = 0; c + 3 <= query.length(); c++) {
+                BitSet withTrigram = trigrams.get(query.substring(c, c + 3));
+                if (withTrigram == null) return found;
+                candidates.and(withTrigram);
+            }
+            for (int i = candidates.nextSetBit(0); i >= 0; i = candidates.nextSetBit(i + 1)) {
+                if (searchTexts[i].contains(query)) found.add(rules.get(i).id);
+            }
+            return found;
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package org.sncf.gui.services;
+
+import org.sncf.gui.model.HostLinkSettings;
+
+import java.sql.*;
+
+/**
+ * Service de persistance des paramètres de liaison hôte ↔ ESP32,
+ * mémorisés par port série dans la table {@code host_link_config}.
+ * <p>
+ * Chaque adaptateur USB-série peut ainsi conserver le débit le plus rapide
+ * qui a passé l'auto-test de liaison.
+ * </p>
+ */
+public class HostLinkService {
+    private final DatabaseManager db;
+
+    /**
+     * Crée une instance du service de liaison hôte.
+     *
+     * @param db gestionnaire de base de données {@link DatabaseManager}.
+     */
+    public HostLinkService(DatabaseManager db) {
+        this.db = db;
+    }
+
+    /**
+     * Charge les paramètres enregistrés pour un port série.
+     *
+     * @param portName nom système du port (ex: "COM3", "/dev/ttyUSB0").
+     * @return paramètres enregistrés, ou {@link HostLinkSettings#defaults()} si aucun.
+     */
+    public HostLinkSettings load(String portName) {
+        if (portName == null || portName.isEmpty()) return HostLinkSettings.defaults();
+        try (Connection conn = db.getConnection();
+             PreparedStatement ps = conn.prepareStatement(
+                     "SELECT baudrate, rts_cts FROM host_link_config WHERE port_name = ?")) {
+            ps.setString(1, portName);
+            try (ResultSet rs = ps.executeQuery()) {
+                if (rs.next()) {
+                    return new HostLinkSettings(rs.getInt("baudrate"), rs.getInt("rts_cts") != 0);
+                }
+            }
+        } catch (SQLException | IllegalArgumentException e) {
+            System.err.println("Erreur lecture liaison hôte : " + e.getMessage());
+        }
+        return HostLinkSettings.defaults();
+    }
+
+    /**
+     * Enregistre (ou remplace) les paramètres de liaison d'un port série.
+     *
+     * @param portName nom système du port.
+     * @param settings paramètres à mémoriser.
+     * @throws SQLException en cas d'erreur lors de l'écriture.
+     */
+    public void save(String portName, HostLinkSettings settings) throws SQLException {
+        String sql = "INSERT OR REPLACE INTO host_link_config (port_name, baudrate, rts_cts) VALUES (?, ?, ?)";
+        try (Connection conn = db.getConnection();
+             PreparedStatement ps = conn.prepareStatement(sql)) {
+            ps.setString(1, portName);
+            ps.setInt(2, settings.baudrate);
+            ps.setInt(3, settings.rtsCts ? 1 : 0);
+            ps.executeUpdate();
+        }
+    }
+}
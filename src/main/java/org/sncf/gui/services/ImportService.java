@@ -0,0 +1,646 @@
+package org.sncf.gui.services;
+
+import org.sncf.gui.services.export.CaptureFile;
+import org.sncf.gui.services.export.CaptureFileReader;
+
+import javax.swing.*;
+import java.io.BufferedReader;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.InterruptedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Function;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Service d'import de trames dans la table {@code frame_capture}, depuis les fichiers
+ * produits par {@link ExportService} (CSV, JSON, NDJSON, capture binaire, éventuellement
+ * compressés en gzip) ou depuis un journal série brut (une trame binaire par ligne).
+ *
+ * <p>Le fichier est lu en flux et découpé en lots de {@link #BATCH_ROWS} enregistrements ;
+ * chaque lot est décodé (analyse, hexadécimal, traduction) sur le pool de calcul, puis inséré
+ * dans l'ordre du fichier par une seule connexion, en transactions de {@link #COMMIT_ROWS}
+ * trames. Pour les gros fichiers, l'index de l'hexadécimal est supprimé pendant l'import et
+ * reconstruit une seule fois à la fin. Les lots déjà validés restent en base si l'import est
+ * annulé ou échoue.</p>
+ */
+public class ImportService {
+
+    /**
+     * Nombre d'enregistrements décodés ensemble sur le pool de calcul.
+     */
+    public static final int BATCH_ROWS = 8192;
+
+    /**
+     * Nombre de trames insérées par transaction.
+     */
+    public static final int COMMIT_ROWS = 100_000;
+
+    /**
+     * Taille de fichier au-delà de laquelle l'index est reconstruit après l'import plutôt que
+     * maintenu à chaque insertion.
+     */
+    static final long DEFERRED_INDEX_BYTES = 16L << 20;
+
+    private static final long PROGRESS_PERIOD_NANOS = 100_000_000L;
+    private static final String INSERT_SQL = "INSERT INTO frame_capture (raw_bits, raw_hexa, raw_text, timestamp) "
+            + "VALUES (?, ?, ?, COALESCE(?, DATETIME('now')))";
+    private static final DateTimeFormatter SQLITE_TIME = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss")
+            .withZone(ZoneOffset.UTC);
+
+    /**
+     * Formats reconnus, d'après l'extension du fichier (sans {@code .gz}).
+     */
+    public enum Format {
+        CSV, JSON, CAPTURE, RAW;
+
+        /**
+         * @param path fichier à importer.
+         * @return format déduit de l'extension ; journal brut par défaut.
+         */
+        public static Format of(Path path) {
+            String name = path.getFileName().toString().toLowerCase(Locale.ROOT);
+            if (name.endsWith(".gz")) name = name.substring(0, name.length() - 3);
+            if (name.endsWith(".csv")) return CSV;
+            if (name.endsWith(".json") || name.endsWith(".ndjson")) return JSON;
+            if (name.endsWith(CaptureFile.EXTENSION)) return CAPTURE;
+            return RAW;
+        }
+    }
+
+    /**
+     * Suivi d'un import, appelé sur l'EDT.
+     */
+    public interface ImportListener {
+        /**
+         * @param rows          trames insérées jusqu'ici.
+         * @param bytesRead     octets du fichier lus.
+         * @param totalBytes    taille du fichier.
+         * @param rowsPerSecond débit d'insertion depuis le début de l'import.
+         */
+        void onProgress(long rows, long bytesRead, long totalBytes, double rowsPerSecond);
+
+        /**
+         * @param rows      trames insérées.
+         * @param cancelled true si l'import a été annulé.
+         * @param error     erreur ayant interrompu l'import, ou {@code null}.
+         */
+        void onFinished(long rows, boolean cancelled, Exception error);
+    }
+
+    /**
+     * Import en cours, annulable depuis n'importe quel thread.
+     */
+    public static class ImportJob {
+        private final ImportListener listener;
+        private final long started = System.nanoTime();
+        private volatile boolean cancelled;
+        private long lastReport = Long.MIN_VALUE;
+
+        ImportJob(ImportListener listener) {
+            this.listener = listener;
+        }
+
+        /**
+         * Demande l'arrêt de l'import ; il s'interrompt au lot suivant. Les trames déjà
+         * insérées sont conservées.
+         */
+        public void cancel() {
+            cancelled = true;
+        }
+
+        /**
+         * @return true si l'import a été annulé.
+         */
+        public boolean isCancelled() {
+            return cancelled;
+        }
+
+        void progress(long rows, long bytesRead, long totalBytes) {
+            if (listener == null) return;
+            long now = System.nanoTime();
+            if (bytesRead < totalBytes && lastReport != Long.MIN_VALUE && now - lastReport < PROGRESS_PERIOD_NANOS) return;
+            lastReport = now;
+            double rate = rows * 1e9 / Math.max(1, now - started);
+            SwingUtilities.invokeLater(() -> listener.onProgress(rows, bytesRead, totalBytes, rate));
+        }
+    }
+
+    /**
+     * Flux comptant les octets lus, pour l'avancement (avant décompression).
+     */
+    private static class CountingInputStream extends FilterInputStream {
+        volatile long count;
+
+        CountingInputStream(InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b >= 0) count++;
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int n = super.read(b, off, len);
+            if (n > 0) count += n;
+            return n;
+        }
+    }
+
+    private final DatabaseManager db;
+    private final DictionaryService dictionary;
+    private final TrameService converter;
+
+    /**
+     * Crée un service d'import.
+     *
+     * @param db         base de destination.
+     * @param dictionary dictionnaire utilisé pour traduire les trames du journal brut.
+     */
+    public ImportService(DatabaseManager db, DictionaryService dictionary) {
+        this.db = db;
+        this.dictionary = dictionary;
+        this.converter = new TrameService(db, dictionary);
+    }
+
+    /**
+     * Lance l'import d'un fichier en arrière-plan.
+     *
+     * @param source   fichier à importer.
+     * @param listener suivi de l'import, appelé sur l'EDT.
+     * @return import en cours.
+     */
+    public ImportJob importFile(Path source, ImportListener listener) {
+        ImportJob job = new ImportJob(listener);
+        Thread thread = new Thread(() -> {
+            long[] rows = new long[1];
+            Exception error = null;
+            try {
+                importFile(source, job, rows);
+            } catch (IOException | SQLException | RuntimeException e) {
+                // Erreurs inattendues comprises : sans onFinished, la fenêtre de progression resterait ouverte
+                System.err.println("❌ Erreur import : " + e.getMessage());
+                error = e;
+            }
+            Exception failure = error;
+            SwingUtilities.invokeLater(() -> listener.onFinished(rows[0], job.isCancelled(), failure));
+        }, "import");
+        thread.setDaemon(true);
+        thread.start();
+        return job;
+    }
+
+    /**
+     * Importe un fichier, de manière bloquante.
+     *
+     * @param source fichier à importer.
+     * @param job    import suivi (annulation et avancement).
+     * @param rows   reçoit en case 0 le nombre de trames insérées, y compris en cas d'erreur.
+     * @throws IOException  si le fichier est illisible.
+     * @throws SQLException en cas d'erreur d'insertion (le lot en cours est annulé).
+     */
+    void importFile(Path source, ImportJob job, long[] rows) throws IOException, SQLException {
+        Format format = Format.of(source);
+        long totalBytes = Files.size(source);
+        Map<String, String> dict = dictionary != null ? dictionary.loadDictionaryMap() : Map.of();
+
+        try (Connection conn = db.getConnection()) {
+            boolean deferIndex = totalBytes >= DEFERRED_INDEX_BYTES;
+            if (deferIndex) {
+                try (Statement stmt = conn.createStatement()) {
+                    stmt.executeUpdate("DROP INDEX IF EXISTS idx_frame_capture_hexa");
+                }
+            }
+            conn.setAutoCommit(false);
+            try (PreparedStatement ps = conn.prepareStatement(INSERT_SQL)) {
+                Inserter inserter = new Inserter(conn, ps, rows);
+                if (format == Format.CAPTURE) {
+                    importCapture(source, inserter, job, totalBytes);
+                } else {
+                    importText(source, format, dict, inserter, job, totalBytes);
+                }
+                // Après une annulation aussi : les lots déjà insérés sont conservés et comptés
+                conn.commit();
+                inserter.finish();
+            } catch (IOException | SQLException | RuntimeException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
+                if (deferIndex) {
+                    try (Statement stmt = conn.createStatement()) {
+                        stmt.executeUpdate("CREATE INDEX IF NOT EXISTS idx_frame_capture_hexa ON frame_capture (raw_hexa)");
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Insère les lots décodés dans l'ordre, en validant la transaction tous les {@link #COMMIT_ROWS}.
+     */
+    private static class Inserter {
+        private final Connection conn;
+        private final PreparedStatement ps;
+        private final long[] rows;
+        private long uncommitted;
+        private long lastTime = Long.MIN_VALUE;
+        private String lastTimeText;
+
+        Inserter(Connection conn, PreparedStatement ps, long[] rows) {
+            this.conn = conn;
+            this.ps = ps;
+            this.rows = rows;
+        }
+
+        void insert(List<TrameService.TrameEntry> batch) throws SQLException {
+            for (TrameService.TrameEntry entry : batch) {
+                ps.setString(1, entry.bits);
+                ps.setString(2, entry.hex);
+                ps.setString(3, entry.text);
+                ps.setString(4, time(entry.timestamp));
+                ps.addBatch();
+            }
+            ps.executeBatch();
+            uncommitted += batch.size();
+            if (uncommitted >= COMMIT_ROWS) {
+                conn.commit();
+                rows[0] += uncommitted;
+                uncommitted = 0;
+            }
+        }
+
+        void finish() {
+            rows[0] += uncommitted;
+            uncommitted = 0;
+        }
+
+        long inserted() {
+            return rows[0] + uncommitted;
+        }
+
+        /**
+         * Horodatage au format SQLite (les trames successives partagent souvent la même seconde).
+         */
+        private String time(long millis) {
+            if (millis == 0) return null;
+            long seconds = Math.floorDiv(millis, 1000);
+            if (seconds != lastTime) {
+                lastTime = seconds;
+                lastTimeText = SQLITE_TIME.format(Instant.ofEpochSecond(seconds));
+            }
+            return lastTimeText;
+        }
+    }
+
+    /**
+     * Décode les lots sur le pool de calcul et les insère dans l'ordre ; au plus deux lots par
+     * cœur sont en cours, ce qui borne la mémoire quand l'insertion est plus lente que le décodage.
+     */
+    private static class Pipeline {
+        private final ArrayDeque<CompletableFuture<List<TrameService.TrameEntry>>> pending = new ArrayDeque<>();
+        private final int maxInFlight = 2 * ForkJoinPool.getCommonPoolParallelism();
+        private final Inserter inserter;
+
+        Pipeline(Inserter inserter) {
+            this.inserter = inserter;
+        }
+
+        <T> void submit(T batch, Function<T, List<TrameService.TrameEntry>> decoder) throws IOException, SQLException {
+            pending.addLast(CompletableFuture.supplyAsync(() -> decoder.apply(batch), ForkJoinPool.commonPool()));
+            while (pending.size() >= maxInFlight || (!pending.isEmpty() && pending.peekFirst().isDone())) {
+                inserter.insert(await(pending.removeFirst()));
+            }
+        }
+
+        void drain() throws IOException, SQLException {
+            while (!pending.isEmpty()) {
+                inserter.insert(await(pending.removeFirst()));
+            }
+        }
+
+        private static List<TrameService.TrameEntry> await(CompletableFuture<List<TrameService.TrameEntry>> future)
+                throws IOException {
+            try {
+                return future.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Import interrompu");
+            } catch (ExecutionException e) {
+                throw new IOException("Fichier illisible : " + e.getCause().getMessage(), e.getCause());
+            }
+        }
+    }
+
+    private void importText(Path source, Format format, Map<String, String> dict, Inserter inserter,
+                            ImportJob job, long totalBytes) throws IOException, SQLException {
+        Pipeline pipeline = new Pipeline(inserter);
+        Function<List<String>, List<TrameService.TrameEntry>> decoder = switch (format) {
+            case CSV -> records -> decode(records, ImportService::parseCsv, dict);
+            case JSON -> records -> decode(records, ImportService::parseJson, dict);
+            default -> records -> decode(records, ImportService::parseRaw, dict);
+        };
+
+        try (CountingInputStream counted = new CountingInputStream(Files.newInputStream(source));
+             BufferedReader reader = new BufferedReader(new InputStreamReader(
+                     gzipped(source) ? new GZIPInputStream(counted, 1 << 16) : counted, StandardCharsets.UTF_8), 1 << 16)) {
+            List<String> batch = new ArrayList<>(BATCH_ROWS);
+            String record;
+            boolean first = true;
+            while ((record = format == Format.JSON ? nextJsonObject(reader) : nextRecord(reader, format)) != null) {
+                // En-tête CSV
+                if (first && format == Format.CSV && record.toLowerCase(Locale.ROOT).startsWith("bits,")) {
+                    first = false;
+                    continue;
+                }
+                first = false;
+                batch.add(record);
+                if (batch.size() == BATCH_ROWS) {
+                    if (job.isCancelled()) return;
+                    pipeline.submit(batch, decoder);
+                    batch = new ArrayList<>(BATCH_ROWS);
+                    job.progress(inserter.inserted(), counted.count, totalBytes);
+                }
+            }
+            if (!batch.isEmpty()) pipeline.submit(batch, decoder);
+            pipeline.drain();
+            job.progress(inserter.inserted(), totalBytes, totalBytes);
+        }
+    }
+
+    private void importCapture(Path source, Inserter inserter, ImportJob job, long totalBytes)
+            throws IOException, SQLException {
+        if (gzipped(source)) {
+            throw new IOException("Les captures binaires compressées doivent être décompressées avant l'import");
+        }
+        Pipeline pipeline = new Pipeline(inserter);
+        try (CaptureFileReader reader = CaptureFileReader.open(source)) {
+            boolean translate = !reader.getHeader().hasText && dictionary != null;
+            Map<String, String> dict = translate ? dictionary.loadDictionaryMap() : Map.of();
+            int blocks = reader.getBlockCount();
+            for (int i = 0; i < blocks; i++) {
+                if (job.isCancelled()) return;
+                pipeline.submit(i, index -> {
+                    CaptureFileReader.Block block;
+                    try {
+                        block = reader.readBlock(index);
+                    } catch (IOException e) {
+                        throw new IllegalStateException(e.getMessage(), e);
+                    }
+                    List<TrameService.TrameEntry> entries = new ArrayList<>(block.size());
+                    for (int row = 0; row < block.size(); row++) {
+                        String hex = converter.convertBitsToHex(block.bits[row]);
+                        String text = block.texts != null ? block.texts[row]
+                                : translate ? dictionary.convertHexToText(hex, dict) : "";
+                        entries.add(new TrameService.TrameEntry(block.bits[row], hex, text, block.timestamps[row]));
+                    }
+                    return entries;
+                });
+                job.progress(inserter.inserted(), totalBytes * (i + 1) / blocks, totalBytes);
+            }
+            pipeline.drain();
+            job.progress(inserter.inserted(), totalBytes, totalBytes);
+        }
+    }
+
+    private static boolean gzipped(Path source) throws IOException {
+        try (InputStream in = Files.newInputStream(source)) {
+            return in.read() == 0x1F && in.read() == 0x8B;
+        }
+    }
+
+    /**
+     * Décode un lot : analyse de chaque enregistrement, hexadécimal recalculé s'il manque,
+     * texte traduit par le dictionnaire s'il est absent (journal brut).
+     */
+    private List<TrameService.TrameEntry> decode(List<String> records, Function<String, Map<String, String>> parser,
+                                                 Map<String, String> dict) {
+        List<TrameService.TrameEntry> entries = new ArrayList<>(records.size());
+        for (String record : records) {
+            Map<String, String> fields = parser.apply(record);
+            if (fields == null) continue;
+            String bits = fields.getOrDefault("bits", "");
+            String hex = fields.get("hex");
+            if (hex == null || hex.isEmpty()) hex = converter.convertBitsToHex(bits);
+            String text = fields.get("text");
+            if (text == null) text = dictionary != null ? dictionary.convertHexToText(hex, dict) : "";
+            entries.add(new TrameService.TrameEntry(bits, hex, text));
+        }
+        return entries;
+    }
+
+    /**
+     * Lit l'enregistrement suivant : une ligne, ou plusieurs pour un champ CSV entre guillemets
+     * contenant des retours à la ligne.
+     */
+    private static String nextRecord(BufferedReader reader, Format format) throws IOException {
+        return format == Format.CSV ? nextCsvRecord(reader) : reader.readLine();
+    }
+
+    /**
+     * Lit l'enregistrement CSV suivant caractère par caractère : hors guillemets, {@code \n},
+     * {@code \r\n} ou {@code \r} le termine ; entre guillemets, les fins de ligne sont gardées telles quelles.
+     *
+     * @return enregistrement sans sa fin de ligne, ou {@code null} en fin de fichier.
+     */
+    static String nextCsvRecord(BufferedReader reader) throws IOException {
+        StringBuilder record = new StringBuilder();
+        boolean quoted = false;
+        int c;
+        while ((c = reader.read()) >= 0) {
+            if (c == '"') {
+                quoted = !quoted;
+            } else if (!quoted && c == '\n') {
+                return record.toString();
+            } else if (!quoted && c == '\r') {
+                reader.mark(1);
+                if (reader.read() != '\n') reader.reset();
+                return record.toString();
+            }
+            record.append((char) c);
+        }
+        return record.length() > 0 ? record.toString() : null;
+    }
+
+    /**
+     * Lit l'objet JSON suivant au premier niveau (éléments d'un tableau ou lignes NDJSON),
+     * sans analyser le reste du fichier.
+     */
+    static String nextJsonObject(BufferedReader reader) throws IOException {
+        StringBuilder object = new StringBuilder();
+        int depth = 0;
+        boolean inString = false, escaped = false;
+        int c;
+        while ((c = reader.read()) >= 0) {
+            if (depth == 0) {
+                if (c == '{') {
+                    depth = 1;
+                    object.append('{');
+                }
+                continue;
+            }
+            object.append((char) c);
+            if (inString) {
+                if (escaped) escaped = false;
+                else if (c == '\\') escaped = true;
+                else if (c == '"') inString = false;
+            } else if (c == '"') {
+                inString = true;
+            } else if (c == '{') {
+                depth++;
+            } else if (c == '}' && --depth == 0) {
+                return object.toString();
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Analyse une ligne CSV (RFC 4180) {@code bits,hex,text}.
+     *
+     * @return champs de la trame, ou {@code null} pour une ligne vide.
+     */
+    static Map<String, String> parseCsv(String record) {
+        if (record.isBlank()) return null;
+        List<String> values = new ArrayList<>(3);
+        StringBuilder field = new StringBuilder();
+        int i = 0;
+        while (i <= record.length()) {
+            field.setLength(0);
+            if (i < record.length() && record.charAt(i) == '"') {
+                i++;
+                while (i < record.length()) {
+                    char c = record.charAt(i++);
+                    if (c != '"') {
+                        field.append(c);
+                    } else if (i < record.length() && record.charAt(i) == '"') {
+                        field.append('"');
+                        i++;
+                    } else {
+                        break;
+                    }
+                }
+                while (i < record.length() && record.charAt(i) != ',') i++;
+            } else {
+                while (i < record.length() && record.charAt(i) != ',') field.append(record.charAt(i++));
+            }
+            values.add(field.toString());
+            i++; // séparateur
+        }
+        Map<String, String> fields = new HashMap<>();
+        fields.put("bits", values.get(0).trim());
+        if (values.size() > 1) fields.put("hex", values.get(1));
+        if (values.size() > 2) fields.put("text", values.get(2));
+        return fields;
+    }
+
+    /**
+     * Analyse un objet JSON plat, dont les valeurs sont des chaînes (ou des littéraux).
+     *
+     * @return champs de l'objet.
+     * @throws IllegalArgumentException si l'objet est mal formé.
+     */
+    static Map<String, String> parseJson(String object) {
+        Map<String, String> fields = new HashMap<>();
+        int[] pos = {skip(object, 1)};
+        while (pos[0] < object.length() && object.charAt(pos[0]) != '}') {
+            String key = jsonString(object, pos);
+            pos[0] = skip(object, pos[0]);
+            if (pos[0] >= object.length() || object.charAt(pos[0]) != ':') {
+                throw new IllegalArgumentException("Objet JSON invalide : " + object);
+            }
+            pos[0] = skip(object, pos[0] + 1);
+            String value;
+            if (object.charAt(pos[0]) == '"') {
+                value = jsonString(object, pos);
+            } else {
+                int start = pos[0];
+                while (pos[0] < object.length() && ",}".indexOf(object.charAt(pos[0])) < 0) pos[0]++;
+                value = object.substring(start, pos[0]).trim();
+                if (value.equals("null")) value = null;
+            }
+            fields.put(key, value);
+            pos[0] = skip(object, pos[0]);
+            if (pos[0] < object.length() && object.charAt(pos[0]) == ',') pos[0] = skip(object, pos[0] + 1);
+        }
+        return fields;
+    }
+
+    private static int skip(String s, int i) {
+        while (i < s.length() && Character.isWhitespace(s.charAt(i))) i++;
+        return i;
+    }
+
+    private static String jsonString(String s, int[] pos) {
+        if (pos[0] >= s.length() || s.charAt(pos[0]) != '"') {
+            throw new IllegalArgumentException("Chaîne JSON attendue : " + s);
+        }
+        StringBuilder value = new StringBuilder();
+        int i = pos[0] + 1;
+        while (i < s.length()) {
+            char c = s.charAt(i++);
+            if (c == '"') {
+                pos[0] = i;
+                return value.toString();
+            }
+            if (c != '\\' || i >= s.length()) {
+                value.append(c);
+                continue;
+            }
+            char e = s.charAt(i++);
+            switch (e) {
+                case 'n' -> value.append('\n');
+                case 'r' -> value.append('\r');
+                case 't' -> value.append('\t');
+                case 'b' -> value.append('\b');
+                case 'f' -> value.append('\f');
+                case 'u' -> {
+                    value.append((char) Integer.parseInt(s.substring(i, i + 4), 16));
+                    i += 4;
+                }
+                default -> value.append(e);
+            }
+        }
+        throw new IllegalArgumentException("Chaîne JSON non terminée : " + s);
+    }
+
+    /**
+     * Analyse une ligne du journal série : une trame binaire, les autres lignes
+     * (messages du boîtier) étant ignorées.
+     */
+    static Map<String, String> parseRaw(String line) {
+        String bits = line.trim();
+        if (bits.isEmpty()) return null;
+        for (int i = 0; i < bits.length(); i++) {
+            char c = bits.charAt(i);
+            if (c != '0' && c != '1') return null;
+        }
+        Map<String, String> fields = new HashMap<>();
+        fields.put("bits", bits);
+        return fields;
+    }
+}
@@ -0,0 +1,287 @@
+package org.sncf.gui.services;
+
+import javax.swing.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * Moteur de traitement parallèle de l'historique des trames.
+ *
+ * <p>L'historique est découpé en tranches de {@link #DEFAULT_CHUNK_SIZE} trames traitées
+ * par fork/join sur tous les cœurs. Chaque tranche produit un résultat ; les résultats sont
+ * rassemblés dans l'ordre des trames, quel que soit l'ordre de fin des tranches.</p>
+ *
+ * <p>Un traitement soumis ({@link Job}) peut être annulé à tout moment : les tranches pas encore
+ * commencées sont abandonnées. Un {@link LatestJob} annule automatiquement le traitement
+ * précédent lorsqu'une nouvelle demande le remplace. L'avancement et le résultat sont remis
+ * sur l'EDT ; un traitement annulé ne remet rien.</p>
+ */
+public class ParallelScan {
+
+    /**
+     * Nombre de trames par tranche.
+     */
+    public static final int DEFAULT_CHUNK_SIZE = 2048;
+
+    /**
+     * Accès par tranches aux trames à traiter ; {@link #read(int, int)} doit pouvoir être
+     * appelée depuis plusieurs threads à la fois.
+     */
+    public interface ChunkSource {
+        /**
+         * @return nombre de trames à traiter.
+         */
+        int size();
+
+        /**
+         * @param from première trame (incluse).
+         * @param to   dernière trame (exclue).
+         * @return trames de la tranche, dans l'ordre.
+         */
+        List<TrameService.TrameEntry> read(int from, int to);
+
+        /**
+         * @param list liste non modifiée pendant le traitement (un {@link TrameHistory}
+         *             est lu par sa propre méthode, sûre entre threads).
+         * @return source lisant la liste par sous-listes.
+         */
+        static ChunkSource of(List<TrameService.TrameEntry> list) {
+            if (list instanceof ChunkSource source) return source;
+            return new ChunkSource() {
+                @Override
+                public int size() {
+                    return list.size();
+                }
+
+                @Override
+                public List<TrameService.TrameEntry> read(int from, int to) {
+                    return list.subList(from, to);
+                }
+            };
+        }
+    }
+
+    /**
+     * Traitement d'une tranche, exécuté sur un thread du pool.
+     *
+     * @param <R> résultat d'une tranche.
+     */
+    public interface ChunkTask<R> {
+        /**
+         * @param chunk trames de la tranche.
+         * @param from  indice de la première trame de la tranche dans la source.
+         * @return résultat de la tranche.
+         */
+        R apply(List<TrameService.TrameEntry> chunk, int from);
+    }
+
+    /**
+     * Avancement d'un traitement, remis sur l'EDT.
+     */
+    public interface ProgressListener {
+        /**
+         * @param done  nombre de trames traitées.
+         * @param total nombre total de trames.
+         */
+        void onProgress(int done, int total);
+    }
+
+    private final ForkJoinPool pool;
+    private final int chunkSize;
+
+    /**
+     * Moteur utilisant le pool fork/join commun (un thread par cœur).
+     */
+    public ParallelScan() {
+        this(ForkJoinPool.commonPool(), DEFAULT_CHUNK_SIZE);
+    }
+
+    /**
+     * @param pool      pool d'exécution.
+     * @param chunkSize nombre de trames par tranche (au moins 1).
+     */
+    public ParallelScan(ForkJoinPool pool, int chunkSize) {
+        this.pool = pool;
+        this.chunkSize = Math.max(1, chunkSize);
+    }
+
+    /**
+     * Lance un traitement en arrière-plan.
+     *
+     * @param source   trames à traiter (la taille est lue au lancement).
+     * @param task     traitement d'une tranche.
+     * @param progress avancement (peut être {@code null}).
+     * @param <R>      résultat d'une tranche.
+     * @return traitement en cours ; {@link Job#future()} fournit les résultats dans l'ordre des tranches.
+     */
+    public <R> Job<R> submit(ChunkSource source, ChunkTask<R> task, ProgressListener progress) {
+        Job<R> job = new Job<>(source.size(), progress);
+        pool.execute(() -> {
+            try {
+                job.future.complete(pool.invoke(new Split<>(job, source, task, 0, job.total)));
+            } catch (CancellationException e) {
+                job.future.cancel(false);
+            } catch (RuntimeException e) {
+                job.future.completeExceptionally(e);
+            }
+        });
+        return job;
+    }
+
+    /**
+     * Découpe récursive de [from, to) : la moitié gauche est confiée au pool, la droite
+     * traitée sur place, puis les résultats sont concaténés dans l'ordre.
+     */
+    private class Split<R> extends RecursiveTask<List<R>> {
+        private final Job<R> job;
+        private final ChunkSource source;
+        private final ChunkTask<R> task;
+        private final int from;
+        private final int to;
+
+        Split(Job<R> job, ChunkSource source, ChunkTask<R> task, int from, int to) {
+            this.job = job;
+            this.source = source;
+            this.task = task;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected List<R> compute() {
+            if (job.isCancelled()) throw new CancellationException();
+            if (to - from <= chunkSize) {
+                R result = task.apply(source.read(from, to), from);
+                job.advance(to - from);
+                List<R> single = new ArrayList<>(1);
+                single.add(result);
+                return single;
+            }
+            int middle = (from + to) >>> 1;
+            Split<R> left = new Split<>(job, source, task, from, middle);
+            left.fork();
+            List<R> right = new Split<>(job, source, task, middle, to).compute();
+            List<R> results = left.join();
+            results.addAll(right);
+            return results;
+        }
+    }
+
+    /**
+     * Traitement soumis au moteur.
+     *
+     * @param <R> résultat d'une tranche.
+     */
+    public static class Job<R> {
+        private final int total;
+        private final ProgressListener progress;
+        private final AtomicBoolean cancelled = new AtomicBoolean();
+        private final AtomicInteger done = new AtomicInteger();
+        private final AtomicInteger reportedPercent = new AtomicInteger(-1);
+        // Dernier avancement remis sur l'EDT (accédé uniquement depuis l'EDT)
+        private int delivered;
+        private final CompletableFuture<List<R>> future = new CompletableFuture<>();
+
+        private Job(int total, ProgressListener progress) {
+            this.total = total;
+            this.progress = progress;
+        }
+
+        /**
+         * Annule le traitement : les tranches non commencées ne sont pas traitées
+         * et aucun résultat ne sera remis.
+         */
+        public void cancel() {
+            cancelled.set(true);
+            future.cancel(false);
+        }
+
+        /**
+         * @return true si le traitement a été annulé.
+         */
+        public boolean isCancelled() {
+            return cancelled.get();
+        }
+
+        /**
+         * @return résultats des tranches dans l'ordre, disponibles à la fin du traitement.
+         */
+        public CompletableFuture<List<R>> future() {
+            return future;
+        }
+
+        /**
+         * Remet le résultat sur l'EDT à la fin du traitement, s'il n'a pas été annulé.
+         * Une erreur de traitement est signalée sur la sortie d'erreur.
+         *
+         * @param onResult destinataire des résultats des tranches, dans l'ordre.
+         * @return ce traitement.
+         */
+        public Job<R> onResult(Consumer<List<R>> onResult) {
+            future.whenComplete((results, error) -> {
+                if (error != null) {
+                    if (!(error instanceof CancellationException)) {
+                        System.err.println("❌ Erreur de traitement parallèle : " + error.getMessage());
+                    }
+                    return;
+                }
+                SwingUtilities.invokeLater(() -> {
+                    if (!isCancelled()) onResult.accept(results);
+                });
+            });
+            return this;
+        }
+
+        /**
+         * Comptabilise des trames traitées et signale l'avancement (au plus une fois par pourcent).
+         */
+        private void advance(int frames) {
+            int current = done.addAndGet(frames);
+            if (progress == null || total == 0) return;
+            int percent = (int) (100L * current / total);
+            int previous = reportedPercent.get();
+            if (percent > previous && reportedPercent.compareAndSet(previous, percent)) {
+                // Les tranches finissent sur plusieurs threads : un avancement plus ancien peut être posté après un plus récent
+                SwingUtilities.invokeLater(() -> {
+                    if (isCancelled() || current <= delivered) return;
+                    delivered = current;
+                    progress.onProgress(current, total);
+                });
+            }
+        }
+    }
+
+    /**
+     * Dernier traitement d'une famille (par exemple la retraduction de l'historique) :
+     * en remplacer un annule le précédent.
+     */
+    public static class LatestJob {
+        private Job<?> current;
+
+        /**
+         * @param job nouveau traitement.
+         * @param <R> résultat d'une tranche.
+         * @return {@code job}.
+         */
+        public synchronized <R> Job<R> replace(Job<R> job) {
+            if (current != null) current.cancel();
+            current = job;
+            return job;
+        }
+
+        /**
+         * Annule le traitement en cours, s'il y en a un.
+         */
+        public synchronized void cancel() {
+            if (current != null) current.cancel();
+            current = null;
+        }
+    }
+}
@@ -0,0 +1,512 @@
+package org.sncf.gui.services;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Historique des trames capturées, à empreinte mémoire bornée.
+ *
+ * <p>Les trames les plus récentes sont conservées dans un anneau d'octets hors tas
+ * ({@link ByteBuffer#allocateDirect(int)}) dont la taille est le budget mémoire : chaque
+ * trame y est stockée compactée (heure de réception, bits empaquetés à 1 bit par bit reçu) et repérée par un
+ * index de positions. Quand l'anneau est plein, les trames les plus anciennes sont
+ * déversées, dans l'ordre, dans un fichier temporaire et relues à la demande :
+ * l'historique reste consultable en entier, sans limite de durée de capture.</p>
+ *
+ * <p>La représentation hexadécimale est recalculée à partir des bits, et le texte à partir
+ * de l'hexadécimal via la fonction de traduction fournie ; il reflète donc toujours le
+ * dictionnaire courant (voir {@link #invalidateTranslations()}). Les trames dont
+ * l'hexadécimal ne se déduit pas des bits sont stockées telles quelles.</p>
+ *
+ * <p>La classe se présente comme une {@link java.util.List} en ajout seul, alimentée par l'EDT.
+ * Ses accès sont synchronisés pour que les traitements parallèles ({@link ParallelScan}) puissent
+ * la lire par tranches ({@link #read(int, int)}) pendant la capture : seuls les enregistrements
+ * sont copiés sous verrou, leur décodage se fait en dehors. Ses itérateurs, eux, ne sont pas
+ * sûrs entre threads.</p>
+ */
+public class TrameHistory extends AbstractList<TrameService.TrameEntry> implements Closeable, ParallelScan.ChunkSource {
+
+    /**
+     * Budget mémoire par défaut de l'anneau, en octets.
+     */
+    public static final int DEFAULT_MEMORY_BUDGET = 32 * 1024 * 1024;
+
+    /**
+     * Taille minimale de l'anneau, en octets.
+     */
+    public static final int MIN_MEMORY_BUDGET = 64;
+
+    private static final byte KIND_PACKED = 0;
+    private static final byte KIND_RAW = 1;
+    private static final int INDEX_ENTRY_SIZE = Long.BYTES + Integer.BYTES;
+    private static final int SPILL_BUFFER_SIZE = 64 * 1024;
+    private static final int DECODED_CACHE_SIZE = 512;
+
+    private final ByteBuffer ring;
+    private final int maxRingFrames;
+    private final Function<String, String> textForHex;
+
+    // Index circulaire des trames en mémoire : position et longueur de chaque enregistrement
+    private int[] ringOffsets = new int[1024];
+    private int[] ringLengths = new int[1024];
+    private int ringHead;
+    private int ringCount;
+    private int writePos;
+
+    // Trames [0, spilledCount) sur disque, [spilledCount, size) dans l'anneau
+    private int spilledCount;
+    private int flushedCount;
+    private long spillDataSize;
+    private Path spillDataPath;
+    private Path spillIndexPath;
+    private FileChannel spillData;
+    private FileChannel spillIndex;
+    private final ByteBuffer pendingData = ByteBuffer.allocate(SPILL_BUFFER_SIZE);
+    private final ByteBuffer pendingIndex = ByteBuffer.allocate(SPILL_BUFFER_SIZE - SPILL_BUFFER_SIZE % INDEX_ENTRY_SIZE);
+
+    private byte[] scratch = new byte[256];
+    private final ByteBuffer readBuffer = ByteBuffer.allocate(INDEX_ENTRY_SIZE);
+    // Incrémenté quand les textes en cache deviennent faux (dictionnaire modifié, historique vidé)
+    private int decodedGeneration;
+    private final LinkedHashMap<Integer, TrameService.TrameEntry> decoded =
+            new LinkedHashMap<>(DECODED_CACHE_SIZE * 2, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<Integer, TrameService.TrameEntry> eldest) {
+                    return size() > DECODED_CACHE_SIZE;
+                }
+            };
+
+    /**
+     * Crée un historique.
+     *
+     * @param memoryBudget taille de l'anneau en mémoire, en octets (au moins {@link #MIN_MEMORY_BUDGET}).
+     * @param textForHex   traduction d'une trame hexadécimale en texte (dictionnaire ou ASCII).
+     */
+    public TrameHistory(int memoryBudget, Function<String, String> textForHex) {
+        if (memoryBudget < MIN_MEMORY_BUDGET) {
+            throw new IllegalArgumentException("Budget mémoire trop faible : " + memoryBudget);
+        }
+        this.ring = ByteBuffer.allocateDirect(memoryBudget);
+        // L'index en tas reste petit devant l'anneau : au plus 8 octets par tranche de 16 octets
+        this.maxRingFrames = Math.max(1, memoryBudget / 16);
+        this.textForHex = textForHex;
+    }
+
+    /**
+     * Ajoute une trame en fin d'historique. Seuls ses bits (et son hexadécimal s'il ne
+     * s'en déduit pas) sont conservés ; le texte sera recalculé à la lecture.
+     *
+     * @param entry trame à ajouter.
+     * @return toujours {@code true}.
+     */
+    @Override
+    public synchronized boolean add(TrameService.TrameEntry entry) {
+        int length = encode(entry);
+        try {
+            if (length > ring.capacity()) {
+                while (ringCount > 0) spillOldest();
+                appendToSpill(ByteBuffer.wrap(scratch, 0, length));
+                spilledCount++;
+            } else {
+                int pos = reserve(length);
+                ring.put(pos, scratch, 0, length);
+                pushRingIndex(pos, length);
+                writePos = pos + length;
+            }
+        } catch (IOException e) {
+            System.err.println("❌ Erreur écriture historique des trames : " + e.getMessage());
+            return false;
+        }
+        modCount++;
+        return true;
+    }
+
+    /**
+     * Lit une trame. L'enregistrement est copié sous verrou, mais la traduction (qui peut lire
+     * le dictionnaire en base) se fait en dehors : elle ne bloque ni la capture ni les lectures parallèles.
+     */
+    @Override
+    public TrameService.TrameEntry get(int index) {
+        ByteBuffer record;
+        int generation;
+        synchronized (this) {
+            if (index < 0 || index >= size()) {
+                throw new IndexOutOfBoundsException("Trame " + index + " hors de l'historique (" + size() + ")");
+            }
+            TrameService.TrameEntry entry = decoded.get(index);
+            if (entry != null) return entry;
+            record = index >= spilledCount ? copyFromRing(index) : readFromSpill(index);
+            generation = decodedGeneration;
+        }
+        TrameService.TrameEntry entry = record != null ? decode(record) : new TrameService.TrameEntry("", "", "");
+        synchronized (this) {
+            // Une trame traduite avec l'ancien dictionnaire n'est pas gardée
+            if (generation == decodedGeneration) decoded.put(index, entry);
+        }
+        return entry;
+    }
+
+    @Override
+    public synchronized int size() {
+        return spilledCount + ringCount;
+    }
+
+    /**
+     * Lit une tranche de l'historique ; peut être appelée depuis n'importe quel thread.
+     * Les enregistrements sont copiés sous verrou (en une lecture disque pour la partie
+     * déversée), puis décodés sans bloquer la capture.
+     *
+     * @param from première trame (incluse).
+     * @param to   dernière trame (exclue).
+     * @return trames de la tranche, dans l'ordre.
+     */
+    @Override
+    public List<TrameService.TrameEntry> read(int from, int to) {
+        ByteBuffer[] records = new ByteBuffer[Math.max(0, to - from)];
+        synchronized (this) {
+            if (from < 0 || to > size() || from > to) {
+                throw new IndexOutOfBoundsException("Tranche [" + from + ", " + to + ") hors de l'historique (" + size() + ")");
+            }
+            int spilledEnd = Math.min(to, spilledCount);
+            if (from < spilledEnd) {
+                copyFromSpill(from, spilledEnd, records);
+            }
+            for (int index = Math.max(from, spilledCount); index < to; index++) {
+                records[index - from] = copyFromRing(index);
+            }
+        }
+        List<TrameService.TrameEntry> chunk = new ArrayList<>(records.length);
+        for (ByteBuffer record : records) {
+            chunk.add(record != null ? decode(record) : new TrameService.TrameEntry("", "", ""));
+        }
+        return chunk;
+    }
+
+    /**
+     * Vide l'historique, en mémoire comme sur disque.
+     */
+    @Override
+    public synchronized void clear() {
+        ringHead = 0;
+        ringCount = 0;
+        writePos = 0;
+        spilledCount = 0;
+        flushedCount = 0;
+        spillDataSize = 0;
+        pendingData.clear();
+        pendingIndex.clear();
+        decoded.clear();
+        decodedGeneration++;
+        try {
+            if (spillData != null) {
+                spillData.truncate(0);
+                spillIndex.truncate(0);
+            }
+        } catch (IOException e) {
+            System.err.println("❌ Erreur effacement historique des trames : " + e.getMessage());
+        }
+        modCount++;
+    }
+
+    /**
+     * Oublie les textes déjà calculés, par exemple après une modification du dictionnaire :
+     * les prochaines lectures utiliseront la traduction courante.
+     */
+    public synchronized void invalidateTranslations() {
+        decoded.clear();
+        decodedGeneration++;
+    }
+
+    /**
+     * @return nombre de trames actuellement conservées en mémoire.
+     */
+    public synchronized int getInMemoryCount() {
+        return ringCount;
+    }
+
+    /**
+     * @return nombre de trames déversées sur disque.
+     */
+    public synchronized int getSpilledCount() {
+        return spilledCount;
+    }
+
+    /**
+     * @return fichiers de débordement ouverts (données puis index), vide si rien n'a été déversé.
+     */
+    synchronized List<Path> getSpillFiles() {
+        return spillData != null ? List.of(spillDataPath, spillIndexPath) : List.of();
+    }
+
+    /**
+     * Vide l'historique, ferme et supprime les fichiers de débordement. À appeler quand
+     * l'historique n'est plus utilisé (fermeture de la fenêtre) ; il peut ensuite être réutilisé
+     * vide, de nouveaux fichiers étant créés au besoin.
+     */
+    @Override
+    public synchronized void close() {
+        clear();
+        try {
+            if (spillData != null) {
+                spillData.close();
+                spillIndex.close();
+                Files.deleteIfExists(spillDataPath);
+                Files.deleteIfExists(spillIndexPath);
+                spillData = null;
+                spillIndex = null;
+            }
+        } catch (IOException e) {
+            System.err.println("❌ Erreur fermeture historique des trames : " + e.getMessage());
+        }
+    }
+
+    /**
+     * Libère dans l'anneau une place contiguë de {@code length} octets, en déversant
+     * les trames les plus anciennes si nécessaire.
+     *
+     * @return position d'écriture de l'enregistrement.
+     */
+    private int reserve(int length) throws IOException {
+        while (true) {
+            if (ringCount == 0) {
+                return 0;
+            }
+            if (ringCount < maxRingFrames) {
+                int oldest = ringOffsets[ringHead];
+                if (writePos > oldest) {
+                    // Données dans [oldest, writePos) : place libre en fin d'anneau, sinon au début
+                    if (ring.capacity() - writePos >= length) return writePos;
+                    if (oldest >= length) return 0;
+                } else if (oldest - writePos >= length) {
+                    return writePos;
+                }
+            }
+            spillOldest();
+        }
+    }
+
+    private void pushRingIndex(int pos, int length) {
+        if (ringCount == ringOffsets.length) {
+            int[] offsets = new int[ringOffsets.length * 2];
+            int[] lengths = new int[ringOffsets.length * 2];
+            for (int i = 0; i < ringCount; i++) {
+                int slot = (ringHead + i) % ringOffsets.length;
+                offsets[i] = ringOffsets[slot];
+                lengths[i] = ringLengths[slot];
+            }
+            ringOffsets = offsets;
+            ringLengths = lengths;
+            ringHead = 0;
+        }
+        int slot = (ringHead + ringCount) % ringOffsets.length;
+        ringOffsets[slot] = pos;
+        ringLengths[slot] = length;
+        ringCount++;
+    }
+
+    /**
+     * Déverse la trame la plus ancienne de l'anneau sur disque.
+     */
+    private void spillOldest() throws IOException {
+        appendToSpill(ring.slice(ringOffsets[ringHead], ringLengths[ringHead]));
+        ringHead = (ringHead + 1) % ringOffsets.length;
+        ringCount--;
+        spilledCount++;
+        if (ringCount == 0) writePos = 0;
+    }
+
+    private void appendToSpill(ByteBuffer record) throws IOException {
+        openSpill();
+        int length = record.remaining();
+        if (pendingData.remaining() < length || !pendingIndex.hasRemaining()) {
+            flushSpill();
+        }
+        pendingIndex.putLong(spillDataSize).putInt(length);
+        if (length > pendingData.capacity()) {
+            spillData.write(record, spillDataSize);
+        } else {
+            pendingData.put(record);
+        }
+        spillDataSize += length;
+    }
+
+    private void openSpill() throws IOException {
+        if (spillData != null) return;
+        spillDataPath = Files.createTempFile("trames-", ".dat");
+        spillIndexPath = Files.createTempFile("trames-", ".idx");
+        spillDataPath.toFile().deleteOnExit();
+        spillIndexPath.toFile().deleteOnExit();
+        spillData = FileChannel.open(spillDataPath, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        spillIndex = FileChannel.open(spillIndexPath, StandardOpenOption.READ, StandardOpenOption.WRITE);
+    }
+
+    /**
+     * Écrit sur disque les enregistrements déversés encore en tampon.
+     */
+    private void flushSpill() throws IOException {
+        if (spillData == null) return;
+        long dataEnd = spillDataSize;
+        if (pendingData.position() > 0) {
+            // Les enregistrements en tampon sont les derniers écrits : ils finissent en spillDataSize
+            long dataStart = dataEnd - pendingData.position();
+            pendingData.flip();
+            while (pendingData.hasRemaining()) {
+                dataStart += spillData.write(pendingData, dataStart);
+            }
+        }
+        pendingData.clear();
+        if (pendingIndex.position() > 0) {
+            pendingIndex.flip();
+            long pos = (long) flushedCount * INDEX_ENTRY_SIZE;
+            int frames = pendingIndex.remaining() / INDEX_ENTRY_SIZE;
+            while (pendingIndex.hasRemaining()) {
+                pos += spillIndex.write(pendingIndex, pos);
+            }
+            flushedCount += frames;
+        }
+        pendingIndex.clear();
+    }
+
+    private ByteBuffer copyFromRing(int index) {
+        int slot = (ringHead + index - spilledCount) % ringOffsets.length;
+        ByteBuffer copy = ByteBuffer.allocate(ringLengths[slot]);
+        copy.put(0, ring, ringOffsets[slot], ringLengths[slot]);
+        return copy;
+    }
+
+    /**
+     * @return enregistrement déversé, ou {@code null} en cas d'erreur de lecture.
+     */
+    private ByteBuffer readFromSpill(int index) {
+        try {
+            if (index >= flushedCount) flushSpill();
+            readBuffer.clear();
+            readFully(spillIndex, readBuffer, (long) index * INDEX_ENTRY_SIZE);
+            long offset = readBuffer.getLong(0);
+            int length = readBuffer.getInt(Long.BYTES);
+            ByteBuffer record = ByteBuffer.allocate(length);
+            readFully(spillData, record, offset);
+            return record;
+        } catch (IOException e) {
+            System.err.println("❌ Erreur lecture historique des trames : " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Copie les enregistrements déversés [from, to) : ils sont contigus sur disque,
+     * une seule lecture suffit. En cas d'erreur, les enregistrements restent absents.
+     */
+    private void copyFromSpill(int from, int to, ByteBuffer[] records) {
+        try {
+            if (to > flushedCount) flushSpill();
+            ByteBuffer index = ByteBuffer.allocate((to - from) * INDEX_ENTRY_SIZE);
+            readFully(spillIndex, index, (long) from * INDEX_ENTRY_SIZE);
+            long start = index.getLong(0);
+            long end = index.getLong((to - from - 1) * INDEX_ENTRY_SIZE)
+                    + index.getInt((to - from - 1) * INDEX_ENTRY_SIZE + Long.BYTES);
+            ByteBuffer data = ByteBuffer.allocate((int) (end - start));
+            readFully(spillData, data, start);
+            for (int i = 0; i < to - from; i++) {
+                int offset = (int) (index.getLong(i * INDEX_ENTRY_SIZE) - start);
+                records[i] = data.slice(offset, index.getInt(i * INDEX_ENTRY_SIZE + Long.BYTES));
+            }
+        } catch (IOException e) {
+            System.err.println("❌ Erreur lecture historique des trames : " + e.getMessage());
+        }
+    }
+
+    private static void readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            int read = channel.read(buffer, position);
+            if (read < 0) throw new IOException("fin de fichier inattendue");
+            position += read;
+        }
+        buffer.flip();
+    }
+
+    /**
+     * Encode une trame dans {@link #scratch}.
+     *
+     * @return longueur de l'enregistrement.
+     */
+    private int encode(TrameService.TrameEntry entry) {
+        String bits = entry.bits != null ? entry.bits : "";
+        String hex = entry.hex != null ? entry.hex : "";
+        if (isBinary(bits) && hex.equals(TrameService.bitsToHex(bits))) {
+            int length = 1 + Long.BYTES + Integer.BYTES + (bits.length() + 7) / 8;
+            ByteBuffer out = scratchBuffer(length);
+            out.put(KIND_PACKED).putLong(entry.timestamp).putInt(bits.length());
+            int base = out.position();
+            Arrays.fill(scratch, base, length, (byte) 0);
+            for (int i = 0; i < bits.length(); i++) {
+                if (bits.charAt(i) == '1') {
+                    scratch[base + (i >> 3)] |= (byte) (0x80 >>> (i & 7));
+                }
+            }
+            return length;
+        }
+        byte[] rawBits = bits.getBytes(StandardCharsets.UTF_8);
+        byte[] rawHex = hex.getBytes(StandardCharsets.UTF_8);
+        int length = 1 + Long.BYTES + 2 * Integer.BYTES + rawBits.length + rawHex.length;
+        scratchBuffer(length).put(KIND_RAW).putLong(entry.timestamp)
+                .putInt(rawBits.length).put(rawBits)
+                .putInt(rawHex.length).put(rawHex);
+        return length;
+    }
+
+    private ByteBuffer scratchBuffer(int length) {
+        if (scratch.length < length) {
+            scratch = new byte[Math.max(length, scratch.length * 2)];
+        }
+        return ByteBuffer.wrap(scratch, 0, length);
+    }
+
+    private TrameService.TrameEntry decode(ByteBuffer record) {
+        String bits;
+        String hex;
+        byte kind = record.get();
+        long timestamp = record.getLong();
+        if (kind == KIND_PACKED) {
+            int bitCount = record.getInt();
+            int base = record.position();
+            char[] chars = new char[bitCount];
+            for (int i = 0; i < bitCount; i++) {
+                chars[i] = (record.get(base + (i >> 3)) & (0x80 >>> (i & 7))) != 0 ? '1' : '0';
+            }
+            bits = new String(chars);
+            hex = TrameService.bitsToHex(bits);
+        } else {
+            bits = readString(record);
+            hex = readString(record);
+        }
+        return new TrameService.TrameEntry(bits, hex, textForHex.apply(hex), timestamp);
+    }
+
+    private static String readString(ByteBuffer record) {
+        byte[] bytes = new byte[record.getInt()];
+        record.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static boolean isBinary(String bits) {
+        for (int i = 0; i < bits.length(); i++) {
+            char c = bits.charAt(i);
+            if (c != '0' && c != '1') return false;
+        }
+        return true;
+    }
+}
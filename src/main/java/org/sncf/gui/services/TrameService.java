@@ -1,15 +1,24 @@
 package org.sncf.gui.services;
 
 import org.sncf.gui.model.FilterRule;
+import org.sncf.gui.services.filter.FilterSet;
+import org.sncf.gui.services.filter.SqlPredicate;
 import java.sql.*;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeParseException;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
 
 /**
  * Service permettant de traiter, filtrer, sauvegarder et charger des trames binaires.
  * Chaque trame est représentée sous forme binaire, hexadécimale et textuelle.
  */
 public class TrameService {
+    private static final char[] HEX_DIGITS = "0123456789ABCDEF".toCharArray();
+
     private final DatabaseManager db;
     private final DictionaryService dictionary;
 
@@ -29,12 +38,47 @@ public class TrameService {
      * à l’aide du dictionnaire.
      *
      * @param bits chaîne binaire représentant la trame (ex: "0100100001100101...").
-     * @return une nouvelle instance de {@link TrameEntry} contenant les trois représentations.
+     * @return une nouvelle instance de {@link TrameEntry} contenant les trois représentations,
+     * horodatée à l'instant de la conversion (la réception).
      */
     public TrameEntry processBits(String bits) {
         String hex = convertBitsToHex(bits);
         String text = dictionary.convertHexToText(hex);
-        return new TrameEntry(bits, hex, text);
+        return new TrameEntry(bits, hex, text, System.currentTimeMillis());
+    }
+
+    /**
+     * Convertit un lot de chaînes binaires en trames, avec le dictionnaire mis en cache
+     * ({@link DictionaryService#getDictionaryMap()}) : aucune lecture de la base tant qu'il
+     * n'est pas modifié. Utilisable depuis n'importe quel thread.
+     *
+     * @param bitLines chaînes binaires reçues, dans l'ordre d'arrivée.
+     * @return trames correspondantes, dans le même ordre, horodatées à l'instant de la conversion.
+     */
+    public List<TrameEntry> processBits(List<String> bitLines) {
+        return processBits(bitLines, null);
+    }
+
+    /**
+     * Variante de {@link #processBits(List)} gardant l'heure de réception de chaque trame :
+     * enregistrement en base et exports de l'historique en mémoire la reprennent.
+     *
+     * @param bitLines   chaînes binaires reçues, dans l'ordre d'arrivée.
+     * @param receivedAt heures de réception (ms depuis l'époque Unix), dans le même ordre ;
+     *                   {@code null} pour l'instant de la conversion.
+     * @return trames correspondantes, dans le même ordre.
+     */
+    public List<TrameEntry> processBits(List<String> bitLines, long[] receivedAt) {
+        Map<String, String> dict = dictionary.getDictionaryMap();
+        long now = System.currentTimeMillis();
+        List<TrameEntry> entries = new ArrayList<>(bitLines.size());
+        for (int i = 0; i < bitLines.size(); i++) {
+            String bits = bitLines.get(i);
+            String hex = convertBitsToHex(bits);
+            entries.add(new TrameEntry(bits, hex, dictionary.convertHexToText(hex, dict),
+                    receivedAt != null ? receivedAt[i] : now));
+        }
+        return entries;
     }
 
     /**
@@ -50,6 +94,19 @@ public class TrameService {
         }
     }
 
+    /**
+     * Sauvegarde un lot de trames dans une seule transaction.
+     *
+     * @param entries trames à sauvegarder.
+     */
+    public void saveTrames(List<TrameEntry> entries) {
+        try {
+            db.insertTrames(entries);
+        } catch (Exception e) {
+            System.err.println("Erreur enregistrement trames : " + e.getMessage());
+        }
+    }
+
     /**
      * Charge toutes les trames stockées dans la base de données.
      *
@@ -75,24 +132,102 @@ public class TrameService {
         return list;
     }
 
+    /**
+     * Compte les lignes que {@link #scanCandidatesFromDb} parcourra pour ces filtres,
+     * afin d'en afficher l'avancement.
+     *
+     * @param filters filtres compilés ({@code null} ou vide : toute la table).
+     * @return nombre de lignes candidates (0 en cas d'erreur).
+     */
+    public int countCandidatesInDb(FilterSet filters) {
+        SqlPredicate where = filters != null && !filters.isEmpty() ? filters.getSqlPredicate() : null;
+        try (Connection conn = db.getConnection();
+             PreparedStatement ps = conn.prepareStatement("SELECT COUNT(*) FROM frame_capture"
+                     + (where != null ? " WHERE " + where.getWhere() : ""))) {
+            bind(ps, where);
+            try (ResultSet rs = ps.executeQuery()) {
+                return rs.next() ? rs.getInt(1) : 0;
+            }
+        } catch (SQLException e) {
+            System.err.println("❌ Erreur lecture BDD : " + e.getMessage());
+            return 0;
+        }
+    }
+
+    /**
+     * Parcourt en flux les lignes candidates pour des filtres, dans l'ordre de la capture,
+     * sans les conserver en mémoire. Les lignes ne sont pas confirmées par les filtres :
+     * c'est à l'appelant d'appeler {@link FilterSet#matchesAny} s'il en a besoin.
+     *
+     * @param filters filtres compilés ({@code null} ou vide : toute la table).
+     * @param visitor appelé pour chaque ligne ; {@code false} interrompt le parcours.
+     * @throws SQLException en cas d'erreur de lecture.
+     */
+    public void scanCandidatesFromDb(FilterSet filters, Predicate<TrameEntry> visitor) throws SQLException {
+        SqlPredicate where = filters != null && !filters.isEmpty() ? filters.getSqlPredicate() : null;
+        try (Connection conn = db.getConnection()) {
+            String sql = "SELECT raw_bits, raw_hexa, raw_text, timestamp FROM frame_capture"
+                    + (where != null ? " WHERE " + where.getWhere() : "")
+                    // L'index peut livrer les lignes dans son ordre : on garde celui de la capture
+                    + " ORDER BY id";
+            try (PreparedStatement ps = conn.prepareStatement(sql)) {
+                bind(ps, where);
+                ps.setFetchSize(ParallelScan.DEFAULT_CHUNK_SIZE);
+                try (ResultSet rs = ps.executeQuery()) {
+                    // Les trames successives partagent souvent la même seconde : on ne relit que les changements
+                    String lastTime = null;
+                    long lastMillis = 0;
+                    while (rs.next()) {
+                        String time = rs.getString("timestamp");
+                        if (time != null && !time.equals(lastTime)) {
+                            lastMillis = parseTimestamp(time);
+                            lastTime = time;
+                        }
+                        TrameEntry entry = new TrameEntry(
+                                rs.getString("raw_bits"),
+                                rs.getString("raw_hexa"),
+                                rs.getString("raw_text"),
+                                time != null ? lastMillis : 0
+                        );
+                        if (!visitor.test(entry)) return;
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Convertit l'horodatage SQLite ({@code DATETIME('now')}, UTC) en millisecondes.
+     *
+     * @return instant en millisecondes depuis l'époque Unix, ou 0 s'il est illisible.
+     */
+    static long parseTimestamp(String time) {
+        try {
+            return LocalDateTime.parse(time.replace(' ', 'T')).toInstant(ZoneOffset.UTC).toEpochMilli();
+        } catch (DateTimeParseException e) {
+            return 0;
+        }
+    }
+
+    private static void bind(PreparedStatement ps, SqlPredicate where) throws SQLException {
+        if (where == null) return;
+        for (int i = 0; i < where.getParameters().size(); i++) {
+            ps.setString(i + 1, where.getParameters().get(i));
+        }
+    }
+
     /**
      * Vérifie si une trame correspond à au moins une des règles de filtrage.
-     * Le filtrage s’applique sur les champs bits, hex ou texte.
+     * Chaque règle est recherchée dans la représentation propre à son motif
+     * (bits, octets ou texte), avec la même sémantique que le surlignage des vues.
      *
      * @param entry   trame à tester.
-     * @param filters liste de règles de filtrage à appliquer.
+     * @param filters liste de règles de filtrage à appliquer (compilées à chaque appel).
      * @return true si au moins une règle correspond, false sinon.
      */
     public boolean matchesFilter(TrameEntry entry, List<FilterRule> filters) {
         if (filters == null) return true;
-        for (FilterRule filter : filters) {
-            if (entry.bits.contains(filter.pattern) ||
-                    entry.hex.contains(filter.pattern) ||
-                    entry.text.contains(filter.pattern)) {
-                return true;
-            }
-        }
-        return false;
+        return FilterSet.compile(filters).matchesAny(entry);
     }
 
     /**
@@ -104,9 +239,10 @@ public class TrameService {
      */
     public List<TrameEntry> filterTrames(List<TrameEntry> source, List<FilterRule> filters) {
         if (filters == null || filters.isEmpty()) return source;
+        FilterSet compiled = FilterSet.compile(filters);
         List<TrameEntry> filtered = new ArrayList<>();
         for (TrameEntry t : source) {
-            if (matchesFilter(t, filters)) filtered.add(t);
+            if (compiled.matchesAny(t)) filtered.add(t);
         }
         return filtered;
     }
@@ -118,14 +254,33 @@ public class TrameService {
      * @return chaîne hexadécimale formatée ou chaîne vide si la longueur est invalide.
      */
     public String convertBitsToHex(String bitString) {
-        if (bitString == null || bitString.length() % 8 != 0) return "";
-        StringBuilder hex = new StringBuilder();
-        for (int i = 0; i < bitString.length(); i += 8) {
-            String byteStr = bitString.substring(i, i + 8);
-            int byteVal = Integer.parseInt(byteStr, 2);
-            hex.append(String.format("%02X ", byteVal));
+        return bitsToHex(bitString);
+    }
+
+    /**
+     * Conversion binaire vers hexadécimal partagée par la réception, l'historique, l'import
+     * et le filtre de capture : chaque octet est lu directement et écrit via une table de chiffres.
+     *
+     * @param bits chaîne de bits.
+     * @return chaîne hexadécimale (ex: "4A 2F"), ou chaîne vide si la longueur n'est pas un
+     * multiple de 8 ou si la chaîne contient autre chose que des 0 et des 1.
+     */
+    public static String bitsToHex(String bits) {
+        if (bits == null || bits.isEmpty() || bits.length() % 8 != 0) return "";
+        int bytes = bits.length() / 8;
+        char[] hex = new char[bytes * 3 - 1];
+        for (int b = 0; b < bytes; b++) {
+            int value = 0;
+            for (int i = b * 8; i < b * 8 + 8; i++) {
+                int bit = bits.charAt(i) - '0';
+                if ((bit & ~1) != 0) return "";
+                value = (value << 1) | bit;
+            }
+            if (b > 0) hex[b * 3 - 1] = ' ';
+            hex[b * 3] = HEX_DIGITS[value >> 4];
+            hex[b * 3 + 1] = HEX_DIGITS[value & 0xF];
         }
-        return hex.toString().trim();
+        return new String(hex);
     }
 
     /**
@@ -148,6 +303,12 @@ public class TrameService {
          */
         public final String text;
 
+        /**
+         * Instant de réception ou d'enregistrement en millisecondes depuis l'époque Unix,
+         * ou 0 s'il est inconnu.
+         */
+        public final long timestamp;
+
         /**
          * Crée une nouvelle trame avec ses trois formes représentatives.
          *
@@ -156,9 +317,22 @@ public class TrameService {
          * @param text chaîne texte interprétée.
          */
         public TrameEntry(String bits, String hex, String text) {
+            this(bits, hex, text, 0);
+        }
+
+        /**
+         * Crée une trame horodatée.
+         *
+         * @param bits      chaîne de bits.
+         * @param hex       chaîne hexadécimale.
+         * @param text      chaîne texte interprétée.
+         * @param timestamp instant de réception ou d'enregistrement (ms depuis l'époque Unix, 0 : inconnu).
+         */
+        public TrameEntry(String bits, String hex, String text, long timestamp) {
             this.bits = bits;
             this.hex = hex;
             this.text = text;
+            this.timestamp = timestamp;
         }
     }
 }
\ No newline at end of file
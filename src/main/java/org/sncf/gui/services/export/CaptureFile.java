@@ -0,0 +1,124 @@
+package org.sncf.gui.services.export;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Format binaire de capture ({@code .tcap}) : compact, autodescriptif et lisible par blocs.
+ *
+ * <p>Les trames sont rangées par blocs d'au plus {@link #BLOCK_ROWS} trames ; dans chaque bloc,
+ * les données sont stockées par colonnes. L'hexadécimal n'est pas stocké, il se déduit des bits.
+ * Les entiers sont en gros-boutiste ; les « varint » sont des entiers non signés sur 7 bits par
+ * octet (LEB128), les écarts signés étant codés en zigzag.</p>
+ *
+ * <pre>
+ * En-tête      magic "TRAMECAP" (8) · version (u16) · options (u16, bit 0 : colonne texte)
+ *              · création (i64, ms) · empreinte du dictionnaire (i64)
+ *              · configuration du port (u16 + UTF-8)
+ * Bloc         magic {@link #BLOCK_MAGIC} (i32) · trames (i32) · premier instant (i64)
+ *              · tailles des colonnes instants, longueurs, octets, texte (4 × i32)
+ *              · instants : écarts successifs en varint zigzag (ms)
+ *              · longueurs : nombre de bits de chaque trame en varint
+ *              · octets : bits empaquetés (premier bit = bit de poids fort), trame après trame
+ *              · texte : longueur UTF-8 en varint puis octets, trame après trame (si présent)
+ * Index        par bloc : position (i64) · première trame (i64) · trames (i32)
+ *              · premier et dernier instants (2 × i64)
+ * Fin          position de l'index (i64) · blocs (i32) · trames (i64) · magic "TRAMEIDX" (8)
+ * </pre>
+ *
+ * <p>L'index de fin permet d'ouvrir un fichier de plusieurs Go sans le lire : seuls l'en-tête,
+ * l'index et les blocs consultés sont projetés en mémoire ({@link CaptureFileReader}).</p>
+ */
+public final class CaptureFile {
+
+    /**
+     * Version courante du format.
+     */
+    public static final int VERSION = 1;
+
+    /**
+     * Nombre maximal de trames par bloc.
+     */
+    public static final int BLOCK_ROWS = 65536;
+
+    /**
+     * Extension des fichiers de capture.
+     */
+    public static final String EXTENSION = ".tcap";
+
+    static final byte[] MAGIC = "TRAMECAP".getBytes(StandardCharsets.US_ASCII);
+    static final byte[] INDEX_MAGIC = "TRAMEIDX".getBytes(StandardCharsets.US_ASCII);
+    static final int BLOCK_MAGIC = 0x424C4B31; // "BLK1"
+    static final int FLAG_TEXT = 1;
+    static final int BLOCK_HEADER_SIZE = 4 + 4 + 8 + 4 * 4;
+    static final int INDEX_ENTRY_SIZE = 8 + 8 + 4 + 8 + 8;
+    static final int TRAILER_SIZE = 8 + 4 + 8 + 8;
+
+    private CaptureFile() {
+    }
+
+    /**
+     * Description d'une capture, écrite en tête de fichier.
+     */
+    public static class Header {
+        /**
+         * Version du format du fichier.
+         */
+        public final int version;
+
+        /**
+         * true si le texte interprété des trames est stocké.
+         */
+        public final boolean hasText;
+
+        /**
+         * Instant de création du fichier (ms depuis l'époque Unix).
+         */
+        public final long createdAt;
+
+        /**
+         * Empreinte du dictionnaire ayant produit le texte (voir {@link #dictionaryHash(Map)}).
+         */
+        public final long dictionaryHash;
+
+        /**
+         * Configuration du port espionné, telle qu'envoyée au boîtier (vide si inconnue).
+         */
+        public final String portConfig;
+
+        /**
+         * @param version        version du format.
+         * @param hasText        true si le texte est stocké.
+         * @param createdAt      instant de création (ms).
+         * @param dictionaryHash empreinte du dictionnaire.
+         * @param portConfig     configuration du port ({@code null} : vide).
+         */
+        public Header(int version, boolean hasText, long createdAt, long dictionaryHash, String portConfig) {
+            this.version = version;
+            this.hasText = hasText;
+            this.createdAt = createdAt;
+            this.dictionaryHash = dictionaryHash;
+            this.portConfig = portConfig != null ? portConfig : "";
+        }
+    }
+
+    /**
+     * Calcule l'empreinte d'un dictionnaire (FNV-1a 64 bits sur les entrées triées) : deux
+     * captures de même empreinte ont été traduites avec le même dictionnaire.
+     *
+     * @param dictionary table motif hexadécimal → traduction.
+     * @return empreinte, indépendante de l'ordre des entrées.
+     */
+    public static long dictionaryHash(Map<String, String> dictionary) {
+        long hash = 0xcbf29ce484222325L;
+        for (Map.Entry<String, String> entry : new TreeMap<>(dictionary).entrySet()) {
+            String line = entry.getKey() + "=" + entry.getValue() + "\n";
+            for (byte b : line.getBytes(StandardCharsets.UTF_8)) {
+                hash ^= b & 0xFF;
+                hash *= 0x100000001b3L;
+            }
+        }
+        return hash;
+    }
+}
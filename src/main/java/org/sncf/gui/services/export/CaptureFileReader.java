@@ -0,0 +1,296 @@
+package org.sncf.gui.services.export;
+
+import org.sncf.gui.services.ParallelScan;
+import org.sncf.gui.services.TrameService;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Lit un fichier de capture binaire ({@link CaptureFile}) par projection en mémoire.
+ * <p>
+ * À l'ouverture, seuls l'en-tête et l'index de fin sont lus : un fichier de plusieurs Go s'ouvre
+ * instantanément. Chaque bloc est projeté ({@link FileChannel#map}) et décodé à la demande ;
+ * le dernier bloc décodé est gardé pour les lectures successives. Le lecteur est une
+ * {@link ParallelScan.ChunkSource} : les tranches peuvent être lues depuis plusieurs threads.
+ * </p>
+ */
+public class CaptureFileReader implements Closeable, ParallelScan.ChunkSource {
+
+    /**
+     * Bloc décodé : colonnes d'au plus {@link CaptureFile#BLOCK_ROWS} trames.
+     */
+    public static class Block {
+        /**
+         * Rang de la première trame du bloc dans le fichier.
+         */
+        public final long firstRow;
+
+        /**
+         * Instants des trames (ms depuis l'époque Unix, 0 : inconnu).
+         */
+        public final long[] timestamps;
+
+        /**
+         * Trames en binaire.
+         */
+        public final String[] bits;
+
+        /**
+         * Texte des trames, ou {@code null} si le fichier ne le stocke pas.
+         */
+        public final String[] texts;
+
+        Block(long firstRow, long[] timestamps, String[] bits, String[] texts) {
+            this.firstRow = firstRow;
+            this.timestamps = timestamps;
+            this.bits = bits;
+            this.texts = texts;
+        }
+
+        /**
+         * @return nombre de trames du bloc.
+         */
+        public int size() {
+            return bits.length;
+        }
+    }
+
+    private final FileChannel channel;
+    private final CaptureFile.Header header;
+    private final long[] blockOffsets;
+    private final long[] blockEnds;
+    private final long[] firstRows;
+    private final int[] blockSizes;
+    private final long frameCount;
+    private Block lastBlock;
+    private int lastBlockIndex = -1;
+
+    private CaptureFileReader(FileChannel channel) throws IOException {
+        this.channel = channel;
+        long fileSize = channel.size();
+        if (fileSize < CaptureFile.MAGIC.length + 22 + CaptureFile.TRAILER_SIZE) {
+            throw new IOException("Fichier de capture tronqué");
+        }
+
+        MappedByteBuffer trailer = channel.map(FileChannel.MapMode.READ_ONLY,
+                fileSize - CaptureFile.TRAILER_SIZE, CaptureFile.TRAILER_SIZE);
+        long indexOffset = trailer.getLong();
+        int blockCount = trailer.getInt();
+        frameCount = trailer.getLong();
+        expectMagic(trailer, CaptureFile.INDEX_MAGIC, "Index de capture absent (fichier incomplet ?)");
+        long indexSize = (long) blockCount * CaptureFile.INDEX_ENTRY_SIZE;
+        if (blockCount < 0 || indexOffset < 0 || indexOffset + indexSize != fileSize - CaptureFile.TRAILER_SIZE) {
+            throw new IOException("Index de capture invalide");
+        }
+
+        MappedByteBuffer head = channel.map(FileChannel.MapMode.READ_ONLY, 0, Math.min(indexOffset, CaptureFile.MAGIC.length + 22 + 0xFFFF));
+        expectMagic(head, CaptureFile.MAGIC, "Ce fichier n'est pas une capture binaire");
+        int version = head.getShort() & 0xFFFF;
+        if (version > CaptureFile.VERSION) {
+            throw new IOException("Version de capture non prise en charge : " + version);
+        }
+        int flags = head.getShort() & 0xFFFF;
+        long createdAt = head.getLong();
+        long dictionaryHash = head.getLong();
+        byte[] port = new byte[head.getShort() & 0xFFFF];
+        head.get(port);
+        header = new CaptureFile.Header(version, (flags & CaptureFile.FLAG_TEXT) != 0, createdAt, dictionaryHash,
+                new String(port, StandardCharsets.UTF_8));
+
+        MappedByteBuffer index = channel.map(FileChannel.MapMode.READ_ONLY, indexOffset, indexSize);
+        blockOffsets = new long[blockCount];
+        blockEnds = new long[blockCount];
+        firstRows = new long[blockCount];
+        blockSizes = new int[blockCount];
+        for (int i = 0; i < blockCount; i++) {
+            blockOffsets[i] = index.getLong();
+            firstRows[i] = index.getLong();
+            blockSizes[i] = index.getInt();
+            index.getLong(); // premier instant
+            index.getLong(); // dernier instant
+        }
+        for (int i = 0; i < blockCount; i++) {
+            blockEnds[i] = i + 1 < blockCount ? blockOffsets[i + 1] : indexOffset;
+        }
+    }
+
+    /**
+     * Ouvre un fichier de capture.
+     *
+     * @param path fichier à lire.
+     * @return lecteur, à fermer après usage.
+     * @throws IOException si le fichier est illisible ou n'est pas une capture complète.
+     */
+    public static CaptureFileReader open(Path path) throws IOException {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+        try {
+            return new CaptureFileReader(channel);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    private static void expectMagic(ByteBuffer buffer, byte[] magic, String message) throws IOException {
+        byte[] read = new byte[magic.length];
+        buffer.get(read);
+        if (!Arrays.equals(read, magic)) throw new IOException(message);
+    }
+
+    /**
+     * @return description de la capture.
+     */
+    public CaptureFile.Header getHeader() {
+        return header;
+    }
+
+    /**
+     * @return nombre total de trames du fichier.
+     */
+    public long getFrameCount() {
+        return frameCount;
+    }
+
+    /**
+     * @return nombre de blocs du fichier.
+     */
+    public int getBlockCount() {
+        return blockSizes.length;
+    }
+
+    /**
+     * Nombre de trames lisibles par {@link #read(int, int)} (limité à {@link Integer#MAX_VALUE}).
+     */
+    @Override
+    public int size() {
+        return (int) Math.min(frameCount, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Lit une tranche de trames, l'hexadécimal étant recalculé à partir des bits.
+     * Une tranche vide (capture vide comprise) donne une liste vide.
+     */
+    @Override
+    public List<TrameService.TrameEntry> read(int from, int to) {
+        if (from >= to) return List.of();
+        List<TrameService.TrameEntry> entries = new ArrayList<>(Math.max(0, to - from));
+        int blockIndex = findBlock(from);
+        long row = from;
+        while (row < to) {
+            Block block;
+            try {
+                block = readBlock(blockIndex++);
+            } catch (IOException e) {
+                throw new IllegalStateException("Lecture de la capture impossible : " + e.getMessage(), e);
+            }
+            int start = (int) (row - block.firstRow);
+            int end = (int) Math.min(block.size(), to - block.firstRow);
+            for (int i = start; i < end; i++) {
+                entries.add(new TrameService.TrameEntry(block.bits[i], TrameService.bitsToHex(block.bits[i]),
+                        block.texts != null ? block.texts[i] : "", block.timestamps[i]));
+            }
+            row += end - start;
+        }
+        return entries;
+    }
+
+    /**
+     * @param row rang d'une trame.
+     * @return indice du bloc la contenant (recherche dichotomique dans l'index).
+     */
+    public int findBlock(long row) {
+        if (row < 0 || row >= frameCount) throw new IndexOutOfBoundsException("Trame " + row + " / " + frameCount);
+        int found = Arrays.binarySearch(firstRows, row);
+        return found >= 0 ? found : -found - 2;
+    }
+
+    /**
+     * Projette et décode un bloc.
+     *
+     * @param blockIndex indice du bloc.
+     * @return colonnes décodées.
+     * @throws IOException si le bloc est illisible ou corrompu.
+     */
+    public Block readBlock(int blockIndex) throws IOException {
+        synchronized (this) {
+            if (blockIndex == lastBlockIndex) return lastBlock;
+        }
+        Block block = decode(blockIndex, channel.map(FileChannel.MapMode.READ_ONLY,
+                blockOffsets[blockIndex], blockEnds[blockIndex] - blockOffsets[blockIndex]));
+        synchronized (this) {
+            lastBlock = block;
+            lastBlockIndex = blockIndex;
+        }
+        return block;
+    }
+
+    private Block decode(int blockIndex, ByteBuffer buffer) throws IOException {
+        if (buffer.getInt() != CaptureFile.BLOCK_MAGIC || buffer.getInt() != blockSizes[blockIndex]) {
+            throw new IOException("Bloc de capture " + blockIndex + " corrompu");
+        }
+        int rows = blockSizes[blockIndex];
+        long time = buffer.getLong();
+        int timesSize = buffer.getInt();
+        int lengthsSize = buffer.getInt();
+        int payloadSize = buffer.getInt();
+        int textsSize = buffer.getInt();
+        int timesStart = buffer.position();
+        ByteBuffer lengths = buffer.duplicate().position(timesStart + timesSize);
+        ByteBuffer payload = buffer.duplicate().position(timesStart + timesSize + lengthsSize);
+        ByteBuffer texts = buffer.duplicate().position(timesStart + timesSize + lengthsSize + payloadSize);
+        if (texts.position() + textsSize > buffer.limit()) {
+            throw new IOException("Bloc de capture " + blockIndex + " tronqué");
+        }
+
+        long[] timestamps = new long[rows];
+        String[] bits = new String[rows];
+        String[] decodedTexts = header.hasText ? new String[rows] : null;
+        char[] chars = new char[256];
+        for (int i = 0; i < rows; i++) {
+            long zigzag = readVarint(buffer);
+            time += (zigzag >>> 1) ^ -(zigzag & 1);
+            timestamps[i] = time;
+
+            int length = (int) readVarint(lengths);
+            if (chars.length < length) chars = new char[Math.max(length, 2 * chars.length)];
+            for (int b = 0; b < length; b += 8) {
+                int value = payload.get() & 0xFF;
+                for (int j = 0; j < 8 && b + j < length; j++) {
+                    chars[b + j] = (value & (0x80 >>> j)) != 0 ? '1' : '0';
+                }
+            }
+            bits[i] = new String(chars, 0, length);
+
+            if (decodedTexts != null) {
+                byte[] text = new byte[(int) readVarint(texts)];
+                texts.get(text);
+                decodedTexts[i] = new String(text, StandardCharsets.UTF_8);
+            }
+        }
+        return new Block(firstRows[blockIndex], timestamps, bits, decodedTexts);
+    }
+
+    private static long readVarint(ByteBuffer buffer) {
+        long value = 0;
+        for (int shift = 0; ; shift += 7) {
+            byte b = buffer.get();
+            value |= (long) (b & 0x7F) << shift;
+            if (b >= 0) return value;
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
@@ -0,0 +1,189 @@
+package org.sncf.gui.services.export;
+
+import org.sncf.gui.services.TrameService;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Écrit un fichier de capture binaire ({@link CaptureFile}) en flux : seul le bloc en cours
+ * (au plus {@link CaptureFile#BLOCK_ROWS} trames) et l'index sont gardés en mémoire.
+ * <p>
+ * Les instants doivent être croissants pour que l'écart entre trames reste petit ; ils sont
+ * sinon stockés correctement mais occupent plus de place. Un écrivain n'est pas partagé entre threads.
+ * </p>
+ */
+public class CaptureFileWriter implements FrameWriter {
+
+    /**
+     * Colonne d'octets extensible, réutilisée d'un bloc à l'autre.
+     */
+    private static class Column {
+        byte[] data = new byte[4096];
+        int size;
+
+        void ensure(int count) {
+            if (data.length - size < count) data = Arrays.copyOf(data, Math.max(2 * data.length, size + count));
+        }
+
+        void put(int b) {
+            ensure(1);
+            data[size++] = (byte) b;
+        }
+
+        void put(byte[] bytes) {
+            ensure(bytes.length);
+            System.arraycopy(bytes, 0, data, size, bytes.length);
+            size += bytes.length;
+        }
+
+        void putVarint(long value) {
+            ensure(10);
+            while ((value & ~0x7FL) != 0) {
+                data[size++] = (byte) ((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            data[size++] = (byte) value;
+        }
+
+        void putLong(long value) {
+            ensure(8);
+            for (int shift = 56; shift >= 0; shift -= 8) {
+                data[size++] = (byte) (value >>> shift);
+            }
+        }
+
+        void putInt(int value) {
+            ensure(4);
+            for (int shift = 24; shift >= 0; shift -= 8) {
+                data[size++] = (byte) (value >>> shift);
+            }
+        }
+    }
+
+    private final DataOutputStream out;
+    private final CaptureFile.Header header;
+    private final int blockRows;
+    private final Column times = new Column();
+    private final Column lengths = new Column();
+    private final Column payload = new Column();
+    private final Column texts = new Column();
+    private final Column index = new Column();
+
+    private long offset;
+    private long rows;
+    private int blockCount;
+    private int blockFill;
+    private long blockFirstTime;
+    private long previousTime;
+
+    /**
+     * @param out    flux de destination (non fermé par l'écrivain).
+     * @param header description de la capture.
+     */
+    public CaptureFileWriter(OutputStream out, CaptureFile.Header header) {
+        this(out, header, CaptureFile.BLOCK_ROWS);
+    }
+
+    /**
+     * @param out       flux de destination (non fermé par l'écrivain).
+     * @param header    description de la capture.
+     * @param blockRows nombre de trames par bloc.
+     */
+    CaptureFileWriter(OutputStream out, CaptureFile.Header header, int blockRows) {
+        this.out = new DataOutputStream(new BufferedOutputStream(out, 1 << 16));
+        this.header = header;
+        this.blockRows = blockRows;
+    }
+
+    @Override
+    public void begin() throws IOException {
+        byte[] port = header.portConfig.getBytes(StandardCharsets.UTF_8);
+        int portLength = Math.min(port.length, 0xFFFF);
+        out.write(CaptureFile.MAGIC);
+        out.writeShort(CaptureFile.VERSION);
+        out.writeShort(header.hasText ? CaptureFile.FLAG_TEXT : 0);
+        out.writeLong(header.createdAt);
+        out.writeLong(header.dictionaryHash);
+        out.writeShort(portLength);
+        out.write(port, 0, portLength);
+        offset = CaptureFile.MAGIC.length + 2 + 2 + 8 + 8 + 2 + portLength;
+    }
+
+    @Override
+    public void write(TrameService.TrameEntry frame) throws IOException {
+        if (blockFill == 0) {
+            blockFirstTime = frame.timestamp;
+            previousTime = frame.timestamp;
+        }
+        long delta = frame.timestamp - previousTime;
+        times.putVarint((delta << 1) ^ (delta >> 63));
+        previousTime = frame.timestamp;
+
+        String bits = frame.bits != null ? frame.bits : "";
+        int length = bits.length();
+        lengths.putVarint(length);
+        payload.ensure((length + 7) / 8);
+        for (int i = 0; i < length; i += 8) {
+            int value = 0;
+            for (int j = i; j < i + 8; j++) {
+                value = (value << 1) | (j < length && bits.charAt(j) == '1' ? 1 : 0);
+            }
+            payload.data[payload.size++] = (byte) value;
+        }
+
+        if (header.hasText) {
+            byte[] text = frame.text != null ? frame.text.getBytes(StandardCharsets.UTF_8) : new byte[0];
+            texts.putVarint(text.length);
+            texts.put(text);
+        }
+
+        rows++;
+        if (++blockFill == blockRows) writeBlock();
+    }
+
+    @Override
+    public void end() throws IOException {
+        if (blockFill > 0) writeBlock();
+        long indexOffset = offset;
+        out.write(index.data, 0, index.size);
+        out.writeLong(indexOffset);
+        out.writeInt(blockCount);
+        out.writeLong(rows);
+        out.write(CaptureFile.INDEX_MAGIC);
+        out.flush();
+    }
+
+    @Override
+    public long getRows() {
+        return rows;
+    }
+
+    private void writeBlock() throws IOException {
+        index.putLong(offset);
+        index.putLong(rows - blockFill);
+        index.putInt(blockFill);
+        index.putLong(blockFirstTime);
+        index.putLong(previousTime);
+
+        out.writeInt(CaptureFile.BLOCK_MAGIC);
+        out.writeInt(blockFill);
+        out.writeLong(blockFirstTime);
+        out.writeInt(times.size);
+        out.writeInt(lengths.size);
+        out.writeInt(payload.size);
+        out.writeInt(texts.size);
+        for (Column column : new Column[]{times, lengths, payload, texts}) {
+            out.write(column.data, 0, column.size);
+            offset += column.size;
+            column.size = 0;
+        }
+        offset += CaptureFile.BLOCK_HEADER_SIZE;
+        blockCount++;
+        blockFill = 0;
+    }
+}
@@ -0,0 +1,57 @@
+package org.sncf.gui.services.export;
+
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * Sérialiseur CSV conforme à la RFC 4180 : lignes terminées par CRLF, champs entre
+ * guillemets (les trames binaires restent ainsi du texte dans un tableur), guillemets
+ * internes doublés. Les retours à la ligne d'un champ sont conservés tels quels,
+ * ce que la RFC autorise dans un champ entre guillemets.
+ */
+public class CsvRowWriter extends RowWriter {
+
+    /**
+     * @param out flux de sortie.
+     */
+    public CsvRowWriter(Writer out) {
+        super(out, DEFAULT_BUFFER_SIZE);
+    }
+
+    @Override
+    public void begin() throws IOException {
+        append("bits,hex,text\r\n");
+    }
+
+    @Override
+    protected void writeRow(String bits, String hex, String text, boolean first) throws IOException {
+        field(bits);
+        put(',');
+        field(hex);
+        put(',');
+        field(text);
+        put('\r');
+        put('\n');
+    }
+
+    /**
+     * Écrit un champ entre guillemets, en une passe (place réservée pour le pire cas,
+     * séparateur ou fin de ligne suivants compris).
+     */
+    private void field(String value) throws IOException {
+        if (value == null) value = "";
+        int length = value.length();
+        reserve(2 * length + 4);
+        put('"');
+        int run = 0;
+        for (int i = 0; i < length; i++) {
+            if (value.charAt(i) != '"') continue;
+            // Les portions sans guillemet sont copiées d'un bloc
+            put(value, run, i + 1);
+            put('"');
+            run = i + 1;
+        }
+        put(value, run, length);
+        put('"');
+    }
+}
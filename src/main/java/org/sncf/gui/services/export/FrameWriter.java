@@ -0,0 +1,39 @@
+package org.sncf.gui.services.export;
+
+import org.sncf.gui.services.TrameService;
+
+import java.io.IOException;
+
+/**
+ * Écriture en flux de trames dans un fichier d'export, quel que soit son format (texte ou binaire).
+ * <p>Utilisation : {@link #begin()}, puis {@link #write} pour chaque trame, puis {@link #end()}.</p>
+ */
+public interface FrameWriter {
+
+    /**
+     * Écrit l'en-tête du fichier.
+     *
+     * @throws IOException en cas d'erreur d'écriture.
+     */
+    void begin() throws IOException;
+
+    /**
+     * Écrit une trame.
+     *
+     * @param frame trame à écrire.
+     * @throws IOException en cas d'erreur d'écriture.
+     */
+    void write(TrameService.TrameEntry frame) throws IOException;
+
+    /**
+     * Termine le fichier et vide les tampons dans le flux (sans le fermer).
+     *
+     * @throws IOException en cas d'erreur d'écriture.
+     */
+    void end() throws IOException;
+
+    /**
+     * @return nombre de trames écrites.
+     */
+    long getRows();
+}
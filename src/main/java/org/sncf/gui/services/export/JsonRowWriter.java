@@ -0,0 +1,121 @@
+package org.sncf.gui.services.export;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.Writer;
+
+/**
+ * Sérialiseur JSON, sous deux formes :
+ * <ul>
+ *     <li>un tableau d'objets, une trame par ligne ;</li>
+ *     <li>du JSON délimité par lignes (NDJSON) : un objet compact par ligne, sans tableau
+ *     englobant, lisible trame par trame sans charger le fichier.</li>
+ * </ul>
+ * Les chaînes sont échappées selon la RFC 8259 (guillemets, antislash, caractères de contrôle) :
+ * une trame tient toujours sur une seule ligne.
+ */
+public class JsonRowWriter extends RowWriter {
+    private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+
+    private final boolean lines;
+
+    /**
+     * @param out   flux de sortie.
+     * @param lines true pour du NDJSON, false pour un tableau.
+     */
+    public JsonRowWriter(Writer out, boolean lines) {
+        this(out, lines, DEFAULT_BUFFER_SIZE);
+    }
+
+    private JsonRowWriter(Writer out, boolean lines, int bufferSize) {
+        super(out, bufferSize);
+        this.lines = lines;
+    }
+
+    @Override
+    public void begin() throws IOException {
+        if (!lines) append("[\n");
+    }
+
+    @Override
+    protected void writeRow(String bits, String hex, String text, boolean first) throws IOException {
+        if (lines) {
+            append("{\"bits\":");
+            string(bits);
+            append(",\"hex\":");
+            string(hex);
+            append(",\"text\":");
+            string(text);
+            append("}\n");
+        } else {
+            append(first ? "  {\"bits\": " : ",\n  {\"bits\": ");
+            string(bits);
+            append(", \"hex\": ");
+            string(hex);
+            append(", \"text\": ");
+            string(text);
+            append("}");
+        }
+    }
+
+    @Override
+    public void end() throws IOException {
+        if (!lines) append(getRows() > 0 ? "\n]\n" : "]\n");
+        super.end();
+    }
+
+    /**
+     * Écrit une chaîne JSON entre guillemets, en une passe (place réservée pour le pire cas).
+     */
+    private void string(String value) throws IOException {
+        if (value == null) value = "";
+        int length = value.length();
+        reserve(6 * length + 2);
+        put('"');
+        int run = 0;
+        for (int i = 0; i < length; i++) {
+            char c = value.charAt(i);
+            if (c >= 0x20 && c != '"' && c != '\\') continue;
+            // Les portions sans caractère spécial sont copiées d'un bloc
+            put(value, run, i);
+            run = i + 1;
+            put('\\');
+            switch (c) {
+                case '"', '\\' -> put(c);
+                case '\n' -> put('n');
+                case '\r' -> put('r');
+                case '\t' -> put('t');
+                case '\b' -> put('b');
+                case '\f' -> put('f');
+                default -> {
+                    put('u');
+                    put('0');
+                    put('0');
+                    put(HEX_DIGITS[c >> 4]);
+                    put(HEX_DIGITS[c & 0xF]);
+                }
+            }
+        }
+        put(value, run, length);
+        put('"');
+    }
+
+    /**
+     * Échappe une chaîne pour l'inclure entre guillemets dans du JSON.
+     *
+     * @param input la chaîne à échapper ({@code null} : chaîne vide).
+     * @return chaîne échappée, sans les guillemets.
+     */
+    public static String escape(String input) {
+        StringWriter out = new StringWriter();
+        try {
+            JsonRowWriter writer = new JsonRowWriter(out, true, 16);
+            writer.string(input);
+            writer.flush();
+        } catch (IOException e) {
+            throw new IllegalStateException(e); // impossible avec un StringWriter
+        }
+        String quoted = out.toString();
+        return quoted.substring(1, quoted.length() - 1);
+    }
+}
@@ -0,0 +1,152 @@
+package org.sncf.gui.services.export;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.ArrayDeque;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Flux compressé au format gzip sur tous les cœurs, à la manière de {@code pigz}.
+ * <p>
+ * Les octets sont découpés en blocs de {@link #BLOCK_SIZE}, chacun compressé indépendamment
+ * en un membre gzip complet sur le pool de calcul, puis écrits dans l'ordre. Un fichier
+ * gzip peut contenir plusieurs membres concaténés : le résultat se lit avec {@code gunzip}
+ * ou {@link java.util.zip.GZIPInputStream}. Le nombre de blocs en cours est borné
+ * (deux par cœur), ce qui borne la mémoire et fait attendre l'écrivain si la compression
+ * ne suit pas. Le flux n'est pas partagé entre threads.
+ * </p>
+ */
+public class ParallelGzipOutputStream extends OutputStream {
+
+    /**
+     * Taille d'un bloc compressé indépendamment, en octets.
+     */
+    public static final int BLOCK_SIZE = 1 << 20;
+
+    private final OutputStream out;
+    private final Executor pool;
+    private final int blockSize;
+    private final int maxInFlight;
+    private final ArrayDeque<CompletableFuture<byte[]>> pending = new ArrayDeque<>();
+    private byte[] block;
+    private int position;
+    private boolean written;
+    private boolean closed;
+
+    /**
+     * Crée un flux compressé sur le pool commun.
+     *
+     * @param out flux de destination, fermé avec celui-ci.
+     */
+    public ParallelGzipOutputStream(OutputStream out) {
+        this(out, ForkJoinPool.commonPool(), BLOCK_SIZE, ForkJoinPool.getCommonPoolParallelism());
+    }
+
+    /**
+     * @param out         flux de destination, fermé avec celui-ci.
+     * @param pool        pool de compression.
+     * @param blockSize   taille d'un bloc, en octets.
+     * @param parallelism nombre de blocs compressés simultanément.
+     */
+    ParallelGzipOutputStream(OutputStream out, Executor pool, int blockSize, int parallelism) {
+        this.out = out;
+        this.pool = pool;
+        this.blockSize = blockSize;
+        this.maxInFlight = 2 * Math.max(1, parallelism);
+        this.block = new byte[blockSize];
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        if (position == blockSize) submit();
+        block[position++] = (byte) b;
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        while (len > 0) {
+            if (position == blockSize) submit();
+            int count = Math.min(len, blockSize - position);
+            System.arraycopy(b, off, block, position, count);
+            position += count;
+            off += count;
+            len -= count;
+        }
+    }
+
+    /**
+     * Envoie le bloc en cours à la compression, même incomplet, et écrit les blocs terminés.
+     * Chaque appel termine un membre gzip : à réserver aux fins de lot.
+     */
+    @Override
+    public void flush() throws IOException {
+        if (position > 0) submit();
+        drain(false);
+        out.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (closed) return;
+        closed = true;
+        try {
+            // Un fichier vide reste un gzip valide : il contient un membre vide
+            if (position > 0 || !written) submit();
+            drain(true);
+        } finally {
+            out.close();
+        }
+    }
+
+    private void submit() throws IOException {
+        byte[] data = block;
+        int length = position;
+        pending.addLast(CompletableFuture.supplyAsync(() -> compress(data, length), pool));
+        written = true;
+        block = new byte[blockSize];
+        position = 0;
+        // Attend le plus ancien bloc lorsque trop de blocs sont en cours
+        while (pending.size() >= maxInFlight) {
+            out.write(await(pending.removeFirst()));
+        }
+        drain(false);
+    }
+
+    /**
+     * Écrit les blocs compressés dans l'ordre : ceux déjà terminés, ou tous.
+     */
+    private void drain(boolean all) throws IOException {
+        while (!pending.isEmpty() && (all || pending.peekFirst().isDone())) {
+            out.write(await(pending.removeFirst()));
+        }
+    }
+
+    private static byte[] await(CompletableFuture<byte[]> future) throws IOException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Compression interrompue");
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause() instanceof UncheckedIOException u ? u.getCause() : e.getCause();
+            throw new IOException("Erreur de compression : " + cause.getMessage(), cause);
+        }
+    }
+
+    private static byte[] compress(byte[] data, int length) {
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream(length / 4 + 64);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(compressed, 1 << 16)) {
+            gzip.write(data, 0, length);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return compressed.toByteArray();
+    }
+}
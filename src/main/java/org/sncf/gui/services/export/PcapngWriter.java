@@ -0,0 +1,201 @@
+package org.sncf.gui.services.export;
+
+import org.sncf.gui.services.TrameService;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Écrit les trames au format pcapng, lisible par Wireshark, tshark et les outils réseau usuels.
+ *
+ * <p>Le fichier contient une section ({@code SHB}), une description d'interface ({@code IDB})
+ * par source de capture, puis un bloc de paquet ({@code EPB}) par trame : horodatage à la
+ * nanoseconde, octets bruts de la trame (bits empaquetés, premier bit = bit de poids fort) et,
+ * en option, un commentaire portant le texte interprété. Les trames non alignées sur l'octet
+ * sont complétées par des zéros, leur nombre de bits étant précisé en commentaire.</p>
+ *
+ * <p>Les trames sont écrites en flux, chaque bloc étant construit dans un tampon réutilisé.
+ * Les liens sont de type {@link #LINKTYPE_USER0} : un dissecteur peut y être associé dans l'outil.</p>
+ */
+public class PcapngWriter implements FrameWriter {
+
+    /**
+     * Type de lien réservé à un usage privé (DLT_USER0).
+     */
+    public static final int LINKTYPE_USER0 = 147;
+
+    static final int SHB = 0x0A0D0D0A;
+    static final int IDB = 0x00000001;
+    static final int EPB = 0x00000006;
+    static final int BYTE_ORDER_MAGIC = 0x1A2B3C4D;
+    static final short OPT_END = 0;
+    static final short OPT_COMMENT = 1;
+    static final short IF_NAME = 2;
+    static final short IF_DESCRIPTION = 3;
+    static final short IF_TSRESOL = 9;
+    static final short SHB_USERAPPL = 4;
+
+    private final OutputStream out;
+    private final String interfaceName;
+    private final String interfaceDescription;
+    private final boolean comments;
+    private final long defaultTimestamp;
+    private ByteBuffer block = ByteBuffer.allocate(4096).order(ByteOrder.LITTLE_ENDIAN);
+    private int interfaces;
+    private long rows;
+
+    /**
+     * @param out                  flux de destination (non fermé par l'écrivain).
+     * @param interfaceName        nom de la source de capture.
+     * @param interfaceDescription description de la source (configuration du port), ou vide.
+     * @param comments             true pour joindre le texte interprété de chaque trame.
+     * @param defaultTimestamp     instant (ms) des trames non horodatées, par exemple celui de l'export.
+     */
+    public PcapngWriter(OutputStream out, String interfaceName, String interfaceDescription, boolean comments,
+                        long defaultTimestamp) {
+        this.out = new BufferedOutputStream(out, 1 << 16);
+        this.interfaceName = interfaceName;
+        this.interfaceDescription = interfaceDescription;
+        this.comments = comments;
+        this.defaultTimestamp = defaultTimestamp;
+    }
+
+    @Override
+    public void begin() throws IOException {
+        start(SHB);
+        block.putInt(BYTE_ORDER_MAGIC);
+        block.putShort((short) 1); // version 1.0
+        block.putShort((short) 0);
+        block.putLong(-1L); // longueur de section inconnue : écriture en flux
+        option(SHB_USERAPPL, "Analyse de trames");
+        endOptions();
+        finish();
+        addInterface(interfaceName, interfaceDescription);
+    }
+
+    /**
+     * Déclare une source de capture supplémentaire.
+     *
+     * @param name        nom de la source.
+     * @param description description de la source, ou vide.
+     * @return identifiant de l'interface, à passer à {@link #write(TrameService.TrameEntry, int)}.
+     * @throws IOException en cas d'erreur d'écriture.
+     */
+    public int addInterface(String name, String description) throws IOException {
+        start(IDB);
+        block.putShort((short) LINKTYPE_USER0);
+        block.putShort((short) 0);
+        block.putInt(0); // pas de limite de capture
+        option(IF_NAME, name);
+        if (description != null && !description.isEmpty()) option(IF_DESCRIPTION, description);
+        ensure(8);
+        block.putShort(IF_TSRESOL).putShort((short) 1).put((byte) 9).put(new byte[3]); // nanosecondes
+        endOptions();
+        finish();
+        return interfaces++;
+    }
+
+    @Override
+    public void write(TrameService.TrameEntry frame) throws IOException {
+        write(frame, 0);
+    }
+
+    /**
+     * Écrit une trame reçue par une source donnée.
+     *
+     * @param frame       trame à écrire.
+     * @param interfaceId identifiant de la source ({@link #addInterface}).
+     * @throws IOException en cas d'erreur d'écriture.
+     */
+    public void write(TrameService.TrameEntry frame, int interfaceId) throws IOException {
+        String bits = frame.bits != null ? frame.bits : "";
+        int length = (bits.length() + 7) / 8;
+        long nanos = (frame.timestamp != 0 ? frame.timestamp : defaultTimestamp) * 1_000_000L;
+
+        start(EPB);
+        ensure(20 + pad(length));
+        block.putInt(interfaceId);
+        block.putInt((int) (nanos >>> 32));
+        block.putInt((int) nanos);
+        block.putInt(length);
+        block.putInt(length);
+        for (int i = 0; i < bits.length(); i += 8) {
+            int value = 0;
+            for (int j = i; j < i + 8; j++) {
+                value = (value << 1) | (j < bits.length() && bits.charAt(j) == '1' ? 1 : 0);
+            }
+            block.put((byte) value);
+        }
+        padding(length);
+
+        boolean aligned = bits.length() % 8 == 0;
+        boolean hasText = comments && frame.text != null && !frame.text.isEmpty();
+        if (!aligned) option(OPT_COMMENT, bits.length() + " bits");
+        if (hasText) option(OPT_COMMENT, frame.text);
+        if (!aligned || hasText) endOptions();
+        finish();
+        rows++;
+    }
+
+    @Override
+    public void end() throws IOException {
+        out.flush();
+    }
+
+    @Override
+    public long getRows() {
+        return rows;
+    }
+
+    private static int pad(int length) {
+        return (length + 3) & ~3;
+    }
+
+    private void padding(int length) {
+        for (int i = length; i < pad(length); i++) {
+            block.put((byte) 0);
+        }
+    }
+
+    private void ensure(int count) {
+        if (block.remaining() >= count) return;
+        ByteBuffer larger = ByteBuffer.allocate(Math.max(2 * block.capacity(), block.position() + count + 64))
+                .order(ByteOrder.LITTLE_ENDIAN);
+        block.flip();
+        larger.put(block);
+        block = larger;
+    }
+
+    private void start(int type) {
+        block.clear();
+        block.putInt(type);
+        block.putInt(0); // longueur, renseignée par finish()
+    }
+
+    private void option(short code, String value) {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        int length = Math.min(bytes.length, 0xFFFF);
+        ensure(4 + pad(length));
+        block.putShort(code);
+        block.putShort((short) length);
+        block.put(bytes, 0, length);
+        padding(length);
+    }
+
+    private void endOptions() {
+        ensure(4);
+        block.putShort(OPT_END).putShort((short) 0);
+    }
+
+    private void finish() throws IOException {
+        ensure(4);
+        int total = block.position() + 4;
+        block.putInt(total);
+        block.putInt(4, total);
+        out.write(block.array(), 0, total);
+    }
+}
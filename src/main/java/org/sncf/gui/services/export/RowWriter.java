@@ -0,0 +1,117 @@
+package org.sncf.gui.services.export;
+
+import org.sncf.gui.services.TrameService;
+
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * Sérialiseur de trames en flux, sans allocation par ligne.
+ * <p>
+ * Chaque trame est échappée en une seule passe directement dans un tampon de caractères
+ * réutilisé, vidé dans le flux de sortie lorsqu'il est plein : ni chaîne de format à
+ * analyser, ni chaîne intermédiaire par champ. Un sérialiseur n'est pas partagé entre threads.
+ * </p>
+ */
+public abstract class RowWriter implements FrameWriter, Flushable {
+
+    /**
+     * Taille par défaut du tampon, en caractères.
+     */
+    public static final int DEFAULT_BUFFER_SIZE = 1 << 16;
+
+    private final Writer out;
+    private char[] buffer;
+    private int position;
+    private long rows;
+
+    /**
+     * @param out        flux de sortie (jamais fermé par le sérialiseur).
+     * @param bufferSize taille du tampon, en caractères.
+     */
+    protected RowWriter(Writer out, int bufferSize) {
+        this.out = out;
+        this.buffer = new char[Math.max(16, bufferSize)];
+    }
+
+    /**
+     * Écrit une trame.
+     *
+     * @param bits trame en binaire.
+     * @param hex  trame en hexadécimal.
+     * @param text texte interprété ({@code null} : vide).
+     * @throws IOException en cas d'erreur d'écriture.
+     */
+    public final void row(String bits, String hex, String text) throws IOException {
+        writeRow(bits, hex, text, rows++ == 0);
+    }
+
+    @Override
+    public void write(TrameService.TrameEntry frame) throws IOException {
+        row(frame.bits, frame.hex, frame.text);
+    }
+
+    @Override
+    public void end() throws IOException {
+        flush();
+    }
+
+    @Override
+    public long getRows() {
+        return rows;
+    }
+
+    /**
+     * Écrit une trame selon le format.
+     *
+     * @param first true pour la première trame du fichier.
+     */
+    protected abstract void writeRow(String bits, String hex, String text, boolean first) throws IOException;
+
+    @Override
+    public void flush() throws IOException {
+        drain();
+        out.flush();
+    }
+
+    /**
+     * Garantit la place pour {@code count} caractères dans le tampon.
+     */
+    protected final void reserve(int count) throws IOException {
+        if (buffer.length - position >= count) return;
+        drain();
+        if (count > buffer.length) buffer = new char[count];
+    }
+
+    /**
+     * Ajoute un caractère (place réservée au préalable).
+     */
+    protected final void put(char c) {
+        buffer[position++] = c;
+    }
+
+    /**
+     * Ajoute une portion de chaîne sans échappement (place réservée au préalable).
+     */
+    protected final void put(String s, int from, int to) {
+        s.getChars(from, to, buffer, position);
+        position += to - from;
+    }
+
+    /**
+     * Ajoute une chaîne, sans échappement.
+     */
+    protected final void append(String s) throws IOException {
+        int length = s.length();
+        reserve(length);
+        s.getChars(0, length, buffer, position);
+        position += length;
+    }
+
+    private void drain() throws IOException {
+        if (position == 0) return;
+        out.write(buffer, 0, position);
+        position = 0;
+    }
+}
@@ -0,0 +1,256 @@
+package org.sncf.gui.services.filter;
+
+import org.sncf.gui.model.BitStore;
+
+import java.awt.*;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Plages colorées produites par les filtres binaires sur un {@link BitStore}.
+ * <p>
+ * Toutes les règles binaires actives sont recherchées en une seule passe par le
+ * {@link BitPatternMatcher} de leur {@link FilterSet}, de façon incrémentale :
+ * {@link #update(BitStore)} ne lit que les bits arrivés depuis l'appel précédent.
+ * Les correspondances peuvent chevaucher les limites de trames. Les plages de chaque règle
+ * sont triées et disjointes : la lecture d'une fenêtre se fait par recherche dichotomique.
+ * </p>
+ * <p>
+ * Les plages sont conservées par motif, indépendamment des couleurs et des autres règles.
+ * Lors d'un changement de filtres ({@link #setFilters(FilterSet, BitStore)}), seules les règles
+ * jamais vues sont recherchées dans tout le flux (une passe avec ces seuls motifs) ; une règle
+ * désactivée ne coûte rien et, réactivée, ne lit que les bits arrivés entre-temps.
+ * Seules les {@value #MAX_INACTIVE_PATTERNS} règles inactives utilisées le plus récemment
+ * sont conservées ; les plus anciennes (règles supprimées, motifs en cours de saisie) sont oubliées.
+ * </p>
+ */
+public class BitFilterRuns {
+
+    /**
+     * Reçoit une plage colorée.
+     */
+    public interface RunConsumer {
+        /**
+         * @param color couleur de la règle.
+         * @param start premier bit de la plage.
+         * @param end   fin (exclue) de la plage.
+         */
+        void accept(Color color, int start, int end);
+    }
+
+    /**
+     * Nombre maximal de motifs inactifs dont les plages sont conservées.
+     */
+    static final int MAX_INACTIVE_PATTERNS = 32;
+
+    // Ordre d'accès : les motifs inactifs depuis le plus longtemps sont en tête
+    private final Map<String, RuleRuns> runsByPattern = new LinkedHashMap<>(16, 0.75f, true);
+    private FilterSet filters = FilterSet.EMPTY;
+    private RuleRuns[] active = new RuleRuns[0];
+    // Règle active dont le motif figure déjà plus tôt dans l'ensemble : ses plages sont celles de la première
+    private boolean[] duplicate = new boolean[0];
+    private BitPatternMatcher.Scanner scanner = FilterSet.EMPTY.getBitMatcher().newScanner();
+    private int firstNewStart;
+
+    /**
+     * Active un nouvel ensemble de filtres. Les règles binaires déjà connues reprennent leurs
+     * plages ; les autres sont recherchées jusqu'à la fin actuelle du flux.
+     *
+     * @param filters filtres actifs ; seules leurs règles binaires sont recherchées
+     *                (dans l'ordre d'application, les dernières l'emportent).
+     * @param store   flux de bits.
+     */
+    public void setFilters(FilterSet filters, BitStore store) {
+        // Les règles sortantes gardent leur état pour une réactivation ultérieure
+        for (int p = 0; p < active.length; p++) {
+            active[p].state = scanner.saveState(p);
+        }
+        RuleRuns[] next = new RuleRuns[filters.getBitColors().size()];
+        boolean[] nextDuplicate = new boolean[next.length];
+        // Règles en retard sur le flux, regroupées par position pour les rattraper ensemble
+        Map<Long, List<RuleRuns>> behind = new LinkedHashMap<>();
+        int p = 0;
+        for (FilterMatcher matcher : filters.getMatchers()) {
+            if (matcher.getType() != FilterMatcher.Type.BITS) continue;
+            RuleRuns runs = runsByPattern.computeIfAbsent(matcher.getRule().pattern, k -> new RuleRuns(matcher.getBitPattern()));
+            nextDuplicate[p] = Arrays.asList(next).subList(0, p).contains(runs);
+            if (!nextDuplicate[p] && runs.position() < store.size()) {
+                behind.computeIfAbsent(runs.position(), k -> new ArrayList<>()).add(runs);
+            }
+            next[p++] = runs;
+        }
+        for (Map.Entry<Long, List<RuleRuns>> group : behind.entrySet()) {
+            catchUp(group.getKey(), group.getValue(), store);
+        }
+        evictInactive(Arrays.asList(next));
+        this.filters = filters;
+        this.active = next;
+        this.duplicate = nextDuplicate;
+        this.scanner = filters.getBitMatcher().newScanner(store.size());
+        for (p = 0; p < next.length; p++) {
+            if (next[p].state != null) scanner.restoreState(p, next[p].state);
+        }
+    }
+
+    /**
+     * @return identifiant des règles binaires et de leurs couleurs (égal pour des règles équivalentes).
+     */
+    public String getSignature() {
+        return filters.getBitSignature();
+    }
+
+    /**
+     * @return true si aucune règle binaire n'est active.
+     */
+    public boolean isEmpty() {
+        return active.length == 0;
+    }
+
+    /**
+     * Recherche les correspondances des règles actives dans les bits ajoutés depuis le dernier appel.
+     *
+     * @param store flux de bits (seuls des ajouts en fin sont attendus depuis le dernier appel).
+     * @return premier bit d'une plage découverte par cet appel, ou -1 si aucune : une
+     * correspondance contenant un joker peut commencer bien avant les nouveaux bits.
+     */
+    public int update(BitStore store) {
+        firstNewStart = -1;
+        if (isEmpty()) return -1;
+        feed(scanner, store, this::record);
+        return firstNewStart;
+    }
+
+    /**
+     * Transmet les plages chevauchant [from, to), règle par règle dans l'ordre d'application.
+     *
+     * @param from     premier bit de la fenêtre.
+     * @param to       fin (exclue) de la fenêtre.
+     * @param consumer destinataire des plages (non tronquées à la fenêtre).
+     */
+    public void forEachRun(int from, int to, RunConsumer consumer) {
+        List<Color> colors = filters.getBitColors();
+        for (int rule = 0; rule < active.length; rule++) {
+            RuleRuns runs = active[rule];
+            // Première plage se terminant après le début de la fenêtre
+            int low = 0;
+            int high = runs.count;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (runs.ends[mid] > from) {
+                    high = mid;
+                } else {
+                    low = mid + 1;
+                }
+            }
+            for (int i = low; i < runs.count && runs.starts[i] < to; i++) {
+                consumer.accept(colors.get(rule), runs.starts[i], runs.ends[i]);
+            }
+        }
+    }
+
+    /**
+     * Oublie toutes les plages (le flux a été vidé).
+     */
+    public void clear() {
+        runsByPattern.clear();
+        for (int p = 0; p < active.length; p++) {
+            RuleRuns runs = new RuleRuns(active[p].pattern);
+            runsByPattern.put(runs.pattern.getSource(), runs);
+            active[p] = runs;
+        }
+        scanner = filters.getBitMatcher().newScanner();
+    }
+
+    /**
+     * Oublie les motifs inactifs les moins récemment utilisés au-delà de {@link #MAX_INACTIVE_PATTERNS}.
+     * Les motifs actifs viennent d'être consultés : ils sont en fin de table.
+     */
+    private void evictInactive(List<RuleRuns> activeRuns) {
+        Iterator<RuleRuns> oldest = runsByPattern.values().iterator();
+        while (runsByPattern.size() > activeRuns.size() + MAX_INACTIVE_PATTERNS && oldest.hasNext()) {
+            if (!activeRuns.contains(oldest.next())) oldest.remove();
+        }
+    }
+
+    /**
+     * @return nombre de motifs dont les plages sont conservées (actifs et inactifs).
+     */
+    int getRetainedCount() {
+        return runsByPattern.size();
+    }
+
+    private void record(int rule, long start, long end) {
+        if (duplicate[rule]) return;
+        active[rule].add(start, end);
+        if (firstNewStart < 0 || start < firstNewStart) firstNewStart = (int) start;
+    }
+
+    /**
+     * Recherche des motifs arrêtés à la même position dans les bits qu'ils n'ont pas encore lus,
+     * en une seule passe.
+     */
+    private static void catchUp(long position, List<RuleRuns> group, BitStore store) {
+        List<BitPattern> patterns = new ArrayList<>(group.size());
+        for (RuleRuns runs : group) {
+            patterns.add(runs.pattern);
+        }
+        BitPatternMatcher.Scanner catchUp = new BitPatternMatcher(patterns).newScanner(position);
+        for (int p = 0; p < group.size(); p++) {
+            if (group.get(p).state != null) catchUp.restoreState(p, group.get(p).state);
+        }
+        feed(catchUp, store, (p, start, end) -> group.get(p).add(start, end));
+        for (int p = 0; p < group.size(); p++) {
+            group.get(p).state = catchUp.saveState(p);
+        }
+    }
+
+    /**
+     * Lit les bits du flux depuis la position du lecteur jusqu'à la fin.
+     */
+    private static void feed(BitPatternMatcher.Scanner scanner, BitStore store, BitPatternMatcher.MatchListener listener) {
+        int size = store.size();
+        int pos = (int) scanner.getPosition();
+        while (pos < size) {
+            int offset = pos & 63;
+            int count = Math.min(64 - offset, size - pos);
+            scanner.feed(store.getWord(pos >>> 6) >>> offset, count, listener);
+            pos += count;
+        }
+    }
+
+    /**
+     * Plages trouvées pour un motif, et état de sa recherche lorsqu'il n'est pas lu par le lecteur commun.
+     */
+    private static class RuleRuns {
+        final BitPattern pattern;
+        int[] starts = new int[16];
+        int[] ends = new int[16];
+        int count;
+        BitPatternMatcher.PatternState state;
+
+        RuleRuns(BitPattern pattern) {
+            this.pattern = pattern;
+        }
+
+        void add(long start, long end) {
+            if (count == starts.length) {
+                starts = Arrays.copyOf(starts, count * 2);
+                ends = Arrays.copyOf(ends, count * 2);
+            }
+            starts[count] = (int) start;
+            ends[count] = (int) end;
+            count++;
+        }
+
+        /**
+         * @return nombre de bits déjà lus pour ce motif.
+         */
+        long position() {
+            return state != null ? state.getPosition() : 0;
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package org.sncf.gui.services.filter;
+
+import java.util.Arrays;
+
+/**
+ * Motif binaire d'un filtre, analysé pour le {@link BitPatternMatcher}.
+ * <p>
+ * Syntaxe (les espaces sont ignorés) :
+ * </p>
+ * <ul>
+ *     <li>{@code 0} et {@code 1} : bit attendu ;</li>
+ *     <li>{@code ?} : un bit quelconque (bit indifférent) ;</li>
+ *     <li>{@code *} : un nombre quelconque de bits, éventuellement nul (équivalent de
+ *     {@code .*?} dans les filtres texte). Un {@code *} en tête ou en fin de motif est sans effet.</li>
+ * </ul>
+ * <p>
+ * Chaque {@code 0}, {@code 1} ou {@code ?} occupe une position du motif ; un {@code *}
+ * est rattaché à la position qui le précède.
+ * </p>
+ */
+public class BitPattern {
+
+    /**
+     * Valeur d'une position acceptant indifféremment 0 ou 1.
+     */
+    public static final int ANY = -1;
+
+    private final String source;
+    private final int[] bits;
+    private final boolean[] gapAfter;
+
+    private BitPattern(String source, int[] bits, boolean[] gapAfter) {
+        this.source = source;
+        this.bits = bits;
+        this.gapAfter = gapAfter;
+    }
+
+    /**
+     * Indique si un motif de filtre est un motif binaire : uniquement des {@code 0}, {@code 1},
+     * {@code ?}, {@code *} et espaces, avec au moins un {@code 0} ou un {@code 1}.
+     *
+     * @param pattern motif saisi par l'utilisateur.
+     * @return true si le motif peut être analysé par {@link #parse(String)}.
+     */
+    public static boolean isBitPattern(String pattern) {
+        if (pattern == null) return false;
+        String cleaned = pattern.replaceAll("\\s+", "");
+        return cleaned.matches("[01?*]+") && cleaned.matches(".*[01].*");
+    }
+
+    /**
+     * Analyse un motif binaire.
+     *
+     * @param pattern motif saisi par l'utilisateur.
+     * @return le motif analysé.
+     * @throws IllegalArgumentException si le motif n'est pas binaire (voir {@link #isBitPattern(String)}).
+     */
+    public static BitPattern parse(String pattern) {
+        if (!isBitPattern(pattern)) {
+            throw new IllegalArgumentException("Motif binaire invalide : " + pattern);
+        }
+        String cleaned = pattern.replaceAll("\\s+", "");
+        int[] bits = new int[cleaned.length()];
+        boolean[] gapAfter = new boolean[cleaned.length()];
+        int length = 0;
+        for (int i = 0; i < cleaned.length(); i++) {
+            char c = cleaned.charAt(i);
+            if (c == '*') {
+                if (length > 0) gapAfter[length - 1] = true;
+            } else {
+                bits[length++] = c == '?' ? ANY : c - '0';
+            }
+        }
+        // Un joker final n'allonge pas la correspondance la plus courte
+        gapAfter[length - 1] = false;
+        return new BitPattern(pattern, Arrays.copyOf(bits, length), Arrays.copyOf(gapAfter, length));
+    }
+
+    /**
+     * @return motif tel que saisi.
+     */
+    public String getSource() {
+        return source;
+    }
+
+    /**
+     * @return nombre de positions (bits attendus ou indifférents, hors jokers {@code *}).
+     */
+    public int length() {
+        return bits.length;
+    }
+
+    /**
+     * @param position position dans le motif.
+     * @return 0, 1 ou {@link #ANY}.
+     */
+    public int bitAt(int position) {
+        return bits[position];
+    }
+
+    /**
+     * @param position position dans le motif.
+     * @return true si un nombre quelconque de bits peut suivre cette position.
+     */
+    public boolean hasGapAfter(int position) {
+        return gapAfter[position];
+    }
+
+    /**
+     * @return true si la longueur des correspondances est fixe (aucun joker {@code *} interne).
+     */
+    public boolean isFixedLength() {
+        for (boolean gap : gapAfter) {
+            if (gap) return false;
+        }
+        return true;
+    }
+
+    /**
+     * @return nombre de positions avant le premier joker {@code *} (toute la longueur s'il n'y en a pas).
+     */
+    public int firstSegmentLength() {
+        for (int i = 0; i < gapAfter.length; i++) {
+            if (gapAfter[i]) return i + 1;
+        }
+        return bits.length;
+    }
+}
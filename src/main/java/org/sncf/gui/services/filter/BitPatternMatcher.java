@@ -0,0 +1,353 @@
+package org.sncf.gui.services.filter;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Recherche simultanée de plusieurs {@link BitPattern} dans un flux de bits (algorithme Shift-And).
+ * <p>
+ * Les positions de tous les motifs sont placées bout à bout dans un vecteur d'état de
+ * mots de 64 bits : le bit {@code k} de l'état vaut 1 si les {@code k - début} premières
+ * positions du motif correspondant concordent avec les derniers bits lus. Chaque bit du
+ * flux fait avancer tous les motifs à la fois par un décalage, un OU et un ET par mot
+ * d'état, quelle que soit la longueur des motifs. Les jokers {@code *} sont des positions
+ * qui restent actives une fois atteintes ; les bits indifférents {@code ?} acceptent 0 et 1.
+ * </p>
+ * <p>
+ * Le flux est lu par morceaux ({@link Scanner#feed(long, int, MatchListener)}) : une
+ * correspondance peut chevaucher plusieurs morceaux, et donc plusieurs trames.
+ * Pour chaque motif, les correspondances signalées sont celles d'une recherche de gauche
+ * à droite sans chevauchement : la plus à gauche, puis la plus courte, puis la recherche
+ * reprend juste après.
+ * </p>
+ */
+public class BitPatternMatcher {
+
+    /**
+     * Reçoit les correspondances trouvées, dans l'ordre de leur fin.
+     */
+    public interface MatchListener {
+        /**
+         * @param pattern indice du motif dans la liste fournie au constructeur.
+         * @param start   position du premier bit de la correspondance.
+         * @param end     position (exclue) du dernier bit de la correspondance.
+         */
+        void onMatch(int pattern, long start, long end);
+    }
+
+    private final int patternCount;
+    private final int words;
+    private final long[] initial;
+    private final long[] zeroMask;
+    private final long[] oneMask;
+    private final long[] sticky;
+    private final long[] finals;
+    private final long[] watched;
+    private final int[] patternAt;
+    private final int[] firstPosition;
+    private final int[] lengths;
+    private final int[] gapPatterns;
+    private final int[] firstSegmentEnd;
+
+    /**
+     * Compile un ensemble de motifs.
+     *
+     * @param patterns motifs recherchés ; leur indice identifie les correspondances.
+     */
+    public BitPatternMatcher(List<BitPattern> patterns) {
+        this.patternCount = patterns.size();
+        int total = 0;
+        for (BitPattern pattern : patterns) {
+            total += pattern.length();
+        }
+        this.words = Math.max(1, (total + 63) >>> 6);
+        this.initial = new long[words];
+        this.zeroMask = new long[words];
+        this.oneMask = new long[words];
+        this.sticky = new long[words];
+        this.finals = new long[words];
+        this.watched = new long[words];
+        this.patternAt = new int[total];
+        this.firstPosition = new int[patternCount];
+        this.lengths = new int[patternCount];
+        this.firstSegmentEnd = new int[patternCount];
+
+        int gapCount = 0;
+        int offset = 0;
+        for (int p = 0; p < patternCount; p++) {
+            BitPattern pattern = patterns.get(p);
+            firstPosition[p] = offset;
+            lengths[p] = pattern.length();
+            set(initial, offset);
+            for (int i = 0; i < pattern.length(); i++) {
+                int position = offset + i;
+                patternAt[position] = p;
+                int bit = pattern.bitAt(i);
+                if (bit != 1) set(zeroMask, position);
+                if (bit != 0) set(oneMask, position);
+                if (pattern.hasGapAfter(i)) set(sticky, position);
+            }
+            set(finals, offset + pattern.length() - 1);
+            set(watched, offset + pattern.length() - 1);
+            if (pattern.isFixedLength()) {
+                firstSegmentEnd[p] = -1;
+            } else {
+                firstSegmentEnd[p] = offset + pattern.firstSegmentLength() - 1;
+                set(watched, firstSegmentEnd[p]);
+                gapCount++;
+            }
+            offset += pattern.length();
+        }
+        this.gapPatterns = new int[gapCount];
+        for (int p = 0, g = 0; p < patternCount; p++) {
+            if (firstSegmentEnd[p] >= 0) gapPatterns[g++] = p;
+        }
+    }
+
+    /**
+     * @return nombre de motifs recherchés.
+     */
+    public int getPatternCount() {
+        return patternCount;
+    }
+
+    /**
+     * Cherche si au moins un motif apparaît dans une chaîne de bits, en s'arrêtant à la
+     * première correspondance terminée (les caractères autres que '0' et '1' sont ignorés).
+     *
+     * @param bits bits à lire.
+     * @return indice du motif de la première correspondance terminée, ou -1 si aucune.
+     */
+    public int findFirst(CharSequence bits) {
+        if (patternCount == 0) return -1;
+        Scanner scanner = new Scanner(0);
+        int[] first = {-1};
+        MatchListener listener = (p, start, end) -> {
+            if (first[0] < 0) first[0] = p;
+        };
+        for (int i = 0; i < bits.length() && first[0] < 0; i++) {
+            char c = bits.charAt(i);
+            if (c == '0' || c == '1') {
+                scanner.step(c - '0', listener);
+            }
+        }
+        return first[0];
+    }
+
+    /**
+     * @return un nouveau lecteur, positionné au début d'un flux.
+     */
+    public Scanner newScanner() {
+        return new Scanner(0);
+    }
+
+    /**
+     * Crée un lecteur reprenant un flux déjà lu en partie : l'état des motifs est ensuite
+     * restauré par {@link Scanner#restoreState(int, PatternState)} (les motifs non restaurés
+     * ne trouvent que les correspondances commençant après {@code position}).
+     *
+     * @param position nombre de bits déjà lus.
+     * @return un nouveau lecteur.
+     */
+    public Scanner newScanner(long position) {
+        return new Scanner(position);
+    }
+
+    private static void set(long[] vector, int position) {
+        vector[position >>> 6] |= 1L << (position & 63);
+    }
+
+    private static void clear(long[] vector, int position) {
+        vector[position >>> 6] &= ~(1L << (position & 63));
+    }
+
+    private static boolean isSet(long[] vector, int position) {
+        return (vector[position >>> 6] & (1L << (position & 63))) != 0;
+    }
+
+    /**
+     * État de la recherche dans un flux donné. Non thread-safe.
+     */
+    public class Scanner {
+        private final long[] state = new long[words];
+        private final long[] pendingStart = new long[patternCount];
+        // Positions surveillées : celles de watched, moins les fins de premier segment déjà atteintes
+        private final long[] watching = watched.clone();
+        private long position;
+
+        private Scanner(long position) {
+            this.position = position;
+            Arrays.fill(pendingStart, -1L);
+        }
+
+        /**
+         * Extrait l'état de recherche d'un motif, pour le reprendre dans un lecteur d'un
+         * autre ensemble de motifs contenant le même motif.
+         *
+         * @param p indice du motif.
+         * @return correspondances partielles du motif à la position courante.
+         */
+        public PatternState saveState(int p) {
+            long[] bits = new long[(lengths[p] + 63) >>> 6];
+            for (int i = 0; i < lengths[p]; i++) {
+                if (isSet(state, firstPosition[p] + i)) set(bits, i);
+            }
+            return new PatternState(bits, pendingStart[p], position);
+        }
+
+        /**
+         * Reprend l'état de recherche d'un motif extrait d'un autre lecteur.
+         *
+         * @param p     indice du motif (identique à celui de l'extraction).
+         * @param saved état extrait à la même position du flux.
+         * @throws IllegalStateException si l'état a été extrait à une autre position.
+         */
+        public void restoreState(int p, PatternState saved) {
+            if (saved.position != position) {
+                throw new IllegalStateException("État extrait à la position " + saved.position + ", lecteur en " + position);
+            }
+            for (int i = 0; i < lengths[p]; i++) {
+                if (isSet(saved.bits, i)) {
+                    set(state, firstPosition[p] + i);
+                } else {
+                    clear(state, firstPosition[p] + i);
+                }
+            }
+            if (firstSegmentEnd[p] >= 0) {
+                pendingStart[p] = saved.pendingStart;
+                if (saved.pendingStart >= 0) {
+                    clear(watching, firstSegmentEnd[p]);
+                } else {
+                    set(watching, firstSegmentEnd[p]);
+                }
+            }
+        }
+
+        /**
+         * @return nombre de bits lus depuis le début du flux.
+         */
+        public long getPosition() {
+            return position;
+        }
+
+        /**
+         * Lit des bits empaquetés, bit de poids faible en premier (format de {@code BitStore}).
+         *
+         * @param word     bits à lire.
+         * @param count    nombre de bits à lire (au plus 64).
+         * @param listener destinataire des correspondances terminées par ces bits.
+         */
+        public void feed(long word, int count, MatchListener listener) {
+            if (words > 1) {
+                for (int i = 0; i < count; i++) {
+                    step((int) (word >>> i) & 1, listener);
+                }
+                return;
+            }
+            // Cas courant (au plus 64 positions au total) : état tenu dans une variable locale
+            long d = state[0];
+            long init = initial[0], zeros = zeroMask[0], ones = oneMask[0], stick = sticky[0];
+            for (int i = 0; i < count; i++) {
+                long mask = ((word >>> i) & 1) == 0 ? zeros : ones;
+                d = (((d << 1) | init) & mask) | (d & stick);
+                if ((d & watching[0]) != 0) {
+                    state[0] = d;
+                    report(listener);
+                    d = state[0];
+                }
+                position++;
+            }
+            state[0] = d;
+        }
+
+        /**
+         * Lit une chaîne de bits ; les caractères autres que '0' et '1' sont ignorés.
+         *
+         * @param bits     bits à lire.
+         * @param listener destinataire des correspondances terminées par ces bits.
+         */
+        public void feed(CharSequence bits, MatchListener listener) {
+            for (int i = 0; i < bits.length(); i++) {
+                char c = bits.charAt(i);
+                if (c == '0' || c == '1') {
+                    step(c - '0', listener);
+                }
+            }
+        }
+
+        private void step(int bit, MatchListener listener) {
+            long[] mask = bit == 0 ? zeroMask : oneMask;
+            long carry = 0;
+            for (int w = 0; w < words; w++) {
+                long d = state[w];
+                state[w] = (((d << 1) | carry | initial[w]) & mask[w]) | (d & sticky[w]);
+                carry = d >>> 63;
+            }
+            boolean watchedSet = false;
+            for (int w = 0; w < words && !watchedSet; w++) {
+                watchedSet = (state[w] & watching[w]) != 0;
+            }
+            if (watchedSet) report(listener);
+            position++;
+        }
+
+        /**
+         * Traite les positions surveillées atteintes par le dernier bit lu : fin du premier
+         * segment d'un motif à jokers, ou fin d'un motif.
+         */
+        private void report(MatchListener listener) {
+            // Début de correspondance des motifs à jokers : première fin de leur premier segment
+            for (int p : gapPatterns) {
+                if (pendingStart[p] < 0 && isSet(state, firstSegmentEnd[p])) {
+                    pendingStart[p] = position - (firstSegmentEnd[p] - firstPosition[p]);
+                    clear(watching, firstSegmentEnd[p]);
+                }
+            }
+            for (int w = 0; w < words; w++) {
+                long hits = state[w] & finals[w];
+                while (hits != 0) {
+                    int p = patternAt[(w << 6) + Long.numberOfTrailingZeros(hits)];
+                    long start = firstSegmentEnd[p] >= 0 ? pendingStart[p] : position - lengths[p] + 1;
+                    listener.onMatch(p, start, position + 1);
+                    reset(p);
+                    hits &= hits - 1;
+                }
+            }
+        }
+
+        /**
+         * Abandonne les correspondances partielles d'un motif (la recherche reprend après une correspondance).
+         */
+        private void reset(int p) {
+            for (int i = firstPosition[p]; i < firstPosition[p] + lengths[p]; i++) {
+                clear(state, i);
+            }
+            if (firstSegmentEnd[p] >= 0) {
+                pendingStart[p] = -1;
+                set(watching, firstSegmentEnd[p]);
+            }
+        }
+    }
+
+    /**
+     * État de recherche d'un motif à une position du flux (voir {@link Scanner#saveState(int)}).
+     */
+    public static class PatternState {
+        private final long[] bits;
+        private final long pendingStart;
+        private final long position;
+
+        private PatternState(long[] bits, long pendingStart, long position) {
+            this.bits = bits;
+            this.pendingStart = pendingStart;
+            this.position = position;
+        }
+
+        /**
+         * @return position du flux à laquelle l'état a été extrait.
+         */
+        public long getPosition() {
+            return position;
+        }
+    }
+}
@@ -0,0 +1,151 @@
+package org.sncf.gui.services.filter;
+
+import org.sncf.gui.model.CaptureSettings;
+import org.sncf.gui.model.FilterRule;
+import org.sncf.gui.services.TrameService;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Filtre de capture compilé, évalué sur le thread de réception pour chaque trame,
+ * avant l'enregistrement en base et l'affichage.
+ * <p>
+ * Les motifs sont compilés une fois ({@link FilterSet}) et testés sur une trame construite
+ * à la demande : l'hexadécimal n'est calculé que si un motif porte sur les octets, le texte
+ * que si un motif porte sur le texte. Ce texte est la conversion ASCII brute de la trame,
+ * pas la traduction du dictionnaire (appliquée après la capture).
+ * </p>
+ * <p>
+ * Les compteurs peuvent être lus depuis n'importe quel thread.
+ * </p>
+ */
+public class CaptureFilter {
+
+
+    private final FilterSet rules;
+    private final int sampleEvery;
+    private final boolean needsHex;
+    private final boolean needsText;
+
+    private final LongAdder accepted = new LongAdder();
+    private final LongAdder sampled = new LongAdder();
+    private final AtomicLong rejected = new AtomicLong();
+
+    private CaptureFilter(FilterSet rules, int sampleEvery) {
+        this.rules = rules;
+        this.sampleEvery = sampleEvery;
+        boolean hex = false, text = false;
+        for (FilterMatcher matcher : rules.getMatchers()) {
+            hex |= matcher.getType() == FilterMatcher.Type.HEX || matcher.getType() == FilterMatcher.Type.EXPRESSION;
+            text |= matcher.getType() == FilterMatcher.Type.TEXT || matcher.getType() == FilterMatcher.Type.EXPRESSION;
+        }
+        this.needsHex = hex;
+        this.needsText = text;
+    }
+
+    /**
+     * Compile des paramètres de capture.
+     *
+     * @param settings paramètres enregistrés.
+     * @return filtre compilé ; sans motif ou désactivé, toutes les trames sont acceptées.
+     */
+    public static CaptureFilter compile(CaptureSettings settings) {
+        List<FilterRule> rules = new ArrayList<>();
+        if (settings.enabled) {
+            for (String pattern : settings.patterns) {
+                if (!pattern.isBlank()) rules.add(new FilterRule(pattern.trim(), "#000000"));
+            }
+        }
+        return new CaptureFilter(FilterSet.compile(rules), settings.sampleEvery);
+    }
+
+    /**
+     * @return filtre acceptant toutes les trames.
+     */
+    public static CaptureFilter acceptAll() {
+        return new CaptureFilter(FilterSet.EMPTY, 0);
+    }
+
+    /**
+     * Décide si une trame reçue est conservée.
+     *
+     * @param bits trame binaire reçue.
+     * @return true si la trame doit être enregistrée et affichée.
+     */
+    public boolean accept(String bits) {
+        if (rules.isEmpty() || matches(bits)) {
+            accepted.increment();
+            return true;
+        }
+        long rejectedCount = rejected.incrementAndGet();
+        if (sampleEvery > 0 && rejectedCount % sampleEvery == 0) {
+            sampled.increment();
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Teste les motifs sans mettre à jour les compteurs (utilisé par les déclencheurs de capture).
+     *
+     * @param bits trame binaire reçue.
+     * @return true si la trame correspond à au moins un motif (false sans motif).
+     */
+    public boolean matches(String bits) {
+        return rules.matchesAny(toEntry(bits));
+    }
+
+    /**
+     * @return true si toutes les trames sont acceptées (aucun motif actif).
+     */
+    public boolean isPassThrough() {
+        return rules.isEmpty();
+    }
+
+    /**
+     * @return nombre de trames correspondant à un motif (ou toutes, sans motif).
+     */
+    public long getAccepted() {
+        return accepted.sum();
+    }
+
+    /**
+     * @return nombre de trames écartées conservées par échantillonnage.
+     */
+    public long getSampled() {
+        return sampled.sum();
+    }
+
+    /**
+     * @return nombre de trames écartées et non conservées (seulement comptées).
+     */
+    public long getDropped() {
+        return rejected.get() - sampled.sum();
+    }
+
+    private TrameService.TrameEntry toEntry(String bits) {
+        String hex = needsHex ? TrameService.bitsToHex(bits) : "";
+        String text = needsText ? toAscii(bits) : "";
+        return new TrameService.TrameEntry(bits, hex, text);
+    }
+
+    private static String toAscii(String bits) {
+        char[] text = new char[bits.length() / 8];
+        for (int i = 0; i < text.length; i++) {
+            int value = byteAt(bits, i);
+            text[i] = value >= 32 && value <= 126 ? (char) value : '.';
+        }
+        return new String(text);
+    }
+
+    private static int byteAt(String bits, int index) {
+        int value = 0;
+        for (int b = index * 8; b < index * 8 + 8; b++) {
+            value = (value << 1) | (bits.charAt(b) == '1' ? 1 : 0);
+        }
+        return value;
+    }
+}
@@ -0,0 +1,719 @@
+package org.sncf.gui.services.filter;
+
+import org.sncf.gui.model.FilterRule;
+import org.sncf.gui.services.TrameService;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+import java.util.function.ToLongFunction;
+
+/**
+ * Expression booléenne de filtrage, compilée une fois en un arbre de fonctions spécialisées,
+ * immuable et utilisable depuis plusieurs threads.
+ * <p>
+ * Exemple : {@code byte[0] == 0x7E && (byte[2] & 0xF0) == 0x30 && !text ~ "ERR"}.
+ * </p>
+ * <ul>
+ *     <li>Champs numériques : {@code byte[i]} (octet i, compté depuis la fin si i est négatif),
+ *     {@code bit[i]}, {@code len} (nombre d'octets), {@code bitlen} (nombre de bits).</li>
+ *     <li>Champs texte : {@code text}, {@code hex}, {@code bits}, comparés par {@code ==} / {@code !=}
+ *     ou recherchés par {@code ~ "motif"} (motif texte, hexadécimal ou binaire selon le champ,
+ *     même syntaxe que les règles simples).</li>
+ *     <li>Nombres décimaux, {@code 0x..} ou {@code 0b..} ; opérateurs {@code & | ^ << >>} ;
+ *     comparaisons {@code == != < <= > >=} ; intervalle inclusif {@code x in 0x30..0x39}.</li>
+ *     <li>{@code && || !} et parenthèses. {@code !} s'applique à toute la comparaison qui le suit.</li>
+ *     <li>Une chaîne seule ({@code "7E ?? 30"}) est une règle simple, de type détecté comme d'habitude.</li>
+ * </ul>
+ * <p>
+ * Un champ absent (octet au-delà de la trame, octet illisible) n'est égal à rien : toute
+ * comparaison qui l'utilise est fausse, y compris {@code !=}. L'évaluation des champs numériques
+ * lit directement les chaînes de la trame, sans allocation.
+ * </p>
+ */
+public class FilterExpression {
+
+    // Valeur d'un champ absent ; les valeurs présentes sont toujours positives ou nulles
+    private static final long MISSING = -1;
+    private static final String[] EXPRESSION_MARKERS = {"&&", "||", "==", "!=", "<=", ">=", "byte[", "bit["};
+
+    private final String source;
+    private final Predicate<TrameService.TrameEntry> predicate;
+    private final int[] referencedBytes;
+    private final int[] referencedBits;
+    private final List<FilterMatcher> patterns;
+    private final SqlPredicate sqlPredicate;
+
+    private FilterExpression(String source, Operand result, Parser parser) {
+        this.source = source;
+        this.predicate = result.asPredicate(parser, 0);
+        this.sqlPredicate = result.sql();
+        this.referencedBytes = parser.bytes.stream().mapToInt(Integer::intValue).toArray();
+        this.referencedBits = parser.bits.stream().mapToInt(Integer::intValue).toArray();
+        this.patterns = List.copyOf(parser.patterns);
+    }
+
+    /**
+     * Compile une expression.
+     *
+     * @param source texte de l'expression.
+     * @return l'expression compilée.
+     * @throws IllegalArgumentException si l'expression est invalide (message avec la position de l'erreur).
+     */
+    public static FilterExpression parse(String source) {
+        Parser parser = new Parser(source);
+        Operand result = parser.parseExpression();
+        if (parser.peek().kind != TokenKind.END) {
+            throw parser.error("opérateur attendu");
+        }
+        return new FilterExpression(source, result, parser);
+    }
+
+    /**
+     * Indique si un motif est une expression plutôt qu'une règle simple : il doit s'analyser
+     * entièrement en une condition, autre qu'une chaîne seule. Les motifs des règles
+     * existantes (bits, hexadécimal, texte) ne sont donc pas concernés.
+     *
+     * @param pattern motif saisi par l'utilisateur.
+     * @return true si le motif est une expression valide.
+     */
+    public static boolean isExpression(String pattern) {
+        try {
+            Parser parser = new Parser(pattern);
+            Operand result = parser.parseExpression();
+            return parser.peek().kind == TokenKind.END && result.predicate != null && result.literal == null;
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Vérifie un motif saisi : un motif qui ressemble à une expression (opérateur logique,
+     * comparaison, accès à un octet ou un bit) doit être une expression valide.
+     *
+     * @param pattern motif saisi par l'utilisateur.
+     * @return message d'erreur, ou {@code null} si le motif est accepté.
+     */
+    public static String validate(String pattern) {
+        for (String marker : EXPRESSION_MARKERS) {
+            if (pattern.contains(marker)) {
+                try {
+                    parse(pattern);
+                    return null;
+                } catch (IllegalArgumentException e) {
+                    return e.getMessage();
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @return texte de l'expression.
+     */
+    public String getSource() {
+        return source;
+    }
+
+    /**
+     * @param entry trame à tester.
+     * @return true si la trame vérifie l'expression.
+     */
+    public boolean test(TrameService.TrameEntry entry) {
+        return predicate.test(entry);
+    }
+
+    /**
+     * @return présélection SQL des trames pouvant vérifier l'expression, ou {@code null} si
+     * l'expression ne se traduit pas (voir {@link SqlPredicate}).
+     */
+    public SqlPredicate getSqlPredicate() {
+        return sqlPredicate;
+    }
+
+    /**
+     * @return indices des octets lus par l'expression (négatifs : comptés depuis la fin).
+     */
+    int[] getReferencedBytes() {
+        return referencedBytes;
+    }
+
+    /**
+     * @return indices des bits lus par l'expression (négatifs : comptés depuis la fin).
+     */
+    int[] getReferencedBits() {
+        return referencedBits;
+    }
+
+    /**
+     * @return motifs recherchés par l'expression ({@code ~} et chaînes seules).
+     */
+    List<FilterMatcher> getPatterns() {
+        return patterns;
+    }
+
+    /**
+     * Octet {@code index} d'une représentation hexadécimale ("4A 2F"), lu sans allocation
+     * lorsque la représentation est régulière.
+     */
+    static long byteAt(String hex, int index) {
+        if (FilterMatcher.irregular(hex)) {
+            int[] bytes = FilterMatcher.parseBytes(hex);
+            if (index < 0) index += bytes.length;
+            return index < 0 || index >= bytes.length || bytes[index] < 0 ? MISSING : bytes[index];
+        }
+        int count = (hex.length() + 1) / 3;
+        if (index < 0) index += count;
+        if (index < 0 || index >= count) return MISSING;
+        int high = Character.digit(hex.charAt(3 * index), 16);
+        int low = Character.digit(hex.charAt(3 * index + 1), 16);
+        return high < 0 || low < 0 ? MISSING : high << 4 | low;
+    }
+
+    static int byteCount(String hex) {
+        return FilterMatcher.irregular(hex) ? FilterMatcher.parseBytes(hex).length : (hex.length() + 1) / 3;
+    }
+
+    private static long bitAt(String bits, int index) {
+        if (index < 0) index += bits.length();
+        if (index < 0 || index >= bits.length()) return MISSING;
+        char c = bits.charAt(index);
+        return c == '0' ? 0 : c == '1' ? 1 : MISSING;
+    }
+
+    private enum TokenKind {
+        NUMBER, STRING, IDENT, SYMBOL, END
+    }
+
+    private static class Token {
+        final TokenKind kind;
+        final String text;
+        final long value;
+        final int position;
+
+        Token(TokenKind kind, String text, long value, int position) {
+            this.kind = kind;
+            this.text = text;
+            this.value = value;
+            this.position = position;
+        }
+    }
+
+    /**
+     * Résultat intermédiaire de l'analyse : condition, valeur numérique, champ texte ou chaîne.
+     */
+    private static class Operand {
+        Predicate<TrameService.TrameEntry> predicate;
+        ToLongFunction<TrameService.TrameEntry> number;
+        String field;
+        String literal;
+        // Valeur connue à la compilation (nombre littéral), pour les indices et le pliage
+        Long constant;
+        // Octet lu (byte[i] avec i >= 0), pour la présélection SQL
+        Integer byteIndex;
+        // Présélection SQL : octets connus en tête de trame (regroupés en un préfixe) et autres conditions
+        Map<Integer, Integer> knownBytes;
+        SqlPredicate sql;
+
+        SqlPredicate sql() {
+            return SqlPredicate.and(knownBytes != null ? SqlPredicate.knownBytes(knownBytes) : null, sql);
+        }
+
+        static Operand condition(Predicate<TrameService.TrameEntry> predicate) {
+            Operand operand = new Operand();
+            operand.predicate = predicate;
+            return operand;
+        }
+
+        static Operand number(ToLongFunction<TrameService.TrameEntry> number) {
+            Operand operand = new Operand();
+            operand.number = number;
+            return operand;
+        }
+
+        Predicate<TrameService.TrameEntry> asPredicate(Parser parser, int position) {
+            if (predicate == null) throw parser.errorAt(position, "condition attendue");
+            return predicate;
+        }
+
+        ToLongFunction<TrameService.TrameEntry> asNumber(Parser parser, int position) {
+            if (number == null) throw parser.errorAt(position, "valeur numérique attendue");
+            return number;
+        }
+    }
+
+    /**
+     * Analyse descendante : || puis && puis ! puis comparaisons puis | ^ & puis décalages.
+     */
+    private static class Parser {
+        private final String source;
+        private final List<Token> tokens;
+        private int next;
+        final TreeSet<Integer> bytes = new TreeSet<>();
+        final TreeSet<Integer> bits = new TreeSet<>();
+        final List<FilterMatcher> patterns = new ArrayList<>();
+
+        Parser(String source) {
+            this.source = source;
+            this.tokens = tokenize(source);
+        }
+
+        Operand parseExpression() {
+            int position = peek().position;
+            Operand left = parseAnd();
+            while (accept("||")) {
+                int right = peek().position;
+                Predicate<TrameService.TrameEntry> a = left.asPredicate(this, position);
+                Operand rightOperand = parseAnd();
+                Predicate<TrameService.TrameEntry> b = rightOperand.asPredicate(this, right);
+                SqlPredicate sql = SqlPredicate.or(left.sql(), rightOperand.sql());
+                left = Operand.condition(e -> a.test(e) || b.test(e));
+                left.sql = sql;
+            }
+            return left;
+        }
+
+        private Operand parseAnd() {
+            int position = peek().position;
+            Operand left = parseNot();
+            while (accept("&&")) {
+                int right = peek().position;
+                Predicate<TrameService.TrameEntry> a = left.asPredicate(this, position);
+                Operand rightOperand = parseNot();
+                Predicate<TrameService.TrameEntry> b = rightOperand.asPredicate(this, right);
+                Operand both = Operand.condition(e -> a.test(e) && b.test(e));
+                both.knownBytes = mergeKnownBytes(left, rightOperand);
+                both.sql = SqlPredicate.and(left.sql, rightOperand.sql);
+                if (both.knownBytes == null) {
+                    // Octets contradictoires : chaque côté garde sa propre condition
+                    both.sql = SqlPredicate.and(left.sql(), rightOperand.sql());
+                }
+                left = both;
+            }
+            return left;
+        }
+
+        private Operand parseNot() {
+            if (accept("!")) {
+                int position = peek().position;
+                Predicate<TrameService.TrameEntry> operand = parseNot().asPredicate(this, position);
+                return Operand.condition(e -> !operand.test(e));
+            }
+            return parseComparison();
+        }
+
+        private Operand parseComparison() {
+            int position = peek().position;
+            Operand left = parseBitOr();
+            Token op = peek();
+            if (op.kind == TokenKind.IDENT && op.text.equals("in")) {
+                next++;
+                ToLongFunction<TrameService.TrameEntry> value = left.asNumber(this, position);
+                long low = constant(parseBitOr(), op.position);
+                expect("..");
+                long high = constant(parseBitOr(), op.position);
+                return Operand.condition(e -> {
+                    long v = value.applyAsLong(e);
+                    return v != MISSING && v >= low && v <= high;
+                });
+            }
+            if (op.kind != TokenKind.SYMBOL) return left;
+            switch (op.text) {
+                case "~" -> {
+                    next++;
+                    return search(left, position, expectString());
+                }
+                case "==", "!=" -> {
+                    next++;
+                    int rightPosition = peek().position;
+                    Operand right = parseBitOr();
+                    if (left.field != null || right.field != null) {
+                        return textEquality(left, right, op.text.equals("=="), position);
+                    }
+                    Operand result = Operand.condition(compare(left.asNumber(this, position), op.text,
+                            right.asNumber(this, rightPosition)));
+                    if (op.text.equals("==")) {
+                        result.knownBytes = knownByte(left, right);
+                    }
+                    return result;
+                }
+                case "<", "<=", ">", ">=" -> {
+                    next++;
+                    int rightPosition = peek().position;
+                    ToLongFunction<TrameService.TrameEntry> a = left.asNumber(this, position);
+                    ToLongFunction<TrameService.TrameEntry> b = parseBitOr().asNumber(this, rightPosition);
+                    return Operand.condition(compare(a, op.text, b));
+                }
+                default -> {
+                    return left;
+                }
+            }
+        }
+
+        private Operand parseBitOr() {
+            Operand left = parseBitXor();
+            while (peekSymbol("|")) {
+                left = arithmetic(left, next++, this::parseBitXor);
+            }
+            return left;
+        }
+
+        private Operand parseBitXor() {
+            Operand left = parseBitAnd();
+            while (peekSymbol("^")) {
+                left = arithmetic(left, next++, this::parseBitAnd);
+            }
+            return left;
+        }
+
+        private Operand parseBitAnd() {
+            Operand left = parseShift();
+            while (peekSymbol("&")) {
+                left = arithmetic(left, next++, this::parseShift);
+            }
+            return left;
+        }
+
+        private Operand parseShift() {
+            Operand left = parsePrimary();
+            while (peekSymbol("<<") || peekSymbol(">>")) {
+                left = arithmetic(left, next++, this::parsePrimary);
+            }
+            return left;
+        }
+
+        private Operand arithmetic(Operand left, int operatorIndex, Supplier<Operand> parseRight) {
+            Token op = tokens.get(operatorIndex);
+            int rightPosition = peek().position;
+            ToLongFunction<TrameService.TrameEntry> a = left.asNumber(this, op.position);
+            Operand rightOperand = parseRight.get();
+            ToLongFunction<TrameService.TrameEntry> b = rightOperand.asNumber(this, rightPosition);
+            if ((op.text.equals("<<") || op.text.equals(">>"))
+                    && (rightOperand.constant == null || rightOperand.constant > 32)) {
+                throw errorAt(rightPosition, "décalage constant entre 0 et 32 attendu");
+            }
+            if (rightOperand.constant != null) {
+                // Opérande constante : cas le plus courant (masques, décalages), sans second appel
+                long c = rightOperand.constant;
+                return Operand.number(switch (op.text) {
+                    case "|" -> e -> {
+                        long v = a.applyAsLong(e);
+                        return v == MISSING ? MISSING : v | c;
+                    };
+                    case "^" -> e -> {
+                        long v = a.applyAsLong(e);
+                        return v == MISSING ? MISSING : v ^ c;
+                    };
+                    case "&" -> e -> {
+                        long v = a.applyAsLong(e);
+                        return v == MISSING ? MISSING : v & c;
+                    };
+                    case "<<" -> e -> {
+                        long v = a.applyAsLong(e);
+                        return v == MISSING ? MISSING : v << c;
+                    };
+                    default -> e -> {
+                        long v = a.applyAsLong(e);
+                        return v == MISSING ? MISSING : v >> c;
+                    };
+                });
+            }
+            return Operand.number(switch (op.text) {
+                case "|" -> e -> {
+                    long x = a.applyAsLong(e), y = b.applyAsLong(e);
+                    return x == MISSING || y == MISSING ? MISSING : x | y;
+                };
+                case "^" -> e -> {
+                    long x = a.applyAsLong(e), y = b.applyAsLong(e);
+                    return x == MISSING || y == MISSING ? MISSING : x ^ y;
+                };
+                default -> e -> {
+                    long x = a.applyAsLong(e), y = b.applyAsLong(e);
+                    return x == MISSING || y == MISSING ? MISSING : x & y;
+                };
+            });
+        }
+
+        private Operand parsePrimary() {
+            Token token = peek();
+            switch (token.kind) {
+                case NUMBER -> {
+                    next++;
+                    long value = token.value;
+                    Operand operand = Operand.number(e -> value);
+                    operand.constant = value;
+                    return operand;
+                }
+                case STRING -> {
+                    next++;
+                    // Chaîne seule : règle simple, de type détecté comme pour les filtres existants
+                    FilterMatcher matcher = FilterMatcher.compile(new FilterRule(token.text, "#000000"));
+                    patterns.add(matcher);
+                    Operand operand = Operand.condition(matcher::matches);
+                    operand.literal = token.text;
+                    operand.sql = matcher.getSqlPredicate();
+                    return operand;
+                }
+                case IDENT -> {
+                    next++;
+                    return field(token);
+                }
+                case SYMBOL -> {
+                    if (accept("(")) {
+                        Operand inner = parseExpression();
+                        expect(")");
+                        return inner;
+                    }
+                    throw errorAt(token.position, "valeur attendue");
+                }
+                default -> throw errorAt(token.position, "expression incomplète");
+            }
+        }
+
+        private Operand field(Token name) {
+            switch (name.text) {
+                case "byte" -> {
+                    int index = index();
+                    bytes.add(index);
+                    Operand operand = Operand.number(e -> byteAt(e.hex, index));
+                    if (index >= 0) operand.byteIndex = index;
+                    return operand;
+                }
+                case "bit" -> {
+                    int index = index();
+                    bits.add(index);
+                    return Operand.number(e -> bitAt(e.bits, index));
+                }
+                case "len" -> {
+                    return Operand.number(e -> byteCount(e.hex));
+                }
+                case "bitlen" -> {
+                    return Operand.number(e -> e.bits.length());
+                }
+                case "text", "hex", "bits" -> {
+                    Operand operand = new Operand();
+                    operand.field = name.text;
+                    return operand;
+                }
+                default -> throw errorAt(name.position, "champ inconnu « " + name.text + " »");
+            }
+        }
+
+        /**
+         * Indice entre crochets : entier littéral, éventuellement négatif.
+         */
+        private int index() {
+            expect("[");
+            boolean negative = accept("-");
+            Token token = peek();
+            if (token.kind != TokenKind.NUMBER || token.value > Integer.MAX_VALUE) {
+                throw errorAt(token.position, "indice entier attendu");
+            }
+            next++;
+            expect("]");
+            return (int) (negative ? -token.value : token.value);
+        }
+
+        private Operand search(Operand left, int position, String pattern) {
+            if (left.field == null) throw errorAt(position, "champ text, hex ou bits attendu avant ~");
+            FilterMatcher.Type type = switch (left.field) {
+                case "hex" -> FilterMatcher.Type.HEX;
+                case "bits" -> FilterMatcher.Type.BITS;
+                default -> FilterMatcher.Type.TEXT;
+            };
+            if (type != FilterMatcher.Type.TEXT && FilterMatcher.detectType(pattern) != type) {
+                throw errorAt(position, "motif " + left.field + " invalide : « " + pattern + " »");
+            }
+            FilterMatcher matcher = FilterMatcher.compile(new FilterRule(pattern, "#000000"), type);
+            patterns.add(matcher);
+            Operand operand = Operand.condition(matcher::matches);
+            operand.sql = matcher.getSqlPredicate();
+            return operand;
+        }
+
+        private Operand textEquality(Operand left, Operand right, boolean equal, int position) {
+            Operand field = left.field != null ? left : right;
+            Operand other = field == left ? right : left;
+            if (other.literal == null) throw errorAt(position, "chaîne attendue pour comparer " + field.field);
+            String expected = field.field.equals("hex")
+                    ? other.literal.trim().replaceAll("\\s+", " ").toUpperCase()
+                    : other.literal;
+            patterns.remove(patterns.size() - 1);
+            String column = switch (field.field) {
+                case "hex" -> "raw_hexa";
+                case "bits" -> "raw_bits";
+                default -> "raw_text";
+            };
+            Operand operand = Operand.condition(switch (field.field) {
+                case "hex" -> e -> e.hex.equals(expected) == equal;
+                case "bits" -> e -> e.bits.equals(expected) == equal;
+                default -> e -> e.text.equals(expected) == equal;
+            });
+            if (equal) operand.sql = SqlPredicate.equalTo(column, expected);
+            return operand;
+        }
+
+        /**
+         * {@code byte[i] == constante} : octet connu pour la présélection SQL.
+         */
+        private static Map<Integer, Integer> knownByte(Operand left, Operand right) {
+            Operand field = left.byteIndex != null ? left : right;
+            Operand value = field == left ? right : left;
+            if (field.byteIndex == null || value.constant == null || value.constant > 0xFF) return null;
+            Map<Integer, Integer> known = new HashMap<>();
+            known.put(field.byteIndex, value.constant.intValue());
+            return known;
+        }
+
+        /**
+         * Octets connus des deux côtés d'un {@code &&} ; {@code null} s'ils se contredisent.
+         */
+        private static Map<Integer, Integer> mergeKnownBytes(Operand a, Operand b) {
+            if (a.knownBytes == null) return b.knownBytes;
+            if (b.knownBytes == null) return a.knownBytes;
+            Map<Integer, Integer> merged = new HashMap<>(a.knownBytes);
+            for (Map.Entry<Integer, Integer> known : b.knownBytes.entrySet()) {
+                Integer previous = merged.putIfAbsent(known.getKey(), known.getValue());
+                if (previous != null && !previous.equals(known.getValue())) return null;
+            }
+            return merged;
+        }
+
+        private static Predicate<TrameService.TrameEntry> compare(ToLongFunction<TrameService.TrameEntry> a, String op,
+                                                                  ToLongFunction<TrameService.TrameEntry> b) {
+            // Un champ absent rend toute comparaison fausse
+            return switch (op) {
+                case "==" -> e -> {
+                    long x = a.applyAsLong(e), y = b.applyAsLong(e);
+                    return x != MISSING && y != MISSING && x == y;
+                };
+                case "!=" -> e -> {
+                    long x = a.applyAsLong(e), y = b.applyAsLong(e);
+                    return x != MISSING && y != MISSING && x != y;
+                };
+                case "<" -> e -> {
+                    long x = a.applyAsLong(e), y = b.applyAsLong(e);
+                    return x != MISSING && y != MISSING && x < y;
+                };
+                case "<=" -> e -> {
+                    long x = a.applyAsLong(e), y = b.applyAsLong(e);
+                    return x != MISSING && y != MISSING && x <= y;
+                };
+                case ">" -> e -> {
+                    long x = a.applyAsLong(e), y = b.applyAsLong(e);
+                    return x != MISSING && y != MISSING && x > y;
+                };
+                default -> e -> {
+                    long x = a.applyAsLong(e), y = b.applyAsLong(e);
+                    return x != MISSING && y != MISSING && x >= y;
+                };
+            };
+        }
+
+        private long constant(Operand operand, int position) {
+            if (operand.constant == null) throw errorAt(position, "borne constante attendue");
+            return operand.constant;
+        }
+
+        private String expectString() {
+            Token token = peek();
+            if (token.kind != TokenKind.STRING) throw errorAt(token.position, "motif entre guillemets attendu");
+            next++;
+            return token.text;
+        }
+
+        Token peek() {
+            return tokens.get(next);
+        }
+
+        private boolean peekSymbol(String symbol) {
+            Token token = peek();
+            return token.kind == TokenKind.SYMBOL && token.text.equals(symbol);
+        }
+
+        private boolean accept(String symbol) {
+            if (!peekSymbol(symbol)) return false;
+            next++;
+            return true;
+        }
+
+        private void expect(String symbol) {
+            if (!accept(symbol)) throw errorAt(peek().position, "« " + symbol + " » attendu");
+        }
+
+        IllegalArgumentException error(String message) {
+            return errorAt(peek().position, message);
+        }
+
+        IllegalArgumentException errorAt(int position, String message) {
+            return new IllegalArgumentException("Expression invalide (position " + (position + 1) + ") : "
+                    + message + " dans « " + source + " »");
+        }
+
+        private List<Token> tokenize(String source) {
+            List<Token> result = new ArrayList<>();
+            int i = 0;
+            while (i < source.length()) {
+                char c = source.charAt(i);
+                if (Character.isWhitespace(c)) {
+                    i++;
+                } else if (Character.isDigit(c)) {
+                    int start = i;
+                    int radix = 10;
+                    if (c == '0' && i + 1 < source.length() && "xXbB".indexOf(source.charAt(i + 1)) >= 0) {
+                        radix = Character.toLowerCase(source.charAt(i + 1)) == 'x' ? 16 : 2;
+                        i += 2;
+                    }
+                    int digits = i;
+                    while (i < source.length() && Character.digit(source.charAt(i), radix) >= 0) i++;
+                    if (i == digits || (i < source.length() && Character.isLetterOrDigit(source.charAt(i)))) {
+                        throw errorAt(start, "nombre invalide");
+                    }
+                    try {
+                        result.add(new Token(TokenKind.NUMBER, source.substring(start, i),
+                                Long.parseLong(source.substring(digits, i), radix), start));
+                    } catch (NumberFormatException e) {
+                        throw errorAt(start, "nombre trop grand");
+                    }
+                } else if (Character.isLetter(c) || c == '_') {
+                    int start = i;
+                    while (i < source.length() && (Character.isLetterOrDigit(source.charAt(i)) || source.charAt(i) == '_')) i++;
+                    result.add(new Token(TokenKind.IDENT, source.substring(start, i), 0, start));
+                } else if (c == '"') {
+                    int start = i++;
+                    StringBuilder text = new StringBuilder();
+                    while (i < source.length() && source.charAt(i) != '"') {
+                        if (source.charAt(i) == '\\' && i + 1 < source.length()) i++;
+                        text.append(source.charAt(i++));
+                    }
+                    if (i == source.length()) throw errorAt(start, "guillemet fermant manquant");
+                    i++;
+                    result.add(new Token(TokenKind.STRING, text.toString(), 0, start));
+                } else {
+                    String symbol = null;
+                    for (String candidate : SYMBOLS) {
+                        if (source.startsWith(candidate, i)) {
+                            symbol = candidate;
+                            break;
+                        }
+                    }
+                    if (symbol == null) throw errorAt(i, "caractère inattendu « " + c + " »");
+                    result.add(new Token(TokenKind.SYMBOL, symbol, 0, i));
+                    i += symbol.length();
+                }
+            }
+            result.add(new Token(TokenKind.END, "", 0, source.length()));
+            return result;
+        }
+
+        // Les symboles longs d'abord : « <= » avant « < », « && » avant « & »
+        private static final String[] SYMBOLS = {
+                "&&", "||", "==", "!=", "<=", ">=", "<<", ">>", "..",
+                "(", ")", "[", "]", "!", "<", ">", "&", "|", "^", "~", "-"
+        };
+    }
+}
@@ -0,0 +1,455 @@
+package org.sncf.gui.services.filter;
+
+import org.sncf.gui.model.FilterRule;
+import org.sncf.gui.services.TrameService;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Règle de filtrage compilée une fois pour toutes, immuable et utilisable depuis plusieurs threads.
+ * <p>
+ * Le type du motif est détecté à la compilation (voir {@link #detectType(String)}) :
+ * </p>
+ * <ul>
+ *     <li>{@link Type#BITS} : motif binaire ({@link BitPattern}), recherché dans les bits de la trame ;</li>
+ *     <li>{@link Type#HEX} : suite d'octets, {@code ??} désignant un octet quelconque, recherchée
+ *     dans les octets de la trame (alignée sur les octets) ;</li>
+ *     <li>{@link Type#TEXT} : expression régulière, recherchée sans tenir compte de la casse
+ *     dans le texte traduit (les motifs invalides sont cherchés tels quels) ;</li>
+ *     <li>{@link Type#EXPRESSION} : condition combinant champs, masques et comparaisons
+ *     ({@link FilterExpression}), dont les motifs ci-dessus sont un cas particulier.</li>
+ * </ul>
+ * <p>
+ * Dans tous les cas, {@code *} remplace un nombre quelconque d'éléments (équivalent de
+ * {@code .*?}) et les correspondances sont celles d'une recherche de gauche à droite sans
+ * chevauchement. Chaque correspondance est reportée sur les trois représentations de la trame.
+ * </p>
+ */
+public class FilterMatcher {
+
+    /**
+     * Types de motifs reconnus.
+     */
+    public enum Type {
+        BITS, HEX, TEXT, EXPRESSION
+    }
+
+    private static final int ANY_BYTE = -1;
+
+    private final FilterRule rule;
+    private final Type type;
+    private final BitPattern bitPattern;
+    private final BitPatternMatcher bitMatcher;
+    private final int[][] byteSegments;
+    private final Pattern textRegex;
+    private final FilterExpression expression;
+    private final SqlPredicate sqlPredicate;
+    private final FilterStats stats;
+
+    private FilterMatcher(FilterRule rule, Type type) {
+        this.rule = rule;
+        this.stats = FilterStats.of(rule);
+        this.type = type;
+        this.expression = type == Type.EXPRESSION ? FilterExpression.parse(rule.pattern) : null;
+        this.bitPattern = type == Type.BITS ? BitPattern.parse(rule.pattern) : null;
+        this.bitMatcher = bitPattern != null ? new BitPatternMatcher(List.of(bitPattern)) : null;
+        this.byteSegments = type == Type.HEX ? parseByteSegments(rule.pattern) : null;
+        this.textRegex = type == Type.TEXT ? compileText(rule.pattern) : null;
+        this.sqlPredicate = expression != null ? expression.getSqlPredicate() : SqlPredicate.forPattern(type, rule.pattern);
+    }
+
+    /**
+     * Compile une règle de filtrage.
+     *
+     * @param rule règle à compiler.
+     * @return la règle compilée.
+     */
+    public static FilterMatcher compile(FilterRule rule) {
+        return new FilterMatcher(rule, detectType(rule.pattern));
+    }
+
+    /**
+     * Compile un motif d'un type imposé (motif recherché dans un champ d'une expression).
+     */
+    static FilterMatcher compile(FilterRule rule, Type type) {
+        return new FilterMatcher(rule, type);
+    }
+
+    /**
+     * Détermine le type d'un motif. Une expression valide est prioritaire, puis un motif
+     * binaire sur un motif hexadécimal (« 10 » est un motif binaire), sauf si le motif est
+     * écrit octet par octet avec un octet quelconque isolé (« 10 ?? 01 » est hexadécimal).
+     *
+     * @param pattern motif saisi par l'utilisateur.
+     * @return le type détecté : EXPRESSION, BITS, HEX ou TEXT.
+     */
+    public static Type detectType(String pattern) {
+        if (FilterExpression.isExpression(pattern)) {
+            return Type.EXPRESSION;
+        }
+        if (BitPattern.isBitPattern(pattern) && !hasWildcardByte(pattern)) {
+            return Type.BITS;
+        }
+        // Chaque segment entre jokers doit compter des octets entiers (« 7E 4*1 » est un texte)
+        String cleaned = pattern.replaceAll("\\s+", "").toUpperCase();
+        boolean concrete = false;
+        for (String segment : cleaned.split("\\*")) {
+            if (segment.isEmpty()) continue;
+            if (!segment.matches("([0-9A-F]{2}|\\?\\?)+")) return Type.TEXT;
+            concrete |= segment.matches("(..)*[0-9A-F]{2}(..)*");
+        }
+        return concrete ? Type.HEX : Type.TEXT;
+    }
+
+    /**
+     * @return true si le motif est découpé en groupes de deux caractères, dont un {@code ??} isolé.
+     */
+    private static boolean hasWildcardByte(String pattern) {
+        boolean wildcard = false;
+        for (String token : pattern.trim().split("[\\s*]+")) {
+            if (token.isEmpty()) continue;
+            if (token.length() != 2) return false;
+            wildcard |= token.equals("??");
+        }
+        return wildcard;
+    }
+
+    /**
+     * @return règle d'origine.
+     */
+    public FilterRule getRule() {
+        return rule;
+    }
+
+    /**
+     * @return type du motif.
+     */
+    public Type getType() {
+        return type;
+    }
+
+    /**
+     * @return motif binaire analysé, ou {@code null} si le motif n'est pas binaire.
+     */
+    public BitPattern getBitPattern() {
+        return bitPattern;
+    }
+
+    /**
+     * @return statistiques d'évaluation de la règle sur les trames reçues en direct
+     * ({@link #matchesLive}), partagées par toutes ses compilations.
+     */
+    public FilterStats getStats() {
+        return stats;
+    }
+
+    /**
+     * @return présélection SQL des trames pouvant correspondre, ou {@code null} si le motif
+     * ne se traduit pas en SQL.
+     */
+    public SqlPredicate getSqlPredicate() {
+        return sqlPredicate;
+    }
+
+    /**
+     * @param entry trame à tester.
+     * @return true si le motif apparaît au moins une fois dans la trame.
+     */
+    public boolean matches(TrameService.TrameEntry entry) {
+        return switch (type) {
+            case EXPRESSION -> expression.test(entry);
+            case BITS -> bitMatcher.findFirst(entry.bits) >= 0;
+            case HEX -> firstBytes(entry.hex) >= 0;
+            case TEXT -> {
+                // Première occurrence non vide, sans relever les suivantes
+                Matcher matcher = textRegex.matcher(entry.text);
+                while (matcher.find()) {
+                    if (matcher.end() > matcher.start()) yield true;
+                }
+                yield false;
+            }
+        };
+    }
+
+    /**
+     * Évalue la règle sur une trame reçue en direct et met à jour ses statistiques
+     * ({@link #getStats()}). Les autres évaluations (surlignage, refiltrage de l'historique,
+     * export, motifs d'une expression) n'y sont pas comptées : les statistiques décrivent le trafic.
+     *
+     * @param entry trame reçue.
+     * @return true si le motif apparaît au moins une fois dans la trame.
+     */
+    public boolean matchesLive(TrameService.TrameEntry entry) {
+        long start = stats.start();
+        boolean found = matches(entry);
+        stats.record(found, start);
+        return found;
+    }
+
+    /**
+     * Calcule les plages de la trame correspondant au motif, dans ses trois représentations.
+     *
+     * @param entry trame à analyser.
+     * @return plages trouvées ({@link MatchSpans#NONE} si aucune).
+     */
+    public MatchSpans match(TrameService.TrameEntry entry) {
+        return type == Type.EXPRESSION ? matchExpression(entry) : toSpans(entry, type, find(entry));
+    }
+
+    /**
+     * Reporte des occurrences (indices de bits pour BITS, d'octets sinon) sur les trois représentations.
+     */
+    private static MatchSpans toSpans(TrameService.TrameEntry entry, Type type, List<int[]> ranges) {
+        if (ranges.isEmpty()) return MatchSpans.NONE;
+
+        String[] hexTokens = entry.hex.isEmpty() ? new String[0] : entry.hex.split(" ");
+        int[] hexOffsets = new int[hexTokens.length];
+        for (int i = 1; i < hexTokens.length; i++) {
+            hexOffsets[i] = hexOffsets[i - 1] + hexTokens[i - 1].length() + 1; // +1 pour l’espace
+        }
+        SpanBuilder bits = new SpanBuilder();
+        SpanBuilder hex = new SpanBuilder();
+        SpanBuilder text = new SpanBuilder();
+
+        for (int[] range : ranges) {
+            int start = range[0], end = range[1];
+            switch (type) {
+                case BITS -> {
+                    bits.add(start, end);
+                    for (int i = start / 8; i <= (end - 1) / 8 && i < hexTokens.length; i++) {
+                        highlightByte(entry, hexTokens, hexOffsets, i, null, hex, text);
+                    }
+                }
+                default -> {
+                    for (int i = start; i < end && i < hexTokens.length; i++) {
+                        highlightByte(entry, hexTokens, hexOffsets, i, bits, hex, text);
+                    }
+                }
+            }
+        }
+        return new MatchSpans(bits.toArray(), hex.toArray(), text.toArray());
+    }
+
+    /**
+     * Plages d'une expression vérifiée : octets et bits qu'elle lit, et occurrences
+     * des motifs qu'elle recherche.
+     */
+    private MatchSpans matchExpression(TrameService.TrameEntry entry) {
+        if (!expression.test(entry)) return MatchSpans.NONE;
+        List<MatchSpans> parts = new ArrayList<>();
+        int byteCount = FilterExpression.byteCount(entry.hex);
+        parts.add(toSpans(entry, Type.HEX, resolve(expression.getReferencedBytes(), byteCount)));
+        parts.add(toSpans(entry, Type.BITS, resolve(expression.getReferencedBits(), entry.bits.length())));
+        for (FilterMatcher pattern : expression.getPatterns()) {
+            parts.add(pattern.match(entry));
+        }
+        int[][] merged = new int[3][];
+        for (int representation = MatchSpans.BITS; representation <= MatchSpans.TEXT; representation++) {
+            List<int[]> ranges = new ArrayList<>();
+            for (MatchSpans part : parts) {
+                int[] spans = part.get(representation);
+                for (int k = 0; k < spans.length; k += 2) {
+                    ranges.add(new int[]{spans[k], spans[k + 1]});
+                }
+            }
+            ranges.sort((a, b) -> Integer.compare(a[0], b[0]));
+            SpanBuilder builder = new SpanBuilder();
+            for (int[] range : ranges) {
+                builder.add(range[0], range[1]);
+            }
+            merged[representation] = builder.toArray();
+        }
+        return new MatchSpans(merged[MatchSpans.BITS], merged[MatchSpans.HEX], merged[MatchSpans.TEXT]);
+    }
+
+    /**
+     * Indices lus par une expression (négatifs : depuis la fin) ramenés à des plages [i, i + 1) existantes.
+     */
+    private static List<int[]> resolve(int[] indices, int count) {
+        List<int[]> ranges = new ArrayList<>();
+        for (int index : indices) {
+            int i = index < 0 ? index + count : index;
+            if (i >= 0 && i < count) ranges.add(new int[]{i, i + 1});
+        }
+        return ranges;
+    }
+
+    /**
+     * Recherche les occurrences dans la représentation propre au type du motif :
+     * indices de bits, d'octets ou de caractères du texte.
+     */
+    private List<int[]> find(TrameService.TrameEntry entry) {
+        List<int[]> ranges = new ArrayList<>();
+        switch (type) {
+            case BITS -> bitMatcher.newScanner().feed(entry.bits,
+                    (p, start, end) -> ranges.add(new int[]{(int) start, (int) end}));
+            case HEX -> findBytes(entry.hex, ranges);
+            case TEXT -> {
+                Matcher matcher = textRegex.matcher(entry.text);
+                while (matcher.find()) {
+                    if (matcher.end() == matcher.start()) continue;
+                    ranges.add(new int[]{matcher.start(), matcher.end()});
+                }
+            }
+        }
+        return ranges;
+    }
+
+    /**
+     * Recherche des segments d'octets séparés par des jokers : premier segment au plus tôt,
+     * puis chaque segment suivant au plus tôt après le précédent.
+     */
+    private void findBytes(String hex, List<int[]> ranges) {
+        int[] parsed = irregular(hex) ? parseBytes(hex) : null;
+        int count = parsed != null ? parsed.length : (hex.length() + 1) / 3;
+        int pos = 0;
+        while (pos < count) {
+            int start = indexOf(hex, parsed, count, byteSegments[0], pos);
+            if (start < 0) return;
+            int end = endOfMatch(hex, parsed, count, start);
+            if (end < 0) return;
+            ranges.add(new int[]{start, end});
+            pos = end;
+        }
+    }
+
+    /**
+     * @return début de la première occurrence du motif, ou -1 si aucune.
+     */
+    private int firstBytes(String hex) {
+        int[] parsed = irregular(hex) ? parseBytes(hex) : null;
+        int count = parsed != null ? parsed.length : (hex.length() + 1) / 3;
+        int start = indexOf(hex, parsed, count, byteSegments[0], 0);
+        return start >= 0 && endOfMatch(hex, parsed, count, start) >= 0 ? start : -1;
+    }
+
+    /**
+     * @return fin de l'occurrence dont le premier segment commence en {@code start}, ou -1
+     * si les segments suivants n'apparaissent pas.
+     */
+    private int endOfMatch(String hex, int[] parsed, int count, int start) {
+        int end = start + byteSegments[0].length;
+        for (int s = 1; s < byteSegments.length; s++) {
+            int at = indexOf(hex, parsed, count, byteSegments[s], end);
+            if (at < 0) return -1;
+            end = at + byteSegments[s].length;
+        }
+        return end;
+    }
+
+    private static int indexOf(String hex, int[] parsed, int count, int[] segment, int from) {
+        for (int i = from; i + segment.length <= count; i++) {
+            int j = 0;
+            while (j < segment.length && (segment[j] == ANY_BYTE || segment[j] == byteAt(hex, parsed, i + j))) j++;
+            if (j == segment.length) return i;
+        }
+        return -1;
+    }
+
+    /**
+     * @return true si la représentation ne suit pas la disposition régulière « XX XX » :
+     * ses octets doivent alors être décodés par {@link #parseBytes(String)}.
+     */
+    static boolean irregular(String hex) {
+        return hex.length() % 3 != 2 && !hex.isEmpty();
+    }
+
+    /**
+     * Octet {@code i}, lu en place dans la disposition régulière ({@code parsed} null)
+     * ou dans les octets décodés ; un octet illisible vaut -2.
+     */
+    private static int byteAt(String hex, int[] parsed, int i) {
+        if (parsed != null) return parsed[i];
+        int high = Character.digit(hex.charAt(3 * i), 16);
+        int low = Character.digit(hex.charAt(3 * i + 1), 16);
+        return high < 0 || low < 0 ? -2 : high << 4 | low;
+    }
+
+    /**
+     * Décode les octets d'une représentation hexadécimale ("4A 2F") ; un octet illisible
+     * vaut -2 et ne correspond à rien.
+     */
+    static int[] parseBytes(String hex) {
+        if (hex.isEmpty()) return new int[0];
+        String[] tokens = hex.split(" ");
+        int[] bytes = new int[tokens.length];
+        for (int i = 0; i < tokens.length; i++) {
+            bytes[i] = -2;
+            if (tokens[i].length() == 2) {
+                int high = Character.digit(tokens[i].charAt(0), 16);
+                int low = Character.digit(tokens[i].charAt(1), 16);
+                if (high >= 0 && low >= 0) bytes[i] = high << 4 | low;
+            }
+        }
+        return bytes;
+    }
+
+    private static int[][] parseByteSegments(String pattern) {
+        String cleaned = pattern.replaceAll("\\s+", "").toUpperCase();
+        List<int[]> segments = new ArrayList<>();
+        for (String part : cleaned.split("\\*")) {
+            if (part.isEmpty()) continue;
+            int[] segment = new int[part.length() / 2];
+            for (int i = 0; i < segment.length; i++) {
+                String token = part.substring(2 * i, 2 * i + 2);
+                segment[i] = token.equals("??") ? ANY_BYTE : Integer.parseInt(token, 16);
+            }
+            segments.add(segment);
+        }
+        return segments.toArray(new int[0][]);
+    }
+
+    private static Pattern compileText(String pattern) {
+        // Transforme * en regex générique, sans échapper les autres caractères
+        try {
+            return Pattern.compile(pattern.replace("*", ".*?"), Pattern.CASE_INSENSITIVE | Pattern.UNICODE_CASE);
+        } catch (RuntimeException e) {
+            return Pattern.compile(Pattern.quote(pattern), Pattern.CASE_INSENSITIVE | Pattern.UNICODE_CASE);
+        }
+    }
+
+    /**
+     * Surligne l'octet {@code i} dans les représentations demandées ({@code bits} peut être null).
+     */
+    private static void highlightByte(TrameService.TrameEntry entry, String[] hexTokens, int[] hexOffsets, int i,
+                                      SpanBuilder bits, SpanBuilder hex, SpanBuilder text) {
+        int hexStart = hexOffsets[i];
+        hex.add(hexStart, hexStart + hexTokens[i].length());
+        if (bits != null) {
+            bits.add(i * 8, Math.min(i * 8 + 8, entry.bits.length()));
+        }
+        if (i < entry.text.length()) {
+            text.add(i, i + 1);
+        }
+    }
+
+    /**
+     * Accumulateur de bornes [début, fin) ; fusionne les plages contiguës d'un même motif.
+     */
+    private static class SpanBuilder {
+        private static final int[] NO_SPANS = new int[0];
+        private int[] data = NO_SPANS;
+        private int size;
+
+        void add(int start, int end) {
+            if (end <= start) return;
+            if (size > 0 && data[size - 1] >= start && data[size - 2] <= start) {
+                data[size - 1] = Math.max(data[size - 1], end);
+                return;
+            }
+            if (size + 2 > data.length) {
+                data = Arrays.copyOf(data, Math.max(8, data.length * 2));
+            }
+            data[size++] = start;
+            data[size++] = end;
+        }
+
+        int[] toArray() {
+            return size == 0 ? NO_SPANS : Arrays.copyOf(data, size);
+        }
+    }
+}
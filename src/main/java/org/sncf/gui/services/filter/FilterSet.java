@@ -0,0 +1,149 @@
+package org.sncf.gui.services.filter;
+
+import org.sncf.gui.model.FilterRule;
+import org.sncf.gui.services.TrameService;
+
+import java.awt.*;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Ensemble de règles de filtrage actives, compilé une seule fois à sa publication
+ * par la vue des filtres puis partagé par la table, le graphique et l'export.
+ * <p>
+ * Immuable : un changement de filtres produit un nouvel ensemble. En plus des règles
+ * compilées une à une ({@link FilterMatcher}), les règles binaires sont regroupées dans
+ * un seul {@link BitPatternMatcher} pour la recherche dans le flux continu du graphique.
+ * </p>
+ */
+public class FilterSet {
+
+    /**
+     * Ensemble vide (aucun filtre actif).
+     */
+    public static final FilterSet EMPTY = new FilterSet(List.of());
+
+    private final List<FilterRule> rules;
+    private final List<FilterMatcher> matchers;
+    private final List<FilterMatcher> otherMatchers;
+    private final BitPatternMatcher bitMatcher;
+    private final List<Color> bitColors;
+    private final String bitSignature;
+    private final SqlPredicate sqlPredicate;
+
+    private FilterSet(List<FilterRule> rules) {
+        this.rules = List.copyOf(rules);
+        List<FilterMatcher> compiled = new ArrayList<>(rules.size());
+        List<FilterMatcher> others = new ArrayList<>();
+        SqlPredicate sql = null;
+        List<BitPattern> bitPatterns = new ArrayList<>();
+        List<Color> colors = new ArrayList<>();
+        StringBuilder signature = new StringBuilder("filtres:");
+        for (FilterRule rule : rules) {
+            FilterMatcher matcher = FilterMatcher.compile(rule);
+            compiled.add(matcher);
+            sql = compiled.size() == 1 ? matcher.getSqlPredicate() : SqlPredicate.or(sql, matcher.getSqlPredicate());
+            if (matcher.getType() == FilterMatcher.Type.BITS) {
+                bitPatterns.add(matcher.getBitPattern());
+                colors.add(rule.color);
+                signature.append(rule.pattern).append('=').append(rule.color.getRGB()).append(';');
+            } else {
+                others.add(matcher);
+            }
+        }
+        this.matchers = List.copyOf(compiled);
+        this.otherMatchers = List.copyOf(others);
+        this.bitMatcher = new BitPatternMatcher(bitPatterns);
+        this.bitColors = List.copyOf(colors);
+        this.bitSignature = signature.toString();
+        this.sqlPredicate = sql;
+    }
+
+    /**
+     * Compile une liste de règles.
+     *
+     * @param rules règles actives, dans l'ordre d'application (peut être {@code null}).
+     * @return l'ensemble compilé ({@link #EMPTY} si aucune règle).
+     */
+    public static FilterSet compile(List<FilterRule> rules) {
+        return rules == null || rules.isEmpty() ? EMPTY : new FilterSet(rules);
+    }
+
+    /**
+     * @return règles d'origine, dans l'ordre d'application.
+     */
+    public List<FilterRule> getRules() {
+        return rules;
+    }
+
+    /**
+     * @return règles compilées, dans le même ordre que {@link #getRules()}.
+     */
+    public List<FilterMatcher> getMatchers() {
+        return matchers;
+    }
+
+    /**
+     * @return true si aucune règle n'est active.
+     */
+    public boolean isEmpty() {
+        return rules.isEmpty();
+    }
+
+    /**
+     * Les règles binaires sont cherchées ensemble, en une seule lecture des bits
+     * ({@link BitPatternMatcher#findFirst}), puis les autres règles une à une ;
+     * chaque recherche s'arrête à la première correspondance.
+     *
+     * @param entry trame à tester.
+     * @return true si au moins une règle correspond à la trame.
+     */
+    public boolean matchesAny(TrameService.TrameEntry entry) {
+        if (bitMatcher.findFirst(entry.bits) >= 0) return true;
+        for (FilterMatcher matcher : otherMatchers) {
+            if (matcher.matches(entry)) return true;
+        }
+        return false;
+    }
+
+    /**
+     * Évalue toutes les règles sur une trame reçue en direct, pour leurs statistiques
+     * ({@link FilterMatcher#matchesLive}).
+     *
+     * @param entry trame reçue.
+     */
+    public void recordLive(TrameService.TrameEntry entry) {
+        for (FilterMatcher matcher : matchers) {
+            matcher.matchesLive(entry);
+        }
+    }
+
+    /**
+     * @return présélection SQL des trames pouvant correspondre à au moins une règle,
+     * ou {@code null} si une règle ne se traduit pas (toutes les trames sont candidates).
+     */
+    public SqlPredicate getSqlPredicate() {
+        return sqlPredicate;
+    }
+
+    /**
+     * @return recherche simultanée des règles binaires, dans leur ordre d'application.
+     */
+    public BitPatternMatcher getBitMatcher() {
+        return bitMatcher;
+    }
+
+    /**
+     * @return couleurs des règles binaires, indexées comme les motifs de {@link #getBitMatcher()}.
+     */
+    public List<Color> getBitColors() {
+        return bitColors;
+    }
+
+    /**
+     * @return identifiant des règles binaires et de leurs couleurs (égal pour des règles équivalentes).
+     */
+    public String getBitSignature() {
+        return bitSignature;
+    }
+}
@@ -0,0 +1,137 @@
+package org.sncf.gui.services.filter;
+
+import org.sncf.gui.model.FilterRule;
+
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Statistiques d'évaluation d'une règle de filtrage : trames testées, trames retenues,
+ * temps d'évaluation cumulé et débit de correspondances sur la dernière minute.
+ * <p>
+ * Seules les trames reçues en direct sont comptées ({@link FilterMatcher#matchesLive}), une fois
+ * chacune : un refiltrage de l'historique ou un export ne fausse pas le débit.
+ * </p>
+ * <p>
+ * Les statistiques sont attachées à l'instance de {@link FilterRule} : elles survivent aux
+ * recompilations de la règle (activation, changement d'ensemble de filtres) et repartent
+ * de zéro lorsque la règle est modifiée. Les compteurs sont des {@link LongAdder}, sans
+ * contention entre les threads de filtrage ; seule une évaluation sur {@value #TIMING_PERIOD}
+ * est chronométrée, le temps cumulé est donc une estimation.
+ * </p>
+ */
+public class FilterStats {
+
+    /**
+     * Une évaluation sur {@code TIMING_PERIOD} est chronométrée.
+     */
+    static final int TIMING_PERIOD = 64;
+
+    private static final long NOT_TIMED = Long.MIN_VALUE;
+    private static final long SECOND = 1_000_000_000L;
+    private static final long RATE_WINDOW = 60 * SECOND;
+
+    private static final Map<FilterRule, FilterStats> BY_RULE = Collections.synchronizedMap(new WeakHashMap<>());
+
+    private final LongAdder tested = new LongAdder();
+    private final LongAdder matched = new LongAdder();
+    private final LongAdder evaluationNanos = new LongAdder();
+
+    // Relevés {instant, trames retenues}, au plus un par seconde, sur la fenêtre du débit
+    private final ArrayDeque<long[]> samples = new ArrayDeque<>();
+
+    FilterStats(long now) {
+        samples.add(new long[]{now, 0});
+    }
+
+    /**
+     * @param rule règle de filtrage.
+     * @return statistiques de cette instance de règle (créées au premier appel).
+     */
+    public static FilterStats of(FilterRule rule) {
+        return BY_RULE.computeIfAbsent(rule, r -> new FilterStats(System.nanoTime()));
+    }
+
+    /**
+     * Début d'une évaluation.
+     *
+     * @return instant de début si l'évaluation est chronométrée, à repasser à {@link #record(boolean, long)}.
+     */
+    long start() {
+        return (ThreadLocalRandom.current().nextInt() & (TIMING_PERIOD - 1)) == 0 ? System.nanoTime() : NOT_TIMED;
+    }
+
+    /**
+     * Fin d'une évaluation.
+     *
+     * @param found true si la trame correspond à la règle.
+     * @param start valeur retournée par {@link #start()}.
+     */
+    void record(boolean found, long start) {
+        tested.increment();
+        if (found) matched.increment();
+        if (start != NOT_TIMED) evaluationNanos.add((System.nanoTime() - start) * TIMING_PERIOD);
+    }
+
+    /**
+     * @return nombre de trames testées.
+     */
+    public long getTested() {
+        return tested.sum();
+    }
+
+    /**
+     * @return nombre de trames retenues.
+     */
+    public long getMatched() {
+        return matched.sum();
+    }
+
+    /**
+     * @return temps d'évaluation cumulé estimé, en nanosecondes.
+     */
+    public long getEvaluationNanos() {
+        return evaluationNanos.sum();
+    }
+
+    /**
+     * @return temps moyen estimé d'une évaluation, en nanosecondes (0 si aucune).
+     */
+    public double getAverageNanos() {
+        long count = getTested();
+        return count == 0 ? 0 : (double) getEvaluationNanos() / count;
+    }
+
+    /**
+     * @return trames retenues par seconde sur la dernière minute.
+     */
+    public double getMatchRate() {
+        return getMatchRate(System.nanoTime());
+    }
+
+    /**
+     * Débit à un instant donné ; relève le compteur au plus une fois par seconde.
+     * La précision dépend donc de la fréquence des appels (la vue des filtres l'interroge chaque seconde).
+     */
+    synchronized double getMatchRate(long now) {
+        long count = getMatched();
+        if (now - samples.getLast()[0] >= SECOND) {
+            samples.addLast(new long[]{now, count});
+        }
+        // Garde le plus récent relevé antérieur à la fenêtre comme origine du calcul
+        while (samples.size() > 1) {
+            long[] first = samples.removeFirst();
+            if (now - samples.getFirst()[0] < RATE_WINDOW) {
+                samples.addFirst(first);
+                break;
+            }
+        }
+        long[] oldest = samples.getFirst();
+        long elapsed = now - oldest[0];
+        return elapsed <= 0 ? 0 : (count - oldest[1]) * (double) SECOND / elapsed;
+    }
+}
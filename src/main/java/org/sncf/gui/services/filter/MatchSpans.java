@@ -0,0 +1,61 @@
+package org.sncf.gui.services.filter;
+
+/**
+ * Plages d'une trame correspondant à un filtre, dans chacune de ses trois représentations.
+ * <p>
+ * Chaque tableau contient les bornes [début, fin) à plat, triées et sans chevauchement :
+ * {@code [début0, fin0, début1, fin1, ...]}, en indices de caractères de la chaîne
+ * correspondante ({@code bits}, {@code hex} avec ses espaces, {@code text}).
+ * Résultat commun à tous les consommateurs des filtres (table, graphique, export).
+ * </p>
+ */
+public class MatchSpans {
+
+    /**
+     * Représentation binaire.
+     */
+    public static final int BITS = 0;
+
+    /**
+     * Représentation hexadécimale.
+     */
+    public static final int HEX = 1;
+
+    /**
+     * Représentation textuelle.
+     */
+    public static final int TEXT = 2;
+
+    private static final int[] EMPTY = new int[0];
+
+    /**
+     * Instance partagée sans aucune plage.
+     */
+    public static final MatchSpans NONE = new MatchSpans(EMPTY, EMPTY, EMPTY);
+
+    private final int[][] spans;
+
+    /**
+     * @param bits plages dans la représentation binaire.
+     * @param hex  plages dans la représentation hexadécimale.
+     * @param text plages dans la représentation textuelle.
+     */
+    public MatchSpans(int[] bits, int[] hex, int[] text) {
+        this.spans = new int[][]{bits, hex, text};
+    }
+
+    /**
+     * @param representation {@link #BITS}, {@link #HEX} ou {@link #TEXT}.
+     * @return bornes à plat des plages de cette représentation (ne pas modifier).
+     */
+    public int[] get(int representation) {
+        return spans[representation];
+    }
+
+    /**
+     * @return true si le filtre ne correspond à aucune partie de la trame.
+     */
+    public boolean isEmpty() {
+        return spans[BITS].length == 0 && spans[HEX].length == 0 && spans[TEXT].length == 0;
+    }
+}
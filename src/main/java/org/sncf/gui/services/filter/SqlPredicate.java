@@ -0,0 +1,127 @@
+package org.sncf.gui.services.filter;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Condition SQL sur la table {@code frame_capture} qui présélectionne les trames
+ * pouvant correspondre à un filtre.
+ * <p>
+ * La condition est large : toute trame retenue par le filtre la vérifie, mais l'inverse
+ * n'est pas garanti. Les lignes lues doivent donc toujours être confirmées par le filtre
+ * compilé ; seules celles qui ne peuvent pas correspondre ne sont jamais lues.
+ * Un filtre non traduisible n'a pas de condition ({@code null}) : toutes les lignes sont candidates.
+ * </p>
+ * <p>
+ * Les octets en tête de trame deviennent un préfixe {@code GLOB} sur {@code raw_hexa}, qui
+ * utilise l'index de cette colonne ; les motifs hexadécimaux et binaires deviennent des
+ * {@code GLOB} et les motifs texte simples des {@code LIKE}, évalués par SQLite sans
+ * transférer les lignes écartées.
+ * </p>
+ */
+public class SqlPredicate {
+
+    private final String where;
+    private final List<String> parameters;
+
+    private SqlPredicate(String where, List<String> parameters) {
+        this.where = where;
+        this.parameters = List.copyOf(parameters);
+    }
+
+    /**
+     * @return condition SQL, avec des paramètres {@code ?}.
+     */
+    public String getWhere() {
+        return where;
+    }
+
+    /**
+     * @return valeurs des paramètres, dans l'ordre.
+     */
+    public List<String> getParameters() {
+        return parameters;
+    }
+
+    /**
+     * @return conjonction ; une condition absente ne restreint rien et est ignorée.
+     */
+    static SqlPredicate and(SqlPredicate a, SqlPredicate b) {
+        if (a == null) return b;
+        if (b == null) return a;
+        return combine(a, "AND", b);
+    }
+
+    /**
+     * @return disjonction, absente si l'une des conditions l'est (toutes les lignes sont candidates).
+     */
+    static SqlPredicate or(SqlPredicate a, SqlPredicate b) {
+        if (a == null || b == null) return null;
+        return combine(a, "OR", b);
+    }
+
+    private static SqlPredicate combine(SqlPredicate a, String operator, SqlPredicate b) {
+        List<String> parameters = new ArrayList<>(a.parameters);
+        parameters.addAll(b.parameters);
+        return new SqlPredicate("(" + a.where + ") " + operator + " (" + b.where + ")", parameters);
+    }
+
+    /**
+     * Égalité exacte d'une colonne ({@code raw_bits}, {@code raw_hexa} ou {@code raw_text}).
+     */
+    static SqlPredicate equalTo(String column, String value) {
+        return new SqlPredicate(column + " = ?", List.of(value));
+    }
+
+    /**
+     * Octets connus à des positions fixes depuis le début de la trame : un seul {@code GLOB}
+     * dont le préfixe (octets en tête) utilise l'index de {@code raw_hexa}.
+     *
+     * @param bytes valeur de l'octet par position.
+     */
+    static SqlPredicate knownBytes(Map<Integer, Integer> bytes) {
+        int last = new TreeMap<>(bytes).lastKey();
+        StringBuilder glob = new StringBuilder();
+        for (int i = 0; i <= last; i++) {
+            if (i > 0) glob.append(' ');
+            Integer value = bytes.get(i);
+            glob.append(value != null ? String.format("%02X", value) : "??");
+        }
+        return new SqlPredicate("raw_hexa GLOB ?", List.of(glob.append('*').toString()));
+    }
+
+    /**
+     * Traduit un motif simple.
+     *
+     * @param type    type du motif.
+     * @param pattern motif saisi.
+     * @return condition, ou {@code null} si le motif n'est pas traduisible.
+     */
+    static SqlPredicate forPattern(FilterMatcher.Type type, String pattern) {
+        return switch (type) {
+            case HEX -> {
+                // Les octets sont séparés par une espace dans raw_hexa, ?? y couvre exactement un octet
+                StringBuilder glob = new StringBuilder("*");
+                for (String segment : pattern.replaceAll("\\s+", "").toUpperCase().split("\\*")) {
+                    if (segment.isEmpty()) continue;
+                    for (int i = 0; i < segment.length(); i += 2) {
+                        if (i > 0) glob.append(' ');
+                        glob.append(segment, i, i + 2);
+                    }
+                    glob.append('*');
+                }
+                yield new SqlPredicate("raw_hexa GLOB ?", List.of(glob.toString()));
+            }
+            case BITS -> new SqlPredicate("raw_bits GLOB ?",
+                    List.of("*" + pattern.replaceAll("\\s+", "").replaceAll("\\*+", "*") + "*"));
+            case TEXT -> {
+                // Seuls les mots ASCII simples : LIKE ignore la casse comme le filtre, sans méta-caractères
+                if (!pattern.matches("[A-Za-z0-9 *]*[A-Za-z0-9][A-Za-z0-9 *]*")) yield null;
+                yield new SqlPredicate("raw_text LIKE ?", List.of("%" + pattern.replace('*', '%') + "%"));
+            }
+            case EXPRESSION -> FilterExpression.parse(pattern).getSqlPredicate();
+        };
+    }
+}
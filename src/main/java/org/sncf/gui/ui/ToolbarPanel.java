@@ -1,5 +1,6 @@
 package org.sncf.gui.ui;
 
+import org.sncf.gui.serial.SerialTransmitter;
 import org.sncf.gui.ui.components.PortConfigSelectorPanel;
 import org.sncf.gui.ui.components.RoundRectBorder;
 
@@ -7,7 +8,6 @@ import javax.swing.*;
 import javax.swing.border.*;
 import java.awt.*;
 import java.awt.event.*;
-import java.util.function.Consumer;
 import java.net.URL;
 
 /**
@@ -47,12 +47,12 @@ public class ToolbarPanel extends JPanel {
      * Crée la barre d'outils avec les éléments de navigation et de configuration du port série.
      *
      * @param onSendInit       callback appelé pour envoyer une trame d'initialisation (via le sélecteur de port)
-     * @param onTrameReceived  callback appelé lorsqu'une trame est reçue
+     * @param onTrameReceived  callback appelé depuis le thread de réception lorsqu'une trame est reçue
      * @param onMessageClick   action à exécuter lorsqu’on clique sur "Message"
      * @param onGraphClick     action à exécuter lorsqu’on clique sur "Graphique"
      * @param onFilterClick    action à exécuter lorsqu’on clique sur "Filtre"
      */
-    public ToolbarPanel(Runnable onSendInit, Consumer<String> onTrameReceived,
+    public ToolbarPanel(Runnable onSendInit, SerialTransmitter.TrameListener onTrameReceived,
                         Runnable onMessageClick, Runnable onGraphClick, Runnable onFilterClick) {
         setLayout(new BorderLayout());
         setBackground(BACKGROUND_COLOR);
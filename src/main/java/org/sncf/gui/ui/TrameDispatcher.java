@@ -0,0 +1,314 @@
+package org.sncf.gui.ui;
+
+import org.sncf.gui.services.TrameService;
+
+import javax.swing.*;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Relais entre le thread de réception série et l'EDT Swing.
+ *
+ * <p>Les trames reçues sont déposées par {@link #submit(String, long, boolean)}, depuis n'importe quel
+ * thread, dans une file d'ingestion bornée. Un thread d'ingestion dédié les reprend par lots et leur applique la
+ * préparation fournie (conversion hexadécimale et texte, enregistrement en base des trames à
+ * conserver) : ni la lecture du dictionnaire ni l'écriture en base ne se font sur l'EDT, et une
+ * base occupée (import en cours, disque lent) ne fige pas la fenêtre. Toutes les trames reçues
+ * sont préparées, même celles que l'affichage écarte ensuite. Si la préparation ne suit plus
+ * (base saturée), la file d'ingestion se remplit : le thread de réception est alors retenu
+ * brièvement (contre-pression, relayée par le contrôle de flux de la liaison), puis la trame
+ * est écartée et comptée ({@link #getIngestDroppedCount()}), pour que la mémoire reste bornée.</p>
+ *
+ * <p>Les trames préparées attendent l'affichage dans une file bornée. Un {@link Timer} Swing
+ * la vide à chaque rafraîchissement d'écran (30 Hz par défaut) et transmet toutes les trames
+ * en attente en un seul lot au callback, qui s'exécute donc toujours sur l'EDT.</p>
+ *
+ * <p>Quand la file d'affichage est pleine, la {@link OverflowPolicy} décide quelles trames
+ * sont sacrifiées à l'affichage, pour qu'une rafale de plusieurs milliers de trames
+ * par seconde ne fige jamais la fenêtre. Les trames écartées sont comptabilisées.</p>
+ */
+public class TrameDispatcher {
+
+    /**
+     * Politique appliquée lorsque l'affichage ne suit plus le débit de réception.
+     */
+    public enum OverflowPolicy {
+        /**
+         * File pleine : la trame la plus ancienne en attente est écartée au profit de la nouvelle.
+         */
+        DROP_OLDEST,
+
+        /**
+         * Au-delà de la moitié de la file, seule une trame sur {@code sampleEvery} est conservée ;
+         * file pleine : les nouvelles trames sont écartées.
+         */
+        SAMPLE
+    }
+
+    /**
+     * Trame reçue, en attente de préparation.
+     */
+    public static class Received {
+        /**
+         * Trame binaire.
+         */
+        public final String bits;
+
+        /**
+         * Heure de réception (millisecondes depuis l'époque).
+         */
+        public final long receivedAt;
+
+        /**
+         * true si la trame doit être enregistrée en base.
+         */
+        public final boolean persist;
+
+        Received(String bits, long receivedAt, boolean persist) {
+            this.bits = bits;
+            this.receivedAt = receivedAt;
+            this.persist = persist;
+        }
+    }
+
+    /**
+     * Capacité par défaut de la file d'attente.
+     */
+    public static final int DEFAULT_CAPACITY = 10_000;
+
+    /**
+     * Fréquence de rafraîchissement par défaut, en Hz.
+     */
+    public static final int DEFAULT_REFRESH_HZ = 30;
+
+    /**
+     * Capacité par défaut de la file d'ingestion (trames reçues pas encore préparées).
+     */
+    public static final int DEFAULT_INGEST_CAPACITY = 100_000;
+
+    /**
+     * Nombre maximal de trames préparées ensemble (une transaction d'enregistrement).
+     */
+    static final int MAX_PREPARE_BATCH = 4096;
+
+    /**
+     * Attente maximale du thread de réception quand la file d'ingestion est pleine, en millisecondes.
+     */
+    static final long SUBMIT_WAIT_MILLIS = 50;
+
+    private final LinkedBlockingQueue<Received> received;
+    private final AtomicLong ingestDropped = new AtomicLong();
+    private final ArrayDeque<TrameService.TrameEntry> queue;
+    private final int capacity;
+    private final OverflowPolicy policy;
+    private final int sampleEvery;
+    private final Function<List<Received>, List<TrameService.TrameEntry>> prepare;
+    private final Consumer<List<TrameService.TrameEntry>> onBatch;
+    private final Timer timer;
+    private Thread ingestThread;
+
+    private long sampleCounter;
+    private long droppedCount;
+
+    /**
+     * Crée un relais avec la capacité, la fréquence et la politique par défaut ({@link OverflowPolicy#DROP_OLDEST}).
+     *
+     * @param prepare préparation d'un lot de trames reçues, appelée sur le thread d'ingestion.
+     * @param onBatch callback appelé sur l'EDT avec chaque lot de trames préparées (jamais vide).
+     */
+    public TrameDispatcher(Function<List<Received>, List<TrameService.TrameEntry>> prepare,
+                           Consumer<List<TrameService.TrameEntry>> onBatch) {
+        this(DEFAULT_CAPACITY, DEFAULT_REFRESH_HZ, OverflowPolicy.DROP_OLDEST, 1, prepare, onBatch);
+    }
+
+    /**
+     * Crée un relais entièrement paramétré.
+     *
+     * @param capacity    nombre maximal de trames en attente d'affichage.
+     * @param refreshHz   fréquence de vidage de la file (typiquement 30 à 60 Hz).
+     * @param policy      politique en cas de saturation.
+     * @param sampleEvery pour {@link OverflowPolicy#SAMPLE}, conserve une trame sur ce nombre.
+     * @param prepare     préparation d'un lot de trames reçues, appelée sur le thread d'ingestion.
+     * @param onBatch     callback appelé sur l'EDT avec chaque lot de trames préparées (jamais vide).
+     */
+    public TrameDispatcher(int capacity, int refreshHz, OverflowPolicy policy, int sampleEvery,
+                           Function<List<Received>, List<TrameService.TrameEntry>> prepare,
+                           Consumer<List<TrameService.TrameEntry>> onBatch) {
+        this(DEFAULT_INGEST_CAPACITY, capacity, refreshHz, policy, sampleEvery, prepare, onBatch);
+    }
+
+    /**
+     * Crée un relais avec une file d'ingestion de capacité donnée.
+     */
+    TrameDispatcher(int ingestCapacity, int capacity, int refreshHz, OverflowPolicy policy, int sampleEvery,
+                    Function<List<Received>, List<TrameService.TrameEntry>> prepare,
+                    Consumer<List<TrameService.TrameEntry>> onBatch) {
+        if (ingestCapacity <= 0 || capacity <= 0 || refreshHz <= 0 || sampleEvery <= 0) {
+            throw new IllegalArgumentException("Paramètres du relais invalides");
+        }
+        this.received = new LinkedBlockingQueue<>(ingestCapacity);
+        this.queue = new ArrayDeque<>(Math.min(capacity, 1024));
+        this.capacity = capacity;
+        this.policy = policy;
+        this.sampleEvery = sampleEvery;
+        this.prepare = prepare;
+        this.onBatch = onBatch;
+        this.timer = new Timer(1000 / refreshHz, e -> drain());
+        this.timer.setCoalesce(true);
+    }
+
+    /**
+     * Démarre le thread d'ingestion et le vidage périodique de la file sur l'EDT.
+     */
+    public synchronized void start() {
+        if (ingestThread == null) {
+            ingestThread = new Thread(this::ingestLoop, "trame-ingest");
+            ingestThread.setDaemon(true);
+            ingestThread.start();
+        }
+        timer.start();
+    }
+
+    /**
+     * Arrête l'ingestion et le vidage périodique (les trames en attente sont conservées).
+     */
+    public synchronized void stop() {
+        timer.stop();
+        if (ingestThread != null) {
+            ingestThread.interrupt();
+            ingestThread = null;
+        }
+    }
+
+    /**
+     * Dépose une trame reçue. Utilisable depuis n'importe quel thread ; n'attend que si la file
+     * d'ingestion est pleine, au plus {@value #SUBMIT_WAIT_MILLIS} ms, avant d'écarter la trame.
+     *
+     * @param bits       trame binaire reçue.
+     * @param receivedAt heure de réception (millisecondes depuis l'époque).
+     * @param persist    true si la trame doit être enregistrée en base.
+     */
+    public void submit(String bits, long receivedAt, boolean persist) {
+        Received frame = new Received(bits, receivedAt, persist);
+        if (received.offer(frame)) return;
+        try {
+            if (received.offer(frame, SUBMIT_WAIT_MILLIS, TimeUnit.MILLISECONDS)) return;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (ingestDropped.getAndIncrement() == 0) {
+            System.err.println("❌ Réception plus rapide que l'enregistrement : trames écartées");
+        }
+    }
+
+    private void ingestLoop() {
+        try {
+            while (!Thread.currentThread().isInterrupted()) {
+                List<Received> batch = new ArrayList<>();
+                batch.add(received.take());
+                received.drainTo(batch, MAX_PREPARE_BATCH - 1);
+                prepareBatch(batch);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Prépare les trames reçues en attente, sur le thread appelant (le thread d'ingestion,
+     * ou directement pour les tests).
+     */
+    void ingest() {
+        List<Received> batch = new ArrayList<>();
+        while (received.drainTo(batch, MAX_PREPARE_BATCH) > 0) {
+            prepareBatch(batch);
+            batch.clear();
+        }
+    }
+
+    private void prepareBatch(List<Received> batch) {
+        List<TrameService.TrameEntry> entries;
+        try {
+            entries = prepare.apply(batch);
+        } catch (RuntimeException e) {
+            System.err.println("❌ Erreur préparation des trames : " + e.getMessage());
+            return;
+        }
+        synchronized (queue) {
+            for (TrameService.TrameEntry entry : entries) {
+                enqueue(entry);
+            }
+        }
+    }
+
+    private void enqueue(TrameService.TrameEntry entry) {
+        int size = queue.size();
+        if (policy == OverflowPolicy.SAMPLE && size >= capacity / 2) {
+            if (size >= capacity || sampleCounter++ % sampleEvery != 0) {
+                droppedCount++;
+                return;
+            }
+        } else if (size >= capacity) {
+            queue.pollFirst();
+            droppedCount++;
+        } else {
+            sampleCounter = 0;
+        }
+        queue.addLast(entry);
+    }
+
+    /**
+     * Vide la file d'affichage et transmet son contenu en un seul lot. Appelé sur l'EDT par le timer.
+     */
+    void drain() {
+        List<TrameService.TrameEntry> batch;
+        synchronized (queue) {
+            if (queue.isEmpty()) return;
+            batch = new ArrayList<>(queue);
+            queue.clear();
+        }
+        onBatch.accept(batch);
+    }
+
+    /**
+     * Abandonne les trames en attente d'affichage (par exemple lors d'une réinitialisation de
+     * l'affichage). Les trames reçues et pas encore préparées sont tout de même enregistrées.
+     */
+    public void clear() {
+        synchronized (queue) {
+            queue.clear();
+        }
+    }
+
+    /**
+     * @return nombre de trames en attente d'affichage.
+     */
+    public int getPendingCount() {
+        synchronized (queue) {
+            return queue.size();
+        }
+    }
+
+    /**
+     * @return nombre de trames reçues écartées faute de place dans la file d'ingestion
+     * (ni enregistrées ni affichées).
+     */
+    public long getIngestDroppedCount() {
+        return ingestDropped.get();
+    }
+
+    /**
+     * @return nombre total de trames écartées de l'affichage depuis la création du relais.
+     */
+    public long getDroppedCount() {
+        synchronized (queue) {
+            return droppedCount;
+        }
+    }
+}
@@ -0,0 +1,140 @@
+package org.sncf.gui.ui.components;
+
+import org.sncf.gui.model.FilterRule;
+import org.sncf.gui.services.TrameService;
+import org.sncf.gui.services.filter.FilterMatcher;
+import org.sncf.gui.services.filter.FilterSet;
+import org.sncf.gui.services.filter.MatchSpans;
+
+import java.util.*;
+
+/**
+ * Cache des surlignages de filtres pour la table des trames.
+ *
+ * <p>Les motifs sont compilés une seule fois, à la publication des filtres
+ * ({@link FilterSet}). Les plages correspondantes sont calculées au plus une fois
+ * par couple (trame, motif), uniquement lorsque la trame devient visible, puis conservées.</p>
+ *
+ * <p>Chaque règle est identifiée par son motif, auquel est attribué un numéro stable.
+ * Chaque trame mémorise deux petits ensembles de bits indexés par ces numéros : règles
+ * évaluées et règles trouvées, ainsi que les plages des seules règles trouvées.
+ * Un changement de filtres n'invalide donc rien : ajouter ou réactiver une règle ne
+ * l'évalue que pour les trames qui ne l'ont jamais vue (et seulement lorsqu'elles sont
+ * affichées), retirer une règle ne coûte rien. Les couleurs sont celles des règles,
+ * partagées par toutes les plages.</p>
+ *
+ * <p>Le cache est borné en nombre de trames (les moins récemment affichées sont oubliées).
+ * Il est destiné à l'EDT et n'est pas thread-safe.</p>
+ */
+public class FilterHighlightCache {
+
+    /**
+     * Nombre de trames mémorisées par défaut.
+     */
+    public static final int DEFAULT_MAX_FRAMES = 20_000;
+
+    private final LinkedHashMap<Integer, FrameCache> frames;
+    private final Map<String, Integer> ruleSlots = new HashMap<>();
+    private FilterSet filters = FilterSet.EMPTY;
+    private long filtersVersion;
+
+    /**
+     * Crée un cache avec la capacité par défaut.
+     */
+    public FilterHighlightCache() {
+        this(DEFAULT_MAX_FRAMES);
+    }
+
+    /**
+     * Crée un cache borné.
+     *
+     * @param maxFrames nombre maximal de trames dont les plages sont conservées.
+     */
+    public FilterHighlightCache(int maxFrames) {
+        this.frames = new LinkedHashMap<>(256, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, FrameCache> eldest) {
+                return size() > maxFrames;
+            }
+        };
+    }
+
+    /**
+     * Définit les filtres actifs ; aucune trame n'est réévaluée à ce stade.
+     *
+     * @param filters filtres actifs compilés, dans l'ordre d'application.
+     */
+    public void setFilters(FilterSet filters) {
+        this.filters = filters != null ? filters : FilterSet.EMPTY;
+        // Les plages déjà calculées restent en cache par trame : un motif réactivé n'est pas réévalué
+        for (FilterRule rule : this.filters.getRules()) {
+            ruleSlots.computeIfAbsent(rule.pattern, k -> ruleSlots.size());
+        }
+        filtersVersion++;
+    }
+
+    /**
+     * Retourne les surlignages d'une trame pour les filtres actifs.
+     *
+     * @param index indice de la trame dans l'historique (clé du cache).
+     * @param entry trame visible.
+     * @return surlignages des trois représentations (instance partagée si aucun filtre).
+     */
+    public TrameHighlights highlightsFor(int index, TrameService.TrameEntry entry) {
+        if (filters.isEmpty()) return TrameHighlights.NONE;
+
+        FrameCache cache = frames.computeIfAbsent(index, i -> new FrameCache());
+        if (cache.highlights != null && cache.version == filtersVersion) {
+            return cache.highlights;
+        }
+
+        TrameHighlights highlights = new TrameHighlights();
+        for (FilterMatcher matcher : filters.getMatchers()) {
+            FilterRule rule = matcher.getRule();
+            int slot = ruleSlots.get(rule.pattern);
+            if (!cache.evaluated.get(slot)) {
+                cache.store(slot, matcher.match(entry));
+            }
+            if (!cache.matched.get(slot)) continue;
+            MatchSpans spans = cache.spans[slot];
+            for (int representation = MatchSpans.BITS; representation <= MatchSpans.TEXT; representation++) {
+                int[] ranges = spans.get(representation);
+                for (int i = 0; i < ranges.length; i += 2) {
+                    highlights.add(representation, ranges[i], ranges[i + 1], rule.color);
+                }
+            }
+        }
+        cache.highlights = highlights;
+        cache.version = filtersVersion;
+        return highlights;
+    }
+
+    /**
+     * Oublie toutes les plages calculées (après effacement de l'historique ou changement
+     * du contenu des trames, par exemple de leur traduction texte).
+     */
+    public void clear() {
+        frames.clear();
+    }
+
+    /**
+     * Résultats mémorisés pour une trame, indexés par numéro de règle.
+     */
+    private static class FrameCache {
+        final BitSet evaluated = new BitSet();
+        final BitSet matched = new BitSet();
+        MatchSpans[] spans = new MatchSpans[0];
+        TrameHighlights highlights;
+        long version;
+
+        void store(int slot, MatchSpans result) {
+            evaluated.set(slot);
+            if (result.isEmpty()) return;
+            matched.set(slot);
+            if (slot >= spans.length) {
+                spans = Arrays.copyOf(spans, Math.max(slot + 1, spans.length * 2));
+            }
+            spans[slot] = result;
+        }
+    }
+}
@@ -1,8 +1,13 @@
 package org.sncf.gui.ui.components;
 
 import com.fazecast.jSerialComm.SerialPort;
+import org.sncf.gui.model.HostLinkSettings;
 import org.sncf.gui.serial.SerialTransmitter;
 import org.sncf.gui.services.DatabaseManager;
+import org.sncf.gui.services.HostLinkService;
+import org.sncf.gui.ui.dialogs.CaptureFilterDialog;
+import org.sncf.gui.ui.dialogs.HostLinkDialog;
+import org.sncf.gui.ui.dialogs.TriggeredCaptureDialog;
 
 import javax.swing.*;
 import javax.swing.border.*;
@@ -18,6 +23,7 @@ import java.net.URL;
  * <ul>
  *     <li>Sélectionner un port série</li>
  *     <li>Choisir une configuration parmi celles stockées en base</li>
+ *     <li>Régler la liaison PC ↔ ESP32 (débit, RTS/CTS, auto-test)</li>
  *     <li>Envoyer cette configuration à un port série</li>
  *     <li>Démarrer ou arrêter l’écoute des trames série</li>
  * </ul>
@@ -38,6 +44,9 @@ public class PortConfigSelectorPanel extends JPanel {
 
     // Composants UI
     private JButton configButton;
+    private JButton linkButton;
+    private JButton captureButton;
+    private JButton triggerButton;
     private JButton sendButton;
     private JButton listenButton;
     private JPopupMenu configMenu;
@@ -48,9 +57,10 @@ public class PortConfigSelectorPanel extends JPanel {
     private String selectedConfigLabel = "";
     private boolean listening = false;
     private Thread listenThread;
+    private final HostLinkService hostLinkService = new HostLinkService(new DatabaseManager());
 
     // Callback
-    private final Consumer<String> onTrameReceived;
+    private final SerialTransmitter.TrameListener onTrameReceived;
     private final Runnable onSendInit;
 
     /**
@@ -59,7 +69,7 @@ public class PortConfigSelectorPanel extends JPanel {
      * @param onSendInit      Callback à exécuter après un envoi réussi de configuration.
      * @param onTrameReceived Callback appelé à chaque trame reçue lors de l'écoute série.
      */
-    public PortConfigSelectorPanel(Runnable onSendInit, Consumer<String> onTrameReceived) {
+    public PortConfigSelectorPanel(Runnable onSendInit, SerialTransmitter.TrameListener onTrameReceived) {
         this.onTrameReceived = onTrameReceived;
         this.onSendInit = onSendInit;
 
@@ -73,6 +83,19 @@ public class PortConfigSelectorPanel extends JPanel {
         // Sélecteur de port avec style amélioré
         portSelector = createPortSelector();
 
+        // Bouton de réglage de la liaison hôte
+        linkButton = createLinkButton();
+
+        // Bouton de réglage du filtre de capture
+        captureButton = createSettingsButton("Capture",
+                "Motifs des trames à conserver à la réception, avant enregistrement",
+                parent -> new CaptureFilterDialog(parent).setVisible(true));
+
+        // Bouton du mode capture déclenchée
+        triggerButton = createSettingsButton("Déclenchement",
+                "N'enregistrer que les trames autour d'un événement (motif, débit anormal, trame absente)",
+                parent -> new TriggeredCaptureDialog(parent).setVisible(true));
+
         // Bouton d'envoi avec style amélioré
         sendButton = createSendButton();
 
@@ -87,6 +110,12 @@ public class PortConfigSelectorPanel extends JPanel {
         add(Box.createRigidArea(new Dimension(8, 0)));
         add(portSelector);
         add(Box.createRigidArea(new Dimension(8, 0)));
+        add(linkButton);
+        add(Box.createRigidArea(new Dimension(8, 0)));
+        add(captureButton);
+        add(Box.createRigidArea(new Dimension(8, 0)));
+        add(triggerButton);
+        add(Box.createRigidArea(new Dimension(8, 0)));
         add(sendButton);
         add(Box.createRigidArea(new Dimension(8, 0)));
         add(listenButton);
@@ -169,6 +198,46 @@ public class PortConfigSelectorPanel extends JPanel {
         return selector;
     }
 
+    /**
+     * Crée le bouton ouvrant le réglage de la liaison PC ↔ ESP32 pour le port sélectionné.
+     *
+     * @return bouton configuré.
+     */
+    private JButton createLinkButton() {
+        return createSettingsButton("Liaison", "Débit et contrôle de flux de la liaison PC ↔ ESP32, auto-test", parent -> {
+            PortItem selectedPort = (PortItem) portSelector.getSelectedItem();
+            if (selectedPort == null || selectedPort.getPortName().isEmpty()) {
+                showError("Aucun port série sélectionné.");
+                return;
+            }
+            new HostLinkDialog(parent, selectedPort.getPortName()).setVisible(true);
+        });
+    }
+
+    /**
+     * Crée un bouton ouvrant une boîte de dialogue de réglage (liaison, capture).
+     *
+     * @param text       libellé du bouton.
+     * @param tooltip    info-bulle.
+     * @param openDialog ouvre la boîte de dialogue, avec la fenêtre parente.
+     * @return bouton configuré.
+     */
+    private JButton createSettingsButton(String text, String tooltip, Consumer<JFrame> openDialog) {
+        JButton button = new JButton(text);
+        button.setFont(BUTTON_FONT);
+        button.setFocusPainted(false);
+        button.setBackground(BACKGROUND_COLOR);
+        button.setForeground(ACCENT_COLOR);
+        button.setBorder(BorderFactory.createCompoundBorder(
+                new RoundRectBorder(6, new Color(220, 220, 220)),
+                BorderFactory.createEmptyBorder(6, 12, 6, 12)
+        ));
+        button.setToolTipText(tooltip);
+        button.addActionListener(e -> openDialog.accept((JFrame) SwingUtilities.getWindowAncestor(this)));
+
+        return button;
+    }
+
     /**
      * Crée le bouton d’envoi avec effets de survol.
      *
@@ -301,7 +370,8 @@ public class PortConfigSelectorPanel extends JPanel {
             showInfo("Configuration simulée prête. Appuyez sur ▶ pour démarrer.");
         } else {
             try {
-                SerialTransmitter.sendConfigOnly(selectedPort.getPortName(), 115200, configLines);
+                SerialTransmitter.sendConfigOnly(selectedPort.getPortName(),
+                        hostLinkService.load(selectedPort.getPortName()), configLines);
                 showSuccess("Configuration envoyée avec succès.");
                 if (onSendInit != null) {
                     onSendInit.run();
@@ -341,6 +411,7 @@ public class PortConfigSelectorPanel extends JPanel {
             }
 
             List<String> configLines = getConfigLinesById(selectedConfigId);
+            HostLinkSettings link = hostLinkService.load(selectedPort.getPortName());
             listening = true;
             listenButton.setText("⏹ Arrêter");
             listenButton.setBackground(LISTEN_ACTIVE_COLOR);
@@ -354,7 +425,7 @@ public class PortConfigSelectorPanel extends JPanel {
             listenThread = new Thread(() -> {
                 try {
                     SerialTransmitter.sendConfigAndListen(
-                            selectedPort.getPortName(), 115200, configLines, onTrameReceived, false
+                            selectedPort.getPortName(), link, configLines, onTrameReceived, false
                     );
                 } catch (Exception ex) {
                     SwingUtilities.invokeLater(() -> {
@@ -378,10 +449,12 @@ public class PortConfigSelectorPanel extends JPanel {
         if (ports.length == 0) {
             portSelector.addItem(new PortItem("Aucun port", ""));
             portSelector.setEnabled(false);
+            linkButton.setEnabled(false);
             sendButton.setEnabled(false);
             listenButton.setEnabled(false);
         } else {
             portSelector.setEnabled(true);
+            linkButton.setEnabled(true);
             sendButton.setEnabled(true);
             listenButton.setEnabled(true);
 
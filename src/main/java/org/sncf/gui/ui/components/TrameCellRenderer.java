@@ -0,0 +1,124 @@
+package org.sncf.gui.ui.components;
+
+import javax.swing.*;
+import javax.swing.table.TableCellRenderer;
+import java.awt.*;
+import java.util.List;
+import java.util.function.IntFunction;
+
+/**
+ * Renderer léger pour la table des trames.
+ *
+ * <p>Contrairement à un {@link JTextPane}, il ne construit aucun document :
+ * chaque cellule visible est dessinée directement (fond, plages surlignées, texte)
+ * en police à chasse fixe. Les méthodes de validation et de notification héritées
+ * sont neutralisées, comme dans {@link javax.swing.table.DefaultTableCellRenderer},
+ * pour que le coût d'un rafraîchissement ne dépende que du nombre de lignes visibles.</p>
+ *
+ * <p>La ligne sélectionnée est recouverte d'un voile orangé, identique dans les
+ * trois colonnes bits, hexadécimal et texte.</p>
+ */
+public class TrameCellRenderer extends JComponent implements TableCellRenderer {
+    private static final Color SELECTION_COLOR = new Color(255, 200, 100, 128);
+    private static final Color INDEX_COLOR = new Color(120, 120, 120);
+    private static final int PADDING = 4;
+
+    private final IntFunction<TrameHighlights> highlightsForRow;
+
+    private String text = "";
+    private List<TrameHighlights.Span> spans = List.of();
+    private boolean selected;
+    private boolean indexColumn;
+
+    /**
+     * Crée le renderer.
+     *
+     * @param highlightsForRow fournit les surlignages d'une ligne (indice de modèle) ;
+     *                         appelé uniquement pour les lignes visibles.
+     */
+    public TrameCellRenderer(IntFunction<TrameHighlights> highlightsForRow) {
+        this.highlightsForRow = highlightsForRow;
+        setOpaque(true);
+    }
+
+    @Override
+    public Component getTableCellRendererComponent(JTable table, Object value, boolean isSelected,
+                                                   boolean hasFocus, int row, int column) {
+        int modelColumn = table.convertColumnIndexToModel(column);
+        text = value != null ? value.toString() : "";
+        selected = isSelected;
+        indexColumn = modelColumn == TrameTableModel.COL_INDEX;
+        setFont(table.getFont());
+
+        if (indexColumn) {
+            spans = List.of();
+        } else {
+            TrameHighlights highlights = highlightsForRow.apply(table.convertRowIndexToModel(row));
+            spans = highlights.get(switch (modelColumn) {
+                case TrameTableModel.COL_BITS -> TrameHighlights.BITS;
+                case TrameTableModel.COL_HEX -> TrameHighlights.HEX;
+                default -> TrameHighlights.TEXT;
+            });
+        }
+        return this;
+    }
+
+    @Override
+    protected void paintComponent(Graphics g) {
+        int width = getWidth();
+        int height = getHeight();
+        g.setColor(Color.WHITE);
+        g.fillRect(0, 0, width, height);
+
+        g.setFont(getFont());
+        FontMetrics fm = g.getFontMetrics();
+        int charWidth = fm.charWidth('0');
+
+        for (TrameHighlights.Span span : spans) {
+            g.setColor(span.color);
+            g.fillRect(PADDING + span.start * charWidth, 1, (span.end - span.start) * charWidth, height - 2);
+        }
+
+        g.setColor(indexColumn ? INDEX_COLOR : Color.BLACK);
+        g.drawString(text, PADDING, (height - fm.getHeight()) / 2 + fm.getAscent());
+
+        if (selected) {
+            g.setColor(SELECTION_COLOR);
+            g.fillRect(0, 0, width, height);
+        }
+    }
+
+    // Neutralisation des notifications inutiles pour un tampon de dessin (voir DefaultTableCellRenderer)
+
+    @Override
+    public void invalidate() {
+    }
+
+    @Override
+    public void validate() {
+    }
+
+    @Override
+    public void revalidate() {
+    }
+
+    @Override
+    public void repaint(long tm, int x, int y, int width, int height) {
+    }
+
+    @Override
+    public void repaint(Rectangle r) {
+    }
+
+    @Override
+    public void repaint() {
+    }
+
+    @Override
+    protected void firePropertyChange(String propertyName, Object oldValue, Object newValue) {
+    }
+
+    @Override
+    public void firePropertyChange(String propertyName, boolean oldValue, boolean newValue) {
+    }
+}
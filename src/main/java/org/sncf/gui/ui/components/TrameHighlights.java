@@ -0,0 +1,87 @@
+package org.sncf.gui.ui.components;
+
+import java.awt.*;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Surlignages colorés d'une trame, exprimés en plages de caractères
+ * dans chacune de ses trois représentations (bits, hexadécimal, texte).
+ */
+public class TrameHighlights {
+
+    /**
+     * Représentation binaire de la trame.
+     */
+    public static final int BITS = 0;
+
+    /**
+     * Représentation hexadécimale de la trame.
+     */
+    public static final int HEX = 1;
+
+    /**
+     * Représentation textuelle de la trame.
+     */
+    public static final int TEXT = 2;
+
+    /**
+     * Instance partagée sans aucun surlignage.
+     */
+    public static final TrameHighlights NONE = new TrameHighlights();
+
+    private final List<List<Span>> spans = List.of(new ArrayList<>(), new ArrayList<>(), new ArrayList<>());
+
+    /**
+     * Ajoute une plage surlignée dans une représentation.
+     *
+     * @param representation {@link #BITS}, {@link #HEX} ou {@link #TEXT}.
+     * @param start          premier caractère surligné (inclus).
+     * @param end            fin de la plage (exclue).
+     * @param color          couleur du surlignage.
+     */
+    public void add(int representation, int start, int end, Color color) {
+        if (end > start) {
+            spans.get(representation).add(new Span(start, end, color));
+        }
+    }
+
+    /**
+     * @param representation {@link #BITS}, {@link #HEX} ou {@link #TEXT}.
+     * @return plages surlignées de cette représentation, dans l'ordre d'ajout.
+     */
+    public List<Span> get(int representation) {
+        return spans.get(representation);
+    }
+
+    /**
+     * Plage de caractères surlignée d'une couleur donnée.
+     */
+    public static class Span {
+        /**
+         * Premier caractère surligné (inclus).
+         */
+        public final int start;
+
+        /**
+         * Fin de la plage (exclue).
+         */
+        public final int end;
+
+        /**
+         * Couleur du surlignage.
+         */
+        public final Color color;
+
+        /**
+         * @param start premier caractère (inclus).
+         * @param end   fin de la plage (exclue).
+         * @param color couleur du surlignage.
+         */
+        public Span(int start, int end, Color color) {
+            this.start = start;
+            this.end = end;
+            this.color = color;
+        }
+    }
+}
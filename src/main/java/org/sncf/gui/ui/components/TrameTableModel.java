@@ -0,0 +1,95 @@
+package org.sncf.gui.ui.components;
+
+import org.sncf.gui.services.TrameService;
+
+import javax.swing.table.AbstractTableModel;
+import java.util.List;
+
+/**
+ * Modèle de table exposant les trames capturées, une ligne par trame,
+ * avec les colonnes numéro, bits, hexadécimal et texte.
+ * <p>
+ * Le modèle ne copie rien : il lit directement la liste de trames qui lui est fournie.
+ * Associé à une {@link javax.swing.JTable}, seules les lignes visibles sont mises en page
+ * et dessinées, quelle que soit la taille de l'historique.
+ * </p>
+ */
+public class TrameTableModel extends AbstractTableModel {
+    /**
+     * Colonne du numéro de trame (à partir de 1).
+     */
+    public static final int COL_INDEX = 0;
+
+    /**
+     * Colonne des bits reçus.
+     */
+    public static final int COL_BITS = 1;
+
+    /**
+     * Colonne de la traduction hexadécimale.
+     */
+    public static final int COL_HEX = 2;
+
+    /**
+     * Colonne de la traduction texte.
+     */
+    public static final int COL_TEXT = 3;
+
+    private static final String[] COLUMNS = {"#", "Bits reçus", "Traduction hexadécimale", "Traduction texte"};
+
+    private final List<TrameService.TrameEntry> trames;
+
+    /**
+     * Crée un modèle adossé à une liste de trames.
+     *
+     * @param trames liste des trames capturées (partagée, modifiée uniquement sur l'EDT).
+     */
+    public TrameTableModel(List<TrameService.TrameEntry> trames) {
+        this.trames = trames;
+    }
+
+    @Override
+    public int getRowCount() {
+        return trames.size();
+    }
+
+    @Override
+    public int getColumnCount() {
+        return COLUMNS.length;
+    }
+
+    @Override
+    public String getColumnName(int column) {
+        return COLUMNS[column];
+    }
+
+    @Override
+    public Object getValueAt(int row, int column) {
+        TrameService.TrameEntry entry = trames.get(row);
+        return switch (column) {
+            case COL_INDEX -> String.valueOf(row + 1);
+            case COL_BITS -> entry.bits;
+            case COL_HEX -> entry.hex;
+            default -> entry.text;
+        };
+    }
+
+    /**
+     * @param row indice de ligne.
+     * @return trame affichée sur cette ligne.
+     */
+    public TrameService.TrameEntry getTrame(int row) {
+        return trames.get(row);
+    }
+
+    /**
+     * Notifie la table que des trames viennent d'être ajoutées en fin de liste.
+     *
+     * @param count nombre de trames ajoutées.
+     */
+    public void fireRowsAppended(int count) {
+        if (count <= 0) return;
+        int last = getRowCount() - 1;
+        fireTableRowsInserted(last - count + 1, last);
+    }
+}
@@ -0,0 +1,195 @@
+package org.sncf.gui.ui.components;
+
+import java.awt.image.BufferedImage;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Cache de tuiles pré-rendues pour le graphique des trames.
+ *
+ * <p>Une tuile est une image de {@link #TILE_WIDTH} pixels de large couvrant une portion
+ * fixe du signal, repérée par son indice dans l'espace des pixels absolus à une échelle
+ * donnée (pixel absolu = position du bit × pixels par bit). Les tuiles sont indexées par
+ * échelle, signature des filtres et hauteur : revenir à un zoom déjà affiché ne redessine rien.</p>
+ *
+ * <p>La mémoire occupée est bornée : au-delà du budget, les tuiles les moins récemment
+ * affichées sont libérées. Destiné à l'EDT, non thread-safe.</p>
+ */
+public class WaveformTileCache {
+
+    /**
+     * Largeur d'une tuile, en pixels.
+     */
+    public static final int TILE_WIDTH = 256;
+
+    /**
+     * Budget mémoire par défaut, en octets.
+     */
+    public static final long DEFAULT_MAX_BYTES = 64L * 1024 * 1024;
+
+    private final long maxBytes;
+    private final LinkedHashMap<Key, BufferedImage> tiles = new LinkedHashMap<>(64, 0.75f, true);
+    private long usedBytes;
+
+    /**
+     * Crée un cache avec le budget mémoire par défaut.
+     */
+    public WaveformTileCache() {
+        this(DEFAULT_MAX_BYTES);
+    }
+
+    /**
+     * Crée un cache borné.
+     *
+     * @param maxBytes mémoire maximale occupée par les tuiles, en octets.
+     */
+    public WaveformTileCache(long maxBytes) {
+        this.maxBytes = maxBytes;
+    }
+
+    /**
+     * @param key tuile recherchée.
+     * @return l'image de la tuile, ou {@code null} si elle doit être dessinée.
+     */
+    public BufferedImage get(Key key) {
+        return tiles.get(key);
+    }
+
+    /**
+     * Mémorise une tuile, en libérant les moins récemment utilisées si le budget est dépassé.
+     *
+     * @param key   identifiant de la tuile.
+     * @param image rendu de la tuile.
+     */
+    public void put(Key key, BufferedImage image) {
+        BufferedImage previous = tiles.put(key, image);
+        if (previous != null) usedBytes -= bytesOf(previous);
+        usedBytes += bytesOf(image);
+        Iterator<Map.Entry<Key, BufferedImage>> eldest = tiles.entrySet().iterator();
+        while (usedBytes > maxBytes && tiles.size() > 1 && eldest.hasNext()) {
+            Map.Entry<Key, BufferedImage> entry = eldest.next();
+            if (entry.getKey().equals(key)) continue;
+            usedBytes -= bytesOf(entry.getValue());
+            eldest.remove();
+        }
+    }
+
+    /**
+     * Invalide, à toutes les échelles, les tuiles dont le rendu peut dépendre des bits
+     * situés à partir de {@code fromBit} (typiquement après un ajout de données).
+     *
+     * @param fromBit  premier bit modifié.
+     * @param marginPx marge en pixels débordant d'une tuile à l'autre (étiquettes, transitions).
+     */
+    public void invalidateFromBit(long fromBit, int marginPx) {
+        Iterator<Map.Entry<Key, BufferedImage>> it = tiles.entrySet().iterator();
+        while (it.hasNext()) {
+            Map.Entry<Key, BufferedImage> entry = it.next();
+            Key key = entry.getKey();
+            double firstDirtyPx = fromBit * key.pixelsPerBit - marginPx;
+            if ((key.index + 1) * (double) TILE_WIDTH > firstDirtyPx) {
+                usedBytes -= bytesOf(entry.getValue());
+                it.remove();
+            }
+        }
+    }
+
+    /**
+     * Libère les tuiles dessinées avec une autre signature de filtres que {@code signature}.
+     * Les tuiles indépendantes des filtres (signature vide) sont conservées.
+     *
+     * @param signature signature des filtres désormais actifs.
+     */
+    public void retainFilterSignature(String signature) {
+        Iterator<Map.Entry<Key, BufferedImage>> it = tiles.entrySet().iterator();
+        while (it.hasNext()) {
+            Map.Entry<Key, BufferedImage> entry = it.next();
+            String tileSignature = entry.getKey().filterSignature;
+            if (!tileSignature.isEmpty() && !tileSignature.equals(signature)) {
+                usedBytes -= bytesOf(entry.getValue());
+                it.remove();
+            }
+        }
+    }
+
+    /**
+     * Libère toutes les tuiles.
+     */
+    public void clear() {
+        tiles.clear();
+        usedBytes = 0;
+    }
+
+    /**
+     * @return nombre de tuiles en cache.
+     */
+    public int size() {
+        return tiles.size();
+    }
+
+    /**
+     * @return mémoire occupée par les tuiles, en octets.
+     */
+    public long getUsedBytes() {
+        return usedBytes;
+    }
+
+    private static long bytesOf(BufferedImage image) {
+        return 4L * image.getWidth() * image.getHeight();
+    }
+
+    /**
+     * Identifiant d'une tuile : échelle, filtres appliqués, hauteur et position.
+     */
+    public static class Key {
+        /**
+         * Échelle du rendu, en pixels par bit.
+         */
+        public final double pixelsPerBit;
+
+        /**
+         * Signature des filtres ayant servi au rendu (vide si le rendu n'en dépend pas).
+         */
+        public final String filterSignature;
+
+        /**
+         * Hauteur de la tuile, en pixels.
+         */
+        public final int height;
+
+        /**
+         * Indice de la tuile : elle couvre les pixels absolus [index × largeur, (index + 1) × largeur).
+         */
+        public final long index;
+
+        /**
+         * @param pixelsPerBit    échelle du rendu.
+         * @param filterSignature signature des filtres (vide si sans effet sur le rendu).
+         * @param height          hauteur de la tuile.
+         * @param index           indice de la tuile.
+         */
+        public Key(double pixelsPerBit, String filterSignature, int height, long index) {
+            this.pixelsPerBit = pixelsPerBit;
+            this.filterSignature = filterSignature;
+            this.height = height;
+            this.index = index;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Key other)) return false;
+            return Double.compare(pixelsPerBit, other.pixelsPerBit) == 0
+                    && height == other.height
+                    && index == other.index
+                    && filterSignature.equals(other.filterSignature);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(pixelsPerBit, filterSignature, height, index);
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package org.sncf.gui.ui.dialogs;
+
+import org.sncf.gui.model.CaptureSettings;
+import org.sncf.gui.serial.SerialTransmitter;
+import org.sncf.gui.services.CaptureFilterService;
+import org.sncf.gui.services.DatabaseManager;
+import org.sncf.gui.services.filter.CaptureFilter;
+import org.sncf.gui.services.filter.FilterExpression;
+
+import javax.swing.*;
+import java.awt.*;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Fenêtre de dialogue permettant de régler le filtre de capture, appliqué aux trames
+ * dès leur réception, avant l'enregistrement en base et l'affichage.
+ * <p>
+ * Elle propose :
+ * <ul>
+ *     <li>L'activation du filtre</li>
+ *     <li>Les motifs de capture, un par ligne (même syntaxe que les filtres d'affichage)</li>
+ *     <li>L'échantillonnage des trames écartées (0 : seulement comptées)</li>
+ *     <li>Les compteurs du filtre en cours</li>
+ * </ul>
+ * À la validation, les paramètres sont enregistrés dans la table {@code capture_filter}
+ * et appliqués immédiatement, y compris pendant une écoute.
+ */
+public class CaptureFilterDialog extends JDialog {
+
+    private final CaptureFilterService captureFilterService = new CaptureFilterService(new DatabaseManager());
+
+    /**
+     * Construit la boîte de dialogue de réglage du filtre de capture.
+     *
+     * @param parent la fenêtre parente de la boîte de dialogue.
+     */
+    public CaptureFilterDialog(JFrame parent) {
+        super(parent, "Filtre de capture", true);
+        setSize(480, 360);
+        setLocationRelativeTo(parent);
+        setLayout(new GridBagLayout());
+
+        GridBagConstraints gbc = new GridBagConstraints();
+        gbc.fill = GridBagConstraints.HORIZONTAL;
+        gbc.insets = new Insets(5, 10, 5, 10);
+
+        CaptureSettings current = captureFilterService.load();
+
+        // Champs
+        JCheckBox enabledBox = new JCheckBox("Ne conserver que les trames correspondant à un motif", current.enabled);
+        JTextArea patternsArea = new JTextArea(String.join("\n", current.patterns), 6, 30);
+        patternsArea.setFont(new Font("Monospaced", Font.PLAIN, 13));
+        JSpinner sampleSpinner = new JSpinner(new SpinnerNumberModel(current.sampleEvery, 0, 1_000_000, 1));
+
+        CaptureFilter active = SerialTransmitter.getCaptureFilter();
+        JLabel countersLabel = new JLabel(String.format("Capture en cours : %d conservées, %d échantillonnées, %d écartées",
+                active.getAccepted(), active.getSampled(), active.getDropped()));
+        countersLabel.setFont(new Font("Segoe UI", Font.PLAIN, 12));
+
+        gbc.gridx = 0;
+        gbc.gridy = 0;
+        gbc.gridwidth = 2;
+        add(enabledBox, gbc);
+
+        gbc.gridy = 1;
+        add(new JLabel("Motifs (un par ligne) :"), gbc);
+
+        gbc.gridy = 2;
+        gbc.fill = GridBagConstraints.BOTH;
+        gbc.weighty = 1;
+        add(new JScrollPane(patternsArea), gbc);
+        gbc.fill = GridBagConstraints.HORIZONTAL;
+        gbc.weighty = 0;
+
+        gbc.gridy = 3;
+        gbc.gridwidth = 1;
+        add(new JLabel("Conserver 1 trame écartée sur (0 = aucune) :"), gbc);
+        gbc.gridx = 1;
+        add(sampleSpinner, gbc);
+
+        gbc.gridx = 0;
+        gbc.gridy = 4;
+        gbc.gridwidth = 2;
+        add(countersLabel, gbc);
+
+        // Boutons
+        JButton saveButton = new JButton("Enregistrer");
+        JPanel buttons = new JPanel(new FlowLayout(FlowLayout.RIGHT));
+        buttons.add(saveButton);
+        gbc.gridy = 5;
+        add(buttons, gbc);
+
+        saveButton.addActionListener(e -> {
+            List<String> patterns = new ArrayList<>();
+            for (String line : patternsArea.getText().split("\n")) {
+                if (line.isBlank()) continue;
+                String error = FilterExpression.validate(line.trim());
+                if (error != null) {
+                    JOptionPane.showMessageDialog(this, error, "Erreur", JOptionPane.ERROR_MESSAGE);
+                    return;
+                }
+                patterns.add(line.trim());
+            }
+            CaptureSettings settings = new CaptureSettings(enabledBox.isSelected(), patterns, (Integer) sampleSpinner.getValue());
+            try {
+                captureFilterService.save(settings);
+                SerialTransmitter.setCaptureFilter(CaptureFilter.compile(settings));
+                JOptionPane.showMessageDialog(this, "Filtre de capture enregistré : " + settings);
+                dispose();
+            } catch (Exception ex) {
+                ex.printStackTrace();
+                JOptionPane.showMessageDialog(this, "Erreur : " + ex.getMessage());
+            }
+        });
+    }
+}
@@ -0,0 +1,92 @@
+package org.sncf.gui.ui.dialogs;
+
+import org.sncf.gui.services.ExportService;
+
+import javax.swing.*;
+import java.awt.*;
+import java.awt.event.WindowAdapter;
+import java.awt.event.WindowEvent;
+import java.nio.file.Path;
+
+/**
+ * Fenêtre non modale affichant l'avancement d'un export en arrière-plan
+ * (pourcentage, trames lues, débit) et permettant de l'annuler.
+ * <p>
+ * Elle se ferme d'elle-même à la fin de l'export et en affiche le résultat.
+ * </p>
+ */
+public class ExportProgressDialog extends JDialog implements ExportService.ExportListener {
+    private final JProgressBar progressBar = new JProgressBar(0, 100);
+    private final JLabel rateLabel = new JLabel("Préparation…");
+    private final Path target;
+    private ExportService.ExportJob job;
+
+    /**
+     * Construit la fenêtre d'avancement.
+     *
+     * @param parent la fenêtre parente.
+     * @param target fichier de destination, rappelé à l'utilisateur.
+     */
+    public ExportProgressDialog(Window parent, Path target) {
+        super(parent, "Export en cours", ModalityType.MODELESS);
+        this.target = target;
+        setSize(420, 150);
+        setLocationRelativeTo(parent);
+        setDefaultCloseOperation(DO_NOTHING_ON_CLOSE);
+        setLayout(new BorderLayout(10, 10));
+
+        progressBar.setStringPainted(true);
+        rateLabel.setFont(new Font("Segoe UI", Font.PLAIN, 12));
+        JButton cancelButton = new JButton("Annuler");
+        cancelButton.addActionListener(e -> cancel());
+        addWindowListener(new WindowAdapter() {
+            @Override
+            public void windowClosing(WindowEvent e) {
+                cancel();
+            }
+        });
+
+        JPanel center = new JPanel(new GridLayout(3, 1, 0, 5));
+        center.setBorder(BorderFactory.createEmptyBorder(10, 10, 0, 10));
+        center.add(new JLabel(target.getFileName().toString()));
+        center.add(progressBar);
+        center.add(rateLabel);
+        JPanel buttons = new JPanel(new FlowLayout(FlowLayout.RIGHT));
+        buttons.add(cancelButton);
+        add(center, BorderLayout.CENTER);
+        add(buttons, BorderLayout.SOUTH);
+    }
+
+    /**
+     * Associe l'export suivi, pour pouvoir l'annuler.
+     *
+     * @param job export en cours.
+     */
+    public void attach(ExportService.ExportJob job) {
+        this.job = job;
+    }
+
+    private void cancel() {
+        if (job != null) job.cancel();
+        rateLabel.setText("Annulation…");
+    }
+
+    @Override
+    public void onProgress(long rowsRead, long totalRows, double rowsPerSecond) {
+        if (job != null && job.isCancelled()) return;
+        progressBar.setValue(totalRows > 0 ? (int) (100L * rowsRead / totalRows) : 100);
+        rateLabel.setText(String.format("%d / %d trames · %.0f trames/s", rowsRead, totalRows, rowsPerSecond));
+    }
+
+    @Override
+    public void onFinished(long rowsWritten, boolean cancelled, Exception error) {
+        dispose();
+        if (error != null) {
+            JOptionPane.showMessageDialog(getOwner(), "Erreur export : " + error.getMessage(), "Erreur", JOptionPane.ERROR_MESSAGE);
+        } else if (cancelled) {
+            JOptionPane.showMessageDialog(getOwner(), "Export annulé.");
+        } else {
+            JOptionPane.showMessageDialog(getOwner(), "Export réussi ! " + rowsWritten + " trames écrites dans " + target);
+        }
+    }
+}
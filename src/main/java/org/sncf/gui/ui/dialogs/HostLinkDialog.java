@@ -0,0 +1,136 @@
+package org.sncf.gui.ui.dialogs;
+
+import org.sncf.gui.model.HostLinkSettings;
+import org.sncf.gui.serial.LinkSelfTest;
+import org.sncf.gui.services.DatabaseManager;
+import org.sncf.gui.services.HostLinkService;
+
+import javax.swing.*;
+import java.awt.*;
+
+/**
+ * Fenêtre de dialogue permettant de régler la liaison série entre le PC et l'ESP32
+ * pour un port donné, indépendamment de la configuration du bus espionné.
+ * <p>
+ * Elle propose :
+ * <ul>
+ *     <li>Le débit de la liaison hôte (jusqu'à 2 Mbaud)</li>
+ *     <li>L'activation du contrôle de flux RTS/CTS</li>
+ *     <li>Un auto-test mesurant le débit soutenu et le taux d'erreur</li>
+ * </ul>
+ * À la validation, les paramètres sont enregistrés dans la table {@code host_link_config}.
+ */
+public class HostLinkDialog extends JDialog {
+    private static final int SELF_TEST_DURATION_MS = 3000;
+
+    private final HostLinkService hostLinkService = new HostLinkService(new DatabaseManager());
+
+    /**
+     * Construit la boîte de dialogue de réglage de la liaison hôte.
+     *
+     * @param parent   la fenêtre parente de la boîte de dialogue.
+     * @param portName nom système du port série concerné.
+     */
+    public HostLinkDialog(JFrame parent, String portName) {
+        super(parent, "Liaison PC ↔ ESP32 (" + portName + ")", true);
+        setSize(460, 260);
+        setLocationRelativeTo(parent);
+        setLayout(new GridBagLayout());
+
+        GridBagConstraints gbc = new GridBagConstraints();
+        gbc.fill = GridBagConstraints.HORIZONTAL;
+        gbc.insets = new Insets(5, 10, 5, 10);
+
+        HostLinkSettings current = hostLinkService.load(portName);
+
+        // Champs
+        JComboBox<Integer> baudrateBox = new JComboBox<>();
+        for (int baudrate : HostLinkSettings.SUPPORTED_BAUDRATES) {
+            baudrateBox.addItem(baudrate);
+        }
+        baudrateBox.setEditable(true);
+        baudrateBox.setSelectedItem(current.baudrate);
+
+        JCheckBox rtsCtsBox = new JCheckBox("Contrôle de flux RTS/CTS", current.rtsCts);
+
+        JLabel resultLabel = new JLabel("Aucun test effectué.");
+        resultLabel.setFont(new Font("Segoe UI", Font.PLAIN, 12));
+
+        gbc.gridx = 0;
+        gbc.gridy = 0;
+        add(new JLabel("Débit liaison hôte:"), gbc);
+        gbc.gridx = 1;
+        add(baudrateBox, gbc);
+
+        gbc.gridx = 0;
+        gbc.gridy = 1;
+        gbc.gridwidth = 2;
+        add(rtsCtsBox, gbc);
+
+        gbc.gridy = 2;
+        add(resultLabel, gbc);
+
+        // Boutons
+        JButton testButton = new JButton("Auto-test");
+        JButton saveButton = new JButton("Enregistrer");
+        JPanel buttons = new JPanel(new FlowLayout(FlowLayout.RIGHT));
+        buttons.add(testButton);
+        buttons.add(saveButton);
+        gbc.gridy = 3;
+        add(buttons, gbc);
+
+        testButton.addActionListener(e -> {
+            HostLinkSettings settings = readSettings(baudrateBox, rtsCtsBox);
+            if (settings == null) return;
+
+            testButton.setEnabled(false);
+            saveButton.setEnabled(false);
+            resultLabel.setText("Test en cours à " + settings + "...");
+
+            new Thread(() -> {
+                String message;
+                try {
+                    LinkSelfTest.Result result = LinkSelfTest.run(portName, settings, SELF_TEST_DURATION_MS);
+                    message = (result.isReliable() ? "✔ " : "✖ ") + result;
+                } catch (Exception ex) {
+                    message = "Erreur : " + ex.getMessage();
+                }
+                String text = "<html>" + message + "</html>";
+                SwingUtilities.invokeLater(() -> {
+                    resultLabel.setText(text);
+                    testButton.setEnabled(true);
+                    saveButton.setEnabled(true);
+                });
+            }, "link-selftest").start();
+        });
+
+        saveButton.addActionListener(e -> {
+            HostLinkSettings settings = readSettings(baudrateBox, rtsCtsBox);
+            if (settings == null) return;
+            try {
+                hostLinkService.save(portName, settings);
+                JOptionPane.showMessageDialog(this, "Liaison enregistrée : " + settings);
+                dispose();
+            } catch (Exception ex) {
+                ex.printStackTrace();
+                JOptionPane.showMessageDialog(this, "Erreur : " + ex.getMessage());
+            }
+        });
+    }
+
+    /**
+     * Lit et valide les valeurs saisies dans le formulaire.
+     *
+     * @return paramètres saisis, ou {@code null} si le débit est invalide (un message est affiché).
+     */
+    private HostLinkSettings readSettings(JComboBox<Integer> baudrateBox, JCheckBox rtsCtsBox) {
+        try {
+            int baudrate = Integer.parseInt(String.valueOf(baudrateBox.getSelectedItem()).trim());
+            return new HostLinkSettings(baudrate, rtsCtsBox.isSelected());
+        } catch (IllegalArgumentException ex) {
+            JOptionPane.showMessageDialog(this, "Débit invalide (maximum "
+                    + HostLinkSettings.MAX_BAUDRATE + " bauds).", "Erreur", JOptionPane.ERROR_MESSAGE);
+            return null;
+        }
+    }
+}
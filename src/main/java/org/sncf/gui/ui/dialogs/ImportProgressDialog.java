@@ -0,0 +1,94 @@
+package org.sncf.gui.ui.dialogs;
+
+import org.sncf.gui.services.ImportService;
+
+import javax.swing.*;
+import java.awt.*;
+import java.awt.event.WindowAdapter;
+import java.awt.event.WindowEvent;
+import java.nio.file.Path;
+
+/**
+ * Fenêtre non modale affichant l'avancement d'un import en arrière-plan
+ * (part du fichier lue, trames insérées, débit) et permettant de l'annuler.
+ * <p>
+ * Elle se ferme d'elle-même à la fin de l'import et en affiche le résultat ; les trames
+ * déjà validées restent en base après une annulation.
+ * </p>
+ */
+public class ImportProgressDialog extends JDialog implements ImportService.ImportListener {
+    private final JProgressBar progressBar = new JProgressBar(0, 100);
+    private final JLabel rateLabel = new JLabel("Préparation…");
+    private final Path source;
+    private ImportService.ImportJob job;
+
+    /**
+     * Construit la fenêtre d'avancement.
+     *
+     * @param parent la fenêtre parente.
+     * @param source fichier importé, rappelé à l'utilisateur.
+     */
+    public ImportProgressDialog(Window parent, Path source) {
+        super(parent, "Import en cours", ModalityType.MODELESS);
+        this.source = source;
+        setSize(420, 150);
+        setLocationRelativeTo(parent);
+        setDefaultCloseOperation(DO_NOTHING_ON_CLOSE);
+        setLayout(new BorderLayout(10, 10));
+
+        progressBar.setStringPainted(true);
+        rateLabel.setFont(new Font("Segoe UI", Font.PLAIN, 12));
+        JButton cancelButton = new JButton("Annuler");
+        cancelButton.addActionListener(e -> cancel());
+        addWindowListener(new WindowAdapter() {
+            @Override
+            public void windowClosing(WindowEvent e) {
+                cancel();
+            }
+        });
+
+        JPanel center = new JPanel(new GridLayout(3, 1, 0, 5));
+        center.setBorder(BorderFactory.createEmptyBorder(10, 10, 0, 10));
+        center.add(new JLabel(source.getFileName().toString()));
+        center.add(progressBar);
+        center.add(rateLabel);
+        JPanel buttons = new JPanel(new FlowLayout(FlowLayout.RIGHT));
+        buttons.add(cancelButton);
+        add(center, BorderLayout.CENTER);
+        add(buttons, BorderLayout.SOUTH);
+    }
+
+    /**
+     * Associe l'import suivi, pour pouvoir l'annuler.
+     *
+     * @param job import en cours.
+     */
+    public void attach(ImportService.ImportJob job) {
+        this.job = job;
+    }
+
+    private void cancel() {
+        if (job != null) job.cancel();
+        rateLabel.setText("Annulation…");
+    }
+
+    @Override
+    public void onProgress(long rows, long bytesRead, long totalBytes, double rowsPerSecond) {
+        if (job != null && job.isCancelled()) return;
+        progressBar.setValue(totalBytes > 0 ? (int) (100L * bytesRead / totalBytes) : 100);
+        rateLabel.setText(String.format("%d trames · %.0f trames/s", rows, rowsPerSecond));
+    }
+
+    @Override
+    public void onFinished(long rows, boolean cancelled, Exception error) {
+        dispose();
+        if (error != null) {
+            JOptionPane.showMessageDialog(getOwner(), "Erreur import : " + error.getMessage() + "\n"
+                    + rows + " trames déjà importées.", "Erreur", JOptionPane.ERROR_MESSAGE);
+        } else if (cancelled) {
+            JOptionPane.showMessageDialog(getOwner(), "Import annulé : " + rows + " trames déjà importées.");
+        } else {
+            JOptionPane.showMessageDialog(getOwner(), "Import réussi ! " + rows + " trames importées dans la base depuis " + source);
+        }
+    }
+}
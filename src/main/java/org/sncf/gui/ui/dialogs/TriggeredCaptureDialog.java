@@ -0,0 +1,127 @@
+package org.sncf.gui.ui.dialogs;
+
+import org.sncf.gui.model.CaptureSettings;
+import org.sncf.gui.serial.SerialTransmitter;
+import org.sncf.gui.serial.TriggeredCapture;
+import org.sncf.gui.services.filter.CaptureFilter;
+import org.sncf.gui.services.filter.FilterExpression;
+
+import javax.swing.*;
+import java.awt.*;
+import java.util.List;
+
+/**
+ * Fenêtre de dialogue activant le mode capture déclenchée : seules les trames
+ * entourant un événement (motif reconnu, débit anormal, trame périodique absente)
+ * sont enregistrées, ce qui permet de longues écoutes sans surveillance.
+ * <p>
+ * Le réglage vaut pour la session (comme le mode simulation) et s'applique
+ * immédiatement, y compris pendant une écoute.
+ * </p>
+ */
+public class TriggeredCaptureDialog extends JDialog {
+    private static final String MATCH = "Motif reconnu";
+    private static final String RATE = "Débit anormal";
+    private static final String MISSING = "Trame périodique absente";
+
+    /**
+     * Construit la boîte de dialogue de capture déclenchée.
+     *
+     * @param parent la fenêtre parente de la boîte de dialogue.
+     */
+    public TriggeredCaptureDialog(JFrame parent) {
+        super(parent, "Capture déclenchée", true);
+        setSize(480, 380);
+        setLocationRelativeTo(parent);
+        setLayout(new GridBagLayout());
+
+        GridBagConstraints gbc = new GridBagConstraints();
+        gbc.fill = GridBagConstraints.HORIZONTAL;
+        gbc.insets = new Insets(5, 10, 5, 10);
+
+        // Champs
+        JComboBox<String> triggerBox = new JComboBox<>(new String[]{MATCH, RATE, MISSING});
+        JTextField patternField = new JTextField();
+        JSpinner minRateSpinner = new JSpinner(new SpinnerNumberModel(0, 0, 1_000_000, 1));
+        JSpinner maxRateSpinner = new JSpinner(new SpinnerNumberModel(1000, 0, 1_000_000, 10));
+        JSpinner periodSpinner = new JSpinner(new SpinnerNumberModel(1000, 1, 3_600_000, 100));
+        JSpinner preSpinner = new JSpinner(new SpinnerNumberModel(10, 0, 3600, 1));
+        JSpinner postSpinner = new JSpinner(new SpinnerNumberModel(10, 0, 3600, 1));
+        JSpinner postFramesSpinner = new JSpinner(new SpinnerNumberModel(0, 0, 1_000_000, 100));
+
+        TriggeredCapture active = SerialTransmitter.getTriggeredCapture();
+        JLabel statusLabel = new JLabel(active == null ? "Mode inactif : toutes les trames sont enregistrées."
+                : String.format("Actif : %d déclenchement(s), %d trames enregistrées, %d écartées%s",
+                active.getTriggerCount(), active.getKept(), active.getDiscarded(),
+                active.getLastReason() != null ? " (" + active.getLastReason() + ")" : ""));
+        statusLabel.setFont(new Font("Segoe UI", Font.PLAIN, 12));
+
+        Object[][] rows = {
+                {"Déclencheur :", triggerBox},
+                {"Motif (motif reconnu / trame périodique) :", patternField},
+                {"Débit minimal (trames/s, 0 = aucun) :", minRateSpinner},
+                {"Débit maximal (trames/s, 0 = aucun) :", maxRateSpinner},
+                {"Période attendue (ms) :", periodSpinner},
+                {"Avant déclenchement (s) :", preSpinner},
+                {"Après déclenchement (s) :", postSpinner},
+                {"Après déclenchement (trames, 0 = durée seule) :", postFramesSpinner},
+        };
+        for (int i = 0; i < rows.length; i++) {
+            gbc.gridx = 0;
+            gbc.gridy = i;
+            add(new JLabel((String) rows[i][0]), gbc);
+            gbc.gridx = 1;
+            add((Component) rows[i][1], gbc);
+        }
+
+        gbc.gridx = 0;
+        gbc.gridy = rows.length;
+        gbc.gridwidth = 2;
+        add(statusLabel, gbc);
+
+        // Boutons
+        JButton disableButton = new JButton("Désactiver");
+        JButton armButton = new JButton("Armer");
+        JPanel buttons = new JPanel(new FlowLayout(FlowLayout.RIGHT));
+        buttons.add(disableButton);
+        buttons.add(armButton);
+        gbc.gridy = rows.length + 1;
+        add(buttons, gbc);
+
+        disableButton.addActionListener(e -> {
+            SerialTransmitter.setTriggeredCapture(null);
+            dispose();
+        });
+
+        armButton.addActionListener(e -> {
+            String type = (String) triggerBox.getSelectedItem();
+            String pattern = patternField.getText().trim();
+            if (!RATE.equals(type)) {
+                String error = pattern.isEmpty() ? "Un motif est obligatoire pour ce déclencheur."
+                        : FilterExpression.validate(pattern);
+                if (error != null) {
+                    JOptionPane.showMessageDialog(this, error, "Erreur", JOptionPane.ERROR_MESSAGE);
+                    return;
+                }
+            }
+            int postSeconds = (Integer) postSpinner.getValue();
+            int postFrames = (Integer) postFramesSpinner.getValue();
+            if (postSeconds == 0 && postFrames == 0) {
+                JOptionPane.showMessageDialog(this, "Indiquez une durée ou un nombre de trames après déclenchement.",
+                        "Erreur", JOptionPane.ERROR_MESSAGE);
+                return;
+            }
+
+            CaptureFilter patterns = CaptureFilter.compile(new CaptureSettings(true, List.of(pattern), 0));
+            TriggeredCapture.Trigger trigger = switch (type) {
+                case MATCH -> TriggeredCapture.matching(patterns);
+                case MISSING -> TriggeredCapture.missingPeriodic(patterns, ((Integer) periodSpinner.getValue()).longValue());
+                default -> TriggeredCapture.rateOutside((Integer) minRateSpinner.getValue(), (Integer) maxRateSpinner.getValue());
+            };
+            SerialTransmitter.setTriggeredCapture(new TriggeredCapture(trigger,
+                    (Integer) preSpinner.getValue() * 1000L, postSeconds * 1000L, postFrames));
+            JOptionPane.showMessageDialog(this, "Capture déclenchée armée : " + type);
+            dispose();
+        });
+    }
+}
@@ -2,17 +2,20 @@ package org.sncf.gui.ui.views;
 
 import org.sncf.gui.model.FilterRule;
 import org.sncf.gui.services.DatabaseManager;
+import org.sncf.gui.services.FilterRepository;
+import org.sncf.gui.services.filter.FilterExpression;
+import org.sncf.gui.services.filter.FilterSet;
+import org.sncf.gui.services.filter.FilterStats;
 import org.sncf.gui.ui.components.RoundRectBorder;
 
 import javax.swing.*;
 import javax.swing.border.*;
 import java.awt.*;
 import java.awt.event.*;
-import java.util.Map;
 import java.util.HashMap;
-import java.sql.*;
-import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.function.Consumer;
 
 /**
@@ -21,14 +24,16 @@ import java.util.function.Consumer;
  *
  * <p>Fonctionnalités :</p>
  * <ul>
- *   <li>Affichage des filtres depuis la base SQLite</li>
+ *   <li>Affichage des filtres du {@link FilterRepository}</li>
  *   <li>Ajout, édition et suppression de filtres</li>
  *   <li>Recherche en temps réel</li>
  *   <li>Filtrage visuel et état actif/inactif</li>
+ *   <li>Statistiques de chaque filtre (trames retenues, débit, coût), rafraîchies chaque seconde</li>
  *   <li>Callback sur changement de filtres</li>
  * </ul>
  *
- * <p>Les filtres sont enregistrés dans la table {@code custom_filter}.</p>
+ * <p>La liste est rendue à partir des instantanés du référentiel, qui lit la table
+ * {@code custom_filter} une seule fois et y écrit les modifications en arrière-plan.</p>
  */
 public class FilterView extends JPanel {
     // Couleurs cohérentes avec le reste de l'application
@@ -49,19 +54,24 @@ public class FilterView extends JPanel {
     private final JLabel emptyStateLabel;
 
     // Callback
-    private Consumer<List<FilterRule>> onFiltersUpdated;
+    private Consumer<FilterSet> onFiltersUpdated;
 
-    // État d'activation des filtres (mémorisé)
-    private final Map<Integer, Boolean> filterStates = new HashMap<>();
+    // Règles, état actif et filtres compilés
+    private final FilterRepository repository = new FilterRepository(new DatabaseManager());
 
-    private final DatabaseManager db = new DatabaseManager();
+    // Composants affichés par règle (carte et séparateur), pour la recherche
+    private final Map<Integer, List<Component>> cardsById = new HashMap<>();
+    private final Map<Integer, JLabel> statsLabels = new HashMap<>();
+    private List<FilterRule> renderedRules;
+    private FilterSet publishedFilters;
+    private String searchText = "";
 
     /**
      * Définit une fonction callback qui sera appelée à chaque modification de l’état des filtres.
      *
-     * @param consumer fonction recevant la liste des filtres actifs.
+     * @param consumer fonction recevant les filtres actifs, compilés une fois pour toutes les vues.
      */
-    public void setOnFiltersUpdated(Consumer<List<FilterRule>> consumer) {
+    public void setOnFiltersUpdated(Consumer<FilterSet> consumer) {
         this.onFiltersUpdated = consumer;
     }
 
@@ -107,7 +117,13 @@ public class FilterView extends JPanel {
         add(topPanel, BorderLayout.NORTH);
         add(mainPanel, BorderLayout.CENTER);
 
-        loadFilters();
+        repository.subscribe(this::render);
+        repository.load();
+
+        Timer statsTimer = new Timer(1000, e -> {
+            if (isShowing()) refreshStats();
+        });
+        statsTimer.start();
 
         JPanel helpPanel = createHelpPanel();
         add(helpPanel, BorderLayout.SOUTH);
@@ -227,7 +243,8 @@ public class FilterView extends JPanel {
         ));
 
         JLabel infoLabel = new JLabel("<html><b>Astuce :</b> Les filtres vous permettent de mettre en évidence des motifs spécifiques dans les trames. " +
-                "Utilisez des motifs hexadécimaux (ex: 7E) ou binaires (ex: 01101110) pour définir vos filtres.</html>");
+                "Utilisez des motifs hexadécimaux (ex: 7E) ou binaires (ex: 01101110) pour définir vos filtres, " +
+                "ou une expression (ex: byte[0] == 0x7E &amp;&amp; !text ~ \"ERR\").</html>");
         infoLabel.setFont(new Font("Segoe UI", Font.PLAIN, 13));
         infoLabel.setForeground(new Color(50, 80, 120));
 
@@ -238,86 +255,82 @@ public class FilterView extends JPanel {
     }
 
     /**
-     * Applique le filtre texte sur la liste de filtres affichés.
+     * Applique le filtre texte sur la liste de filtres affichés, via l'index de recherche de l'instantané.
      *
      * @param searchText texte saisi dans la zone de recherche.
      */
     private void filterItems(String searchText) {
-        for (Component comp : filterListPanel.getComponents()) {
-            if (comp instanceof JPanel panel) {
-                Component[] children = panel.getComponents();
-                if (children.length > 0 && children[0] instanceof JPanel leftPanel) {
-                    Component[] leftChildren = leftPanel.getComponents();
-                    if (leftChildren.length > 0 && leftChildren[0] instanceof JCheckBox) {
-                        if (children.length > 1 && children[1] instanceof JPanel centerPanel) {
-                            Component[] centerChildren = centerPanel.getComponents();
-                            if (centerChildren.length > 0 && centerChildren[0] instanceof JLabel nameLabel) {
-                                String filterText = nameLabel.getText().toLowerCase();
-                                boolean visible = searchText.isEmpty() || filterText.contains(searchText.toLowerCase());
-                                panel.setVisible(visible);
-                            }
-                        }
-                    }
-                }
+        this.searchText = searchText;
+        Set<Integer> found = repository.getSnapshot().search(searchText);
+        cardsById.forEach((id, components) -> {
+            for (Component comp : components) {
+                comp.setVisible(found.contains(id));
             }
-        }
+        });
         filterListPanel.revalidate();
         filterListPanel.repaint();
     }
 
     /**
-     * Charge les filtres depuis la base et met à jour l’affichage.
+     * Affiche un instantané du référentiel : les cartes ne sont reconstruites que si la liste
+     * des règles a changé, et les filtres actifs ne sont transmis que s'ils ont changé.
+     *
+     * @param snapshot instantané publié.
      */
-    private void loadFilters() {
-        filterListPanel.removeAll();
-
-        try (Connection conn = DriverManager.getConnection(DatabaseManager.getDbUrl())) {
-            String query = "SELECT * FROM custom_filter ORDER BY name";
-            Statement stmt = conn.createStatement();
-            ResultSet rs = stmt.executeQuery(query);
-
-            boolean hasFilters = false;
-
-            while (rs.next()) {
-                hasFilters = true;
-                int id = rs.getInt("id");
-                String name = rs.getString("name");
-                String pattern = rs.getString("pattern");
-                String color = rs.getString("color");
-
-                JPanel filterCard = createFilterCard(id, name, pattern, color);
+    private void render(FilterRepository.Snapshot snapshot) {
+        if (snapshot.rules != renderedRules) {
+            renderedRules = snapshot.rules;
+            filterListPanel.removeAll();
+            cardsById.clear();
+            statsLabels.clear();
+
+            for (FilterRule rule : snapshot.rules) {
+                JPanel filterCard = createFilterCard(rule, snapshot.isEnabled(rule.id));
                 filterListPanel.add(filterCard);
 
                 JSeparator separator = new JSeparator(JSeparator.HORIZONTAL);
                 separator.setForeground(BORDER_COLOR);
                 separator.setBackground(CARD_BACKGROUND);
                 filterListPanel.add(separator);
+                cardsById.put(rule.id, List.of(filterCard, separator));
             }
 
-            if (!hasFilters) {
+            if (snapshot.rules.isEmpty()) {
                 filterListPanel.add(emptyStateLabel);
             }
 
-            filterListPanel.revalidate();
-            filterListPanel.repaint();
+            filterItems(searchText);
+            refreshStats();
+        }
 
+        if (snapshot.activeFilters != publishedFilters) {
+            publishedFilters = snapshot.activeFilters;
             triggerUpdate();
+        }
+    }
 
-        } catch (SQLException e) {
-            showError("Erreur lors du chargement des filtres: " + e.getMessage());
+    /**
+     * Met à jour les statistiques affichées sur chaque carte.
+     */
+    private void refreshStats() {
+        for (FilterRule rule : repository.getSnapshot().rules) {
+            JLabel label = statsLabels.get(rule.id);
+            if (label == null) continue;
+            FilterStats stats = FilterStats.of(rule);
+            label.setText(String.format("%d / %d trames retenues · %.1f/s · %.1f µs",
+                    stats.getMatched(), stats.getTested(), stats.getMatchRate(), stats.getAverageNanos() / 1000));
         }
     }
 
     /**
      * Crée une carte graphique pour un filtre affiché dans la liste.
      *
-     * @param id      identifiant du filtre.
-     * @param name    nom du filtre.
-     * @param pattern motif filtré.
-     * @param color   couleur associée.
+     * @param rule    filtre affiché.
+     * @param enabled état actif du filtre.
      * @return panneau représentant le filtre.
      */
-    private JPanel createFilterCard(int id, String name, String pattern, String color) {
+    private JPanel createFilterCard(FilterRule rule, boolean enabled) {
+        int id = rule.id;
         JPanel card = new JPanel(new BorderLayout(10, 0));
         card.setBackground(CARD_BACKGROUND);
         card.setBorder(new EmptyBorder(10, 10, 10, 10));
@@ -327,27 +340,30 @@ public class FilterView extends JPanel {
 
         JCheckBox checkBox = new JCheckBox();
         checkBox.setBackground(CARD_BACKGROUND);
-        checkBox.setSelected(filterStates.getOrDefault(id, false));
-        checkBox.addActionListener(e -> {
-            filterStates.put(id, checkBox.isSelected());
-            triggerUpdate();
-        });
+        checkBox.setSelected(enabled);
+        checkBox.addActionListener(e -> repository.setEnabled(id, checkBox.isSelected()));
 
         leftPanel.add(checkBox, BorderLayout.CENTER);
 
-        JPanel centerPanel = new JPanel(new GridLayout(2, 1, 0, 3));
+        JPanel centerPanel = new JPanel(new GridLayout(3, 1, 0, 3));
         centerPanel.setBackground(CARD_BACKGROUND);
 
-        JLabel nameLabel = new JLabel(name);
+        JLabel nameLabel = new JLabel(rule.name);
         nameLabel.setFont(new Font("Segoe UI", Font.BOLD, 14));
-        nameLabel.setForeground(Color.decode(color));
+        nameLabel.setForeground(rule.color);
 
-        JLabel patternLabel = new JLabel("Pattern: " + pattern);
+        JLabel patternLabel = new JLabel("Pattern: " + rule.pattern);
         patternLabel.setFont(new Font("Segoe UI", Font.PLAIN, 13));
         patternLabel.setForeground(new Color(100, 100, 100));
 
+        JLabel statsLabel = new JLabel(" ");
+        statsLabel.setFont(new Font("Segoe UI", Font.PLAIN, 12));
+        statsLabel.setForeground(new Color(130, 130, 130));
+        statsLabels.put(id, statsLabel);
+
         centerPanel.add(nameLabel);
         centerPanel.add(patternLabel);
+        centerPanel.add(statsLabel);
 
         JPanel rightPanel = new JPanel(new FlowLayout(FlowLayout.RIGHT, 5, 0));
         rightPanel.setBackground(CARD_BACKGROUND);
@@ -356,7 +372,7 @@ public class FilterView extends JPanel {
         editButton.setFont(BUTTON_FONT);
         editButton.setFocusPainted(false);
         editButton.setMargin(new Insets(4, 8, 4, 8));
-        editButton.addActionListener(e -> editFilterDialog(id, name, pattern, color));
+        editButton.addActionListener(e -> editFilterDialog(id, rule.name, rule.pattern, rule.getHexColor()));
 
         JButton deleteButton = new JButton("Supprimer");
         deleteButton.setFont(BUTTON_FONT);
@@ -409,64 +425,19 @@ public class FilterView extends JPanel {
         );
 
         if (confirm == JOptionPane.YES_OPTION) {
-            try (Connection conn = DriverManager.getConnection(DatabaseManager.getDbUrl())) {
-                PreparedStatement ps = conn.prepareStatement("DELETE FROM custom_filter WHERE id = ?");
-                ps.setInt(1, id);
-                ps.executeUpdate();
-                filterStates.remove(id);
-                loadFilters();
-            } catch (SQLException e) {
-                showError("Erreur lors de la suppression du filtre: " + e.getMessage());
-            }
+            repository.delete(id);
         }
     }
 
     /**
-     * Notifie le callback en lui transmettant les filtres actifs.
+     * Transmet les filtres actifs, compilés par le référentiel, au callback.
      */
     private void triggerUpdate() {
         if (onFiltersUpdated != null) {
-            onFiltersUpdated.accept(getActiveFilters());
+            onFiltersUpdated.accept(publishedFilters);
         }
     }
 
-    /**
-     * Récupère tous les filtres actuellement activés dans l’interface.
-     *
-     * @return liste des filtres actifs.
-     */
-    private List<FilterRule> getActiveFilters() {
-        List<FilterRule> result = new ArrayList<>();
-
-        for (Component comp : filterListPanel.getComponents()) {
-            if (comp instanceof JPanel panel) {
-                Component[] children = panel.getComponents();
-                if (children.length > 0 && children[0] instanceof JPanel leftPanel) {
-                    Component[] leftChildren = leftPanel.getComponents();
-                    if (leftChildren.length > 0 && leftChildren[0] instanceof JCheckBox cb && cb.isSelected()) {
-                        if (children.length > 1 && children[1] instanceof JPanel centerPanel) {
-                            Component[] centerChildren = centerPanel.getComponents();
-                            if (centerChildren.length > 1) {
-                                JLabel nameLabel = (JLabel) centerChildren[0];
-                                JLabel patternLabel = (JLabel) centerChildren[1];
-
-                                String pattern = patternLabel.getText().replace("Pattern: ", "");
-                                String colorHex = String.format("#%02x%02x%02x",
-                                        nameLabel.getForeground().getRed(),
-                                        nameLabel.getForeground().getGreen(),
-                                        nameLabel.getForeground().getBlue());
-
-                                result.add(new FilterRule(pattern, colorHex));
-                            }
-                        }
-                    }
-                }
-            }
-        }
-
-        return result;
-    }
-
     /**
      * Affiche une boîte de dialogue pour ajouter un nouveau filtre personnalisé.
      */
@@ -573,22 +544,19 @@ public class FilterView extends JPanel {
                 return;
             }
 
+            String expressionError = FilterExpression.validate(pattern);
+            if (expressionError != null) {
+                showError(expressionError);
+                return;
+            }
+
             try {
                 // Valider la couleur
                 Color.decode(color);
 
-                // Ajouter le filtre à la base de données
-                try (Connection conn = DriverManager.getConnection(DatabaseManager.getDbUrl())) {
-                    PreparedStatement ps = conn.prepareStatement("INSERT INTO custom_filter (name, pattern, color) VALUES (?, ?, ?)");
-                    ps.setString(1, name);
-                    ps.setString(2, pattern);
-                    ps.setString(3, color);
-                    ps.executeUpdate();
-                    loadFilters();
-                    showSuccess("Filtre ajouté avec succès.");
-                } catch (SQLException e) {
-                    showError("Erreur lors de l'ajout du filtre: " + e.getMessage());
-                }
+                // Ajouter le filtre (écrit en base en arrière-plan)
+                repository.add(name, pattern, color);
+                showSuccess("Filtre ajouté avec succès.");
             } catch (NumberFormatException e) {
                 showError("Format de couleur invalide. Utilisez le format #RRGGBB.");
             }
@@ -707,23 +675,19 @@ public class FilterView extends JPanel {
                 return;
             }
 
+            String expressionError = FilterExpression.validate(newPattern);
+            if (expressionError != null) {
+                showError(expressionError);
+                return;
+            }
+
             try {
                 // Valider la couleur
                 Color.decode(newColor);
 
-                // Mettre à jour le filtre dans la base de données
-                try (Connection conn = DriverManager.getConnection(DatabaseManager.getDbUrl())) {
-                    PreparedStatement ps = conn.prepareStatement("UPDATE custom_filter SET name=?, pattern=?, color=? WHERE id=?");
-                    ps.setString(1, newName);
-                    ps.setString(2, newPattern);
-                    ps.setString(3, newColor);
-                    ps.setInt(4, id);
-                    ps.executeUpdate();
-                    loadFilters();
-                    showSuccess("Filtre mis à jour avec succès.");
-                } catch (SQLException e) {
-                    showError("Erreur lors de la mise à jour du filtre: " + e.getMessage());
-                }
+                // Mettre à jour le filtre (écrit en base en arrière-plan)
+                repository.update(id, newName, newPattern, newColor);
+                showSuccess("Filtre mis à jour avec succès.");
             } catch (NumberFormatException e) {
                 showError("Format de couleur invalide. Utilisez le format #RRGGBB.");
             }
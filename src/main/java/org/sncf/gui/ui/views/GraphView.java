@@ -1,11 +1,25 @@
 package org.sncf.gui.ui.views;
 
-import org.sncf.gui.model.FilterRule;
+import org.sncf.gui.model.BitPyramid;
+import org.sncf.gui.model.BitStore;
+import org.sncf.gui.model.FrameIndex;
+import org.sncf.gui.services.filter.BitFilterRuns;
+import org.sncf.gui.services.filter.FilterSet;
+import org.sncf.gui.ui.components.WaveformTileCache;
 
 import javax.swing.*;
 import java.awt.*;
-import java.util.ArrayList;
+import java.awt.event.ActionEvent;
+import java.awt.event.ComponentAdapter;
+import java.awt.event.ComponentEvent;
+import java.awt.event.KeyEvent;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+import java.awt.event.MouseWheelEvent;
+import java.awt.image.BufferedImage;
+import java.util.Arrays;
 import java.util.List;
+import java.util.function.IntConsumer;
 
 /**
  * Composant Swing personnalisée représentant une vue graphique des trames binaires.
@@ -17,19 +31,57 @@ import java.util.List;
  *     <li>Des surlignages colorés en fonction de filtres binaires appliqués</li>
  * </ul>
  * <p>
- * Les filtres sont fournis via des instances de {@link FilterRule}, et seuls
- * les motifs binaires sont reconnus pour la coloration.
+ * Les filtres sont fournis sous forme compilée ({@link FilterSet}), et seuls
+ * les motifs binaires sont reconnus pour la coloration. Leurs correspondances sont
+ * recherchées une seule fois, au fil de l'arrivée des bits ({@link BitFilterRuns}),
+ * y compris à cheval sur plusieurs trames.
+ * <p>
+ * Un clic sélectionne la trame sous le curseur ; les flèches gauche/droite passent
+ * à la trame précédente/suivante, Début/Fin à la première/dernière. La trame sous
+ * un point est retrouvée par recherche dichotomique dans un {@link FrameIndex}.
+ * <p>
+ * Les bits sont conservés empaquetés dans un {@link BitStore}. La zone de dessin a la
+ * largeur de la fenêtre et une barre de défilement indique le premier bit affiché :
+ * seuls les bits compris dans la zone à repeindre sont dessinés, et la taille de la
+ * capture n'intervient dans aucun calcul de coordonnées en pixels.
+ * <p>
+ * Le zoom (boutons, touches +/−, Ctrl+molette) va du détail bit à bit jusqu'à la capture
+ * entière. En dessous de deux pixels par bit, chaque colonne
+ * de pixels est dessinée à partir des résumés de la {@link BitPyramid} : le coût d'un
+ * rendu dépend de la largeur de l'écran, pas de la taille de la capture. Un bandeau
+ * de vue d'ensemble montre toute la capture et la portion affichée ; un clic s'y positionne.
+ * <p>
+ * Le rendu est découpé en tuiles mises en cache ({@link WaveformTileCache}) : un défilement
+ * ne fait que recopier des images, et seules les tuiles touchées par de nouveaux bits ou par
+ * un changement de filtres binaires sont redessinées.
  */
 public class GraphView extends JPanel {
-    private final List<Integer> bits = new ArrayList<>();
-    private final List<Integer> frameBoundaries = new ArrayList<>();
-    private int bitWidth = 20;
+    private static final Color SELECTION_COLOR = new Color(255, 200, 100, 128);
+    private static final Color VIEWPORT_COLOR = new Color(255, 200, 100, 110);
+    private static final int ORIGIN_X = 40;
+    private static final int PLOT_MARGIN = 20;
+    private static final double DEFAULT_PIXELS_PER_BIT = 20;
+    private static final double MAX_PIXELS_PER_BIT = 40;
+    private static final double DETAIL_PIXELS_PER_BIT = 2;
+    private static final int LABEL_MARGIN = 80;
+    private static final double MAX_SURFACE_X = 1 << 20;
+
+    private final BitStore bits = new BitStore();
+    private final FrameIndex frameIndex = bits.frames();
+    private final BitPyramid.Summary summary = new BitPyramid.Summary();
+    private int selectedFrame = -1;
+    private IntConsumer onFrameSelected;
+    private double pixelsPerBit = DEFAULT_PIXELS_PER_BIT;
     private final JPanel graphPanel;
+    private final JPanel overviewPanel;
+    private final JScrollBar scrollBar = new JScrollBar(JScrollBar.HORIZONTAL);
     private double bitDurationMs = 1.0;
-    private List<FilterRule> activeFilters = new ArrayList<>();
+    private final BitFilterRuns filterRuns = new BitFilterRuns();
+    private final WaveformTileCache tileCache = new WaveformTileCache();
 
     /**
-     * Initialise la vue graphique avec une zone défilante et un bouton de réinitialisation.
+     * Initialise la vue graphique avec une zone défilante, les commandes de zoom,
+     * un bandeau de vue d'ensemble et un bouton de réinitialisation.
      */
     public GraphView() {
         setLayout(new BorderLayout());
@@ -38,18 +90,26 @@ public class GraphView extends JPanel {
         JButton resetButton = new JButton("Réinitialiser le graphique");
         resetButton.addActionListener(e -> clear());
 
+        JButton zoomInButton = new JButton("Zoom +");
+        zoomInButton.addActionListener(e -> zoomAtCenter(2));
+        JButton zoomOutButton = new JButton("Zoom −");
+        zoomOutButton.addActionListener(e -> zoomAtCenter(0.5));
+        JButton fitButton = new JButton("Tout afficher");
+        fitButton.addActionListener(e -> zoomToFit());
+
         JPanel topPanel = new JPanel(new FlowLayout(FlowLayout.LEFT));
         topPanel.add(resetButton);
+        topPanel.add(zoomInButton);
+        topPanel.add(zoomOutButton);
+        topPanel.add(fitButton);
 
         add(topPanel, BorderLayout.NORTH); // Ce panel ne scrollera pas
 
-        // GraphPanel : zone scrollable
+        // GraphPanel : fenêtre sur le flux de bits, positionnée par la barre de défilement
         graphPanel = new JPanel() {
             @Override
             public Dimension getPreferredSize() {
-                int baseWidth = 600;
-                int width = Math.max(baseWidth, 100 + bits.size() * bitWidth);
-                return new Dimension(width, 600);
+                return new Dimension(600, 600);
             }
 
             @Override
@@ -59,14 +119,74 @@ public class GraphView extends JPanel {
             }
         };
         graphPanel.setBackground(Color.WHITE);
+        graphPanel.setFocusable(true);
+        graphPanel.addMouseListener(new MouseAdapter() {
+            @Override
+            public void mousePressed(MouseEvent e) {
+                graphPanel.requestFocusInWindow();
+                long bit = bitAt(e.getX());
+                int frame = bit >= 0 && bit < bits.size() ? frameIndex.frameAt((int) bit) : -1;
+                if (frame != -1) selectFrame(frame, true);
+            }
+        });
+        graphPanel.addMouseWheelListener(this::onMouseWheel);
+        graphPanel.addComponentListener(new ComponentAdapter() {
+            @Override
+            public void componentResized(ComponentEvent e) {
+                updateScrollBar(false);
+            }
+        });
+        bindKey(KeyEvent.VK_LEFT, "previousFrame", () -> navigateFrame(-1));
+        bindKey(KeyEvent.VK_RIGHT, "nextFrame", () -> navigateFrame(1));
+        bindKey(KeyEvent.VK_HOME, "firstFrame", () -> selectFrame(0, true));
+        bindKey(KeyEvent.VK_END, "lastFrame", () -> selectFrame(frameIndex.size() - 1, true));
+        bindKey(KeyEvent.VK_ADD, "zoomIn", () -> zoomAtCenter(2));
+        bindKey(KeyEvent.VK_PLUS, "zoomIn", () -> zoomAtCenter(2));
+        bindKey(KeyEvent.VK_EQUALS, "zoomIn", () -> zoomAtCenter(2));
+        bindKey(KeyEvent.VK_SUBTRACT, "zoomOut", () -> zoomAtCenter(0.5));
+        bindKey(KeyEvent.VK_MINUS, "zoomOut", () -> zoomAtCenter(0.5));
+
+        // Bandeau de vue d'ensemble : toute la capture sur la largeur de la fenêtre
+        overviewPanel = new JPanel() {
+            @Override
+            public Dimension getPreferredSize() {
+                return new Dimension(600, 48);
+            }
+
+            @Override
+            protected void paintComponent(Graphics g) {
+                super.paintComponent(g);
+                drawOverview((Graphics2D) g);
+            }
+        };
+        overviewPanel.setBackground(new Color(245, 245, 245));
+        overviewPanel.setToolTipText("Vue d'ensemble : cliquer pour se positionner");
+        MouseAdapter overviewMouse = new MouseAdapter() {
+            @Override
+            public void mousePressed(MouseEvent e) {
+                centerOnOverview(e.getX());
+            }
+
+            @Override
+            public void mouseDragged(MouseEvent e) {
+                centerOnOverview(e.getX());
+            }
+        };
+        overviewPanel.addMouseListener(overviewMouse);
+        overviewPanel.addMouseMotionListener(overviewMouse);
 
-        // Seul ce scrollPane défile
-        JScrollPane scrollPane = new JScrollPane(graphPanel,
-                JScrollPane.VERTICAL_SCROLLBAR_NEVER,
-                JScrollPane.HORIZONTAL_SCROLLBAR_AS_NEEDED);
-        scrollPane.getViewport().setBackground(Color.WHITE);
+        scrollBar.addAdjustmentListener(e -> {
+            graphPanel.repaint();
+            overviewPanel.repaint();
+        });
 
-        add(scrollPane, BorderLayout.CENTER); // Scrollable uniquement ici
+        JPanel bottomPanel = new JPanel(new BorderLayout());
+        bottomPanel.add(overviewPanel, BorderLayout.CENTER);
+        bottomPanel.add(scrollBar, BorderLayout.SOUTH);
+
+        add(graphPanel, BorderLayout.CENTER);
+        add(bottomPanel, BorderLayout.SOUTH);
+        updateScrollBar(false);
     }
 
     /**
@@ -76,14 +196,31 @@ public class GraphView extends JPanel {
      * @param bitString chaîne de caractères composée de '0' et '1'.
      */
     public void appendBits(String bitString) {
-        for (char c : bitString.toCharArray()) {
-            if (c == '0' || c == '1') {
-                bits.add(c - '0');
-            }
+        appendBits(List.of(bitString));
+    }
+
+    /**
+     * Ajoute un lot de trames binaires puis redessine le graphique une seule fois.
+     * Si la fin du signal était affichée, l'affichage la suit.
+     *
+     * @param bitStrings chaînes de bits reçues, dans l'ordre d'arrivée.
+     */
+    public void appendBits(List<String> bitStrings) {
+        boolean followTail = scrollBar.getValue() + scrollBar.getVisibleAmount() >= bits.size();
+        // Le dernier bit connu change d'aspect (transition vers le suivant) : invalidation à partir de lui
+        long dirtyFrom = Math.max(0, bits.size() - 1L);
+        try {
+            bits.appendFrames(bitStrings);
+        } catch (IllegalStateException e) {
+            System.err.println("❌ Graphique saturé : " + e.getMessage());
         }
-        frameBoundaries.add(bits.size());
-        graphPanel.revalidate();
+        // Une correspondance à joker terminée par les nouveaux bits peut colorer des bits plus anciens
+        int firstNewRun = filterRuns.update(bits);
+        if (firstNewRun >= 0) dirtyFrom = Math.min(dirtyFrom, firstNewRun);
+        tileCache.invalidateFromBit(dirtyFrom, LABEL_MARGIN);
+        updateScrollBar(followTail);
         graphPanel.repaint();
+        overviewPanel.repaint();
     }
 
     /**
@@ -91,19 +228,224 @@ public class GraphView extends JPanel {
      */
     public void clear() {
         bits.clear();
-        frameBoundaries.clear();
-        graphPanel.setPreferredSize(new Dimension(100, 600));
-        graphPanel.revalidate();
+        filterRuns.clear();
+        tileCache.clear();
+        selectedFrame = -1;
+        pixelsPerBit = DEFAULT_PIXELS_PER_BIT;
+        updateScrollBar(false);
+        scrollBar.setValue(0);
+        graphPanel.repaint();
+        overviewPanel.repaint();
+    }
+
+    /**
+     * Sélectionne une trame et fait défiler le graphique jusqu'à son début, sans notifier
+     * {@link #setOnFrameSelected(IntConsumer)} : utilisé pour suivre une autre vue.
+     *
+     * @param frame indice de la trame (à partir de 0) ; ignoré s'il est hors du graphique.
+     */
+    public void selectFrame(int frame) {
+        selectFrame(frame, false);
+    }
+
+    /**
+     * Définit l'action déclenchée quand l'utilisateur sélectionne une trame dans le graphique.
+     *
+     * @param onFrameSelected reçoit l'indice de la trame sélectionnée (à partir de 0).
+     */
+    public void setOnFrameSelected(IntConsumer onFrameSelected) {
+        this.onFrameSelected = onFrameSelected;
+    }
+
+    private void selectFrame(int frame, boolean notify) {
+        if (frame < 0 || frame >= frameIndex.size()) return;
+        selectedFrame = frame;
+        int start = frameIndex.startOf(frame);
+        int end = frameIndex.endOf(frame);
+        int first = scrollBar.getValue();
+        int visible = visibleBitCount();
+        if (start < first || (long) end > (long) first + visible) {
+            scrollBar.setValue(Math.max(0, start - Math.max(2, visible / 50)));
+        }
+        graphPanel.repaint();
+        overviewPanel.repaint();
+        if (notify && onFrameSelected != null) onFrameSelected.accept(frame);
+    }
+
+    private void navigateFrame(int delta) {
+        if (frameIndex.size() == 0) return;
+        int target = selectedFrame == -1
+                ? (delta > 0 ? 0 : frameIndex.size() - 1)
+                : Math.max(0, Math.min(frameIndex.size() - 1, selectedFrame + delta));
+        selectFrame(target, true);
+    }
+
+    private void bindKey(int keyCode, String name, Runnable action) {
+        graphPanel.getInputMap(JComponent.WHEN_FOCUSED).put(KeyStroke.getKeyStroke(keyCode, 0), name);
+        graphPanel.getActionMap().put(name, new AbstractAction() {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                action.run();
+            }
+        });
+    }
+
+    /**
+     * Molette : défilement horizontal ; avec Ctrl : zoom autour du curseur.
+     */
+    private void onMouseWheel(MouseWheelEvent e) {
+        if (e.isControlDown()) {
+            zoom(e.getWheelRotation() < 0 ? 2 : 0.5, e.getX());
+        } else {
+            scrollBar.setValue(scrollBar.getValue() + e.getWheelRotation() * Math.max(1, visibleBitCount() / 10));
+        }
+    }
+
+    private void zoomAtCenter(double factor) {
+        zoom(factor, graphPanel.getWidth() / 2);
+    }
+
+    /**
+     * Change l'échelle en gardant immobile le bit situé sous l'abscisse {@code anchorX}.
+     * Le zoom arrière s'arrête lorsque toute la capture est visible.
+     *
+     * @param factor  facteur appliqué au nombre de pixels par bit.
+     * @param anchorX abscisse de référence dans la zone de dessin.
+     */
+    private void zoom(double factor, int anchorX) {
+        double anchorBit = scrollBar.getValue() + (anchorX - plotStartX()) / pixelsPerBit;
+        double target = pixelsPerBit * factor;
+        if (factor < 1) {
+            target = Math.max(target, Math.min(pixelsPerBit, fitPixelsPerBit()));
+        }
+        pixelsPerBit = Math.min(MAX_PIXELS_PER_BIT, target);
+        updateScrollBar(false);
+        scrollBar.setValue((int) Math.max(0, Math.min(Integer.MAX_VALUE, anchorBit - (anchorX - plotStartX()) / pixelsPerBit)));
         graphPanel.repaint();
+        overviewPanel.repaint();
+    }
+
+    /**
+     * Affiche toute la capture dans la largeur de la fenêtre.
+     */
+    private void zoomToFit() {
+        pixelsPerBit = Math.min(DEFAULT_PIXELS_PER_BIT, fitPixelsPerBit());
+        updateScrollBar(false);
+        scrollBar.setValue(0);
+        graphPanel.repaint();
+        overviewPanel.repaint();
+    }
+
+    /**
+     * @return échelle à laquelle toute la capture tient dans la zone de dessin.
+     */
+    private double fitPixelsPerBit() {
+        return Math.max(1, graphPanel.getWidth() - plotStartX()) / (double) Math.max(1, bits.size());
+    }
+
+    /**
+     * Positionne la vue principale sur le point cliqué du bandeau de vue d'ensemble.
+     */
+    private void centerOnOverview(int x) {
+        int width = Math.max(1, overviewPanel.getWidth());
+        long bit = (long) Math.max(0, Math.min(x, width)) * bits.size() / width;
+        scrollBar.setValue((int) Math.max(0, bit - visibleBitCount() / 2));
+    }
+
+    /**
+     * Ajuste la barre de défilement au nombre de bits et à la largeur de la zone de dessin.
+     *
+     * @param toTail true pour afficher la fin du signal.
+     */
+    private void updateScrollBar(boolean toTail) {
+        int extent = visibleBitCount();
+        int max = Math.max(bits.size(), extent);
+        int value = toTail ? max - extent : Math.min(scrollBar.getValue(), max - extent);
+        scrollBar.setValues(value, extent, 0, max);
+        scrollBar.setUnitIncrement(Math.max(1, extent / 20));
+        scrollBar.setBlockIncrement(Math.max(1, extent - 1));
+    }
+
+    private int plotStartX() {
+        return ORIGIN_X + PLOT_MARGIN;
+    }
+
+    /**
+     * @return nombre de bits entièrement visibles dans la zone de dessin.
+     */
+    private int visibleBitCount() {
+        double bitsOnScreen = (graphPanel.getWidth() - plotStartX()) / pixelsPerBit;
+        return (int) Math.max(1, Math.min(Integer.MAX_VALUE, bitsOnScreen));
+    }
+
+    /**
+     * Décalage entre pixels absolus (position du bit × pixels par bit) et abscisses
+     * de la zone de dessin.
+     */
+    private long screenShift() {
+        return Math.round(scrollBar.getValue() * pixelsPerBit) - plotStartX();
+    }
+
+    /**
+     * @param x abscisse dans la zone de dessin.
+     * @return position dans le flux du bit affiché à cette abscisse (éventuellement hors du flux).
+     */
+    private long bitAt(int x) {
+        return bitAt(x, screenShift());
+    }
+
+    /**
+     * @param bit position d'un bit dans le flux.
+     * @return abscisse de son début dans la zone de dessin, bornée pour rester représentable.
+     */
+    private int xOf(long bit) {
+        return xOf(bit, screenShift());
+    }
+
+    /**
+     * @param x     abscisse sur la surface de dessin.
+     * @param shift pixel absolu correspondant à l'abscisse 0 de la surface.
+     * @return position du bit dessiné à cette abscisse.
+     */
+    private long bitAt(int x, long shift) {
+        return (long) Math.floor((x + shift) / pixelsPerBit);
+    }
+
+    /**
+     * @param bit   position d'un bit dans le flux.
+     * @param shift pixel absolu correspondant à l'abscisse 0 de la surface.
+     * @return abscisse du début du bit sur la surface, bornée pour rester représentable.
+     */
+    private int xOf(long bit, long shift) {
+        double x = bit * pixelsPerBit - shift;
+        return (int) Math.round(Math.max(-MAX_SURFACE_X, Math.min(x, MAX_SURFACE_X)));
+    }
+
+    /**
+     * Pas de la grille verticale, en bits : 1, 2 ou 5 × 10^k, pour un écart d'au moins 10 pixels.
+     */
+    private long gridStep() {
+        double minBits = 10 / pixelsPerBit;
+        long step = 1;
+        while (true) {
+            if (step >= minBits) return step;
+            if (2 * step >= minBits) return 2 * step;
+            if (5 * step >= minBits) return 5 * step;
+            step *= 10;
+        }
     }
 
     /**
-     * Applique une nouvelle liste de filtres actifs.
+     * Applique une nouvelle liste de filtres actifs. Seules les règles binaires jamais
+     * appliquées sont recherchées dans tout le flux (voir {@link BitFilterRuns}), et seules
+     * les tuiles dessinées avec d'autres filtres binaires sont invalidées.
      *
-     * @param filters liste de règles de filtrage (peut être {@code null} ou vide).
+     * @param filters filtres actifs compilés.
      */
-    public void setFilters(List<FilterRule> filters) {
-        this.activeFilters = filters != null ? filters : new ArrayList<>();
+    public void setFilters(FilterSet filters) {
+        if (filters.getBitSignature().equals(filterRuns.getSignature())) return;
+        filterRuns.setFilters(filters, bits);
+        tileCache.retainFilterSignature(filterRuns.getSignature());
         graphPanel.repaint();
     }
 
@@ -111,16 +453,17 @@ public class GraphView extends JPanel {
      * Méthode de rendu du graphique. Affiche :
      * <ul>
      *     <li>Les lignes de signal (0 ou 1)</li>
-     *     <li>Les filtres appliqués en couleurs spécifiques</li>
+     *     <li>Les filtres appliqués en couleurs spécifiques (au niveau de détail bit à bit)</li>
      *     <li>Les séparateurs entre trames</li>
      *     <li>Des étiquettes indicatives (temps, bit, etc.)</li>
      * </ul>
+     * Le signal, la grille verticale et les marqueurs de trames proviennent de tuiles
+     * pré-rendues ({@link WaveformTileCache}) : seules les tuiles absentes du cache sont
+     * dessinées, les autres sont simplement recopiées.
      *
      * @param g2d le contexte graphique utilisé pour dessiner.
      */
     private void drawGraph(Graphics2D g2d) {
-        g2d.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
-
         int width = graphPanel.getWidth();
         int height = graphPanel.getHeight();
         int gridSpacingY = 40;
@@ -128,80 +471,146 @@ public class GraphView extends JPanel {
         int bitAreaHeight = height / 2;
         int topMargin = centerY - bitAreaHeight / 2;
         int bottomMargin = centerY + bitAreaHeight / 2;
-        int x = 40 + bitWidth;
+
+        Rectangle clip = g2d.getClipBounds();
+        if (clip == null) clip = new Rectangle(0, 0, width, height);
 
         g2d.setColor(new Color(200, 200, 200));
         g2d.setStroke(new BasicStroke(1));
         for (int y = 0; y <= height; y += gridSpacingY) {
-            g2d.drawLine(0, y, width, y);
+            g2d.drawLine(clip.x, y, clip.x + clip.width, y);
         }
+
+        // Tuiles recouvrant la zone à repeindre, à droite de l'axe
+        long shift = screenShift();
+        int left = Math.max(clip.x, ORIGIN_X);
+        int right = Math.min(width, clip.x + clip.width);
+        if (left < right) {
+            Graphics2D tilesGraphics = (Graphics2D) g2d.create();
+            tilesGraphics.clipRect(left, 0, right - left, height);
+            long firstTile = Math.floorDiv(left + shift, WaveformTileCache.TILE_WIDTH);
+            long lastTile = Math.floorDiv(right - 1 + shift, WaveformTileCache.TILE_WIDTH);
+            for (long tile = firstTile; tile <= lastTile; tile++) {
+                int tileX = (int) (tile * WaveformTileCache.TILE_WIDTH - shift);
+                tilesGraphics.drawImage(tileImage(tile, height), tileX, 0, null);
+            }
+            tilesGraphics.dispose();
+        }
+
+        g2d.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+        g2d.setColor(Color.GRAY);
+        g2d.setStroke(new BasicStroke(1));
+        g2d.drawLine(ORIGIN_X, topMargin, ORIGIN_X, bottomMargin);
+        g2d.drawLine(ORIGIN_X, centerY, width - ORIGIN_X, centerY);
+
+        g2d.setFont(new Font("SansSerif", Font.PLAIN, 14));
+        g2d.drawString("1", 20, topMargin + 5);
+        g2d.drawString("0", 20, bottomMargin + 5);
+        g2d.drawString("Temps →", width - 80, centerY + 20);
+        g2d.drawString("Bit", 5, centerY - 60);
+
+        if (selectedFrame != -1) {
+            int startX = Math.max(ORIGIN_X, xOf(frameIndex.startOf(selectedFrame)));
+            int endX = xOf(frameIndex.endOf(selectedFrame));
+            g2d.setColor(SELECTION_COLOR);
+            g2d.fillRect(startX, 0, Math.max(1, endX - startX), height);
+        }
+    }
+
+    /**
+     * Retourne une tuile du graphique, en la dessinant si elle n'est pas en cache.
+     *
+     * @param tile   indice de la tuile dans l'espace des pixels absolus.
+     * @param height hauteur de la zone de dessin.
+     */
+    private BufferedImage tileImage(long tile, int height) {
+        // Les filtres ne sont dessinés qu'au niveau de détail bit à bit
+        String signature = pixelsPerBit >= DETAIL_PIXELS_PER_BIT ? filterRuns.getSignature() : "";
+        WaveformTileCache.Key key = new WaveformTileCache.Key(pixelsPerBit, signature, height, tile);
+        BufferedImage image = tileCache.get(key);
+        if (image == null) {
+            image = new BufferedImage(WaveformTileCache.TILE_WIDTH, Math.max(1, height), BufferedImage.TYPE_INT_ARGB);
+            Graphics2D tileGraphics = image.createGraphics();
+            drawContent(tileGraphics, tile * WaveformTileCache.TILE_WIDTH, WaveformTileCache.TILE_WIDTH, height);
+            tileGraphics.dispose();
+            tileCache.put(key, image);
+        }
+        return image;
+    }
+
+    /**
+     * Dessine sur une surface de {@code surfaceWidth} pixels la grille verticale, les étiquettes
+     * de temps, le signal et les marqueurs de trames. Seuls les bits couvrant la surface
+     * (plus une marge pour les étiquettes qui débordent) sont parcourus.
+     *
+     * @param shift pixel absolu correspondant à l'abscisse 0 de la surface.
+     */
+    private void drawContent(Graphics2D g2d, long shift, int surfaceWidth, int height) {
+        g2d.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+        int gridSpacingY = 40;
+        int centerY = (height / 2 / gridSpacingY) * gridSpacingY;
+        int bitAreaHeight = height / 2;
+        int topMargin = centerY - bitAreaHeight / 2;
+        int bottomMargin = centerY + bitAreaHeight / 2;
+
+        // Plage [fromBit, toBit) couverte par la surface, élargie pour les étiquettes qui débordent
+        long fromBit = Math.max(0, bitAt(-LABEL_MARGIN, shift));
+        long toBit = Math.max(fromBit, bitAt(surfaceWidth, shift) + 2);
+
         g2d.setColor(new Color(200, 200, 200));
         g2d.setStroke(new BasicStroke(1));
         g2d.setFont(new Font("SansSerif", Font.PLAIN, 10));
 
-        int xGrid = 40 + bitWidth;
-        int bitIndex = 0;
-
-        while (xGrid <= width) {
+        long gridStep = gridStep();
+        long labelStep = gridStep * 10;
+        for (long bitIndex = (fromBit + gridStep - 1) / gridStep * gridStep; bitIndex <= toBit; bitIndex += gridStep) {
+            int xGrid = xOf(bitIndex, shift);
+            if (xGrid > surfaceWidth + LABEL_MARGIN) break;
             g2d.drawLine(xGrid, 0, xGrid, height);
 
-            if (bitIndex % 10 == 0) {
+            if (bitIndex % labelStep == 0) {
                 // Tick vertical centré autour de l'axe horizontal
                 g2d.setColor(Color.BLACK);
                 g2d.drawLine(xGrid, centerY - 5, xGrid, centerY + 5);
 
                 // Étiquette de temps
-                int timeMs = (int) (bitIndex * bitDurationMs);
+                long timeMs = (long) (bitIndex * bitDurationMs);
                 g2d.drawString(timeMs + " ms", xGrid - 15, centerY + 40);
 
                 g2d.setColor(new Color(200, 200, 200));
             }
+        }
 
-            xGrid += bitWidth;
-            bitIndex++;
+        int from = (int) Math.min(fromBit, bits.size());
+        int visibleEnd = (int) Math.min(toBit, bits.size());
+        if (from < visibleEnd) {
+            if (pixelsPerBit >= DETAIL_PIXELS_PER_BIT) {
+                drawBits(g2d, shift, from, visibleEnd, topMargin, bottomMargin);
+            } else {
+                drawSummaries(g2d, shift, surfaceWidth, topMargin, bottomMargin);
+            }
         }
 
-        g2d.setColor(Color.GRAY);
-        g2d.setStroke(new BasicStroke(1));
-        g2d.drawLine(40, topMargin, 40, bottomMargin);
-        g2d.drawLine(40, centerY, width - 40, centerY);
+        drawFrameMarkers(g2d, shift, from, (int) Math.min(toBit, Integer.MAX_VALUE), surfaceWidth, height, centerY);
+    }
 
-        g2d.setFont(new Font("SansSerif", Font.PLAIN, 14));
-        g2d.drawString("1", 20, topMargin + 5);
-        g2d.drawString("0", 20, bottomMargin + 5);
-        g2d.drawString("Temps →", width - 80, centerY + 20);
-        g2d.drawString("Bit", 5, centerY - 60);
+    /**
+     * Dessine le signal bit à bit, avec la coloration des filtres binaires.
+     */
+    private void drawBits(Graphics2D g2d, long shift, int fromBit, int visibleEnd, int topMargin, int bottomMargin) {
+        Color[] bitColors = new Color[visibleEnd - fromBit];
+        Arrays.fill(bitColors, Color.BLUE);
 
-        Color[] bitColors = new Color[bits.size()];
-        for (int i = 0; i < bits.size(); i++) {
-            bitColors[i] = Color.BLUE;
-        }
-
-        for (FilterRule rule : activeFilters) {
-            if (rule.pattern.matches("[01]+")) {
-                String pattern = rule.pattern;
-                int len = pattern.length();
-                for (int i = 0; i <= bits.size() - len; ) {
-                    boolean match = true;
-                    for (int j = 0; j < len; j++) {
-                        if (bits.get(i + j) != (pattern.charAt(j) - '0')) {
-                            match = false;
-                            break;
-                        }
-                    }
-                    if (match) {
-                        for (int j = 0; j < len; j++) {
-                            bitColors[i + j] = rule.color;
-                        }
-                        i += len;
-                    } else {
-                        i++;
-                    }
-                }
-            }
-        }
-
-        for (int i = 0; i < bits.size(); i++) {
+        filterRuns.forEachRun(fromBit, visibleEnd, (color, start, end) -> {
+            for (int j = Math.max(start, fromBit); j < Math.min(end, visibleEnd); j++) {
+                bitColors[j - fromBit] = color;
+            }
+        });
+
+        g2d.setStroke(new BasicStroke(2));
+        for (int i = fromBit; i < visibleEnd; i++) {
+            int x = xOf(i, shift);
+            int nextX = xOf(i + 1L, shift);
             int currentBit = bits.get(i);
             int y = currentBit == 1 ? topMargin : bottomMargin;
             int nextY = y;
@@ -210,32 +619,73 @@ public class GraphView extends JPanel {
                 nextY = nextBit == 1 ? topMargin : bottomMargin;
             }
 
-            g2d.setColor(bitColors[i]);
-            g2d.setStroke(new BasicStroke(2));
-            g2d.drawLine(x, y, x + bitWidth, y);
+            g2d.setColor(bitColors[i - fromBit]);
+            g2d.drawLine(x, y, nextX, y);
             if (i < bits.size() - 1 && nextY != y) {
-                g2d.drawLine(x + bitWidth, y, x + bitWidth, nextY);
+                g2d.drawLine(nextX, y, nextX, nextY);
             }
+        }
+    }
 
-            x += bitWidth;
+    /**
+     * Dessine le signal à faible résolution : une colonne de pixels par résumé de la pyramide.
+     * Une colonne contenant des 0 et des 1 est tracée en trait vertical (enveloppe du signal).
+     */
+    private void drawSummaries(Graphics2D g2d, long shift, int surfaceWidth, int topMargin, int bottomMargin) {
+        BitPyramid pyramid = bits.pyramid();
+        int size = bits.size();
+        long firstStart = Math.max(0, bitAt(0, shift));
+        // Valeur du bit précédant la surface, pour tracer une transition tombant sur sa première colonne
+        int previousLast = firstStart > 0 && firstStart <= size ? bits.get((int) firstStart - 1) : -1;
+
+        g2d.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_OFF);
+        g2d.setStroke(new BasicStroke(1));
+        g2d.setColor(Color.BLUE);
+        for (int x = 0; x < surfaceWidth; x++) {
+            long start = Math.max(0, bitAt(x, shift));
+            long end = Math.min(size, bitAt(x + 1, shift));
+            if (start >= end) continue;
+            pyramid.summarize((int) start, (int) end, summary);
+            if (summary.min != summary.max || (previousLast != -1 && previousLast != summary.first)) {
+                g2d.drawLine(x, topMargin, x, bottomMargin);
+            }
+            if (summary.min == summary.max) {
+                int y = summary.max == 1 ? topMargin : bottomMargin;
+                g2d.drawLine(x, y, x + 1, y);
+            }
+            previousLast = summary.last;
         }
+        g2d.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+    }
+
+    /**
+     * Dessine les séparateurs et marqueurs "Start" des trames qui recoupent la plage [fromBit, toBit),
+     * lorsqu'elles sont assez espacées pour rester lisibles.
+     */
+    private void drawFrameMarkers(Graphics2D g2d, long shift, int fromBit, int toBit, int width, int height, int centerY) {
+        int frameCount = frameIndex.size();
+        if (frameCount == 0) return;
+        int firstFrame = frameIndex.frameAt(fromBit);
+        if (firstFrame == -1) {
+            if (fromBit < frameIndex.endOf(frameCount - 1)) return;
+            firstFrame = frameCount - 1; // seule la dernière limite peut encore être visible
+        }
+        // Inclut la trame précédente, dont la limite de fin peut tomber dans la zone
+        firstFrame = Math.max(0, firstFrame - 1);
+        int lastFrame = frameIndex.frameAt(Math.min(toBit, bits.size() - 1));
+        if (lastFrame != -1 && lastFrame - firstFrame > width / 8) return;
 
         g2d.setColor(Color.BLACK);
         g2d.setStroke(new BasicStroke(1.5f));
-        for (int boundaryIndex : frameBoundaries) {
-            int separatorX = 40 + bitWidth + boundaryIndex * bitWidth;
+        for (int frame = firstFrame; frame < frameCount && frameIndex.startOf(frame) <= toBit; frame++) {
+            int separatorX = xOf(frameIndex.endOf(frame), shift);
             g2d.drawLine(separatorX, 0, separatorX, height);
         }
 
         g2d.setFont(new Font("SansSerif", Font.BOLD, 12));
-        int previousEnd = 0;
-
-        for (int boundaryIndex : frameBoundaries) {
-            int startBitIndex = previousEnd;
-            int endBitIndex = boundaryIndex;
-
-            int startX = 40 + bitWidth + startBitIndex * bitWidth;
-            int endX = 40 + bitWidth + endBitIndex * bitWidth;
+        for (int frame = firstFrame; frame < frameCount && frameIndex.startOf(frame) <= toBit; frame++) {
+            int startX = xOf(frameIndex.startOf(frame), shift);
+            int endX = xOf(frameIndex.endOf(frame), shift);
 
             // Tracé du séparateur "Start"
             g2d.setColor(Color.RED);
@@ -243,8 +693,44 @@ public class GraphView extends JPanel {
             g2d.setColor(Color.BLACK);
             g2d.drawLine(startX, centerY - 4, startX, centerY + 4);
             g2d.drawLine(endX, centerY - 4, endX, centerY + 4);
+        }
+    }
 
-            previousEnd = boundaryIndex;
+    /**
+     * Dessine le bandeau de vue d'ensemble : l'enveloppe de toute la capture, teintée selon
+     * la densité de transitions, et la portion actuellement affichée.
+     */
+    private void drawOverview(Graphics2D g2d) {
+        int width = overviewPanel.getWidth();
+        int height = overviewPanel.getHeight();
+        int size = bits.size();
+        if (size == 0 || width == 0) return;
+
+        BitPyramid pyramid = bits.pyramid();
+        int top = 6;
+        int bottom = height - 6;
+        for (int x = 0; x < width; x++) {
+            int start = (int) ((long) x * size / width);
+            int end = (int) ((long) (x + 1) * size / width);
+            if (start >= end) continue;
+            pyramid.summarize(start, end, summary);
+            if (summary.min != summary.max) {
+                // Plus la colonne contient de transitions, plus elle est foncée
+                double density = Math.min(1, summary.transitions / (double) summary.length * 4);
+                g2d.setColor(new Color(0, 0, 255, 60 + (int) (195 * density)));
+                g2d.drawLine(x, top, x, bottom);
+            } else {
+                g2d.setColor(Color.BLUE);
+                int y = summary.max == 1 ? top : bottom;
+                g2d.drawLine(x, y, x, y);
+            }
         }
+
+        int viewStart = (int) ((long) scrollBar.getValue() * width / size);
+        int viewEnd = (int) (Math.min(size, (long) scrollBar.getValue() + visibleBitCount()) * width / size);
+        g2d.setColor(VIEWPORT_COLOR);
+        g2d.fillRect(viewStart, 0, Math.max(2, viewEnd - viewStart), height);
+        g2d.setColor(Color.GRAY);
+        g2d.drawRect(viewStart, 0, Math.max(2, viewEnd - viewStart), height - 1);
     }
 }
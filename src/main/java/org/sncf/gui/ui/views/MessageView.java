@@ -1,24 +1,32 @@
 package org.sncf.gui.ui.views;
 
-import org.sncf.gui.model.FilterRule;
 import org.sncf.gui.serial.SerialTransmitter;
 import org.sncf.gui.services.*;
+import org.sncf.gui.services.filter.FilterSet;
+import org.sncf.gui.ui.TrameDispatcher;
+import org.sncf.gui.ui.dialogs.ExportProgressDialog;
+import org.sncf.gui.ui.dialogs.ImportProgressDialog;
+import org.sncf.gui.ui.components.FilterHighlightCache;
+import org.sncf.gui.ui.components.TrameCellRenderer;
+import org.sncf.gui.ui.components.TrameHighlights;
+import org.sncf.gui.ui.components.TrameTableModel;
 
 import javax.swing.*;
-import javax.swing.text.*;
 import java.awt.*;
-import java.awt.event.MouseAdapter;
 import java.net.URL;
+import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.LinkedHashSet;
 import java.util.List;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.util.Set;
+import java.util.function.IntConsumer;
 
 /**
  * Composant Swing permettant d'afficher, filtrer, exporter et annoter les trames
  * reçues depuis un port série ou générées en mode simulation.
  *
- * <p>Affiche les trames sous trois formes :</p>
+ * <p>Affiche les trames dans une table virtualisée (une ligne par trame, seules les
+ * lignes visibles sont dessinées), sous trois formes :</p>
  * <ul>
  *     <li>Bits binaires</li>
  *     <li>Hexadécimal</li>
@@ -29,41 +37,35 @@ import java.util.regex.Pattern;
  * <ul>
  *     <li>Basculer le mode simulation</li>
  *     <li>Ajouter au dictionnaire</li>
- *     <li>Exporter les trames en CSV ou JSON</li>
+ *     <li>Exporter les trames en CSV, JSON, NDJSON, capture binaire ou pcapng, en arrière-plan</li>
+ *     <li>Importer dans la base un export ou un journal série, en arrière-plan</li>
  *     <li>Appliquer des filtres colorés (bit, hex, texte)</li>
  * </ul>
  */
 public class MessageView extends JPanel {
-    private final JTextPane bitPane = createTextPane();
-    private final JTextPane hexPane = createTextPane();
-    private final JTextPane textPane = createTextPane();
-
     private final JButton toggleSimulationBtn;
-    private final List<TrameService.TrameEntry> trames = new ArrayList<>();
-    private List<FilterRule> currentFilters = new ArrayList<>();
-    private final Highlighter.HighlightPainter syncPainter = new DefaultHighlighter.DefaultHighlightPainter(new Color(255, 200, 100, 128));
+    private final TrameHistory trames = new TrameHistory(TrameHistory.DEFAULT_MEMORY_BUDGET, this::translateHex);
+    private IntConsumer onFrameSelected;
+    private boolean syncingSelection;
+    // Lu par le thread d'ingestion pour les statistiques des filtres
+    private volatile FilterSet currentFilters = FilterSet.EMPTY;
+    private final FilterHighlightCache highlightCache = new FilterHighlightCache();
 
-    private Object bitSyncHighlight, hexSyncHighlight, textSyncHighlight;
-
-    private final MouseAdapter syncMouseAdapter = new MouseAdapter() {
-        @Override
-        public void mousePressed(java.awt.event.MouseEvent e) {
-            JTextPane source = (JTextPane) e.getSource();
-            try {
-                int caretPos = source.getCaretPosition();
-                int line = source.getDocument().getDefaultRootElement().getElementIndex(caretPos);
-                syncHighlight(line);
-            } catch (Exception ex) {
-                ex.printStackTrace();
-            }
-        }
-    };
+    private final TrameTableModel tableModel = new TrameTableModel(trames);
+    private final JTable trameTable = createTrameTable();
+    private final JScrollPane tableScrollPane = new JScrollPane(trameTable);
 
     // Services
     private final DatabaseManager db = new DatabaseManager();
     private final DictionaryService dictionaryService = new DictionaryService(db);
     private final TrameService trameService = new TrameService(db, dictionaryService);
-    private final ExportService exportService = new ExportService(trameService);
+    private final ExportService exportService = new ExportService(trameService, dictionaryService);
+    private final ImportService importService = new ImportService(db, dictionaryService);
+
+    // Retraduction de l'historique en arrière-plan : une nouvelle demande annule la précédente
+    private final ParallelScan scan = new ParallelScan();
+    private final ParallelScan.LatestJob retranslation = new ParallelScan.LatestJob();
+    private final JProgressBar retranslationProgress = new JProgressBar(0, 100);
 
     /**
      * Initialise la vue, les services internes (dictionnaire, export, base),
@@ -71,9 +73,6 @@ public class MessageView extends JPanel {
      */
     public MessageView() {
         setLayout(new BorderLayout());
-        bitPane.addMouseListener(syncMouseAdapter);
-        hexPane.addMouseListener(syncMouseAdapter);
-        textPane.addMouseListener(syncMouseAdapter);
         JPanel topPanel = new JPanel(new FlowLayout(FlowLayout.RIGHT));
 
         toggleSimulationBtn = new JButton(getButtonLabel());
@@ -100,17 +99,31 @@ public class MessageView extends JPanel {
         JButton exportBtn = createIconTextButton("envelope.png","Exporter", "Exporter");
         exportBtn.addActionListener(e -> openExportDialog());
 
+        JButton importBtn = new JButton("Importer…");
+        importBtn.setToolTipText("Importer un export (CSV, JSON, capture binaire) ou un journal série dans la base");
+        importBtn.addActionListener(e -> openImportDialog());
+
         JButton viewDictBtn = createIconTextButton("dico.png","Dictionnaire", "Dictionnaire");
         viewDictBtn.addActionListener(e -> openDictionaryViewer());
 
+        JButton goToBtn = new JButton("Aller à…");
+        goToBtn.setToolTipText("Aller à la trame N (vide : dernière trame)");
+        goToBtn.addActionListener(e -> promptGoToFrame());
+
+        retranslationProgress.setStringPainted(true);
+        retranslationProgress.setVisible(false);
+
+        topPanel.add(retranslationProgress);
+        topPanel.add(goToBtn);
         topPanel.add(viewDictBtn);
         topPanel.add(clearBtn);
         topPanel.add(clearDbBtn);
+        topPanel.add(importBtn);
         topPanel.add(exportBtn);
         topPanel.add(toggleSimulationBtn);
 
         add(topPanel, BorderLayout.NORTH);
-        add(buildMainSplitPane(), BorderLayout.CENTER);
+        add(tableScrollPane, BorderLayout.CENTER);
     }
 
     /**
@@ -145,69 +158,6 @@ public class MessageView extends JPanel {
         return button;
     }
 
-    /**
-     * Synchronise la mise en surbrillance d'une ligne spécifique dans trois volets de texte :
-     * binaire (bitPane), hexadécimal (hexPane) et texte (textPane).
-     *
-     * Cette méthode supprime d'abord les surbrillances précédentes liées à la synchronisation,
-     * puis applique une nouvelle surbrillance à la ligne spécifiée si elle est présente dans
-     * chacun des volets.
-     *
-     * @param lineIndex L'indice de la ligne à mettre en surbrillance dans chaque volet.
-     */
-    private void syncHighlight(int lineIndex) {
-        try {
-            Highlighter bitH = bitPane.getHighlighter();
-            Highlighter hexH = hexPane.getHighlighter();
-            Highlighter textH = textPane.getHighlighter();
-
-            // Supprime les anciens highlights de sync uniquement
-            if (bitSyncHighlight != null) bitH.removeHighlight(bitSyncHighlight);
-            if (hexSyncHighlight != null) hexH.removeHighlight(hexSyncHighlight);
-            if (textSyncHighlight != null) textH.removeHighlight(textSyncHighlight);
-
-            String[] bitLines = bitPane.getText().split("\n");
-            String[] hexLines = hexPane.getText().split("\n");
-            String[] textLines = textPane.getText().split("\n");
-
-            if (lineIndex < bitLines.length) {
-                int bitStart = getLineOffset(bitPane, lineIndex);
-                bitSyncHighlight = bitH.addHighlight(bitStart, bitStart + bitLines[lineIndex].length(), syncPainter);
-            }
-
-            if (lineIndex < hexLines.length) {
-                int hexStart = getLineOffset(hexPane, lineIndex);
-                hexSyncHighlight = hexH.addHighlight(hexStart, hexStart + hexLines[lineIndex].length(), syncPainter);
-            }
-
-            if (lineIndex < textLines.length) {
-                int textStart = getLineOffset(textPane, lineIndex);
-                textSyncHighlight = textH.addHighlight(textStart, textStart + textLines[lineIndex].length(), syncPainter);
-            }
-
-        } catch (BadLocationException e) {
-            e.printStackTrace();
-        }
-    }
-
-    /**
-     * Calcule l'offset (position de départ en nombre de caractères) d'une ligne donnée
-     * dans un composant JTextPane.
-     *
-     * @param pane Le JTextPane dans lequel chercher la ligne.
-     * @param line L'indice (zéro-indexé) de la ligne dont on veut connaître l'offset.
-     * @return L'offset de la ligne spécifiée dans le texte du composant.
-     * @throws BadLocationException Si l'accès à une position invalide dans le texte est tenté.
-     */
-    private int getLineOffset(JTextPane pane, int line) throws BadLocationException {
-        String[] lines = pane.getText().split("\n");
-        int offset = 0;
-        for (int i = 0; i < line; i++) {
-            offset += lines[i].length() + 1;
-        }
-        return offset;
-    }
-
     /**
      * Ouvre une fenêtre affichant le dictionnaire actuel contenant
      * les correspondances hexadécimal → texte définies par l'utilisateur.
@@ -301,144 +251,235 @@ public class MessageView extends JPanel {
     /**
      * Recalcule les traductions texte de toutes les trames affichées
      * en fonction du dictionnaire mis à jour.
-     * Met aussi à jour les données en base.
+     * <p>
+     * Les lignes visibles sont retraduites immédiatement (l'historique recalcule le texte à la
+     * lecture). La base est mise à jour en arrière-plan, une fois par motif hexadécimal distinct :
+     * les motifs sont relevés en parallèle sur tout l'historique, avec une barre d'avancement ;
+     * une nouvelle modification du dictionnaire annule la retraduction en cours.
+     * </p>
      */
     private void recalculateDisplayedTranslations() {
-        List<TrameService.TrameEntry> updated = new ArrayList<>();
-        for (TrameService.TrameEntry old : trames) {
-            String newText = dictionaryService.convertHexToText(old.hex);
-            updated.add(new TrameService.TrameEntry(old.bits, old.hex, newText));
-            try {
-                db.updateText(old.hex, newText);
-            } catch (Exception e) {
-                System.err.println("❌ Erreur mise à jour BDD : " + e.getMessage());
+        dictionaryService.invalidateCache();
+        trames.invalidateTranslations();
+        highlightCache.clear();
+        tableModel.fireTableDataChanged();
+
+        retranslationProgress.setValue(0);
+        retranslationProgress.setString("Retraduction…");
+        retranslationProgress.setVisible(true);
+        ParallelScan.Job<Set<String>> job = retranslation.replace(scan.submit(trames, (chunk, from) -> {
+            Set<String> hexes = new LinkedHashSet<>();
+            for (TrameService.TrameEntry entry : chunk) {
+                hexes.add(entry.hex);
+            }
+            return hexes;
+        }, (done, total) -> retranslationProgress.setValue((int) (100L * done / total))));
+        job.onResult(chunks -> {
+            retranslationProgress.setVisible(false);
+            Set<String> hexes = new LinkedHashSet<>();
+            for (Set<String> chunk : chunks) {
+                hexes.addAll(chunk);
             }
+            new Thread(() -> {
+                for (String hex : hexes) {
+                    if (job.isCancelled()) return;
+                    try {
+                        db.updateText(hex, translateHex(hex));
+                    } catch (Exception e) {
+                        System.err.println("❌ Erreur mise à jour BDD : " + e.getMessage());
+                    }
+                }
+            }).start();
+        });
+    }
+
+    /**
+     * Traduit une trame hexadécimale avec le dictionnaire courant, chargé une seule fois
+     * jusqu'à sa prochaine modification. Utilisé par l'historique à la lecture des trames.
+     */
+    private String translateHex(String hex) {
+        return dictionaryService.convertHexToText(hex, dictionaryService.getDictionaryMap());
+    }
+
+    /**
+     * Crée la table des trames : police monospace, hauteur de ligne fixe (accès direct
+     * à la ligne N sans parcours) et renderer léger avec surlignage des filtres.
+     */
+    private JTable createTrameTable() {
+        JTable table = new JTable(tableModel);
+        table.setFont(new Font("Monospaced", Font.PLAIN, 12));
+        table.setRowHeight(18);
+        table.setShowGrid(false);
+        table.setIntercellSpacing(new Dimension(0, 0));
+        table.setFillsViewportHeight(true);
+        table.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
+        table.getTableHeader().setReorderingAllowed(false);
+        table.setDefaultRenderer(Object.class, new TrameCellRenderer(this::highlightsForRow));
+        table.getSelectionModel().addListSelectionListener(e -> {
+            if (e.getValueIsAdjusting() || syncingSelection || onFrameSelected == null) return;
+            int row = table.getSelectedRow();
+            if (row != -1) onFrameSelected.accept(table.convertRowIndexToModel(row));
+        });
+
+        table.getColumnModel().getColumn(TrameTableModel.COL_INDEX).setPreferredWidth(60);
+        table.getColumnModel().getColumn(TrameTableModel.COL_INDEX).setMaxWidth(90);
+        table.getColumnModel().getColumn(TrameTableModel.COL_BITS).setPreferredWidth(420);
+        table.getColumnModel().getColumn(TrameTableModel.COL_HEX).setPreferredWidth(200);
+        table.getColumnModel().getColumn(TrameTableModel.COL_TEXT).setPreferredWidth(200);
+        return table;
+    }
+
+    /**
+     * Sélectionne la trame N et fait défiler la table pour l'afficher.
+     * Coût constant : la hauteur de ligne étant fixe, la position est calculée directement.
+     *
+     * @param index indice de la trame (à partir de 0), borné à l'historique disponible.
+     */
+    public void goToFrame(int index) {
+        if (trames.isEmpty()) return;
+        int row = Math.max(0, Math.min(index, trames.size() - 1));
+        trameTable.setRowSelectionInterval(row, row);
+        trameTable.scrollRectToVisible(trameTable.getCellRect(row, 0, true));
+    }
+
+    /**
+     * Sélectionne la trame N sans notifier {@link #setOnFrameSelected(IntConsumer)} :
+     * utilisé pour suivre une sélection faite dans une autre vue.
+     *
+     * @param index indice de la trame (à partir de 0).
+     */
+    public void selectFrame(int index) {
+        if (index < 0 || index >= trames.size()) return;
+        syncingSelection = true;
+        try {
+            goToFrame(index);
+        } finally {
+            syncingSelection = false;
         }
-        trames.clear();
-        trames.addAll(updated);
-        refreshWithFilters(currentFilters);
     }
 
     /**
-     * Crée un {@link JTextPane} avec style monospaced et non éditable.
+     * Définit l'action déclenchée quand l'utilisateur sélectionne une trame
+     * (clic, flèches du clavier ou « Aller à… »).
+     *
+     * @param onFrameSelected reçoit l'indice de la trame sélectionnée (à partir de 0).
      */
-    private JTextPane createTextPane() {
-        JTextPane pane = new JTextPane();
-        pane.setFont(new Font("Monospaced", Font.PLAIN, 12));
-        pane.setEditable(false);
-        return pane;
+    public void setOnFrameSelected(IntConsumer onFrameSelected) {
+        this.onFrameSelected = onFrameSelected;
     }
 
     /**
-     * Construit le panneau principal contenant les trois zones d’affichage.
+     * Demande un numéro de trame à l'utilisateur et s'y positionne (vide : dernière trame).
      */
-    private JSplitPane buildMainSplitPane() {
-        JSplitPane leftSplit = new JSplitPane(JSplitPane.VERTICAL_SPLIT,
-                wrapWithLabel("Bits reçus", bitPane),
-                wrapWithLabel("Traduction hexadécimale", hexPane));
-        leftSplit.setResizeWeight(0.5);
-
-        JSplitPane mainSplit = new JSplitPane(JSplitPane.HORIZONTAL_SPLIT,
-                leftSplit,
-                wrapWithLabel("Traduction texte", textPane));
-        mainSplit.setResizeWeight(0.5);
-        return mainSplit;
+    private void promptGoToFrame() {
+        String input = JOptionPane.showInputDialog(this, "Numéro de trame (1 à " + trames.size() + ", vide : dernière)");
+        if (input == null) return;
+        if (input.isBlank()) {
+            goToFrame(trames.size() - 1);
+            return;
+        }
+        try {
+            goToFrame(Integer.parseInt(input.trim()) - 1);
+        } catch (NumberFormatException ex) {
+            showError("Numéro de trame invalide : " + input);
+        }
     }
 
     /**
-     * Construit un panneau avec un label et un JTextPane.
+     * Indique si la vue affiche actuellement la fin de l'historique
+     * (dans ce cas, les nouvelles trames la font défiler automatiquement).
      */
-    private JPanel wrapWithLabel(String label, JTextPane pane) {
-        JPanel panel = new JPanel(new BorderLayout());
-        panel.add(new JLabel(label), BorderLayout.NORTH);
-        panel.add(new JScrollPane(pane), BorderLayout.CENTER);
-        return panel;
+    private boolean isAtTail() {
+        JScrollBar bar = tableScrollPane.getVerticalScrollBar();
+        return bar.getValue() + bar.getVisibleAmount() >= bar.getMaximum() - trameTable.getRowHeight();
     }
 
     /**
      * Met à jour les filtres actuellement actifs et rafraîchit l’affichage en conséquence.
      *
-     * @param filters liste de {@link FilterRule} à appliquer.
+     * @param filters filtres actifs compilés.
      */
-    public void setCurrentFilters(List<FilterRule> filters) {
-        this.currentFilters = filters;
+    public void setCurrentFilters(FilterSet filters) {
+        refreshWithFilters(filters);
     }
 
     /**
      * Ajoute une trame binaire (bits) à l'affichage, et la convertit
-     * automatiquement en hexadécimal et en texte.
+     * automatiquement en hexadécimal et en texte (sans l'enregistrer).
      *
      * @param bits la chaîne de bits à interpréter.
      */
     public void appendMessage(String bits) {
-        TrameService.TrameEntry entry = trameService.processBits(bits);
-        trames.add(entry);
-        appendText(bitPane, entry.bits + "\n");
-        appendText(hexPane, entry.hex + "\n");
-        appendText(textPane, entry.text + "\n");
-        trameService.saveTrame(entry);
+        appendMessages(trameService.processBits(List.of(bits)));
     }
 
     /**
-     * Efface les zones d'affichage (mais ne vide pas la liste interne des trames).
+     * Convertit un lot de trames reçues (dictionnaire en cache), enregistre en une transaction
+     * celles à conserver et les compte dans les statistiques des filtres actifs. C'est le seul
+     * enregistrement en base des trames reçues.
+     * Appelée hors de l'EDT, sur le thread d'ingestion du {@link TrameDispatcher}.
+     *
+     * @param frames trames reçues, dans l'ordre d'arrivée.
+     * @return trames prêtes à afficher, dans le même ordre.
      */
-    public void clearMessages() {
-        bitPane.setText("");
-        hexPane.setText("");
-        textPane.setText("");
+    public List<TrameService.TrameEntry> prepareMessages(List<TrameDispatcher.Received> frames) {
+        List<String> bitLines = new ArrayList<>(frames.size());
+        long[] receivedAt = new long[frames.size()];
+        for (int i = 0; i < frames.size(); i++) {
+            bitLines.add(frames.get(i).bits);
+            receivedAt[i] = frames.get(i).receivedAt;
+        }
+        // Heure de réception, et non de préparation : une trame de pré-déclenchement arrive bien plus tôt
+        List<TrameService.TrameEntry> entries = trameService.processBits(bitLines, receivedAt);
+        List<TrameService.TrameEntry> persisted = new ArrayList<>(entries.size());
+        for (int i = 0; i < entries.size(); i++) {
+            if (frames.get(i).persist) persisted.add(entries.get(i));
+        }
+        trameService.saveTrames(persisted);
+        FilterSet filters = currentFilters;
+        if (!filters.isEmpty()) {
+            // Statistiques des filtres : chaque trame reçue est comptée une fois, à la réception
+            for (TrameService.TrameEntry entry : entries) {
+                filters.recordLive(entry);
+            }
+        }
+        return entries;
     }
 
     /**
-     * Enumération représentant les types de filtres possibles pour une chaîne de recherche.
+     * Ajoute un lot de trames déjà converties et enregistrées à la table (une seule notification,
+     * un seul défilement si la vue suivait la fin). Doit être appelée sur l'EDT
+     * (voir {@link TrameDispatcher}).
+     *
+     * @param entries trames préparées par {@link #prepareMessages(List)}, dans l'ordre d'arrivée.
      */
-    private enum FilterType {
-        BITS, HEX, TEXT
+    public void appendMessages(List<TrameService.TrameEntry> entries) {
+        boolean followTail = isAtTail();
+        trames.addAll(entries);
+        tableModel.fireRowsAppended(entries.size());
+        if (followTail) {
+            trameTable.scrollRectToVisible(trameTable.getCellRect(trames.size() - 1, 0, true));
+        }
     }
 
     /**
-     * Détermine le type de filtre à appliquer à partir d'un motif donné.
-     * Le motif est nettoyé de ses espaces et astérisques, puis analysé pour
-     * identifier s'il correspond à un format binaire, hexadécimal ou texte.
-     *
-     * @param pattern Le motif d'entrée à analyser.
-     * @return Le type de filtre détecté : BITS, HEX ou TEXT.
+     * Libère les ressources de la vue à la fermeture de la fenêtre : retraduction en cours
+     * annulée, historique vidé et fichiers de débordement supprimés.
      */
-    private FilterType detectFilterType(String pattern) {
-        String cleaned = pattern.replaceAll("\\s+", "").replace("*", "").toUpperCase();
-
-        if (cleaned.matches("[01]+")) {
-            return FilterType.BITS;
-        } else if (cleaned.matches("([0-9A-F]{2})+")) {
-            return FilterType.HEX;
-        } else {
-            return FilterType.TEXT;
-        }
+    public void close() {
+        retranslation.cancel();
+        trames.close();
     }
 
     /**
-     * Recherche toutes les occurrences d'un motif dans une chaîne d'entrée en utilisant
-     * une correspondance basée sur des expressions régulières. Les astérisques dans le motif
-     * sont interprétés comme des jokers (équivalents à .*? en regex).
-     *
-     * @param input   La chaîne dans laquelle rechercher les correspondances.
-     * @param pattern Le motif à rechercher, pouvant inclure des jokers (*).
-     * @return Une liste de tableaux de deux entiers représentant les plages [début, fin)
-     *         des correspondances trouvées dans la chaîne nettoyée.
+     * Efface la table et la liste des trames affichées (la base n'est pas modifiée).
      */
-    private List<int[]> findPatternMatches(String input, String pattern) {
-        String cleanedInput = input.replaceAll("\\s+", "").toUpperCase();
-        String cleanedPattern = pattern.replaceAll("\\s+", "").toUpperCase();
-
-        // Transforme * en regex générique, sans échapper les autres caractères
-        String regex = cleanedPattern.replace("*", ".*?");
-        Pattern compiled = Pattern.compile(regex);
-        Matcher matcher = compiled.matcher(cleanedInput);
-
-        List<int[]> ranges = new ArrayList<>();
-        while (matcher.find()) {
-            ranges.add(new int[]{matcher.start(), matcher.end()});
-        }
-        return ranges;
+    public void clearMessages() {
+        retranslation.cancel();
+        retranslationProgress.setVisible(false);
+        trames.clear();
+        highlightCache.clear();
+        tableModel.fireTableDataChanged();
     }
 
     /**
@@ -458,169 +499,88 @@ public class MessageView extends JPanel {
         return SerialTransmitter.isSimulationMode() ? "Simulation: ON ⏸" : "Simulation: OFF ▶";
     }
 
-    /**
-     * Ajoute du texte dans une zone et scrolle automatiquement vers le bas.
-     */
-    private void appendText(JTextPane pane, String text) {
-        try {
-            StyledDocument doc = pane.getStyledDocument();
-            doc.insertString(doc.getLength(), text, null);
-            pane.setCaretPosition(doc.getLength());
-        } catch (BadLocationException e) {
-            e.printStackTrace();
-        }
-    }
-
     /**
      * Affiche une boîte de dialogue pour paramétrer et lancer l’export des trames.
      */
     private void openExportDialog() {
         String[] sources = {"Trames affichées", "Trames de la base de données"};
-        String[] formats = {"CSV", "JSON"};
         JCheckBox onlyFiltered = new JCheckBox("Seulement les trames filtrées");
+        JCheckBox compressedBox = new JCheckBox("Compresser (gzip)");
 
         JComboBox<String> sourceBox = new JComboBox<>(sources);
-        JComboBox<String> formatBox = new JComboBox<>(formats);
-        JPanel panel = new JPanel(new GridLayout(3, 2));
+        JComboBox<ExportService.Format> formatBox = new JComboBox<>(ExportService.Format.values());
+        JPanel panel = new JPanel(new GridLayout(4, 2));
         panel.add(new JLabel("Exporter depuis :"));
         panel.add(sourceBox);
         panel.add(new JLabel("Format :"));
         panel.add(formatBox);
         panel.add(new JLabel(" "));
         panel.add(onlyFiltered);
+        panel.add(new JLabel(" "));
+        panel.add(compressedBox);
 
         int result = JOptionPane.showConfirmDialog(this, panel, "Exporter les trames", JOptionPane.OK_CANCEL_OPTION);
-        if (result == JOptionPane.OK_OPTION) {
-            boolean fromDb = sourceBox.getSelectedIndex() == 1;
-            boolean toCsv = formatBox.getSelectedIndex() == 0;
-            boolean onlyMatches = onlyFiltered.isSelected();
-            exportService.export(trames, fromDb, toCsv, onlyMatches, currentFilters);
+        if (result != JOptionPane.OK_OPTION) return;
+        boolean fromDb = sourceBox.getSelectedIndex() == 1;
+        ExportService.Format format = (ExportService.Format) formatBox.getSelectedItem();
+        boolean onlyMatches = onlyFiltered.isSelected();
+        boolean compressed = compressedBox.isSelected();
+
+        JFileChooser fileChooser = new JFileChooser();
+        fileChooser.setDialogTitle("Choisir un fichier de destination");
+        if (fileChooser.showSaveDialog(this) != JFileChooser.APPROVE_OPTION) return;
+
+        //Ajout de l'extension
+        String path = fileChooser.getSelectedFile().getAbsolutePath();
+        String expectedExt = compressed ? format.extension + ".gz" : format.extension;
+        if (!path.toLowerCase().endsWith(expectedExt)) {
+            path += expectedExt;
         }
+
+        // L'export tourne en arrière-plan : la fenêtre affiche l'avancement et permet de l'annuler
+        ExportProgressDialog progress = new ExportProgressDialog(SwingUtilities.getWindowAncestor(this), Path.of(path));
+        progress.attach(exportService.export(Path.of(path), format, trames, fromDb, onlyMatches, currentFilters, compressed, progress));
+        progress.setVisible(true);
     }
 
     /**
-     * Calcule l’offset en caractères d’un token hexadécimal dans une ligne.
+     * Demande un fichier et l’importe dans la base en arrière-plan.
+     * Le format est déduit de l’extension (voir {@link ImportService.Format}).
      */
-    private int getHexOffset(String[] hexTokens, int index) {
-        int offset = 0;
-        for (int i = 0; i < index; i++) {
-            offset += hexTokens[i].length() + 1; // +1 pour l’espace
-        }
-        return offset;
+    private void openImportDialog() {
+        JFileChooser fileChooser = new JFileChooser();
+        fileChooser.setDialogTitle("Choisir un fichier à importer");
+        if (fileChooser.showOpenDialog(this) != JFileChooser.APPROVE_OPTION) return;
+
+        Path source = fileChooser.getSelectedFile().toPath();
+        ImportProgressDialog progress = new ImportProgressDialog(SwingUtilities.getWindowAncestor(this), source);
+        progress.attach(importService.importFile(source, progress));
+        progress.setVisible(true);
     }
 
-    private boolean isHexWithWildcard(String pattern) {
-        String clean = pattern.replaceAll("\\s+", "").toUpperCase();
-        return clean.matches("([0-9A-F]{2}|\\*)+");
+    /**
+     * Rafraîchit les trames affichées avec les filtres courants.
+     * Aucune trame n'est réévaluée ici : seules les lignes visibles sont redessinées,
+     * et seuls les motifs nouvellement activés sont calculés pour elles
+     * (voir {@link FilterHighlightCache}).
+     *
+     * @param filters filtres compilés à appliquer pour le surlignage (bits, hex, texte).
+     */
+    public void refreshWithFilters(FilterSet filters) {
+        this.currentFilters = filters;
+        highlightCache.setFilters(filters);
+        trameTable.repaint();
     }
 
     /**
-     * Rafraîchit les trames affichées avec les filtres courants,
-     * en appliquant les surlignages appropriés.
+     * Fournit au renderer les surlignages d'une ligne visible de la table.
      *
-     * @param filters filtres à appliquer pour le surlignage (bits, hex, texte).
+     * @param row indice de la trame dans le modèle.
+     * @return surlignages des trois représentations de la trame.
      */
-    public void refreshWithFilters(List<FilterRule> filters) {
-        bitPane.setText("");
-        hexPane.setText("");
-        textPane.setText("");
-
-        Highlighter bitsHighlighter = bitPane.getHighlighter();
-        Highlighter hexHighlighter = hexPane.getHighlighter();
-        Highlighter textHighlighter = textPane.getHighlighter();
-        bitsHighlighter.removeAllHighlights();
-        hexHighlighter.removeAllHighlights();
-        textHighlighter.removeAllHighlights();
-
-        List<TrameService.TrameEntry> filteredTrames = trames;
-
-        try {
-            for (TrameService.TrameEntry entry : filteredTrames) {
-                int bitOffset = bitPane.getDocument().getLength();
-                int hexOffset = hexPane.getDocument().getLength();
-                int textOffset = textPane.getDocument().getLength();
-
-                appendText(bitPane, entry.bits + "\n");
-                appendText(hexPane, entry.hex + "\n");
-                appendText(textPane, entry.text + "\n");
-
-                String[] hexTokens = entry.hex.split(" ");
-
-                for (FilterRule rule : filters) {
-                    FilterType type = detectFilterType(rule.pattern);
-
-                    switch (type) {
-                        case BITS -> {
-                            List<int[]> matches = findPatternMatches(entry.bits, rule.pattern);
-                            for (int[] range : matches) {
-                                int start = range[0], end = range[1];
-                                bitsHighlighter.addHighlight(bitOffset + start, bitOffset + end,
-                                        new DefaultHighlighter.DefaultHighlightPainter(rule.color));
-
-                                int startByte = start / 8;
-                                int endByte = (end - 1) / 8;
-                                for (int i = startByte; i <= endByte && i < hexTokens.length; i++) {
-                                    int hexStart = hexOffset + getHexOffset(hexTokens, i);
-                                    hexHighlighter.addHighlight(hexStart, hexStart + hexTokens[i].length(),
-                                            new DefaultHighlighter.DefaultHighlightPainter(rule.color));
-
-                                    if (i < entry.text.length()) {
-                                        textHighlighter.addHighlight(textOffset + i, textOffset + i + 1,
-                                                new DefaultHighlighter.DefaultHighlightPainter(rule.color));
-                                    }
-                                }
-                            }
-                        }
-
-                        case HEX -> {
-                            String cleanHex = entry.hex.replaceAll("\\s+", "").toUpperCase();
-                            List<int[]> matches = findPatternMatches(cleanHex, rule.pattern);
-                            for (int[] range : matches) {
-                                int startByte = range[0] / 2;
-                                int endByte = (range[1] - 1) / 2;
-                                for (int i = startByte; i <= endByte && i < hexTokens.length; i++) {
-                                    int hexStart = hexOffset + getHexOffset(hexTokens, i);
-                                    hexHighlighter.addHighlight(hexStart, hexStart + hexTokens[i].length(),
-                                            new DefaultHighlighter.DefaultHighlightPainter(rule.color));
-
-                                    int bitIdx = i * 8;
-                                    int bitEnd = Math.min(bitIdx + 8, entry.bits.length());
-                                    bitsHighlighter.addHighlight(bitOffset + bitIdx, bitOffset + bitEnd,
-                                            new DefaultHighlighter.DefaultHighlightPainter(rule.color));
-
-                                    if (i < entry.text.length()) {
-                                        textHighlighter.addHighlight(textOffset + i, textOffset + i + 1,
-                                                new DefaultHighlighter.DefaultHighlightPainter(rule.color));
-                                    }
-                                }
-                            }
-                        }
-
-                        case TEXT -> {
-                            List<int[]> matches = findPatternMatches(entry.text, rule.pattern);
-                            for (int[] range : matches) {
-                                int start = range[0], end = range[1];
-                                for (int i = start; i < end && i < entry.text.length(); i++) {
-                                    textHighlighter.addHighlight(textOffset + i, textOffset + i + 1,
-                                            new DefaultHighlighter.DefaultHighlightPainter(rule.color));
-
-                                    int hexStart = hexOffset + getHexOffset(hexTokens, i);
-                                    hexHighlighter.addHighlight(hexStart, hexStart + hexTokens[i].length(),
-                                            new DefaultHighlighter.DefaultHighlightPainter(rule.color));
-
-                                    int bitIdx = i * 8;
-                                    int bitEnd = Math.min(bitIdx + 8, entry.bits.length());
-                                    bitsHighlighter.addHighlight(bitOffset + bitIdx, bitOffset + bitEnd,
-                                            new DefaultHighlighter.DefaultHighlightPainter(rule.color));
-                                }
-                            }
-                        }
-                    }
-                }
-            }
-        } catch (Exception e) {
-            e.printStackTrace();
-        }
+    private TrameHighlights highlightsForRow(int row) {
+        if (row >= trames.size()) return TrameHighlights.NONE;
+        return highlightCache.highlightsFor(row, trames.get(row));
     }
 
     /**
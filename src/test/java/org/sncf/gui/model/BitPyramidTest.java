@@ -0,0 +1,87 @@
+package org.sncf.gui.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BitPyramidTest {
+
+    private static BitPyramid.Summary bruteForce(String bits, int from, int to) {
+        BitPyramid.Summary s = new BitPyramid.Summary();
+        s.min = 1;
+        for (int i = from; i < to; i++) {
+            int bit = bits.charAt(i) - '0';
+            s.min = Math.min(s.min, bit);
+            s.max = Math.max(s.max, bit);
+            if (i > from && bit != bits.charAt(i - 1) - '0') s.transitions++;
+        }
+        s.first = bits.charAt(from) - '0';
+        s.last = bits.charAt(to - 1) - '0';
+        s.length = to - from;
+        return s;
+    }
+
+    @Test
+    void summarize_shouldMatchBruteForceOnRandomRanges() {
+        Random random = new Random(42);
+        BitStore store = new BitStore();
+        StringBuilder all = new StringBuilder();
+        // Ajouts de tailles variées pour exercer la mise à jour incrémentale
+        for (int f = 0; f < 300; f++) {
+            StringBuilder frame = new StringBuilder();
+            int length = random.nextInt(200);
+            int run = random.nextInt(2);
+            for (int i = 0; i < length; i++) {
+                if (random.nextInt(10) == 0) run ^= 1;
+                frame.append(run);
+            }
+            store.appendFrame(frame);
+            all.append(frame);
+        }
+        String bits = all.toString();
+        BitPyramid.Summary out = new BitPyramid.Summary();
+
+        for (int k = 0; k < 2000; k++) {
+            int from = random.nextInt(bits.length());
+            int to = from + 1 + random.nextInt(bits.length() - from);
+            BitPyramid.Summary expected = bruteForce(bits, from, to);
+            store.pyramid().summarize(from, to, out);
+
+            String range = "[" + from + ", " + to + ")";
+            assertEquals(expected.min, out.min, range);
+            assertEquals(expected.max, out.max, range);
+            assertEquals(expected.transitions, out.transitions, range);
+            assertEquals(expected.first, out.first, range);
+            assertEquals(expected.last, out.last, range);
+            assertEquals(expected.length, out.length, range);
+        }
+    }
+
+    @Test
+    void summarize_shouldCoverWholeStreamWithFewLevels() {
+        BitStore store = new BitStore();
+        store.appendFrame("01".repeat(50_000));
+
+        BitPyramid.Summary out = store.pyramid().summarize(0, store.size(), new BitPyramid.Summary());
+
+        assertEquals(99_999, out.transitions);
+        assertEquals(0, out.min);
+        assertEquals(1, out.max);
+        assertTrue(store.pyramid().getLevelCount() > 10);
+    }
+
+    @Test
+    void summarize_shouldReturnEmptyForEmptyRangeAndAfterClear() {
+        BitStore store = new BitStore();
+        store.appendFrame("1".repeat(500));
+        assertTrue(store.pyramid().summarize(10, 10, new BitPyramid.Summary()).isEmpty());
+
+        store.clear();
+        store.appendFrame("000");
+        BitPyramid.Summary out = store.pyramid().summarize(0, 3, new BitPyramid.Summary());
+        assertEquals(0, out.max);
+        assertEquals(0, out.transitions);
+    }
+}
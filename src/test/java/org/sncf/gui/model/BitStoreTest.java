@@ -0,0 +1,52 @@
+package org.sncf.gui.model;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BitStoreTest {
+
+    @Test
+    void appendFrame_shouldStoreBitsAndFrameBoundaries() {
+        BitStore store = new BitStore();
+        store.appendFrame("0100 0001");
+        store.appendFrame("1");
+
+        assertEquals(9, store.size());
+        assertEquals(0, store.get(0));
+        assertEquals(1, store.get(1));
+        assertEquals(1, store.get(7));
+        assertEquals(1, store.get(8));
+        assertEquals(2, store.frames().size());
+        assertEquals(8, store.frames().endOf(0));
+        assertEquals(9, store.frames().endOf(1));
+    }
+
+    @Test
+    void get_shouldReadBitsAcrossWordsAndGrowth() {
+        BitStore store = new BitStore();
+        StringBuilder expected = new StringBuilder();
+        for (int i = 0; i < 100_000; i++) {
+            expected.append(Integer.bitCount(i) % 2 == 0 ? '1' : '0');
+        }
+        store.appendFrame(expected);
+
+        assertEquals(expected.length(), store.size());
+        for (int i = 0; i < expected.length(); i++) {
+            assertEquals(expected.charAt(i) - '0', store.get(i), "bit " + i);
+        }
+    }
+
+    @Test
+    void clear_shouldResetBitsAndFrames() {
+        BitStore store = new BitStore();
+        store.appendFrame("1111");
+        store.clear();
+        store.appendFrame("00");
+
+        assertEquals(2, store.size());
+        assertEquals(0, store.get(0));
+        assertEquals(0, store.get(1));
+        assertEquals(1, store.frames().size());
+    }
+}
@@ -0,0 +1,49 @@
+package org.sncf.gui.model;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FrameIndexTest {
+
+    @Test
+    void frameAt_shouldFindFrameContainingBit() {
+        FrameIndex index = new FrameIndex();
+        index.add(8);
+        index.add(24);
+        index.add(32);
+
+        assertEquals(0, index.frameAt(0));
+        assertEquals(0, index.frameAt(7));
+        assertEquals(1, index.frameAt(8));
+        assertEquals(1, index.frameAt(23));
+        assertEquals(2, index.frameAt(31));
+        assertEquals(-1, index.frameAt(32));
+        assertEquals(-1, index.frameAt(-1));
+    }
+
+    @Test
+    void frameAt_shouldSkipEmptyFrames() {
+        FrameIndex index = new FrameIndex();
+        index.add(8);
+        index.add(8);
+        index.add(16);
+
+        assertEquals(2, index.frameAt(8));
+    }
+
+    @Test
+    void bounds_shouldFollowAddedEndsAcrossGrowth() {
+        FrameIndex index = new FrameIndex();
+        for (int i = 1; i <= 5000; i++) index.add(i * 8);
+
+        assertEquals(5000, index.size());
+        assertEquals(8 * 4321, index.startOf(4321));
+        assertEquals(8 * 4322, index.endOf(4321));
+        assertEquals(4321, index.frameAt(8 * 4321 + 3));
+
+        index.clear();
+        assertEquals(0, index.size());
+        assertEquals(-1, index.frameAt(0));
+    }
+}
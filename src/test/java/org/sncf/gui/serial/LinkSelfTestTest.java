@@ -0,0 +1,213 @@
+package org.sncf.gui.serial;
+
+import org.junit.jupiter.api.Test;
+import org.sncf.gui.model.HostLinkSettings;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LinkSelfTestTest {
+
+    /**
+     * Bouchon de bouclage TX/RX : tampon borné, écriture bloquante quand il est plein,
+     * lecture semi-bloquante rendant 0 après 100 ms sans données (comme le port série).
+     */
+    private static class Loopback {
+        private final byte[] ring = new byte[65536];
+        private int head;
+        private int size;
+
+        final OutputStream out = new OutputStream() {
+            @Override
+            public void write(int b) throws IOException {
+                write(new byte[]{(byte) b}, 0, 1);
+            }
+
+            @Override
+            public void write(byte[] b, int off, int len) throws IOException {
+                synchronized (Loopback.this) {
+                    for (int i = 0; i < len; i++) {
+                        while (size == ring.length) {
+                            try {
+                                Loopback.this.wait();
+                            } catch (InterruptedException e) {
+                                throw new IOException(e);
+                            }
+                        }
+                        ring[(head + size++) % ring.length] = b[off + i];
+                    }
+                    Loopback.this.notifyAll();
+                }
+            }
+        };
+
+        final InputStream in = new InputStream() {
+            @Override
+            public int read() {
+                byte[] one = new byte[1];
+                return read(one, 0, 1) == 1 ? one[0] & 0xFF : 0;
+            }
+
+            @Override
+            public int read(byte[] b, int off, int len) {
+                synchronized (Loopback.this) {
+                    long deadline = System.currentTimeMillis() + 100;
+                    while (size == 0) {
+                        long remaining = deadline - System.currentTimeMillis();
+                        if (remaining <= 0) return 0;
+                        try {
+                            Loopback.this.wait(remaining);
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                            return 0;
+                        }
+                    }
+                    int n = Math.min(len, size);
+                    for (int i = 0; i < n; i++) {
+                        b[off + i] = ring[(head + i) % ring.length];
+                    }
+                    head = (head + n) % ring.length;
+                    size -= n;
+                    Loopback.this.notifyAll();
+                    return n;
+                }
+            }
+
+            @Override
+            public int available() {
+                synchronized (Loopback.this) {
+                    return size;
+                }
+            }
+        };
+    }
+
+    private static byte[] pattern(long from, int length) {
+        byte[] data = new byte[length];
+        for (int i = 0; i < length; i++) {
+            data[i] = LinkSelfTest.patternByte(from + i);
+        }
+        return data;
+    }
+
+    @Test
+    void patternChecker_shouldAcceptCleanStreamAcrossChunks() {
+        LinkSelfTest.PatternChecker checker = new LinkSelfTest.PatternChecker();
+        checker.accept(pattern(0, 1000), 1000);
+        checker.accept(pattern(1000, 600), 600);
+
+        assertEquals(1600, checker.received);
+        assertEquals(0, checker.errors);
+    }
+
+    @Test
+    void patternChecker_shouldCountCorruptedByte() {
+        byte[] data = pattern(0, 500);
+        data[200] ^= 0x10;
+
+        LinkSelfTest.PatternChecker checker = new LinkSelfTest.PatternChecker();
+        checker.accept(data, data.length);
+        checker.finish();
+
+        assertEquals(1, checker.errors);
+        assertEquals(0, checker.skipped);
+    }
+
+    @Test
+    void patternChecker_shouldCountDroppedBlockOnce() {
+        LinkSelfTest.PatternChecker checker = new LinkSelfTest.PatternChecker();
+        checker.accept(pattern(0, 100), 100);
+        checker.accept(pattern(130, 100), 100); // 30 octets perdus
+        checker.finish();
+
+        // Les octets perdus sont comptés par la différence envoyés − reçus, pas comme erreurs
+        assertEquals(200, checker.received);
+        assertEquals(0, checker.errors);
+        assertEquals(30, checker.skipped);
+    }
+
+    @Test
+    void result_shouldCountLostBytesOnce() {
+        LinkSelfTest.PatternChecker checker = new LinkSelfTest.PatternChecker();
+        checker.accept(pattern(0, 100), 100);
+        checker.accept(pattern(130, 100), 100);
+        checker.finish();
+
+        LinkSelfTest.Result result = new LinkSelfTest.Result(
+                HostLinkSettings.defaults(), 230, checker.received, checker.errors, 1_000_000_000L);
+        assertEquals(30 / 230.0, result.errorRate(), 1e-9);
+    }
+
+    @Test
+    void result_shouldReportThroughputAndLoss() {
+        LinkSelfTest.Result result = new LinkSelfTest.Result(
+                new HostLinkSettings(921600, true), 10_000, 9_900, 5, 1_000_000_000L);
+
+        assertEquals(9_900.0, result.bytesPerSecond(), 0.001);
+        assertEquals((5 + 100) / 10_000.0, result.errorRate(), 1e-9);
+        assertFalse(result.isReliable());
+    }
+
+    @Test
+    void exchange_shouldMeasureLoopbackWithoutFailingOnEmptyReads() throws IOException {
+        Loopback loopback = new Loopback();
+
+        // La mesure se termine sur 500 ms de lectures vides, qui ne doivent pas interrompre le test
+        LinkSelfTest.Result result = LinkSelfTest.exchange(loopback.in, loopback.out, HostLinkSettings.defaults(), 200);
+
+        assertTrue(result.bytesSent > 0);
+        assertEquals(result.bytesSent, result.bytesReceived);
+        assertTrue(result.isReliable());
+    }
+
+    @Test
+    void exchange_shouldStopTheWriterBeforeReportingAReadFailure() throws InterruptedException {
+        AtomicReference<Thread> writer = new AtomicReference<>();
+        OutputStream out = new OutputStream() {
+            @Override
+            public void write(int b) {
+                write(new byte[]{(byte) b}, 0, 1);
+            }
+
+            @Override
+            public void write(byte[] b, int off, int len) {
+                if (Thread.currentThread().getName().equals("link-selftest-writer")) {
+                    writer.set(Thread.currentThread());
+                }
+            }
+        };
+        InputStream in = new InputStream() {
+            @Override
+            public int read() throws IOException {
+                throw new IOException("port débranché");
+            }
+
+            @Override
+            public int read(byte[] b, int off, int len) throws IOException {
+                // Laisse démarrer l'émission avant l'échec
+                try {
+                    Thread.sleep(50);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                throw new IOException("port débranché");
+            }
+        };
+
+        assertThrows(IOException.class, () -> LinkSelfTest.exchange(in, out, HostLinkSettings.defaults(), 10_000));
+
+        // Émission prévue pour 10 s : elle a été arrêtée avant la fermeture du port
+        assertNotNull(writer.get());
+        assertFalse(writer.get().isAlive());
+    }
+
+    @Test
+    void hostLinkSettings_shouldRejectSpeedAboveTwoMegabaud() {
+        assertThrows(IllegalArgumentException.class, () -> new HostLinkSettings(3_000_000, false));
+        assertEquals(115200, HostLinkSettings.defaults().baudrate);
+    }
+}
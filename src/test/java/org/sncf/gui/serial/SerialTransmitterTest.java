@@ -1,59 +1,35 @@
 package org.sncf.gui.serial;
 
 import org.junit.jupiter.api.Test;
+import org.sncf.gui.model.CaptureSettings;
+import org.sncf.gui.services.filter.CaptureFilter;
+
+import java.util.ArrayList;
+import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
 
 class SerialTransmitterTest {
 
-    @Test
-    void convertBitsToHex_shouldConvertBinaryToHex() {
-        String bits = "0100101000111111"; // 0x4A 0x3F
-        String expectedHex = "4A 3F";
-        String actualHex = invokeConvertBitsToHex(bits);
-        assertEquals(expectedHex, actualHex);
-    }
+    private static final long MS = 1_000_000L;
 
     @Test
-    void convertBitsToHex_shouldHandleIncompleteFinalByteAsPartialByte() {
-        String bits = "0100101"; // 7 bits => decimal = 37
-        String expectedHex = "25"; // 0x25 = 37
-        String actualHex = invokeConvertBitsToHex(bits);
-        assertEquals(expectedHex, actualHex);
-    }
-
-    @Test
-    void convertBitsToText_shouldConvertBinaryToText() {
-        String bits = "01001000011001010110110001101100"; // "Hell"
-        String expectedText = "Hell";
-        String actualText = invokeConvertBitsToText(bits);
-        assertEquals(expectedText, actualText);
-    }
-
-    @Test
-    void convertBitsToText_shouldReplaceNonPrintableCharactersWithDot() {
-        String bits = "0000000100000010"; // ASCII 1 and 2 (non-printables)
-        String actualText = invokeConvertBitsToText(bits);
-        assertEquals("..", actualText);
-    }
-
-    private String invokeConvertBitsToHex(String bits) {
-        try {
-            var method = SerialTransmitter.class.getDeclaredMethod("convertBitsToHex", String.class);
-            method.setAccessible(true);
-            return (String) method.invoke(null, bits);
-        } catch (Exception e) {
-            throw new RuntimeException(e);
-        }
-    }
-
-    private String invokeConvertBitsToText(String bits) {
-        try {
-            var method = SerialTransmitter.class.getDeclaredMethod("convertBitsToText", String.class);
-            method.setAccessible(true);
-            return (String) method.invoke(null, bits);
-        } catch (Exception e) {
-            throw new RuntimeException(e);
-        }
+    void release_shouldPassEachPreTriggerFrameOnceWithItsReceptionTime() {
+        TriggeredCapture capture = new TriggeredCapture(TriggeredCapture.matching(
+                CaptureFilter.compile(new CaptureSettings(true, List.of("7E"), 0))), 300, 0, 0);
+        assertTrue(capture.offer("00010000", 100 * MS, 100).isEmpty());
+        assertTrue(capture.offer("00100000", 200 * MS, 200).isEmpty());
+        List<TriggeredCapture.Frame> frames = capture.offer("01111110", 300 * MS, 300);
+
+        List<String> bits = new ArrayList<>();
+        List<Long> receivedAt = new ArrayList<>();
+        SerialTransmitter.release(frames, (b, at, persist) -> {
+            assertTrue(persist);
+            bits.add(b);
+            receivedAt.add(at);
+        }, true);
+
+        assertEquals(List.of("00010000", "00100000", "01111110"), bits);
+        assertEquals(List.of(100L, 200L, 300L), receivedAt);
     }
 }
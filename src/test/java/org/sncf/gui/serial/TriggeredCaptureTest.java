@@ -0,0 +1,127 @@
+package org.sncf.gui.serial;
+
+import org.junit.jupiter.api.Test;
+import org.sncf.gui.model.CaptureSettings;
+import org.sncf.gui.services.filter.CaptureFilter;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TriggeredCaptureTest {
+
+    private static final long MS = 1_000_000L;
+
+    private static final String NORMAL = "00010000";
+    private static final String ALARM = "01111110"; // 0x7E
+
+    private static CaptureFilter patterns(String pattern) {
+        return CaptureFilter.compile(new CaptureSettings(true, List.of(pattern), 0));
+    }
+
+    /**
+     * Trame reçue à {@code ms} millisecondes : l'heure de réception suit l'horloge de capture.
+     */
+    private static List<String> offer(TriggeredCapture capture, String bits, long ms) {
+        return bits(capture.offer(bits, ms * MS, ms));
+    }
+
+    private static List<String> bits(List<TriggeredCapture.Frame> frames) {
+        List<String> bits = new ArrayList<>();
+        for (TriggeredCapture.Frame frame : frames) {
+            bits.add(frame.bits);
+        }
+        return bits;
+    }
+
+    @Test
+    void matchTrigger_shouldReleasePreWindowThenPostFramesAndRearm() {
+        TriggeredCapture capture = new TriggeredCapture(TriggeredCapture.matching(patterns("7E")), 300, 0, 2);
+        List<String> kept = new ArrayList<>();
+        // Une trame toutes les 100 ms : seules les 3 dernières restent dans la fenêtre de 300 ms
+        for (int i = 0; i < 10; i++) {
+            kept.addAll(offer(capture, NORMAL, i * 100));
+        }
+        assertTrue(kept.isEmpty());
+
+        kept.addAll(offer(capture, ALARM, 1000));
+        assertEquals(List.of(NORMAL, NORMAL, NORMAL, ALARM), kept);
+        assertTrue(capture.isRecording());
+
+        kept.addAll(offer(capture, NORMAL, 1100));
+        kept.addAll(offer(capture, NORMAL, 1200));
+        assertEquals(6, kept.size());
+        // Fenêtre de post-déclenchement terminée : la trame suivante retourne en mémoire
+        assertTrue(offer(capture, NORMAL, 1300).isEmpty());
+        assertFalse(capture.isRecording());
+
+        assertEquals(1, capture.getTriggerCount());
+        assertEquals(6, capture.getKept());
+        assertEquals(7, capture.getDiscarded());
+        assertEquals("Motif reconnu", capture.getLastReason());
+    }
+
+    @Test
+    void missingPeriodicTrigger_shouldFireOnceWhenTheFrameStopsArriving() {
+        TriggeredCapture capture = new TriggeredCapture(
+                TriggeredCapture.missingPeriodic(patterns("7E"), 250), 1000, 500, 0);
+        for (int i = 0; i <= 4; i++) {
+            assertTrue(offer(capture, i % 2 == 0 ? ALARM : NORMAL, i * 100).isEmpty());
+        }
+        // Dernière trame périodique à 400 ms : absente au-delà de 650 ms
+        assertTrue(capture.tick(600 * MS).isEmpty());
+        assertEquals(5, capture.tick(700 * MS).size());
+        assertEquals(List.of(NORMAL), offer(capture, NORMAL, 800));
+
+        // Après la fenêtre, l'absence persistante ne redéclenche pas
+        assertTrue(capture.tick(1300 * MS).isEmpty());
+        assertTrue(capture.tick(5000 * MS).isEmpty());
+        assertEquals(1, capture.getTriggerCount());
+        assertTrue(capture.getLastReason().startsWith("Trame périodique absente"));
+    }
+
+    @Test
+    void rateTrigger_shouldFireOnBurst() {
+        TriggeredCapture capture = new TriggeredCapture(TriggeredCapture.rateOutside(0, 5), 2000, 1000, 0);
+        List<String> kept = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            kept.addAll(offer(capture, NORMAL, i * 250));
+        }
+        assertTrue(kept.isEmpty());
+        // Rafale : 6 trames en moins d'une seconde
+        for (int i = 0; i < 6; i++) {
+            kept.addAll(offer(capture, ALARM, (2500 + i * 10)));
+        }
+        assertEquals(1, capture.getTriggerCount());
+        assertTrue(kept.size() > 6);
+        assertTrue(capture.getLastReason().startsWith("Débit anormal"));
+    }
+
+    @Test
+    void release_shouldKeepTheReceptionTimeOfPreTriggerFrames() {
+        TriggeredCapture capture = new TriggeredCapture(TriggeredCapture.matching(patterns("7E")), 1000, 0, 1);
+        capture.offer(NORMAL, 100 * MS, 1_700_000_000_100L);
+        capture.offer(NORMAL, 200 * MS, 1_700_000_000_200L);
+
+        List<TriggeredCapture.Frame> released = capture.offer(ALARM, 300 * MS, 1_700_000_000_300L);
+        assertEquals(List.of(1_700_000_000_100L, 1_700_000_000_200L, 1_700_000_000_300L),
+                released.stream().map(frame -> frame.receivedAt).toList());
+    }
+
+    @Test
+    void triggerDuringRecording_shouldFireAgainOnRearm() {
+        TriggeredCapture capture = new TriggeredCapture(TriggeredCapture.missingPeriodic(patterns("7E"), 250), 1000, 0, 2);
+        offer(capture, ALARM, 0);
+        assertEquals(1, capture.tick(300 * MS).size());
+        // Nouvelle absence pendant l'enregistrement : front montant unique, repris au réarmement
+        offer(capture, ALARM, 400);
+        assertTrue(capture.tick(700 * MS).isEmpty());
+        assertEquals(List.of(NORMAL), offer(capture, NORMAL, 750));
+        assertEquals(1, capture.getTriggerCount());
+
+        assertEquals(List.of(NORMAL), offer(capture, NORMAL, 800));
+        assertEquals(2, capture.getTriggerCount());
+        assertTrue(capture.isRecording());
+    }
+}
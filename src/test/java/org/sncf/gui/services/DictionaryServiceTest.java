@@ -2,6 +2,7 @@ package org.sncf.gui.services;
 
 import org.junit.jupiter.api.Test;
 
+import java.util.ArrayList;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -91,4 +92,26 @@ class DictionaryServiceTest {
         assertEquals("4A", entry.hexPattern);
         assertEquals("Commande A", entry.traduction);
     }
+
+    @Test
+    void getDictionaryMap_shouldReadDatabaseOnceUntilInvalidated() {
+        List<DictionaryService.DictionaryEntry> entries = new ArrayList<>(List.of(new DictionaryService.DictionaryEntry("7E", "FLAG")));
+        int[] loads = new int[1];
+        DictionaryService service = new DictionaryService(null) {
+            @Override
+            public List<DictionaryEntry> getAllEntries() {
+                loads[0]++;
+                return entries;
+            }
+        };
+
+        assertEquals("FLAG", service.getDictionaryMap().get("7E"));
+        service.getDictionaryMap();
+        assertEquals(1, loads[0]);
+
+        entries.add(new DictionaryService.DictionaryEntry("41", "A"));
+        service.invalidateCache();
+        assertEquals("A", service.getDictionaryMap().get("41"));
+        assertEquals(2, loads[0]);
+    }
 }
@@ -1,6 +1,22 @@
 package org.sncf.gui.services;
 
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.Test;
+import org.sncf.gui.model.FilterRule;
+import org.sncf.gui.services.export.FrameWriter;
+import org.sncf.gui.services.filter.FilterSet;
+
+import java.io.StringWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -46,4 +62,121 @@ class ExportServiceLogicTest {
 
         assertEquals("ABC123", escaped);
     }
+
+    private Path dbFile;
+
+    @AfterEach
+    void tearDown() throws Exception {
+        if (dbFile != null) Files.deleteIfExists(dbFile);
+    }
+
+    private static final List<TrameService.TrameEntry> TRAMES = List.of(
+            new TrameService.TrameEntry("01111110", "7E", "~"),
+            new TrameService.TrameEntry("01000001", "41", "A \"B\"\nC"),
+            new TrameService.TrameEntry("01111110", "7E", null));
+
+    private static String write(ExportService service, ExportService.Format format, ParallelScan.ChunkSource source,
+                                FilterSet filters) throws Exception {
+        StringWriter out = new StringWriter();
+        service.write(out, format, source, filters, new ExportService.ExportJob(null));
+        return out.toString();
+    }
+
+    @Test
+    void write_shouldStreamEachFormatFromMemory() throws Exception {
+        ExportService service = new TestableExportService();
+        ParallelScan.ChunkSource source = ParallelScan.ChunkSource.of(TRAMES);
+
+        assertEquals("bits,hex,text\r\n\"01111110\",\"7E\",\"~\"\r\n\"01000001\",\"41\",\"A \"\"B\"\"\nC\"\r\n"
+                        + "\"01111110\",\"7E\",\"\"\r\n",
+                write(service, ExportService.Format.CSV, source, null));
+        assertEquals("[\n  {\"bits\": \"01111110\", \"hex\": \"7E\", \"text\": \"~\"},\n"
+                        + "  {\"bits\": \"01111110\", \"hex\": \"7E\", \"text\": \"\"}\n]\n",
+                write(service, ExportService.Format.JSON, source, FilterSet.compile(List.of(new FilterRule("7E", "#FF0000")))));
+        // Une trame par ligne, y compris lorsque le texte contient un retour à la ligne
+        String ndjson = write(service, ExportService.Format.NDJSON, source, null);
+        assertEquals(3, ndjson.split("\n").length);
+        assertTrue(ndjson.contains("\"text\":\"A \\\"B\\\"\\nC\""));
+        assertEquals("[\n]\n", write(service, ExportService.Format.JSON, ParallelScan.ChunkSource.of(List.of()), null));
+    }
+
+    @Test
+    void write_shouldStopWhenCancelled() throws Exception {
+        List<TrameService.TrameEntry> many = new ArrayList<>();
+        for (int i = 0; i < 3 * ExportService.CHUNK_ROWS; i++) {
+            many.add(new TrameService.TrameEntry("00000001", "01", "."));
+        }
+        ExportService.ExportJob job = new ExportService.ExportJob(null);
+        ParallelScan.ChunkSource source = new ParallelScan.ChunkSource() {
+            @Override
+            public int size() {
+                return many.size();
+            }
+
+            @Override
+            public List<TrameService.TrameEntry> read(int from, int to) {
+                // Annulation pendant la lecture de la deuxième tranche
+                if (from > 0) job.cancel();
+                return many.subList(from, to);
+            }
+        };
+        long written = new TestableExportService().write(new StringWriter(), ExportService.Format.NDJSON, source, null, job);
+        assertEquals(2 * ExportService.CHUNK_ROWS, written);
+    }
+
+    @Test
+    void write_shouldStreamFilteredRowsFromDatabase() throws Exception {
+        dbFile = Files.createTempFile("export-", ".db");
+        String url = "jdbc:sqlite:" + dbFile;
+        try (Connection conn = DriverManager.getConnection(url); Statement stmt = conn.createStatement()) {
+            stmt.executeUpdate("CREATE TABLE frame_capture (id INTEGER PRIMARY KEY AUTOINCREMENT, raw_bits TEXT, "
+                    + "raw_hexa TEXT, raw_text TEXT, timestamp TEXT NOT NULL DEFAULT (DATETIME('now')))");
+            for (int i = 0; i < 100; i++) {
+                stmt.executeUpdate(i % 4 == 0
+                        ? "INSERT INTO frame_capture (raw_bits, raw_hexa, raw_text) VALUES ('01111110', '7E', '~')"
+                        : "INSERT INTO frame_capture (raw_bits, raw_hexa, raw_text) VALUES ('01000001', '41', 'A')");
+            }
+        }
+        DatabaseManager db = new DatabaseManager() {
+            @Override
+            public Connection getConnection() throws SQLException {
+                return DriverManager.getConnection(url);
+            }
+        };
+        ExportService service = new ExportService(new TrameService(db, null));
+        FilterSet filters = FilterSet.compile(List.of(new FilterRule("7E", "#FF0000")));
+
+        StringWriter out = new StringWriter();
+        assertEquals(25, service.write(out, ExportService.Format.NDJSON, null, filters, new ExportService.ExportJob(null)));
+        assertEquals(25, out.toString().split("\n").length);
+        assertEquals(101, write(service, ExportService.Format.CSV, null, null).split("\n").length);
+    }
+
+    @Test
+    void export_shouldReportUnexpectedFailureAndDeletePartialFile() throws Exception {
+        ExportService service = new ExportService(null) {
+            @Override
+            long write(FrameWriter rows, ParallelScan.ChunkSource memory, FilterSet filters, ExportJob job) {
+                throw new IllegalStateException("panne");
+            }
+        };
+        Path target = Files.createTempFile("export", ".csv");
+        CompletableFuture<Exception> finished = new CompletableFuture<>();
+
+        service.export(target, ExportService.Format.CSV, ParallelScan.ChunkSource.of(TRAMES), false, false, null, false,
+                new ExportService.ExportListener() {
+                    @Override
+                    public void onProgress(long rowsRead, long totalRows, double rowsPerSecond) {
+                    }
+
+                    @Override
+                    public void onFinished(long rowsWritten, boolean cancelled, Exception error) {
+                        finished.complete(error);
+                    }
+                });
+
+        // Une erreur inattendue ferme quand même la fenêtre de progression
+        assertInstanceOf(IllegalStateException.class, finished.get(5, TimeUnit.SECONDS));
+        assertFalse(Files.exists(target));
+    }
 }
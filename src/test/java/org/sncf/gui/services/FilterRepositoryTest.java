@@ -0,0 +1,125 @@
+package org.sncf.gui.services;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.sncf.gui.model.FilterRule;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FilterRepositoryTest {
+
+    private Path dbFile;
+    private String url;
+
+    @AfterEach
+    void tearDown() throws Exception {
+        if (dbFile != null) Files.deleteIfExists(dbFile);
+    }
+
+    private DatabaseManager database() throws Exception {
+        dbFile = Files.createTempFile("filtres-", ".db");
+        url = "jdbc:sqlite:" + dbFile;
+        try (Connection conn = DriverManager.getConnection(url); Statement stmt = conn.createStatement()) {
+            stmt.executeUpdate("CREATE TABLE custom_filter (id INTEGER PRIMARY KEY AUTOINCREMENT, "
+                    + "color TEXT, name TEXT, pattern TEXT)");
+            stmt.executeUpdate("INSERT INTO custom_filter (name, pattern, color) VALUES ('Zeta', '7E', '#FF0000')");
+            stmt.executeUpdate("INSERT INTO custom_filter (name, pattern, color) VALUES ('Alarme', 'ERR', '#00FF00')");
+        }
+        return new DatabaseManager() {
+            @Override
+            public Connection getConnection() throws SQLException {
+                return DriverManager.getConnection(url);
+            }
+        };
+    }
+
+    private List<String> storedNames() throws SQLException {
+        List<String> names = new ArrayList<>();
+        try (Connection conn = DriverManager.getConnection(url); Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT name FROM custom_filter ORDER BY name")) {
+            while (rs.next()) names.add(rs.getString("name"));
+        }
+        return names;
+    }
+
+    @Test
+    void mutations_shouldPublishVersionedSnapshotsAndPersistAfterFlush() throws Exception {
+        DatabaseManager db = database();
+        FilterRepository repository = new FilterRepository(db);
+        List<FilterRepository.Snapshot> published = new ArrayList<>();
+        repository.subscribe(published::add);
+        repository.load();
+
+        FilterRepository.Snapshot loaded = repository.getSnapshot();
+        assertEquals(List.of("Alarme", "Zeta"), loaded.rules.stream().map(rule -> rule.name).toList());
+        assertTrue(loaded.activeFilters.isEmpty());
+
+        FilterRule added = repository.add("Bus", "7E ?? 30", "#0000FF");
+        int alarme = loaded.rules.get(0).id;
+        repository.setEnabled(alarme, true);
+        repository.update(added.id, "Bus principal", "7E", "#0000FF");
+        repository.delete(loaded.rules.get(1).id);
+
+        FilterRepository.Snapshot last = repository.getSnapshot();
+        assertEquals(List.of("Alarme", "Bus principal"), last.rules.stream().map(rule -> rule.name).toList());
+        assertEquals(List.of("ERR"), last.activeFilters.getRules().stream().map(rule -> rule.pattern).toList());
+        for (int i = 1; i < published.size(); i++) {
+            assertEquals(published.get(i - 1).version + 1, published.get(i).version);
+        }
+        // L'activation ne modifie pas la liste des règles, qui est partagée entre les instantanés
+        assertSame(published.get(2).rules, published.get(3).rules);
+
+        repository.flush();
+        assertEquals(List.of("Alarme", "Bus principal"), storedNames());
+        FilterRepository reloaded = new FilterRepository(db);
+        reloaded.load();
+        assertEquals(last.rules.stream().map(rule -> rule.id + rule.pattern).toList(),
+                reloaded.getSnapshot().rules.stream().map(rule -> rule.id + rule.pattern).toList());
+    }
+
+    @Test
+    void search_shouldMatchNameOrPatternIgnoringCase() throws Exception {
+        FilterRepository repository = new FilterRepository(database());
+        repository.load();
+        FilterRule bus = repository.add("Bus principal", "7E ?? 30", "#0000FF");
+        FilterRepository.Snapshot snapshot = repository.getSnapshot();
+        int alarme = snapshot.rules.get(0).id;
+
+        assertEquals(3, snapshot.search("").size());
+        assertEquals(Set.of(bus.id), snapshot.search("PRINC"));
+        assertEquals(Set.of(bus.id), snapshot.search("?? 3"));
+        assertEquals(Set.of(alarme), snapshot.search("err"));
+        assertEquals(Set.of(alarme, bus.id), snapshot.search("L"));
+        assertEquals(Set.of(), snapshot.search("principale"));
+        repository.flush();
+    }
+
+    @Test
+    void load_shouldSortRulesWithoutName() throws Exception {
+        DatabaseManager db = database();
+        try (Connection conn = DriverManager.getConnection(url); Statement stmt = conn.createStatement()) {
+            stmt.executeUpdate("INSERT INTO custom_filter (name, pattern, color) VALUES (NULL, '41', '#0000FF')");
+        }
+        FilterRepository repository = new FilterRepository(db);
+        repository.load();
+
+        FilterRepository.Snapshot snapshot = repository.getSnapshot();
+        assertEquals(Arrays.asList(null, "Alarme", "Zeta"), snapshot.rules.stream().map(rule -> rule.name).toList());
+        assertEquals(Set.of(), snapshot.search("null"));
+        repository.add(null, "42", "#0000FF");
+        assertEquals(4, repository.getSnapshot().rules.size());
+        repository.flush();
+    }
+}
@@ -0,0 +1,213 @@
+package org.sncf.gui.services;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.sncf.gui.services.export.FrameWriter;
+
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ImportServiceTest {
+
+    private static final List<TrameService.TrameEntry> TRAMES = List.of(
+            new TrameService.TrameEntry("01111110", "7E", "~", 1_700_000_000_000L),
+            new TrameService.TrameEntry("0100000101000010", "41 42", "A, \"B\"\nfin", 1_700_000_001_500L),
+            new TrameService.TrameEntry("101", "", "é\t\u0001", 1_700_000_002_000L));
+
+    private Path dbFile;
+    private Path file;
+    private ImportService service;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        dbFile = Files.createTempFile("import-", ".db");
+        String url = "jdbc:sqlite:" + dbFile;
+        try (Connection conn = DriverManager.getConnection(url); Statement stmt = conn.createStatement()) {
+            stmt.executeUpdate("CREATE TABLE frame_capture (id INTEGER PRIMARY KEY AUTOINCREMENT, raw_bits TEXT, "
+                    + "raw_hexa TEXT, raw_text TEXT, timestamp TEXT NOT NULL DEFAULT (DATETIME('now')))");
+            stmt.executeUpdate("CREATE TABLE dictionary (id INTEGER PRIMARY KEY AUTOINCREMENT, "
+                    + "traduction TEXT NOT NULL, hex_pattern TEXT NOT NULL)");
+            stmt.executeUpdate("INSERT INTO dictionary (traduction, hex_pattern) VALUES ('FLAG', '7E')");
+        }
+        DatabaseManager db = new DatabaseManager() {
+            @Override
+            public Connection getConnection() throws SQLException {
+                return DriverManager.getConnection(url);
+            }
+        };
+        service = new ImportService(db, new DictionaryService(db));
+    }
+
+    @AfterEach
+    void cleanUp() throws Exception {
+        Files.deleteIfExists(dbFile);
+        if (file != null) Files.deleteIfExists(file);
+    }
+
+    private void export(ExportService.Format format, String suffix, boolean compressed) throws Exception {
+        export(format, suffix, compressed, TRAMES);
+    }
+
+    private void export(ExportService.Format format, String suffix, boolean compressed,
+                        List<TrameService.TrameEntry> trames) throws Exception {
+        file = Files.createTempFile("import-", suffix);
+        try (OutputStream raw = Files.newOutputStream(file);
+             OutputStream out = compressed ? new GZIPOutputStream(raw) : raw) {
+            FrameWriter writer = new ExportService(null).open(format, out);
+            new ExportService(null).write(writer, ParallelScan.ChunkSource.of(trames), null, new ExportService.ExportJob(null));
+        }
+    }
+
+    private long importFile() throws Exception {
+        long[] rows = new long[1];
+        service.importFile(file, new ImportService.ImportJob(null), rows);
+        return rows[0];
+    }
+
+    private List<String> rows(String columns) throws SQLException {
+        List<String> rows = new ArrayList<>();
+        try (Connection conn = DriverManager.getConnection("jdbc:sqlite:" + dbFile);
+             Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT " + columns + " FROM frame_capture ORDER BY id")) {
+            while (rs.next()) {
+                StringBuilder row = new StringBuilder();
+                for (int i = 1; i <= rs.getMetaData().getColumnCount(); i++) {
+                    row.append(i > 1 ? "|" : "").append(rs.getString(i));
+                }
+                rows.add(row.toString());
+            }
+        }
+        return rows;
+    }
+
+    private static List<String> expected() {
+        List<String> rows = new ArrayList<>();
+        for (TrameService.TrameEntry entry : TRAMES) rows.add(entry.bits + "|" + entry.hex + "|" + entry.text);
+        return rows;
+    }
+
+    @Test
+    void importFile_shouldRoundTripEachExportFormat() throws Exception {
+        Object[][] cases = {
+                {ExportService.Format.CSV, ".csv", false},
+                {ExportService.Format.JSON, ".json", false},
+                {ExportService.Format.NDJSON, ".ndjson.gz", true},
+                {ExportService.Format.CAPTURE, ".tcap", false},
+        };
+        int total = 0;
+        for (Object[] c : cases) {
+            export((ExportService.Format) c[0], (String) c[1], (Boolean) c[2]);
+            assertEquals(TRAMES.size(), importFile(), c[1].toString());
+            total += TRAMES.size();
+            List<String> imported = rows("raw_bits, raw_hexa, raw_text");
+            assertEquals(total, imported.size());
+            assertEquals(expected(), imported.subList(total - TRAMES.size(), total), c[1].toString());
+            Files.delete(file);
+        }
+        file = null;
+    }
+
+    @Test
+    void importFile_shouldKeepLineBreaksOfQuotedCsvFields() throws Exception {
+        List<TrameService.TrameEntry> trames = List.of(
+                new TrameService.TrameEntry("01111110", "7E", "a\r\nb"),
+                new TrameService.TrameEntry("01111110", "7E", "c\rd\n"),
+                new TrameService.TrameEntry("01111110", "7E", "\"e\"\r\n\r\n"));
+        export(ExportService.Format.CSV, ".csv", false, trames);
+
+        assertEquals(3, importFile());
+        assertEquals(List.of("a\r\nb", "c\rd\n", "\"e\"\r\n\r\n"), rows("raw_text"));
+    }
+
+    @Test
+    void importFile_shouldKeepCaptureTimestamps() throws Exception {
+        export(ExportService.Format.CAPTURE, ".tcap", false);
+        importFile();
+        assertEquals(List.of("2023-11-14 22:13:20", "2023-11-14 22:13:21", "2023-11-14 22:13:22"), rows("timestamp"));
+    }
+
+    @Test
+    void importFile_shouldTranslateRawSerialLog() throws Exception {
+        file = Files.createTempFile("import-", ".log");
+        Files.writeString(file, "READY_TO_SNIFF\n01111110\n\n0100000101000010\r\n", StandardCharsets.UTF_8);
+        assertEquals(2, importFile());
+        assertEquals(List.of("01111110|7E|FLAG", "0100000101000010|41 42|AB"), rows("raw_bits, raw_hexa, raw_text"));
+    }
+
+    @Test
+    void importFile_shouldStopWhenCancelled() throws Exception {
+        file = Files.createTempFile("import-", ".log");
+        Files.writeString(file, "01111110\n".repeat(3 * ImportService.BATCH_ROWS), StandardCharsets.UTF_8);
+        ImportService.ImportJob job = new ImportService.ImportJob(null);
+        job.cancel();
+        long[] rows = new long[1];
+        service.importFile(file, job, rows);
+        assertEquals(0, rows[0]);
+        assertTrue(rows("raw_bits").isEmpty());
+    }
+
+    @Test
+    void importFile_shouldCountRowsKeptWhenCancelledMidway() throws Exception {
+        file = Files.createTempFile("import-", ".log");
+        Files.writeString(file, "01111110\n".repeat(20 * ImportService.BATCH_ROWS), StandardCharsets.UTF_8);
+        // Annulation dès le premier lot inséré, bien avant la première validation intermédiaire
+        ImportService.ImportJob job = new ImportService.ImportJob(null) {
+            @Override
+            void progress(long rows, long bytesRead, long totalBytes) {
+                if (rows > 0) cancel();
+            }
+        };
+        long[] rows = new long[1];
+        service.importFile(file, job, rows);
+
+        assertTrue(job.isCancelled());
+        assertTrue(rows[0] > 0 && rows[0] < 20 * ImportService.BATCH_ROWS, "lignes : " + rows[0]);
+        assertEquals(rows[0], rows("raw_bits").size());
+    }
+
+    @Test
+    void importFile_shouldReportMalformedFileToListener() throws Exception {
+        file = Files.createTempFile("import-", ".ndjson");
+        Files.writeString(file, "{\"bits\" \"01111110\"}\n", StandardCharsets.UTF_8);
+        CompletableFuture<Exception> finished = new CompletableFuture<>();
+
+        service.importFile(file, new ImportService.ImportListener() {
+            @Override
+            public void onProgress(long rows, long bytesRead, long totalBytes, double rowsPerSecond) {
+            }
+
+            @Override
+            public void onFinished(long rows, boolean cancelled, Exception error) {
+                finished.complete(error);
+            }
+        });
+
+        // Objet sans « : » : parseJson échoue, l'erreur parvient quand même au suivi de l'import
+        Exception error = finished.get(5, TimeUnit.SECONDS);
+        assertNotNull(error);
+        assertInstanceOf(IllegalArgumentException.class, error.getCause());
+        assertTrue(rows("raw_bits").isEmpty());
+    }
+
+    @Test
+    void parseCsv_shouldUnquoteFields() {
+        assertEquals("01", ImportService.parseCsv("\"01\",\"\",\"a,\"\"b\"\"\"").get("bits"));
+        assertEquals("a,\"b\"", ImportService.parseCsv("\"01\",\"\",\"a,\"\"b\"\"\"").get("text"));
+        assertEquals("41", ImportService.parseCsv("01000001,41,A").get("hex"));
+    }
+}
@@ -0,0 +1,81 @@
+package org.sncf.gui.services;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ParallelScanTest {
+
+    private final TrameService service = new TrameService(null, null);
+
+    private List<TrameService.TrameEntry> frames(int count) {
+        List<TrameService.TrameEntry> frames = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            String bits = String.format("%16s", Integer.toBinaryString(i & 0xFFFF)).replace(' ', '0');
+            frames.add(new TrameService.TrameEntry(bits, service.convertBitsToHex(bits), ""));
+        }
+        return frames;
+    }
+
+    @Test
+    void submit_shouldAssembleChunksInOrderAndReportProgress() throws Exception {
+        ParallelScan scan = new ParallelScan(new ForkJoinPool(4), 100);
+        List<TrameService.TrameEntry> source = frames(1234);
+
+        List<Integer> starts = scan.submit(ParallelScan.ChunkSource.of(source), (chunk, from) -> from, null)
+                .future().get(10, TimeUnit.SECONDS);
+
+        int previous = -1;
+        for (int start : starts) {
+            assertTrue(start > previous);
+            previous = start;
+        }
+        assertEquals(0, starts.get(0));
+
+        CountDownLatch finished = new CountDownLatch(1);
+        AtomicInteger last = new AtomicInteger();
+        scan.submit(ParallelScan.ChunkSource.of(source), (chunk, from) -> chunk.size(), (done, total) -> {
+            last.set(done);
+            if (done == total) finished.countDown();
+        });
+        assertTrue(finished.await(10, TimeUnit.SECONDS));
+        assertEquals(1234, last.get());
+    }
+
+    @Test
+    void latestJob_shouldCancelSupersededJob() throws Exception {
+        ParallelScan scan = new ParallelScan(new ForkJoinPool(2), 10);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger processed = new AtomicInteger();
+        ParallelScan.LatestJob latest = new ParallelScan.LatestJob();
+
+        ParallelScan.Job<Integer> slow = latest.replace(scan.submit(ParallelScan.ChunkSource.of(frames(10_000)), (chunk, from) -> {
+            started.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return processed.incrementAndGet();
+        }, null));
+        assertTrue(started.await(10, TimeUnit.SECONDS));
+
+        ParallelScan.Job<Integer> next = latest.replace(scan.submit(ParallelScan.ChunkSource.of(frames(10)), (chunk, from) -> chunk.size(), null));
+        release.countDown();
+
+        assertTrue(slow.isCancelled());
+        assertThrows(CancellationException.class, () -> slow.future().get(10, TimeUnit.SECONDS));
+        assertEquals(List.of(10), next.future().get(10, TimeUnit.SECONDS));
+        // Les tranches non commencées au moment de l'annulation ont été abandonnées
+        assertTrue(processed.get() < 1000);
+    }
+}
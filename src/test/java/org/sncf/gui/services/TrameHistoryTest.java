@@ -0,0 +1,142 @@
+package org.sncf.gui.services;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TrameHistoryTest {
+
+    private final TrameService service = new TrameService(null, null);
+    private TrameHistory history;
+
+    @AfterEach
+    void tearDown() {
+        if (history != null) history.close();
+    }
+
+    private TrameService.TrameEntry frame(int n) {
+        String bits = String.format("%16s", Integer.toBinaryString(n & 0xFFFF)).replace(' ', '0');
+        return new TrameService.TrameEntry(bits, service.convertBitsToHex(bits), "ignoré");
+    }
+
+    @Test
+    void get_shouldReturnFramesWithTextFromTranslator() {
+        history = new TrameHistory(1024, hex -> "T:" + hex);
+        history.add(frame(0x4142));
+
+        TrameService.TrameEntry entry = history.get(0);
+
+        assertEquals("0100000101000010", entry.bits);
+        assertEquals("41 42", entry.hex);
+        assertEquals("T:41 42", entry.text);
+    }
+
+    @Test
+    void get_shouldKeepReceptionTimeInMemoryAndOnDisk() {
+        history = new TrameHistory(TrameHistory.MIN_MEMORY_BUDGET, hex -> "");
+        for (int i = 0; i < 200; i++) {
+            TrameService.TrameEntry frame = frame(i);
+            // Une trame sur deux stockée brute (hexadécimal non déductible des bits)
+            String hex = i % 2 == 0 ? frame.hex : "??";
+            history.add(new TrameService.TrameEntry(frame.bits, hex, "", 1_700_000_000_000L + i));
+        }
+
+        assertTrue(history.getSpilledCount() > 0);
+        for (int i = 0; i < 200; i++) {
+            assertEquals(1_700_000_000_000L + i, history.get(i).timestamp, "trame " + i);
+        }
+    }
+
+    @Test
+    void add_shouldSpillOldFramesWhenBudgetIsExceeded() {
+        history = new TrameHistory(TrameHistory.MIN_MEMORY_BUDGET, hex -> "");
+        for (int i = 0; i < 5000; i++) {
+            history.add(frame(i));
+        }
+
+        assertEquals(5000, history.size());
+        assertTrue(history.getSpilledCount() > 0);
+        assertTrue(history.getInMemoryCount() < 5000);
+        for (int i = 0; i < 5000; i += 7) {
+            assertEquals(frame(i).bits, history.get(i).bits, "trame " + i);
+        }
+        assertEquals(frame(4999).hex, history.get(4999).hex);
+    }
+
+    @Test
+    void read_shouldReturnSameFramesAsGetAcrossDiskAndMemory() {
+        history = new TrameHistory(1024, hex -> "T:" + hex);
+        for (int i = 0; i < 3000; i++) {
+            history.add(frame(i));
+        }
+        assertTrue(history.getSpilledCount() > 0);
+
+        List<TrameService.TrameEntry> chunk = history.read(history.getSpilledCount() - 50, history.size());
+        for (int i = 0; i < chunk.size(); i++) {
+            TrameService.TrameEntry expected = history.get(history.getSpilledCount() - 50 + i);
+            assertEquals(expected.bits, chunk.get(i).bits);
+            assertEquals(expected.text, chunk.get(i).text);
+        }
+        assertThrows(IndexOutOfBoundsException.class, () -> history.read(0, history.size() + 1));
+    }
+
+    @Test
+    void add_shouldKeepNonDerivedFramesVerbatim() {
+        history = new TrameHistory(TrameHistory.MIN_MEMORY_BUDGET, hex -> "");
+        history.add(new TrameService.TrameEntry("0101", "", ""));
+        history.add(new TrameService.TrameEntry("01xz", "??", ""));
+        String longBits = "1".repeat(1000);
+        history.add(new TrameService.TrameEntry(longBits, "", ""));
+
+        assertEquals("0101", history.get(0).bits);
+        assertEquals("01xz", history.get(1).bits);
+        assertEquals("??", history.get(1).hex);
+        assertEquals(longBits, history.get(2).bits);
+    }
+
+    @Test
+    void clear_shouldEmptyMemoryAndDisk() {
+        history = new TrameHistory(TrameHistory.MIN_MEMORY_BUDGET, hex -> "");
+        for (int i = 0; i < 100; i++) history.add(frame(i));
+
+        history.clear();
+        history.add(frame(7));
+
+        assertEquals(1, history.size());
+        assertEquals(frame(7).bits, history.get(0).bits);
+        assertThrows(IndexOutOfBoundsException.class, () -> history.get(1));
+    }
+
+    @Test
+    void get_shouldTranslateOutsideTheHistoryLock() {
+        TrameHistory[] self = new TrameHistory[1];
+        history = new TrameHistory(1024, hex -> Thread.holdsLock(self[0]) ? "verrou" : "libre");
+        self[0] = history;
+        history.add(frame(0x4142));
+
+        assertEquals("libre", history.get(0).text);
+    }
+
+    @Test
+    void close_shouldDeleteSpillFiles() {
+        history = new TrameHistory(TrameHistory.MIN_MEMORY_BUDGET, hex -> "");
+        for (int i = 0; i < 1000; i++) {
+            history.add(frame(i));
+        }
+        assertTrue(history.getSpilledCount() > 0);
+        List<Path> spillFiles = history.getSpillFiles();
+        assertEquals(2, spillFiles.size());
+        assertTrue(Files.exists(spillFiles.get(0)));
+
+        history.close();
+
+        assertFalse(Files.exists(spillFiles.get(0)));
+        assertFalse(Files.exists(spillFiles.get(1)));
+        assertEquals(0, history.size());
+    }
+}
@@ -4,6 +4,7 @@ import org.junit.jupiter.api.Test;
 import org.sncf.gui.model.FilterRule;
 
 import java.util.List;
+import java.util.Map;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -31,6 +32,18 @@ class TrameServiceTest {
         assertEquals("", service.convertBitsToHex(null));
     }
 
+    @Test
+    void bitsToHex_shouldMatchFormattedBytesAndRejectNonBinary() {
+        String bits = "010010000110010111111111000000001010010111000011";
+        StringBuilder expected = new StringBuilder();
+        for (int i = 0; i < bits.length(); i += 8) {
+            expected.append(String.format("%02X ", Integer.parseInt(bits.substring(i, i + 8), 2)));
+        }
+        assertEquals(expected.toString().trim(), TrameService.bitsToHex(bits));
+        assertEquals("", TrameService.bitsToHex("0101"));
+        assertEquals("", TrameService.bitsToHex("0100100a"));
+    }
+
     // === processBits ===
 
     @Test
@@ -44,11 +57,40 @@ class TrameServiceTest {
 
         TrameService service = new TrameService(null, mockDictionary);
         String inputBits = "0100101000101111"; // 4A 2F
+        long before = System.currentTimeMillis();
         TrameService.TrameEntry entry = service.processBits(inputBits);
 
         assertEquals("0100101000101111", entry.bits);
         assertEquals("4A 2F", entry.hex);
         assertEquals("TEXT_4A 2F", entry.text);
+        // Horodatée à la réception, pour les exports de l'historique en mémoire
+        assertTrue(entry.timestamp >= before && entry.timestamp <= System.currentTimeMillis());
+    }
+
+    @Test
+    void processBitsBatch_shouldKeepEachFrameReceptionTime() {
+        DictionaryService mockDictionary = new DictionaryService(null) {
+            @Override
+            public Map<String, String> getDictionaryMap() {
+                return Map.of();
+            }
+
+            @Override
+            public String convertHexToText(String hexLine, Map<String, String> dict) {
+                return "TEXT_" + hexLine;
+            }
+        };
+
+        TrameService service = new TrameService(null, mockDictionary);
+        List<TrameService.TrameEntry> entries = service.processBits(
+                List.of("01001010", "00101111"), new long[]{1_000L, 2_500L});
+
+        assertEquals(2, entries.size());
+        assertEquals("4A", entries.get(0).hex);
+        assertEquals("TEXT_2F", entries.get(1).text);
+        // Trames de pré-déclenchement : l'heure de réception, pas celle de la conversion
+        assertEquals(1_000L, entries.get(0).timestamp);
+        assertEquals(2_500L, entries.get(1).timestamp);
     }
 
     // === matchesFilter ===
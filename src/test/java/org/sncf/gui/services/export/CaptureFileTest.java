@@ -0,0 +1,129 @@
+package org.sncf.gui.services.export;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.sncf.gui.services.TrameService;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CaptureFileTest {
+
+    private Path file;
+
+    @AfterEach
+    void tearDown() throws Exception {
+        if (file != null) Files.deleteIfExists(file);
+    }
+
+    private static List<TrameService.TrameEntry> frames(int count) {
+        TrameService converter = new TrameService(null, null);
+        Random random = new Random(11);
+        List<TrameService.TrameEntry> frames = new ArrayList<>();
+        long time = 1_700_000_000_000L;
+        for (int i = 0; i < count; i++) {
+            StringBuilder bits = new StringBuilder();
+            // Longueurs quelconques : certaines trames ne sont pas alignées sur l'octet
+            int length = i % 5 == 0 ? random.nextInt(20) : 8 * (1 + random.nextInt(6));
+            for (int b = 0; b < length; b++) {
+                bits.append(random.nextBoolean() ? '1' : '0');
+            }
+            // Instants croissants, sauf un retour en arrière
+            time += i == 7 ? -5000 : random.nextInt(2000);
+            String text = i % 3 == 0 ? "Défaut \"porte\"\n" + i : "";
+            frames.add(new TrameService.TrameEntry(bits.toString(), converter.convertBitsToHex(bits.toString()), text, time));
+        }
+        return frames;
+    }
+
+    private Path write(List<TrameService.TrameEntry> frames, CaptureFile.Header header, int blockRows) throws IOException {
+        file = Files.createTempFile("capture-", CaptureFile.EXTENSION);
+        try (OutputStream out = Files.newOutputStream(file)) {
+            CaptureFileWriter writer = new CaptureFileWriter(out, header, blockRows);
+            writer.begin();
+            for (TrameService.TrameEntry frame : frames) {
+                writer.write(frame);
+            }
+            writer.end();
+        }
+        return file;
+    }
+
+    @Test
+    void roundTrip_shouldRestoreFramesAcrossBlocks() throws Exception {
+        List<TrameService.TrameEntry> frames = frames(100);
+        long hash = CaptureFile.dictionaryHash(Map.of("7E", "Début", "41", "A"));
+        write(frames, new CaptureFile.Header(CaptureFile.VERSION, true, 1234L, hash, "COM3 115200 bauds : baud=9600"), 16);
+
+        try (CaptureFileReader reader = CaptureFileReader.open(file)) {
+            assertEquals(100, reader.getFrameCount());
+            assertEquals(7, reader.getBlockCount());
+            assertEquals(1234L, reader.getHeader().createdAt);
+            assertEquals(hash, reader.getHeader().dictionaryHash);
+            assertEquals("COM3 115200 bauds : baud=9600", reader.getHeader().portConfig);
+
+            List<TrameService.TrameEntry> read = reader.read(0, 100);
+            for (int i = 0; i < frames.size(); i++) {
+                assertEquals(frames.get(i).bits, read.get(i).bits, "trame " + i);
+                assertEquals(frames.get(i).hex, read.get(i).hex, "trame " + i);
+                assertEquals(frames.get(i).text, read.get(i).text, "trame " + i);
+                assertEquals(frames.get(i).timestamp, read.get(i).timestamp, "trame " + i);
+            }
+            // Accès direct au milieu d'un bloc, à cheval sur deux blocs
+            assertEquals(2, reader.findBlock(40));
+            assertEquals(frames.subList(30, 50).stream().map(f -> f.bits).toList(),
+                    reader.read(30, 50).stream().map(f -> f.bits).toList());
+        }
+    }
+
+    @Test
+    void read_shouldReturnEmptySliceAtEndAndForEmptyCapture() throws Exception {
+        write(frames(10), new CaptureFile.Header(CaptureFile.VERSION, true, 0, 0, ""), 4);
+        try (CaptureFileReader reader = CaptureFileReader.open(file)) {
+            assertTrue(reader.read(10, 10).isEmpty());
+            assertTrue(reader.read(3, 3).isEmpty());
+        }
+        Files.delete(file);
+
+        write(List.of(), new CaptureFile.Header(CaptureFile.VERSION, true, 0, 0, ""), 4);
+        try (CaptureFileReader reader = CaptureFileReader.open(file)) {
+            assertEquals(0, reader.getFrameCount());
+            assertTrue(reader.read(0, reader.size()).isEmpty());
+        }
+    }
+
+    @Test
+    void withoutText_shouldBeMuchSmallerThanCsv() throws Exception {
+        List<TrameService.TrameEntry> frames = frames(5000);
+        write(frames, new CaptureFile.Header(CaptureFile.VERSION, false, 0, 0, ""), CaptureFile.BLOCK_ROWS);
+
+        long csv = 0;
+        for (TrameService.TrameEntry frame : frames) {
+            csv += frame.bits.length() + frame.hex.length() + frame.text.length() + 8;
+        }
+        assertTrue(Files.size(file) * 5 < csv, Files.size(file) + " octets pour " + csv + " en CSV");
+        try (CaptureFileReader reader = CaptureFileReader.open(file)) {
+            assertFalse(reader.getHeader().hasText);
+            assertEquals("", reader.read(4999, 5000).get(0).text);
+            assertEquals(frames.get(4999).bits, reader.read(4999, 5000).get(0).bits);
+        }
+    }
+
+    @Test
+    void open_shouldRejectTruncatedFiles() throws Exception {
+        write(frames(10), new CaptureFile.Header(CaptureFile.VERSION, true, 0, 0, ""), 4);
+        byte[] bytes = Files.readAllBytes(file);
+        Files.write(file, Arrays.copyOf(bytes, bytes.length - 3));
+
+        assertThrows(IOException.class, () -> CaptureFileReader.open(file));
+    }
+}
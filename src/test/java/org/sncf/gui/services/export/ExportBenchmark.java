@@ -0,0 +1,160 @@
+package org.sncf.gui.services.export;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Banc d'essai comparant la sérialisation historique ({@code printf} par ligne)
+ * aux sérialiseurs {@link CsvRowWriter} et {@link JsonRowWriter}, sur un million de trames,
+ * ainsi que la compression gzip séquentielle et {@link ParallelGzipOutputStream}.
+ * Les caractères (ou octets compressés) produits sont comptés puis jetés.
+ * <p>Lancement : {@code java -cp target/classes:target/test-classes org.sncf.gui.services.export.ExportBenchmark [trames]}</p>
+ */
+public class ExportBenchmark {
+
+    private static final int ROUNDS = 5;
+
+    /**
+     * Flux qui compte les caractères reçus.
+     */
+    private static class CountingWriter extends Writer {
+        long chars;
+
+        @Override
+        public void write(char[] cbuf, int off, int len) {
+            chars += len;
+        }
+
+        @Override
+        public void write(String str, int off, int len) {
+            chars += len;
+        }
+
+        @Override
+        public void flush() {
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+
+    /**
+     * Flux qui compte les octets compressés comme des caractères du {@link CountingWriter}.
+     */
+    private static class CountingOutputStream extends OutputStream {
+        private final Writer counter;
+
+        CountingOutputStream(Writer counter) {
+            this.counter = counter;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            counter.write(new char[1], 0, 1);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            counter.write(new char[0], 0, len);
+        }
+    }
+
+    private interface Serializer {
+        void run(List<String[]> rows, Writer out) throws IOException;
+    }
+
+    public static void main(String[] args) throws IOException {
+        int count = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        List<String[]> rows = generate(count);
+
+        bench("CSV printf", rows, (list, out) -> {
+            PrintWriter writer = new PrintWriter(out);
+            writer.println("bits,hex,text");
+            for (String[] t : list) {
+                writer.printf("\"%s\",\"%s\",\"%s\"\n", t[0], t[1], t[2]);
+            }
+            writer.flush();
+        });
+        bench("CSV RowWriter", rows, (list, out) -> write(new CsvRowWriter(out), list));
+        bench("JSON printf", rows, (list, out) -> {
+            PrintWriter writer = new PrintWriter(out);
+            writer.println("[");
+            for (int i = 0; i < list.size(); i++) {
+                String[] t = list.get(i);
+                writer.printf("  {\"bits\": \"%s\", \"hex\": \"%s\", \"text\": \"%s\"}%s\n",
+                        legacyEscape(t[0]), legacyEscape(t[1]), legacyEscape(t[2]), (i < list.size() - 1 ? "," : ""));
+            }
+            writer.println("]");
+            writer.flush();
+        });
+        bench("JSON RowWriter", rows, (list, out) -> write(new JsonRowWriter(out, false), list));
+        bench("NDJSON RowWriter", rows, (list, out) -> write(new JsonRowWriter(out, true), list));
+        bench("CSV gzip", rows, (list, out) -> compressed(new GZIPOutputStream(new CountingOutputStream(out), 1 << 16), list));
+        bench("CSV gzip parallèle", rows, (list, out) -> compressed(new ParallelGzipOutputStream(new CountingOutputStream(out)), list));
+    }
+
+    private static void write(RowWriter writer, List<String[]> rows) throws IOException {
+        writer.begin();
+        for (String[] t : rows) {
+            writer.row(t[0], t[1], t[2]);
+        }
+        writer.end();
+    }
+
+    private static void compressed(OutputStream gzip, List<String[]> rows) throws IOException {
+        try (Writer writer = new OutputStreamWriter(gzip, StandardCharsets.UTF_8)) {
+            write(new CsvRowWriter(writer), rows);
+        }
+    }
+
+    private static String legacyEscape(String input) {
+        return input.replace("\\", "\\\\").replace("\"", "\\\"");
+    }
+
+    /**
+     * Trames de 4 à 32 octets, avec un texte ASCII contenant parfois guillemets et retours à la ligne.
+     */
+    private static List<String[]> generate(int count) {
+        Random random = new Random(42);
+        List<String[]> rows = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            int length = 4 + random.nextInt(29);
+            StringBuilder bits = new StringBuilder(length * 8);
+            StringBuilder hex = new StringBuilder(length * 3);
+            StringBuilder text = new StringBuilder(length);
+            for (int b = 0; b < length; b++) {
+                int value = random.nextInt(256);
+                bits.append(String.format("%8s", Integer.toBinaryString(value)).replace(' ', '0'));
+                if (b > 0) hex.append(' ');
+                hex.append(String.format("%02X", value));
+                int c = 0x20 + random.nextInt(0x5F);
+                text.append(random.nextInt(50) == 0 ? '\n' : (char) c);
+            }
+            rows.add(new String[]{bits.toString(), hex.toString(), text.toString()});
+        }
+        return rows;
+    }
+
+    private static void bench(String name, List<String[]> rows, Serializer serializer) throws IOException {
+        long best = Long.MAX_VALUE;
+        long chars = 0;
+        for (int round = 0; round < ROUNDS; round++) {
+            CountingWriter out = new CountingWriter();
+            long start = System.nanoTime();
+            serializer.run(rows, out);
+            best = Math.min(best, System.nanoTime() - start);
+            chars = out.chars;
+        }
+        System.out.printf("%-18s %8.1f ms  %10.0f trames/s  %6.1f Mcar%n",
+                name, best / 1e6, rows.size() * 1e9 / best, chars / 1e6);
+    }
+}
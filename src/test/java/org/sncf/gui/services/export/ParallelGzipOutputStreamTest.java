@@ -0,0 +1,55 @@
+package org.sncf.gui.services.export;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ParallelGzipOutputStreamTest {
+
+    private static byte[] gunzip(byte[] compressed) throws IOException {
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(compressed))) {
+            return in.readAllBytes();
+        }
+    }
+
+    private static int members(byte[] compressed) {
+        int count = 0;
+        for (int i = 0; i + 2 < compressed.length; i++) {
+            if ((compressed[i] & 0xFF) == 0x1F && (compressed[i + 1] & 0xFF) == 0x8B && compressed[i + 2] == 8) count++;
+        }
+        return count;
+    }
+
+    @Test
+    void blocks_shouldBeConcatenatedMembersReadableInOrder() throws Exception {
+        byte[] data = new byte[10 * 1000 + 123];
+        Random random = new Random(3);
+        for (int i = 0; i < data.length; i++) {
+            data[i] = (byte) ('A' + random.nextInt(4));
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (ParallelGzipOutputStream gzip = new ParallelGzipOutputStream(out, ForkJoinPool.commonPool(), 1000, 2)) {
+            gzip.write(data, 0, 500);
+            gzip.write(data[500]);
+            gzip.write(data, 501, data.length - 501);
+        }
+
+        byte[] compressed = out.toByteArray();
+        assertTrue(members(compressed) >= 11);
+        assertArrayEquals(data, gunzip(compressed));
+    }
+
+    @Test
+    void emptyStream_shouldStillBeValidGzip() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        new ParallelGzipOutputStream(out).close();
+        assertEquals(0, gunzip(out.toByteArray()).length);
+    }
+}
@@ -0,0 +1,72 @@
+package org.sncf.gui.services.export;
+
+import org.junit.jupiter.api.Test;
+import org.sncf.gui.services.TrameService;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PcapngWriterTest {
+
+    /**
+     * Découpe un fichier pcapng en blocs, en vérifiant la longueur répétée en fin de bloc.
+     */
+    private static List<ByteBuffer> blocks(byte[] file) {
+        ByteBuffer buffer = ByteBuffer.wrap(file).order(ByteOrder.LITTLE_ENDIAN);
+        List<ByteBuffer> blocks = new ArrayList<>();
+        while (buffer.hasRemaining()) {
+            int start = buffer.position();
+            int length = buffer.getInt(start + 4);
+            assertEquals(0, length % 4);
+            assertEquals(length, buffer.getInt(start + length - 4));
+            blocks.add(ByteBuffer.wrap(file, start, length).slice().order(ByteOrder.LITTLE_ENDIAN));
+            buffer.position(start + length);
+        }
+        return blocks;
+    }
+
+    @Test
+    void write_shouldProduceSectionInterfaceAndPacketBlocks() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        PcapngWriter writer = new PcapngWriter(out, "serie", "COM3 115200 bauds", true, 5000L);
+        writer.begin();
+        writer.write(new TrameService.TrameEntry("0111111001000001", "7E 41", "Porte ouverte", 1_700_000_000_123L));
+        writer.write(new TrameService.TrameEntry("1010", "", ""));
+        writer.end();
+
+        List<ByteBuffer> blocks = blocks(out.toByteArray());
+        assertEquals(4, blocks.size());
+        assertEquals(PcapngWriter.SHB, blocks.get(0).getInt(0));
+        assertEquals(PcapngWriter.BYTE_ORDER_MAGIC, blocks.get(0).getInt(8));
+
+        ByteBuffer idb = blocks.get(1);
+        assertEquals(PcapngWriter.IDB, idb.getInt(0));
+        assertEquals(PcapngWriter.LINKTYPE_USER0, idb.getShort(8));
+
+        ByteBuffer first = blocks.get(2);
+        assertEquals(PcapngWriter.EPB, first.getInt(0));
+        assertEquals(0, first.getInt(8));
+        long nanos = ((long) first.getInt(12) << 32) | (first.getInt(16) & 0xFFFFFFFFL);
+        assertEquals(1_700_000_000_123_000_000L, nanos);
+        assertEquals(2, first.getInt(20));
+        assertEquals(2, first.getInt(24));
+        assertEquals(0x7E, first.get(28) & 0xFF);
+        assertEquals(0x41, first.get(29) & 0xFF);
+        assertEquals(PcapngWriter.OPT_COMMENT, first.getShort(32));
+        assertEquals("Porte ouverte", new String(first.array(), first.arrayOffset() + 36, first.getShort(34), StandardCharsets.UTF_8));
+
+        // Trame de 4 bits, non horodatée : complétée à un octet, instant par défaut, longueur en commentaire
+        ByteBuffer second = blocks.get(3);
+        assertEquals(5_000_000_000L, ((long) second.getInt(12) << 32) | (second.getInt(16) & 0xFFFFFFFFL));
+        assertEquals(1, second.getInt(20));
+        assertEquals(0xA0, second.get(28) & 0xFF);
+        assertEquals("4 bits", new String(second.array(), second.arrayOffset() + 36, second.getShort(34), StandardCharsets.UTF_8));
+        assertEquals(2, writer.getRows());
+    }
+}
@@ -0,0 +1,45 @@
+package org.sncf.gui.services.export;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.StringWriter;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RowWriterTest {
+
+    @Test
+    void csv_shouldQuoteFieldsAndDoubleInnerQuotes() throws Exception {
+        StringWriter out = new StringWriter();
+        RowWriter writer = new CsvRowWriter(out);
+        writer.begin();
+        writer.row("01", "7E", "dit \"oui\", puis\nnon");
+        writer.row("10", "", null);
+        writer.end();
+
+        assertEquals("bits,hex,text\r\n\"01\",\"7E\",\"dit \"\"oui\"\", puis\nnon\"\r\n\"10\",\"\",\"\"\r\n", out.toString());
+        assertEquals(2, writer.getRows());
+    }
+
+    @Test
+    void json_shouldEscapeControlCharactersOnOneLine() {
+        assertEquals("a\\\"b\\\\c\\n\\r\\t\\b\\f\\u0000\\u001fé", JsonRowWriter.escape("a\"b\\c\n\r\t\b\f\u0000\u001fé"));
+        assertEquals("", JsonRowWriter.escape(null));
+    }
+
+    @Test
+    void rows_largerThanTheBuffer_shouldBeWrittenWhole() throws Exception {
+        String text = "x".repeat(3 * RowWriter.DEFAULT_BUFFER_SIZE);
+        StringWriter out = new StringWriter();
+        RowWriter writer = new JsonRowWriter(out, true);
+        writer.begin();
+        for (int i = 0; i < 3; i++) {
+            writer.row("01", "7E", i == 1 ? text : "~");
+        }
+        writer.end();
+
+        String[] lines = out.toString().split("\n");
+        assertEquals(3, lines.length);
+        assertEquals("{\"bits\":\"01\",\"hex\":\"7E\",\"text\":\"" + text + "\"}", lines[1]);
+    }
+}
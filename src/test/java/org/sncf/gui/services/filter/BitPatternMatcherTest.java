@@ -0,0 +1,164 @@
+package org.sncf.gui.services.filter;
+
+import org.junit.jupiter.api.Test;
+import org.sncf.gui.model.BitStore;
+import org.sncf.gui.model.FilterRule;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BitPatternMatcherTest {
+
+    /**
+     * Référence : recherche par expression régulière, comme les filtres texte.
+     */
+    private static List<String> regexMatches(String pattern, String bits) {
+        String regex = pattern.replace("?", "[01]").replace("*", ".*?");
+        Matcher matcher = Pattern.compile(regex).matcher(bits);
+        List<String> result = new ArrayList<>();
+        while (matcher.find()) {
+            result.add(matcher.start() + "-" + matcher.end());
+        }
+        return result;
+    }
+
+    private static String randomBits(Random random, int length) {
+        StringBuilder bits = new StringBuilder();
+        for (int i = 0; i < length; i++) {
+            bits.append(random.nextInt(2));
+        }
+        return bits.toString();
+    }
+
+    @Test
+    void feed_shouldFindSameMatchesAsRegexForAllPatternsInOnePass() {
+        Random random = new Random(7);
+        String bits = randomBits(random, 5000);
+        List<String> sources = List.of("101", "0110", "1?1", "11*00", "0*1?0*11", "1111", bits.substring(100, 180));
+        List<BitPattern> patterns = new ArrayList<>();
+        for (String source : sources) {
+            patterns.add(BitPattern.parse(source));
+        }
+
+        List<List<String>> found = new ArrayList<>();
+        for (int i = 0; i < sources.size(); i++) found.add(new ArrayList<>());
+        BitPatternMatcher.Scanner scanner = new BitPatternMatcher(patterns).newScanner();
+        // Lecture par morceaux de tailles irrégulières
+        for (int pos = 0; pos < bits.length(); ) {
+            int next = Math.min(bits.length(), pos + 1 + random.nextInt(40));
+            scanner.feed(bits.substring(pos, next), (p, start, end) -> found.get(p).add(start + "-" + end));
+            pos = next;
+        }
+
+        for (int i = 0; i < sources.size(); i++) {
+            assertEquals(regexMatches(sources.get(i), bits), found.get(i), sources.get(i));
+        }
+    }
+
+    @Test
+    void findFirst_shouldReturnPatternOfFirstCompletedMatch() {
+        BitPatternMatcher matcher = new BitPatternMatcher(List.of(BitPattern.parse("1111"), BitPattern.parse("0?1")));
+        assertEquals(1, matcher.findFirst("11001111"));
+        assertEquals(0, matcher.findFirst("1111"));
+        assertEquals(-1, matcher.findFirst("1 1 0"));
+        assertEquals(-1, new BitPatternMatcher(List.of()).findFirst("0101"));
+    }
+
+    @Test
+    void parse_shouldIgnoreSpacesAndOuterWildcards() {
+        BitPattern pattern = BitPattern.parse("*10 ?1*");
+        assertEquals(4, pattern.length());
+        assertEquals(BitPattern.ANY, pattern.bitAt(2));
+        assertTrue(pattern.isFixedLength());
+        assertFalse(BitPattern.isBitPattern("??"));
+        assertFalse(BitPattern.isBitPattern("0A"));
+        assertThrows(IllegalArgumentException.class, () -> BitPattern.parse("hello"));
+    }
+
+    @Test
+    void update_shouldProduceRunsAcrossFramesIncrementally() {
+        Random random = new Random(3);
+        List<FilterRule> rules = List.of(new FilterRule("1001", "#FF0000"), new FilterRule("11*0011", "#00FF00"),
+                new FilterRule("AB", "#0000FF"));
+        BitStore store = new BitStore();
+        BitFilterRuns runs = new BitFilterRuns();
+        runs.setFilters(FilterSet.compile(rules), store);
+        StringBuilder all = new StringBuilder();
+        for (int f = 0; f < 200; f++) {
+            String frame = randomBits(random, random.nextInt(30));
+            all.append(frame);
+            store.appendFrame(frame);
+            runs.update(store);
+        }
+
+        List<String> incremental = new ArrayList<>();
+        runs.forEachRun(0, store.size(), (color, start, end) -> incremental.add(color.getRed() + ":" + start + "-" + end));
+        List<String> expected = new ArrayList<>();
+        for (String m : regexMatches("1001", all.toString())) expected.add("255:" + m);
+        for (String m : regexMatches("11*0011", all.toString())) expected.add("0:" + m);
+        assertEquals(expected, incremental);
+
+        // Fenêtre : seules les plages qui la chevauchent
+        List<int[]> window = new ArrayList<>();
+        runs.forEachRun(1000, 1100, (color, start, end) -> window.add(new int[]{start, end}));
+        for (int[] run : window) {
+            assertTrue(run[1] > 1000 && run[0] < 1100);
+        }
+    }
+
+    @Test
+    void setFilters_shouldResumeToggledRulesWithoutRescanning() {
+        Random random = new Random(11);
+        FilterRule fixed = new FilterRule("1001", "#FF0000");
+        FilterRule gap = new FilterRule("11*0011", "#00FF00");
+        BitStore store = new BitStore();
+        BitFilterRuns toggled = new BitFilterRuns();
+        StringBuilder all = new StringBuilder();
+        for (int f = 0; f < 300; f++) {
+            String frame = randomBits(random, random.nextInt(30));
+            all.append(frame);
+            store.appendFrame(frame);
+            // Ajout, retrait et réactivation des règles au fil des trames
+            switch (f % 4) {
+                case 0 -> toggled.setFilters(FilterSet.compile(List.of(fixed)), store);
+                case 1 -> toggled.setFilters(FilterSet.compile(List.of(fixed, gap)), store);
+                case 2 -> toggled.setFilters(FilterSet.compile(List.of(gap)), store);
+                default -> toggled.setFilters(FilterSet.EMPTY, store);
+            }
+            toggled.update(store);
+        }
+        toggled.setFilters(FilterSet.compile(List.of(fixed, gap, fixed)), store);
+
+        List<String> runs = new ArrayList<>();
+        toggled.forEachRun(0, store.size(), (color, start, end) -> runs.add(color.getRed() + ":" + start + "-" + end));
+        List<String> expected = new ArrayList<>();
+        for (String m : regexMatches("1001", all.toString())) expected.add("255:" + m);
+        for (String m : regexMatches("11*0011", all.toString())) expected.add("0:" + m);
+        for (String m : regexMatches("1001", all.toString())) expected.add("255:" + m);
+        assertEquals(expected, runs);
+    }
+
+    @Test
+    void setFilters_shouldForgetLeastRecentlyUsedInactivePatterns() {
+        BitStore store = new BitStore();
+        store.appendFrame("0110100110010110");
+        BitFilterRuns runs = new BitFilterRuns();
+        FilterRule kept = new FilterRule("1001", "#FF0000");
+        // Motif saisi caractère par caractère : chaque étape est un nouveau motif
+        for (int i = 0; i < 3 * BitFilterRuns.MAX_INACTIVE_PATTERNS; i++) {
+            runs.setFilters(FilterSet.compile(List.of(kept, new FilterRule(Integer.toBinaryString(i + 8), "#00FF00"))), store);
+        }
+        runs.setFilters(FilterSet.EMPTY, store);
+        assertEquals(BitFilterRuns.MAX_INACTIVE_PATTERNS, runs.getRetainedCount());
+
+        runs.setFilters(FilterSet.compile(List.of(kept)), store);
+        List<String> found = new ArrayList<>();
+        runs.forEachRun(0, store.size(), (color, start, end) -> found.add(start + "-" + end));
+        assertEquals(regexMatches("1001", "0110100110010110"), found);
+    }
+}
@@ -0,0 +1,59 @@
+package org.sncf.gui.services.filter;
+
+import org.junit.jupiter.api.Test;
+import org.sncf.gui.model.CaptureSettings;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CaptureFilterTest {
+
+    private static String bits(int... bytes) {
+        StringBuilder bits = new StringBuilder();
+        for (int value : bytes) {
+            bits.append(String.format("%8s", Integer.toBinaryString(value)).replace(' ', '0'));
+        }
+        return bits.toString();
+    }
+
+    @Test
+    void accept_shouldKeepMatchingFramesAndCountTheOthers() {
+        CaptureFilter filter = CaptureFilter.compile(new CaptureSettings(true, List.of("7E ?? 30", "err"), 0));
+
+        assertTrue(filter.accept(bits(0x7E, 0x01, 0x30)));
+        // Le texte capturé est la conversion ASCII brute, sans tenir compte de la casse
+        assertTrue(filter.accept(bits('E', 'R', 'R', 0x00)));
+        assertFalse(filter.accept(bits(0x7E, 0x30)));
+        assertFalse(filter.accept("0101"));
+
+        assertEquals(2, filter.getAccepted());
+        assertEquals(2, filter.getDropped());
+        assertEquals(0, filter.getSampled());
+    }
+
+    @Test
+    void accept_shouldSampleRejectedFrames() {
+        CaptureFilter filter = CaptureFilter.compile(new CaptureSettings(true, List.of("byte[0] == 0x7E"), 4));
+        int kept = 0;
+        for (int i = 0; i < 100; i++) {
+            if (filter.accept(bits(i % 10 == 0 ? 0x7E : 0x10, i))) kept++;
+        }
+        // 10 trames retenues, 90 écartées dont une sur 4 conservée
+        assertEquals(10 + 22, kept);
+        assertEquals(10, filter.getAccepted());
+        assertEquals(22, filter.getSampled());
+        assertEquals(68, filter.getDropped());
+    }
+
+    @Test
+    void compile_shouldAcceptEverythingWhenDisabledOrEmpty() {
+        CaptureFilter disabled = CaptureFilter.compile(new CaptureSettings(false, List.of("7E"), 0));
+        CaptureFilter empty = CaptureFilter.compile(new CaptureSettings(true, List.of(" "), 0));
+        assertTrue(disabled.isPassThrough());
+        assertTrue(empty.isPassThrough());
+        assertTrue(disabled.accept(bits(0x10)));
+        assertTrue(empty.accept("1"));
+        assertEquals(0, disabled.getDropped());
+    }
+}
@@ -0,0 +1,71 @@
+package org.sncf.gui.services.filter;
+
+import org.junit.jupiter.api.Test;
+import org.sncf.gui.model.FilterRule;
+import org.sncf.gui.services.TrameService;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FilterExpressionTest {
+
+    private final TrameService service = new TrameService(null, null);
+
+    private TrameService.TrameEntry frame(String hex, String text) {
+        StringBuilder bits = new StringBuilder();
+        for (String token : hex.split(" ")) {
+            bits.append(String.format("%8s", Integer.toBinaryString(Integer.parseInt(token, 16))).replace(' ', '0'));
+        }
+        return new TrameService.TrameEntry(bits.toString(), service.convertBitsToHex(bits.toString()), text);
+    }
+
+    @Test
+    void test_shouldEvaluateFieldsMasksAndLogic() {
+        FilterExpression expression = FilterExpression.parse("byte[0] == 0x7E && (byte[2] & 0xF0) == 0x30 && !text ~ \"ERR\"");
+
+        assertTrue(expression.test(frame("7E 01 35", "ok")));
+        assertFalse(expression.test(frame("7E 01 35", "an error")));
+        assertFalse(expression.test(frame("7E 01 45", "ok")));
+        assertFalse(expression.test(frame("7E 01", "ok")));
+
+        assertTrue(FilterExpression.parse("byte[-1] in 0x30..0x39 || len > 4").test(frame("00 31", "")));
+        assertTrue(FilterExpression.parse("bit[0] == 0 && bitlen == 16 && hex ~ \"?? 31\"").test(frame("00 31", "")));
+        // Un octet absent ne vérifie aucune comparaison, pas même !=
+        assertFalse(FilterExpression.parse("byte[5] != 0x7E").test(frame("00 31", "")));
+        assertTrue(FilterExpression.parse("hex == \"00  31\" && text == \"A\"").test(frame("00 31", "A")));
+    }
+
+    @Test
+    void parse_shouldReportErrorPosition() {
+        IllegalArgumentException error = assertThrows(IllegalArgumentException.class,
+                () -> FilterExpression.parse("byte[0] == && len"));
+        assertTrue(error.getMessage().contains("position 12"), error.getMessage());
+        assertThrows(IllegalArgumentException.class, () -> FilterExpression.parse("byte[0] + 1"));
+        assertThrows(IllegalArgumentException.class, () -> FilterExpression.parse("len"));
+        assertThrows(IllegalArgumentException.class, () -> FilterExpression.parse("hex ~ \"XYZ\""));
+        assertNotNull(FilterExpression.validate("byte[0] = 1 && len"));
+        assertNull(FilterExpression.validate("7E ?? 30"));
+    }
+
+    @Test
+    void legacyPatterns_shouldKeepTheirMeaning() {
+        for (String pattern : new String[]{"7E", "0110", "ERR*OK", "1?0*1", "?? 7E", "len", "A"}) {
+            assertFalse(FilterExpression.isExpression(pattern), pattern);
+            assertNotEquals(FilterMatcher.Type.EXPRESSION, FilterMatcher.detectType(pattern), pattern);
+        }
+        // Une chaîne seule dans une expression est une règle simple
+        TrameService.TrameEntry entry = frame("7E 41", "xA");
+        assertTrue(FilterExpression.parse("\"7E\" && \"41\"").test(entry));
+    }
+
+    @Test
+    void match_shouldHighlightReadBytesAndFoundPatterns() {
+        FilterMatcher matcher = FilterMatcher.compile(new FilterRule("byte[0] == 0x7E && text ~ \"C\"", "#FF0000"));
+        assertEquals(FilterMatcher.Type.EXPRESSION, matcher.getType());
+
+        MatchSpans spans = matcher.match(frame("7E 41 43", "?AC"));
+
+        assertArrayEquals(new int[]{0, 2, 6, 8}, spans.get(MatchSpans.HEX));
+        assertArrayEquals(new int[]{0, 8, 16, 24}, spans.get(MatchSpans.BITS));
+        assertSame(MatchSpans.NONE, matcher.match(frame("7F 41 43", "?AC")));
+    }
+}
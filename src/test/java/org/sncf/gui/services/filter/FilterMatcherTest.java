@@ -0,0 +1,107 @@
+package org.sncf.gui.services.filter;
+
+import org.junit.jupiter.api.Test;
+import org.sncf.gui.model.FilterRule;
+import org.sncf.gui.services.TrameService;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FilterMatcherTest {
+
+    // "ABC" : 0x41 0x42 0x43
+    private final TrameService.TrameEntry entry =
+            new TrameService.TrameEntry("010000010100001001000011", "41 42 43", "ABC");
+
+    private static FilterMatcher compile(String pattern) {
+        return FilterMatcher.compile(new FilterRule(pattern, "#FF0000"));
+    }
+
+    @Test
+    void detectType_shouldRecognizeBitsHexAndText() {
+        assertEquals(FilterMatcher.Type.BITS, FilterMatcher.detectType("0101*"));
+        assertEquals(FilterMatcher.Type.BITS, FilterMatcher.detectType("01?1"));
+        assertEquals(FilterMatcher.Type.HEX, FilterMatcher.detectType("4A 2F"));
+        assertEquals(FilterMatcher.Type.HEX, FilterMatcher.detectType("4A ?? 2F"));
+        assertEquals(FilterMatcher.Type.TEXT, FilterMatcher.detectType("hello"));
+        assertEquals(FilterMatcher.Type.TEXT, FilterMatcher.detectType("????"));
+        assertEquals(FilterMatcher.Type.HEX, FilterMatcher.detectType("7E*41 ??"));
+        // Octet coupé par un joker : texte, sans erreur à la compilation
+        assertEquals(FilterMatcher.Type.TEXT, FilterMatcher.detectType("7E 4*1"));
+        assertEquals(FilterMatcher.Type.TEXT, FilterMatcher.detectType("7*E41"));
+        assertFalse(compile("7E 4*1").matches(entry));
+    }
+
+    @Test
+    void hexPattern_shouldMatchWholeBytesWithWildcards() {
+        MatchSpans spans = compile("41 ?? 43").match(entry);
+        assertArrayEquals(new int[]{0, 2, 3, 5, 6, 8}, spans.get(MatchSpans.HEX));
+        assertArrayEquals(new int[]{0, 24}, spans.get(MatchSpans.BITS));
+        assertArrayEquals(new int[]{0, 3}, spans.get(MatchSpans.TEXT));
+
+        assertArrayEquals(new int[]{0, 24}, compile("41*43").match(entry).get(MatchSpans.BITS));
+        // "14" n'apparaît qu'à cheval sur deux octets : pas de correspondance
+        assertFalse(compile("14").matches(entry));
+    }
+
+    @Test
+    void detectType_shouldTreatIsolatedWildcardByteAsHex() {
+        // Chiffres 0 et 1 seulement, mais écrit octet par octet avec un octet quelconque
+        assertEquals(FilterMatcher.Type.HEX, FilterMatcher.detectType("10 ?? 01"));
+        assertEquals(FilterMatcher.Type.HEX, FilterMatcher.detectType("01 ??*10"));
+        assertEquals(FilterMatcher.Type.BITS, FilterMatcher.detectType("10 01"));
+        assertEquals(FilterMatcher.Type.BITS, FilterMatcher.detectType("10??01"));
+        assertEquals(FilterMatcher.Type.BITS, FilterMatcher.detectType("0101 ????"));
+
+        TrameService.TrameEntry frame = new TrameService.TrameEntry("000100001111111100000001", "10 FF 01", "");
+        assertArrayEquals(new int[]{0, 24}, compile("10 ?? 01").match(frame).get(MatchSpans.BITS));
+    }
+
+    @Test
+    void hexPattern_shouldReadIrregularHexLayout() {
+        // Représentation hors disposition « XX XX » : octets décodés un par un
+        TrameService.TrameEntry frame = new TrameService.TrameEntry("0100000101000010", "41  42", "AB");
+        assertFalse(FilterMatcher.irregular(entry.hex));
+        assertTrue(FilterMatcher.irregular(frame.hex));
+        assertFalse(compile("41 42").matches(frame));
+        assertTrue(compile("42").matches(frame));
+        assertTrue(compile("41 ?? 43").matches(entry));
+        assertFalse(compile("41 ?? 44").matches(entry));
+    }
+
+    @Test
+    void bitAndTextPatterns_shouldShareTheSameSpanFormat() {
+        MatchSpans bits = compile("0100001?").match(entry);
+        // Deux correspondances contiguës : une seule plage
+        assertArrayEquals(new int[]{8, 24}, bits.get(MatchSpans.BITS));
+        assertArrayEquals(new int[]{3, 5, 6, 8}, bits.get(MatchSpans.HEX));
+
+        MatchSpans text = compile("b").match(entry);
+        assertArrayEquals(new int[]{1, 2}, text.get(MatchSpans.TEXT));
+        assertArrayEquals(new int[]{3, 5}, text.get(MatchSpans.HEX));
+        assertSame(MatchSpans.NONE, compile("zz").match(entry));
+    }
+
+    @Test
+    void matches_shouldAgreeWithMatchForEveryType() {
+        List<String> patterns = List.of("0100001?", "1111", "42 ?? 43", "41*43", "43*41", "44", "B.", "Z", "x*", "bytes[1] == 0x42");
+        for (String pattern : patterns) {
+            FilterMatcher matcher = compile(pattern);
+            assertEquals(matcher.match(entry) != MatchSpans.NONE, matcher.matches(entry), pattern);
+        }
+    }
+
+    @Test
+    void filterSet_shouldCompileOnceAndGroupBinaryRules() {
+        FilterSet set = FilterSet.compile(List.of(new FilterRule("1010", "#FF0000"), new FilterRule("ZZ", "#00FF00"),
+                new FilterRule("0110", "#0000FF")));
+        assertEquals(3, set.getMatchers().size());
+        assertEquals(2, set.getBitMatcher().getPatternCount());
+        assertEquals(List.of(set.getRules().get(0).color, set.getRules().get(2).color), set.getBitColors());
+        assertFalse(set.matchesAny(new TrameService.TrameEntry("00000000", "00", "?")));
+        assertTrue(set.matchesAny(new TrameService.TrameEntry("01100000", "60", "`")));
+        assertTrue(set.matchesAny(new TrameService.TrameEntry("00000000", "00", "ZZ")));
+        assertSame(FilterSet.EMPTY, FilterSet.compile(null));
+    }
+}
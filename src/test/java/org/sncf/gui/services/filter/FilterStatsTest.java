@@ -0,0 +1,76 @@
+package org.sncf.gui.services.filter;
+
+import org.junit.jupiter.api.Test;
+import org.sncf.gui.model.FilterRule;
+import org.sncf.gui.services.TrameService;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FilterStatsTest {
+
+    private static final long SECOND = 1_000_000_000L;
+
+    @Test
+    void recordLive_shouldCountPerRuleAcrossRecompilations() {
+        FilterRule abc = new FilterRule("41 42", "#FF0000");
+        FilterRule other = new FilterRule("7E", "#00FF00");
+        TrameService.TrameEntry hit = new TrameService.TrameEntry("010000010100001001000011", "41 42 43", "ABC");
+        TrameService.TrameEntry miss = new TrameService.TrameEntry("01000011", "43", "C");
+
+        for (int i = 0; i < 3; i++) {
+            // Chaque ensemble recompile les règles : les statistiques restent attachées aux règles
+            FilterSet filters = FilterSet.compile(List.of(abc, other));
+            filters.recordLive(hit);
+            filters.recordLive(miss);
+        }
+
+        FilterStats stats = FilterStats.of(abc);
+        assertSame(stats, FilterMatcher.compile(abc).getStats());
+        assertEquals(6, stats.getTested());
+        assertEquals(3, stats.getMatched());
+        assertTrue(stats.getEvaluationNanos() >= 0);
+        assertEquals(6, FilterStats.of(other).getTested());
+        assertEquals(0, FilterStats.of(other).getMatched());
+        assertEquals(0, FilterStats.of(new FilterRule("41 42", "#FF0000")).getTested());
+    }
+
+    @Test
+    void rescan_shouldNotMoveCountersOrRate() {
+        FilterRule rule = new FilterRule("41", "#FF0000");
+        FilterSet filters = FilterSet.compile(List.of(rule));
+        TrameService.TrameEntry hit = new TrameService.TrameEntry("01000001", "41", "A");
+        FilterStats stats = FilterStats.of(rule);
+        filters.recordLive(hit);
+        long now = System.nanoTime() + 2 * SECOND;
+        double rate = stats.getMatchRate(now);
+        assertTrue(rate > 0);
+
+        // Refiltrage de l'historique, surlignage, export : aucune trame comptée
+        for (int i = 0; i < 10_000; i++) {
+            filters.matchesAny(hit);
+            filters.getMatchers().get(0).match(hit);
+        }
+
+        assertEquals(1, stats.getTested());
+        assertEquals(1, stats.getMatched());
+        assertEquals(rate, stats.getMatchRate(now), 1e-9);
+    }
+
+    @Test
+    void matchRate_shouldCoverTheLastMinute() {
+        FilterStats stats = new FilterStats(0);
+        for (int second = 1; second <= 120; second++) {
+            // 10 trames retenues par seconde pendant une minute, puis 2
+            int perSecond = second <= 60 ? 10 : 2;
+            for (int i = 0; i < perSecond; i++) {
+                stats.record(true, stats.start());
+            }
+            double rate = stats.getMatchRate(second * SECOND);
+            if (second == 60) assertEquals(10, rate, 1e-9);
+        }
+        assertEquals(2, stats.getMatchRate(120 * SECOND), 1e-9);
+        assertEquals(720, stats.getMatched());
+    }
+}
@@ -0,0 +1,136 @@
+package org.sncf.gui.services.filter;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.sncf.gui.model.FilterRule;
+import org.sncf.gui.services.DatabaseManager;
+import org.sncf.gui.services.TrameService;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SqlPredicateTest {
+
+    private Path dbFile;
+
+    @AfterEach
+    void tearDown() throws Exception {
+        if (dbFile != null) Files.deleteIfExists(dbFile);
+    }
+
+    /**
+     * Base temporaire contenant des trames aléatoires, avec l'index de raw_hexa.
+     */
+    private DatabaseManager database(int frames) throws Exception {
+        dbFile = Files.createTempFile("trames-", ".db");
+        String url = "jdbc:sqlite:" + dbFile;
+        TrameService converter = new TrameService(null, null);
+        Random random = new Random(5);
+        try (Connection conn = DriverManager.getConnection(url); Statement stmt = conn.createStatement()) {
+            stmt.executeUpdate("CREATE TABLE frame_capture (id INTEGER PRIMARY KEY AUTOINCREMENT, raw_bits TEXT, "
+                    + "raw_hexa TEXT, raw_text TEXT, timestamp TEXT NOT NULL DEFAULT (DATETIME('now')))");
+            stmt.executeUpdate("CREATE INDEX idx_frame_capture_hexa ON frame_capture (raw_hexa)");
+            conn.setAutoCommit(false);
+            try (PreparedStatement ps = conn.prepareStatement(
+                    "INSERT INTO frame_capture (raw_bits, raw_hexa, raw_text) VALUES (?, ?, ?)")) {
+                for (int i = 0; i < frames; i++) {
+                    StringBuilder bits = new StringBuilder();
+                    StringBuilder text = new StringBuilder();
+                    int length = 1 + random.nextInt(4);
+                    for (int b = 0; b < length; b++) {
+                        int value = b == 0 ? 0x7C + random.nextInt(4) : 0x41 + random.nextInt(6);
+                        bits.append(String.format("%8s", Integer.toBinaryString(value)).replace(' ', '0'));
+                        text.append((char) value);
+                    }
+                    ps.setString(1, bits.toString());
+                    ps.setString(2, converter.convertBitsToHex(bits.toString()));
+                    ps.setString(3, random.nextInt(10) == 0 ? "ERR " + text : text.toString());
+                    ps.addBatch();
+                }
+                ps.executeBatch();
+            }
+            conn.commit();
+        }
+        return new DatabaseManager() {
+            @Override
+            public Connection getConnection() throws SQLException {
+                return DriverManager.getConnection(url);
+            }
+        };
+    }
+
+    @Test
+    void scanCandidatesFromDb_shouldReturnSameFramesAsFilteringInJava() throws Exception {
+        TrameService service = new TrameService(database(2000), null);
+        List<TrameService.TrameEntry> all = service.loadAllFromDb();
+        String[] patterns = {"7E", "7E ?? 43", "41*42", "0100*0001", "err", "ER*C",
+                "byte[0] == 0x7E && byte[1] in 0x41..0x42", "byte[0] == 0x7D || hex ~ \"45 46\"",
+                "!text ~ \"ERR\" && len == 2", "hex == \"7F 41\"", "7E 4*1", "7*E41"};
+        for (String pattern : patterns) {
+            FilterSet filters = FilterSet.compile(List.of(new FilterRule(pattern, "#FF0000")));
+            assertEquals(texts(matching(all, filters)), texts(scanned(service, filters)), pattern);
+        }
+        FilterSet mixed = FilterSet.compile(List.of(new FilterRule("7D", "#FF0000"), new FilterRule("ERR", "#00FF00")));
+        assertEquals(texts(matching(all, mixed)), texts(scanned(service, mixed)));
+    }
+
+    @Test
+    void getSqlPredicate_shouldUseIndexedPrefixForLeadingBytes() throws Exception {
+        DatabaseManager db = database(10);
+        SqlPredicate predicate = FilterSet.compile(List.of(
+                new FilterRule("byte[1] == 0x41 && byte[0] == 0x7E && text ~ \"A\"", "#FF0000"))).getSqlPredicate();
+
+        assertEquals(List.of("7E 41*", "%A%"), predicate.getParameters());
+        try (Connection conn = db.getConnection();
+             PreparedStatement ps = conn.prepareStatement("EXPLAIN QUERY PLAN SELECT raw_hexa FROM frame_capture WHERE "
+                     + predicate.getWhere() + " ORDER BY id")) {
+            for (int i = 0; i < predicate.getParameters().size(); i++) {
+                ps.setString(i + 1, predicate.getParameters().get(i));
+            }
+            StringBuilder plan = new StringBuilder();
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) plan.append(rs.getString("detail"));
+            }
+            assertTrue(plan.toString().contains("idx_frame_capture_hexa"), plan.toString());
+        }
+
+        // Une règle non traduisible rend toutes les lignes candidates
+        assertNull(FilterSet.compile(List.of(new FilterRule("7E", "#FF0000"),
+                new FilterRule("(byte[0] & 0xF0) == 0x70", "#FF0000"))).getSqlPredicate());
+    }
+
+    /**
+     * Parcours de l'export filtré : lignes candidates en SQL, confirmées par les filtres compilés.
+     */
+    private static List<TrameService.TrameEntry> scanned(TrameService service, FilterSet filters) throws SQLException {
+        List<TrameService.TrameEntry> kept = new ArrayList<>();
+        service.scanCandidatesFromDb(filters, entry -> {
+            if (filters.matchesAny(entry)) kept.add(entry);
+            return true;
+        });
+        return kept;
+    }
+
+    private static List<TrameService.TrameEntry> matching(List<TrameService.TrameEntry> all, FilterSet filters) {
+        List<TrameService.TrameEntry> kept = new ArrayList<>();
+        for (TrameService.TrameEntry entry : all) {
+            if (filters.matchesAny(entry)) kept.add(entry);
+        }
+        return kept;
+    }
+
+    private static List<String> texts(List<TrameService.TrameEntry> entries) {
+        return entries.stream().map(e -> e.hex + "|" + e.text).toList();
+    }
+}
@@ -0,0 +1,178 @@
+package org.sncf.gui.ui;
+
+import org.junit.jupiter.api.Test;
+import org.sncf.gui.services.TrameService;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TrameDispatcherTest {
+
+    private static final Function<List<TrameDispatcher.Received>, List<TrameService.TrameEntry>> PREPARE = frames -> {
+        List<TrameService.TrameEntry> entries = new ArrayList<>();
+        for (TrameDispatcher.Received frame : frames) {
+            entries.add(new TrameService.TrameEntry(frame.bits, "", ""));
+        }
+        return entries;
+    };
+
+    private static List<String> bits(List<TrameService.TrameEntry> entries) {
+        List<String> bits = new ArrayList<>();
+        for (TrameService.TrameEntry entry : entries) {
+            bits.add(entry.bits);
+        }
+        return bits;
+    }
+
+    @Test
+    void drain_shouldDeliverPendingFramesAsSingleOrderedBatch() {
+        List<List<TrameService.TrameEntry>> batches = new ArrayList<>();
+        TrameDispatcher dispatcher = new TrameDispatcher(PREPARE, batches::add);
+
+        dispatcher.submit("0001", 0, true);
+        dispatcher.submit("0010", 0, true);
+        dispatcher.submit("0011", 0, true);
+        dispatcher.ingest();
+        dispatcher.drain();
+
+        assertEquals(1, batches.size());
+        assertEquals(List.of("0001", "0010", "0011"), bits(batches.get(0)));
+        assertEquals(0, dispatcher.getPendingCount());
+    }
+
+    @Test
+    void drain_shouldNotCallBackWhenQueueIsEmpty() {
+        List<List<TrameService.TrameEntry>> batches = new ArrayList<>();
+        TrameDispatcher dispatcher = new TrameDispatcher(PREPARE, batches::add);
+
+        dispatcher.drain();
+
+        assertTrue(batches.isEmpty());
+    }
+
+    @Test
+    void submit_dropOldestShouldKeepMostRecentFrames() {
+        List<TrameService.TrameEntry> received = new ArrayList<>();
+        TrameDispatcher dispatcher = new TrameDispatcher(3, 30,
+                TrameDispatcher.OverflowPolicy.DROP_OLDEST, 1, PREPARE, received::addAll);
+
+        for (int i = 0; i < 5; i++) {
+            dispatcher.submit("f" + i, 0, true);
+        }
+        dispatcher.ingest();
+        dispatcher.drain();
+
+        assertEquals(List.of("f2", "f3", "f4"), bits(received));
+        assertEquals(2, dispatcher.getDroppedCount());
+    }
+
+    @Test
+    void submit_sampleShouldThinOutFramesAboveHalfCapacity() {
+        List<TrameService.TrameEntry> received = new ArrayList<>();
+        TrameDispatcher dispatcher = new TrameDispatcher(100, 30,
+                TrameDispatcher.OverflowPolicy.SAMPLE, 10, PREPARE, received::addAll);
+
+        for (int i = 0; i < 150; i++) {
+            dispatcher.submit("f" + i, 0, true);
+        }
+        dispatcher.ingest();
+        dispatcher.drain();
+
+        // 50 trames acceptées telles quelles, puis une sur dix des 100 suivantes
+        assertEquals(60, received.size());
+        assertEquals("f50", received.get(50).bits);
+        assertEquals("f60", received.get(51).bits);
+        assertEquals(90, dispatcher.getDroppedCount());
+    }
+
+    @Test
+    void ingest_shouldPrepareEveryFrameEvenWhenDisplayDropsIt() {
+        List<TrameDispatcher.Received> prepared = new ArrayList<>();
+        TrameDispatcher dispatcher = new TrameDispatcher(2, 30, TrameDispatcher.OverflowPolicy.DROP_OLDEST, 1,
+                frames -> {
+                    prepared.addAll(frames);
+                    return PREPARE.apply(frames);
+                }, entries -> { });
+
+        for (int i = 0; i < 10; i++) {
+            dispatcher.submit("f" + i, 0, true);
+        }
+        dispatcher.ingest();
+
+        assertEquals(10, prepared.size());
+        assertEquals(2, dispatcher.getPendingCount());
+    }
+
+    @Test
+    void ingest_shouldTellPreparationWhichFramesToPersist() {
+        List<String> persisted = new ArrayList<>();
+        TrameDispatcher dispatcher = new TrameDispatcher(frames -> {
+            for (TrameDispatcher.Received frame : frames) {
+                if (frame.persist) persisted.add(frame.bits);
+            }
+            return PREPARE.apply(frames);
+        }, entries -> { });
+
+        dispatcher.submit("0001", 0, true);
+        dispatcher.submit("0010", 0, false);
+        dispatcher.submit("0011", 0, true);
+        dispatcher.ingest();
+
+        assertEquals(List.of("0001", "0011"), persisted);
+    }
+
+    @Test
+    void submit_shouldBoundTheIngestQueueAndCountDroppedFrames() {
+        List<TrameService.TrameEntry> received = new ArrayList<>();
+        TrameDispatcher dispatcher = new TrameDispatcher(3, 100, 30, TrameDispatcher.OverflowPolicy.DROP_OLDEST, 1,
+                PREPARE, received::addAll);
+
+        // Pas de thread d'ingestion : la file se remplit
+        for (int i = 0; i < 5; i++) {
+            dispatcher.submit("f" + i, 0, true);
+        }
+        assertEquals(2, dispatcher.getIngestDroppedCount());
+        dispatcher.ingest();
+        dispatcher.drain();
+
+        assertEquals(List.of("f0", "f1", "f2"), bits(received));
+    }
+
+    @Test
+    void start_shouldPrepareFramesOffTheSubmittingThread() throws Exception {
+        CountDownLatch done = new CountDownLatch(1);
+        Thread[] preparer = new Thread[1];
+        TrameDispatcher dispatcher = new TrameDispatcher(frames -> {
+            preparer[0] = Thread.currentThread();
+            done.countDown();
+            return PREPARE.apply(frames);
+        }, entries -> { });
+
+        dispatcher.start();
+        try {
+            dispatcher.submit("0101", 0, true);
+            assertTrue(done.await(5, TimeUnit.SECONDS));
+            assertEquals("trame-ingest", preparer[0].getName());
+        } finally {
+            dispatcher.stop();
+        }
+    }
+
+    @Test
+    void clear_shouldDiscardPendingFrames() {
+        List<TrameService.TrameEntry> received = new ArrayList<>();
+        TrameDispatcher dispatcher = new TrameDispatcher(PREPARE, received::addAll);
+
+        dispatcher.submit("0101", 0, true);
+        dispatcher.ingest();
+        dispatcher.clear();
+        dispatcher.drain();
+
+        assertTrue(received.isEmpty());
+    }
+}
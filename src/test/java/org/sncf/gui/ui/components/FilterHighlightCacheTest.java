@@ -0,0 +1,85 @@
+package org.sncf.gui.ui.components;
+
+import org.junit.jupiter.api.Test;
+import org.sncf.gui.model.FilterRule;
+import org.sncf.gui.services.TrameService;
+import org.sncf.gui.services.filter.FilterSet;
+
+import java.awt.Color;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FilterHighlightCacheTest {
+
+    // "AB" : 0x41 0x42
+    private final TrameService.TrameEntry entry =
+            new TrameService.TrameEntry("0100000101000010", "41 42", "AB");
+
+    @Test
+    void hexPattern_shouldHighlightByteInAllRepresentations() {
+        FilterHighlightCache cache = new FilterHighlightCache();
+        cache.setFilters(FilterSet.compile(List.of(new FilterRule("42", "#FF0000"))));
+
+        TrameHighlights highlights = cache.highlightsFor(0, entry);
+
+        assertSpan(highlights.get(TrameHighlights.BITS), 8, 16, Color.RED);
+        assertSpan(highlights.get(TrameHighlights.HEX), 3, 5, Color.RED);
+        assertSpan(highlights.get(TrameHighlights.TEXT), 1, 2, Color.RED);
+    }
+
+    @Test
+    void textPattern_shouldHighlightMatchingCharacters() {
+        FilterHighlightCache cache = new FilterHighlightCache();
+        cache.setFilters(FilterSet.compile(List.of(new FilterRule("A", "#00FF00"))));
+
+        TrameHighlights highlights = cache.highlightsFor(0, entry);
+
+        assertSpan(highlights.get(TrameHighlights.TEXT), 0, 1, Color.GREEN);
+        assertSpan(highlights.get(TrameHighlights.HEX), 0, 2, Color.GREEN);
+    }
+
+    @Test
+    void highlightsFor_shouldReuseResultUntilFiltersChange() {
+        FilterHighlightCache cache = new FilterHighlightCache();
+        cache.setFilters(FilterSet.compile(List.of(new FilterRule("41", "#FF0000"))));
+
+        TrameHighlights first = cache.highlightsFor(0, entry);
+        assertSame(first, cache.highlightsFor(0, entry));
+
+        cache.setFilters(FilterSet.compile(List.of(new FilterRule("41", "#FF0000"), new FilterRule("42", "#0000FF"))));
+        TrameHighlights second = cache.highlightsFor(0, entry);
+
+        assertNotSame(first, second);
+        assertEquals(2, second.get(TrameHighlights.HEX).size());
+    }
+
+    @Test
+    void highlightsFor_shouldKeepRuleResultsWhenToggled() {
+        FilterHighlightCache cache = new FilterHighlightCache();
+        FilterRule a = new FilterRule("41", "#FF0000");
+        FilterRule b = new FilterRule("43", "#0000FF");
+        cache.setFilters(FilterSet.compile(List.of(a, b)));
+        cache.highlightsFor(0, entry);
+
+        // Règle retirée puis réactivée avec une autre couleur : plages reprises, couleur à jour
+        cache.setFilters(FilterSet.compile(List.of(b)));
+        assertTrue(cache.highlightsFor(0, entry).get(TrameHighlights.HEX).isEmpty());
+        cache.setFilters(FilterSet.compile(List.of(b, new FilterRule("41", "#00FF00"))));
+        assertSpan(cache.highlightsFor(0, entry).get(TrameHighlights.HEX), 0, 2, Color.GREEN);
+    }
+
+    @Test
+    void highlightsFor_shouldReturnNoneWithoutFilters() {
+        FilterHighlightCache cache = new FilterHighlightCache();
+        cache.setFilters(FilterSet.compile(List.of()));
+        assertSame(TrameHighlights.NONE, cache.highlightsFor(0, entry));
+    }
+
+    private static void assertSpan(List<TrameHighlights.Span> spans, int start, int end, Color color) {
+        assertEquals(1, spans.size());
+        assertEquals(start, spans.get(0).start);
+        assertEquals(end, spans.get(0).end);
+        assertEquals(color, spans.get(0).color);
+    }
+}
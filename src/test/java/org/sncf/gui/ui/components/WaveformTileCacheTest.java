@@ -0,0 +1,67 @@
+package org.sncf.gui.ui.components;
+
+import org.junit.jupiter.api.Test;
+
+import java.awt.image.BufferedImage;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class WaveformTileCacheTest {
+
+    private static final int HEIGHT = 10;
+    private static final long TILE_BYTES = 4L * WaveformTileCache.TILE_WIDTH * HEIGHT;
+
+    private static BufferedImage tile() {
+        return new BufferedImage(WaveformTileCache.TILE_WIDTH, HEIGHT, BufferedImage.TYPE_INT_ARGB);
+    }
+
+    private static WaveformTileCache.Key key(double pixelsPerBit, String signature, long index) {
+        return new WaveformTileCache.Key(pixelsPerBit, signature, HEIGHT, index);
+    }
+
+    @Test
+    void put_shouldEvictLeastRecentlyUsedTilesBeyondBudget() {
+        WaveformTileCache cache = new WaveformTileCache(3 * TILE_BYTES);
+        cache.put(key(20, "", 0), tile());
+        cache.put(key(20, "", 1), tile());
+        cache.put(key(20, "", 2), tile());
+        assertNotNull(cache.get(key(20, "", 0))); // tuile 0 redevient la plus récente
+
+        cache.put(key(20, "", 3), tile());
+
+        assertEquals(3, cache.size());
+        assertEquals(3 * TILE_BYTES, cache.getUsedBytes());
+        assertNull(cache.get(key(20, "", 1)));
+        assertNotNull(cache.get(key(20, "", 0)));
+    }
+
+    @Test
+    void invalidateFromBit_shouldDropOnlyTilesAtOrAfterChangedBitsAtEveryScale() {
+        WaveformTileCache cache = new WaveformTileCache();
+        for (long i = 0; i < 4; i++) {
+            cache.put(key(20, "", i), tile());   // 12,8 bits par tuile
+            cache.put(key(0.5, "", i), tile());  // 512 bits par tuile
+        }
+
+        cache.invalidateFromBit(40, 0); // pixel absolu 800 à 20 px/bit, 20 à 0,5 px/bit
+
+        assertNotNull(cache.get(key(20, "", 2)));
+        assertNull(cache.get(key(20, "", 3)));
+        assertNull(cache.get(key(0.5, "", 0)));
+        assertEquals(3, cache.size());
+    }
+
+    @Test
+    void retainFilterSignature_shouldKeepFilterIndependentTiles() {
+        WaveformTileCache cache = new WaveformTileCache();
+        cache.put(key(20, "A", 0), tile());
+        cache.put(key(20, "B", 0), tile());
+        cache.put(key(0.5, "", 0), tile());
+
+        cache.retainFilterSignature("B");
+
+        assertNull(cache.get(key(20, "A", 0)));
+        assertNotNull(cache.get(key(20, "B", 0)));
+        assertNotNull(cache.get(key(0.5, "", 0)));
+    }
+}